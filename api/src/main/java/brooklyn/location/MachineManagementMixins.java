@@ -18,8 +18,14 @@
  */
 package brooklyn.location;
 
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ListenableFuture;
+
 public class MachineManagementMixins {
     
     public interface RichMachineProvisioningLocation<T extends MachineLocation> extends MachineProvisioningLocation<T>, ListsMachines, GivesMachineMetadata, KillsMachines {}
@@ -45,6 +51,46 @@ public class MachineManagementMixins {
         void killMachine(String cloudServiceId);
     }
     
+    /**
+     * Can provision several machines with a single request to the underlying provider,
+     * rather than one request per machine (e.g. to avoid being rate-limited when growing a cluster).
+     */
+    @Beta
+    public interface ObtainsMachinesInBatches<T extends MachineLocation> extends MachineProvisioningLocation<T> {
+        /**
+         * Obtains a machine for each of the given flags, provisioning together those whose flags differ only
+         * in ways that do not affect what is provisioned (such as {@code callerContext}).
+         * Returns once the machines have been requested, without waiting for them to be usable.
+         * 
+         * @return a future for each machine, in the same order as the flags, completing when that machine is usable
+         */
+        List<ListenableFuture<T>> obtain(List<? extends Map<?,?>> flagsForEachMachine);
+
+        /**
+         * Indicates that each of the given callers is about to call {@link #obtain(Map)}, passing itself as the
+         * {@code callerContext}, concurrently with the others (e.g. the members of a cluster as they start),
+         * so that they can be provisioned together. Only calls from those callers join the batch.
+         * Those calls are held until every caller has called or been {@linkplain ExpectedObtains#notObtaining(Object) withdrawn},
+         * or until the location's maximum wait has passed, or until the result is closed.
+         * 
+         * @return a handle to close once those calls have been made, or will not be
+         */
+        ExpectedObtains expectObtains(Collection<?> callers);
+    }
+
+    /** The calls to obtain announced by {@link ObtainsMachinesInBatches#expectObtains(Collection)}. */
+    @Beta
+    public interface ExpectedObtains extends Closeable {
+        /**
+         * Indicates that the caller will not call obtain (e.g. because it failed to start before doing so),
+         * so those already made need not wait for it; does nothing if it has already called.
+         */
+        void notObtaining(Object caller);
+
+        @Override
+        void close();
+    }
+
     /** very lightweight machine record */
     public interface MachineMetadata {
         /** The cloud service ID -- distinct from any Brooklyn {@link Location#getId()} */
@@ -124,6 +124,15 @@ public class BrooklynServerConfig {
     public static final ConfigKey<CampPlatform> CAMP_PLATFORM = ConfigKeys.newConfigKey(CampPlatform.class, "brooklyn.camp.platform",
         "Config set at brooklyn management platform to find the CampPlatform instance (bi-directional)");
 
+    public static final ConfigKey<Integer> EXECUTION_MAX_POOLED_THREADS = ConfigKeys.newIntegerConfigKey("brooklyn.executionManager.maxPooledThreads",
+        "Maximum number of threads for running top-level tasks (such as effector invocations, feed polls and subscription deliveries), "
+        + "which are queued with effector and non-transient tasks ahead of transient tasks when all threads are busy; "
+        + "tasks submitted from within another task are never queued; 0 (the default) for unbounded", 0);
+
+    public static final ConfigKey<Boolean> EXECUTION_USE_VIRTUAL_THREADS = ConfigKeys.newBooleanConfigKey("brooklyn.executionManager.virtualThreads",
+        "Whether to run each task in its own virtual thread, if supported by the JVM (Java 21+); "
+        + "if set, " + EXECUTION_MAX_POOLED_THREADS.getName() + " is ignored", false);
+
     /** @see BrooklynServerPaths#getMgmtBaseDir(ManagementContext) */
     public static String getMgmtBaseDir(ManagementContext mgmt) {
         return BrooklynServerPaths.getMgmtBaseDir(mgmt);
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import brooklyn.enricher.basic.AbstractEnricher;
 import brooklyn.enricher.basic.Aggregator;
@@ -45,6 +46,7 @@ import brooklyn.util.collections.MutableSet;
 import brooklyn.util.flags.TypeCoercions;
 import brooklyn.util.text.StringPredicates;
 import brooklyn.util.text.Strings;
+import brooklyn.util.time.Duration;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
@@ -193,6 +195,8 @@ public class Enrichers {
         protected Predicate<Object> valueFilter;
         protected Object defaultValueForUnreportedSensors;
         protected Object valueToReportIfNoSensors;
+        protected Boolean incremental;
+        protected Duration minPeriodBetweenEmissions;
         
         public AbstractAggregatorBuilder(AttributeSensor<S> aggregating) {
             super(Aggregator.class);
@@ -268,6 +272,29 @@ public class Enrichers {
             return self();
         }
         
+        public B computingMin() {
+            this.computingSupplier = new Supplier<Function<? super Collection<S>, ? extends T>>() {
+                @Override
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                public Function<? super Collection<S>, ? extends T> get() {
+                    // relies on TypeCoercion of result from Number to T, and type erasure for us to get away with it!
+                    return (Function)new ComputingMin((Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, publishing.getTypeToken());
+                }
+            };
+            return self();
+        }
+        public B computingMax() {
+            this.computingSupplier = new Supplier<Function<? super Collection<S>, ? extends T>>() {
+                @Override
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                public Function<? super Collection<S>, ? extends T> get() {
+                    // relies on TypeCoercion of result from Number to T, and type erasure for us to get away with it!
+                    return (Function)new ComputingMax((Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, publishing.getTypeToken());
+                }
+            };
+            return self();
+        }
+        
         public B defaultValueForUnreportedSensors(S val) {
             this.defaultValueForUnreportedSensors = val;
             return self();
@@ -276,6 +303,22 @@ public class Enrichers {
             this.valueToReportIfNoSensors = val;
             return self();
         }
+        /** 
+         * Maintains the result as each value changes, rather than recomputing it from all values; 
+         * only has an effect for {@link #computingSum()}, {@link #computingAverage()}, {@link #computingMin()} and {@link #computingMax()}.
+         * See {@link Aggregator#INCREMENTAL}.
+         */
+        @Beta
+        public B incremental() {
+            this.incremental = true;
+            return self();
+        }
+        /** See {@link Aggregator#MIN_PERIOD_BETWEEN_EMISSIONS} */
+        @Beta
+        public B minPeriodBetweenEmissions(Duration val) {
+            this.minPeriodBetweenEmissions = val;
+            return self();
+        }
         public B entityFilter(Predicate<? super Entity> val) {
             this.entityFilter = val;
             return self();
@@ -315,6 +358,8 @@ public class Enrichers {
                             .putIfNotNull(Aggregator.ENTITY_FILTER, entityFilter)
                             .putIfNotNull(Aggregator.VALUE_FILTER, valueFilter)
                             .putIfNotNull(Aggregator.DEFAULT_MEMBER_VALUE, defaultValueForUnreportedSensors)
+                            .putIfNotNull(Aggregator.INCREMENTAL, incremental)
+                            .putIfNotNull(Aggregator.MIN_PERIOD_BETWEEN_EMISSIONS, minPeriodBetweenEmissions)
                             .build());
         }
         
@@ -334,6 +379,8 @@ public class Enrichers {
                     .add("valueFilter", valueFilter)
                     .add("defaultValueForUnreportedSensors", defaultValueForUnreportedSensors)
                     .add("valueToReportIfNoSensors", valueToReportIfNoSensors)
+                    .add("incremental", incremental)
+                    .add("minPeriodBetweenEmissions", minPeriodBetweenEmissions)
                     .toString();
         }
     }
@@ -732,7 +779,7 @@ public class Enrichers {
     }
 
     @Beta
-    private abstract static class ComputingNumber<T extends Number> implements Function<Collection<T>, T> {
+    private abstract static class ComputingNumber<T extends Number> implements Aggregator.IncrementalTransformation<T, T> {
         protected final Number defaultValueForUnreportedSensors;
         protected final Number valueToReportIfNoSensors;
         protected final TypeToken<T> typeToken;
@@ -750,6 +797,56 @@ public class Enrichers {
             }
         }
         @Override public abstract T apply(Collection<T> input);
+        @Override public Aggregator.Accumulator<T, T> newAccumulator() {
+            return new NumberAccumulator<T>(this, false);
+        }
+        /** the result for the values currently in the accumulator, as {@link #apply(Collection)} would give for them */
+        protected abstract T getResult(NumberAccumulator<T> accumulator);
+    }
+
+    /** 
+     * Keeps the running sum and count of the values (using the default for unreported sensors in place of nulls),
+     * and optionally how many of each value so that the min and max are known.
+     */
+    private static class NumberAccumulator<T extends Number> implements Aggregator.Accumulator<T, T> {
+        private final ComputingNumber<T> computation;
+        private final TreeMap<Double, Integer> valueCounts;
+        private double sum;
+        private int count;
+        
+        NumberAccumulator(ComputingNumber<T> computation, boolean ordered) {
+            this.computation = computation;
+            this.valueCounts = ordered ? new TreeMap<Double, Integer>() : null;
+        }
+        @Override public void add(T value) {
+            Number n = (value != null) ? value : computation.defaultValueForUnreportedSensors;
+            if (n == null) return;
+            double d = n.doubleValue();
+            sum += d;
+            count++;
+            if (valueCounts != null) {
+                Integer c = valueCounts.get(d);
+                valueCounts.put(d, (c == null) ? 1 : c+1);
+            }
+        }
+        @Override public void remove(T value) {
+            Number n = (value != null) ? value : computation.defaultValueForUnreportedSensors;
+            if (n == null) return;
+            double d = n.doubleValue();
+            sum -= d;
+            count--;
+            if (valueCounts != null) {
+                Integer c = valueCounts.get(d);
+                if (c == null || c <= 1) {
+                    valueCounts.remove(d);
+                } else {
+                    valueCounts.put(d, c-1);
+                }
+            }
+        }
+        @Override public T get() {
+            return computation.getResult(this);
+        }
     }
 
     @Beta
@@ -761,6 +858,10 @@ public class Enrichers {
         @Override public T apply(Collection<T> input) {
             return (T) sum((Collection)input, (Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, typeToken);
         }
+        @Override protected T getResult(NumberAccumulator<T> accumulator) {
+            if (accumulator.count==0) return cast(valueToReportIfNoSensors, typeToken);
+            return cast(accumulator.sum, typeToken);
+        }
     }
 
     @Beta
@@ -772,6 +873,46 @@ public class Enrichers {
         @Override public T apply(Collection<T> input) {
             return (T) average((Collection)input, (Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, typeToken);
         }
+        @Override protected T getResult(NumberAccumulator<T> accumulator) {
+            if (accumulator.count==0) return cast((valueToReportIfNoSensors == null) ? null : valueToReportIfNoSensors.doubleValue(), typeToken);
+            return cast(accumulator.sum / accumulator.count, typeToken);
+        }
+    }
+
+    @Beta
+    public static class ComputingMin<T extends Number> extends ComputingNumber<T> {
+        public ComputingMin(Number defaultValueForUnreportedSensors, Number valueToReportIfNoSensors, TypeToken<T> typeToken) {
+            super(defaultValueForUnreportedSensors, valueToReportIfNoSensors, typeToken);
+        }
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override public T apply(Collection<T> input) {
+            return (T) extreme((Collection)input, (Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, typeToken, false);
+        }
+        @Override public Aggregator.Accumulator<T, T> newAccumulator() {
+            return new NumberAccumulator<T>(this, true);
+        }
+        @Override protected T getResult(NumberAccumulator<T> accumulator) {
+            if (accumulator.count==0) return cast(valueToReportIfNoSensors, typeToken);
+            return cast(accumulator.valueCounts.firstKey(), typeToken);
+        }
+    }
+
+    @Beta
+    public static class ComputingMax<T extends Number> extends ComputingNumber<T> {
+        public ComputingMax(Number defaultValueForUnreportedSensors, Number valueToReportIfNoSensors, TypeToken<T> typeToken) {
+            super(defaultValueForUnreportedSensors, valueToReportIfNoSensors, typeToken);
+        }
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override public T apply(Collection<T> input) {
+            return (T) extreme((Collection)input, (Number)defaultValueForUnreportedSensors, (Number)valueToReportIfNoSensors, typeToken, true);
+        }
+        @Override public Aggregator.Accumulator<T, T> newAccumulator() {
+            return new NumberAccumulator<T>(this, true);
+        }
+        @Override protected T getResult(NumberAccumulator<T> accumulator) {
+            if (accumulator.count==0) return cast(valueToReportIfNoSensors, typeToken);
+            return cast(accumulator.valueCounts.lastKey(), typeToken);
+        }
     }
 
     protected static <T extends Number> T average(Collection<T> vals, Number defaultValueForUnreportedSensors, Number valueToReportIfNoSensors, TypeToken<T> type) {
@@ -806,6 +947,20 @@ public class Enrichers {
         return cast(result, type);
     }
     
+    protected static <N extends Number> N extreme(Iterable<? extends Number> vals, Number valueIfNull, Number valueIfNone, TypeToken<N> type, boolean max) {
+        Double result = null;
+        if (vals!=null) {
+            for (Number val : vals) {
+                Number n = (val!=null) ? val : valueIfNull;
+                if (n!=null && (result==null || (max ? n.doubleValue() > result : n.doubleValue() < result))) {
+                    result = n.doubleValue();
+                }
+            }
+        }
+        if (result==null) return cast(valueIfNone, type);
+        return cast(result, type);
+    }
+    
     protected static int count(Iterable<? extends Object> vals, boolean includeNullValues) {
         int result = 0;
         if (vals != null) 
@@ -21,6 +21,7 @@ package brooklyn.enricher.basic;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import brooklyn.config.ConfigKey;
 import brooklyn.entity.basic.ConfigKeys;
@@ -31,12 +32,18 @@ import brooklyn.entity.rebind.BasicEnricherRebindSupport;
 import brooklyn.entity.rebind.RebindSupport;
 import brooklyn.event.AttributeSensor;
 import brooklyn.event.Sensor;
+import brooklyn.management.Task;
 import brooklyn.mementos.EnricherMemento;
 import brooklyn.policy.Enricher;
 import brooklyn.policy.EnricherType;
 import brooklyn.policy.basic.AbstractEntityAdjunct;
+import brooklyn.util.collections.MutableMap;
 import brooklyn.util.flags.TypeCoercions;
+import brooklyn.util.task.ScheduledTask;
+import brooklyn.util.task.Tasks;
+import brooklyn.util.time.Duration;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Objects;
 import com.google.common.collect.Maps;
 
@@ -111,5 +118,54 @@ public abstract class AbstractEnricher extends AbstractEntityAdjunct implements
             entity.emit(sensor, newVal);
         }
     }
-    
+
+    /**
+     * A job run on behalf of this enricher at most once in a given period, such as recomputing and publishing a value.
+     * Requests made while a run is scheduled are combined into that run; the run is scheduled with the entity's
+     * execution context once the period has elapsed, rather than waited for on a pooled thread.
+     */
+    @Beta
+    protected class ThrottledJob {
+        private final String name;
+        private final Runnable job;
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private volatile long lastRunTime = 0;
+
+        public ThrottledJob(String name, Runnable job) {
+            this.name = name;
+            this.job = job;
+        }
+
+        /** runs the job now if it has not run within {@code minPeriod} (or that is null or not positive), otherwise schedules it */
+        public void request(Duration minPeriod) {
+            if (minPeriod == null || minPeriod.toMilliseconds() <= 0) {
+                job.run();
+                
+            } else if (queued.compareAndSet(false, true)) {
+                long delay = Math.max(0, (lastRunTime + minPeriod.toMilliseconds()) - System.currentTimeMillis());
+                if (delay == 0) {
+                    runNow();
+                } else {
+                    Task<?> run = Tasks.builder().name(name).body(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                if (isRunning()) runNow();
+                                else queued.set(false);
+                            }
+                        }).build();
+                    ((EntityInternal)entity).getExecutionContext().submit(
+                        new ScheduledTask(MutableMap.of("displayName", "scheduled:["+name+"]"), run).delay(delay));
+                }
+            }
+            // otherwise the run already scheduled will include this request
+        }
+
+        private void runNow() {
+            // cleared before running, so any change after this is included in a later run
+            lastRunTime = System.currentTimeMillis();
+            queued.set(false);
+            job.run();
+        }
+    }
 }
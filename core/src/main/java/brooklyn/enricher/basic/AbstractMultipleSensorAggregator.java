@@ -38,7 +38,9 @@ import brooklyn.util.collections.MutableMap;
 import brooklyn.util.flags.TypeCoercions;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
 
 /** Building on {@link AbstractAggregator} for a single source sensor (on multiple children and/or members) */
 public abstract class AbstractMultipleSensorAggregator<U> extends AbstractAggregator<Object,U> implements SensorEventListener<Object> {
@@ -48,6 +50,8 @@ public abstract class AbstractMultipleSensorAggregator<U> extends AbstractAggreg
     
     /** access via {@link #getValues(Sensor)} */
     private final Map<String, Map<Entity,Object>> values = Collections.synchronizedMap(new LinkedHashMap<String, Map<Entity,Object>>());
+    /** number of entities with each value in {@link #values}, by sensor name, kept in step with it; guarded by values */
+    private final Map<String, Multiset<Object>> valueCounts = MutableMap.of();
 
     public AbstractMultipleSensorAggregator() {}
 
@@ -107,7 +111,7 @@ public abstract class AbstractMultipleSensorAggregator<U> extends AbstractAggreg
                     } else {
                         initialVal = null;
                     }
-                    vs.put(producer, initialVal != null ? initialVal : defaultMemberValue);
+                    putValue(sensor.getName(), vs, producer, initialVal != null ? initialVal : defaultMemberValue);
                     // NB: see notes on possible race, in Aggregator#onProducerAdded
                 }
                 
@@ -120,8 +124,9 @@ public abstract class AbstractMultipleSensorAggregator<U> extends AbstractAggreg
         synchronized (values) {
             for (Sensor<?> sensor: getSourceSensors()) {
                 Map<Entity,Object> vs = values.get(sensor.getName());
-                if (vs!=null)
-                    vs.remove(producer);
+                if (vs!=null && vs.containsKey(producer)) {
+                    valueCounts.get(sensor.getName()).remove(vs.remove(producer));
+                }
             }
         }
         onUpdated();
@@ -135,12 +140,41 @@ public abstract class AbstractMultipleSensorAggregator<U> extends AbstractAggreg
             if (vs==null) {
                 LOG.debug(this+" received event when no entry for sensor ("+event+"); likely just added or removed, and will initialize subsequently if needed");
             } else {
-                vs.put(e, event.getValue());
+                putValue(event.getSensor().getName(), vs, e, event.getValue());
             }
         }
         onUpdated();
     }
 
+    /** caller must synchronize on values */
+    private void putValue(String sensorName, Map<Entity,Object> vs, Entity e, Object value) {
+        Multiset<Object> counts = valueCounts.get(sensorName);
+        if (counts==null) {
+            counts = HashMultiset.create();
+            valueCounts.put(sensorName, counts);
+        }
+        if (vs.containsKey(e)) counts.remove(vs.get(e));
+        vs.put(e, value);
+        counts.add(value);
+    }
+
+    /**
+     * Returns the number of entities reporting each (raw, uncoerced) value of the given sensor, 
+     * without copying all the values as {@link #getValues(Sensor)} does; 
+     * or null if the sensor is not being aggregated.
+     */
+    protected Map<Object,Integer> getValueCounts(Sensor<?> sensor) {
+        synchronized (values) {
+            Multiset<Object> counts = valueCounts.get(sensor.getName());
+            if (counts==null) return null;
+            Map<Object,Integer> result = MutableMap.of();
+            for (Multiset.Entry<Object> entry : counts.entrySet()) {
+                result.put(entry.getElement(), entry.getCount());
+            }
+            return result;
+        }
+    }
+
     public <T> Map<Entity,T> getValues(Sensor<T> sensor) {
         Map<Entity, T> valuesCopy = copyValues(sensor);
         return coerceValues(valuesCopy, sensor.getType());
@@ -41,7 +41,9 @@ import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.flags.SetFromFlag;
 import brooklyn.util.text.StringPredicates;
+import brooklyn.util.time.Duration;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -65,6 +67,37 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
     
     public static final ConfigKey<Boolean> EXCLUDE_BLANK = ConfigKeys.newBooleanConfigKey("enricher.aggregator.excludeBlank", "Whether explicit nulls or blank strings should be excluded (default false); this only applies if no value filter set", false);
 
+    @Beta
+    public static final ConfigKey<Boolean> INCREMENTAL = ConfigKeys.newBooleanConfigKey("enricher.aggregator.incremental", 
+        "Whether to maintain the result as each value changes, rather than recomputing it from all values on every change (default false); "
+        + "this only applies if the transformation is an IncrementalTransformation, such as the sum, average, min and max from Enrichers.builder(), "
+        + "and floating point results may differ slightly from those computed in full", false);
+    
+    @Beta
+    public static final ConfigKey<Duration> MIN_PERIOD_BETWEEN_EMISSIONS = ConfigKeys.newDurationConfigKey("enricher.aggregator.minPeriodBetweenEmissions", 
+        "Minimum time between publishing the target sensor; changes within this period are combined and published once it has elapsed (default 0, publishing on every change)", 
+        Duration.ZERO);
+
+    /**
+     * A transformation which can also be maintained as individual values are added and removed, 
+     * rather than being applied to all the values each time; used if {@link #INCREMENTAL} is set.
+     */
+    @Beta
+    public interface IncrementalTransformation<T, U> extends Function<Collection<T>, U> {
+        /** returns a new accumulator, with no values */
+        Accumulator<T, U> newAccumulator();
+    }
+    
+    /** The running state of an {@link IncrementalTransformation}; not thread-safe. */
+    @Beta
+    public interface Accumulator<T, U> {
+        void add(T value);
+        /** removes one occurrence of a value previously added */
+        void remove(T value);
+        /** the result, as the transformation would give for all the values currently added */
+        U get();
+    }
+
     protected Sensor<T> sourceSensor;
     protected Function<? super Collection<T>, ? extends U> transformation;
     
@@ -75,12 +108,26 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
     // We use a synchronizedMap over a ConcurrentHashMap for entities that store null values.
     protected final Map<Entity, T> values = Collections.synchronizedMap(new LinkedHashMap<Entity, T>());
 
+    /** kept in step with the filtered {@link #values} if {@link #INCREMENTAL}, otherwise null; guarded by values */
+    private Accumulator<T, ? extends U> accumulator;
+    /** updates applied to the accumulator since it was last rebuilt, guarded by values */
+    private int accumulatorUpdates;
+    
+    /** publishes the target sensor, throttled by {@link #MIN_PERIOD_BETWEEN_EMISSIONS} */
+    private ThrottledJob emission;
+
     public Aggregator() {}
 
     @SuppressWarnings("unchecked")
     protected void setEntityLoadingConfig() {
         super.setEntityLoadingConfig();
         this.sourceSensor = (Sensor<T>) getRequiredConfig(SOURCE_SENSOR);
+        this.emission = new ThrottledJob("publishing aggregate "+targetSensor.getName(), new Runnable() {
+            @Override
+            public void run() {
+                emitNow();
+            }
+        });
         
         Object t1 = config().get(TRANSFORMATION_UNTYPED);
         if (t1 instanceof String) t1 = lookupTransformation((String)t1);
@@ -91,12 +138,24 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
         } else if (t1!=null && !t1.equals(this.transformation)) {
             throw new IllegalStateException("Cannot supply both "+TRANSFORMATION_UNTYPED+" and "+TRANSFORMATION+" unless they are equal.");
         }
+        
+        if (Boolean.TRUE.equals(config().get(INCREMENTAL))) {
+            if (transformation instanceof IncrementalTransformation) {
+                synchronized (values) {
+                    rebuildAccumulator();
+                }
+            } else {
+                LOG.debug("{} computing aggregate in full, as transformation {} cannot be maintained incrementally", this, transformation);
+            }
+        }
     }
         
     @SuppressWarnings({ "rawtypes", "unchecked" })
     protected Function<? super Collection<?>, ?> lookupTransformation(String t1) {
         if ("average".equalsIgnoreCase(t1)) return new Enrichers.ComputingAverage(null, null, targetSensor.getTypeToken());
-        if ("sum".equalsIgnoreCase(t1)) return new Enrichers.ComputingAverage(null, null, targetSensor.getTypeToken());
+        if ("sum".equalsIgnoreCase(t1)) return new Enrichers.ComputingSum(null, null, targetSensor.getTypeToken());
+        if ("min".equalsIgnoreCase(t1)) return new Enrichers.ComputingMin(null, null, targetSensor.getTypeToken());
+        if ("max".equalsIgnoreCase(t1)) return new Enrichers.ComputingMax(null, null, targetSensor.getTypeToken());
         if ("list".equalsIgnoreCase(t1)) return new ComputingList();
         return null;
     }
@@ -148,7 +207,7 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
                 } else {
                     initialVal = null;
                 }
-                values.put(producer, initialVal != null ? initialVal : defaultMemberValue);
+                putValue(producer, initialVal != null ? initialVal : defaultMemberValue);
                 //we might skip in onEvent in the short window while !values.containsKey(producer)
                 //but that's okay because the put which would have been done there is done here now
             } else {
@@ -169,7 +228,15 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
     
     @Override
     protected void onProducerRemoved(Entity producer) {
-        values.remove(producer);
+        synchronized (values) {
+            if (values.containsKey(producer)) {
+                T vo = values.remove(producer);
+                if (accumulator != null) {
+                    if (valueFilter.apply(vo)) accumulator.remove(vo);
+                    onAccumulatorUpdated();
+                }
+            }
+        }
         onUpdated();
     }
 
@@ -178,7 +245,7 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
         Entity e = event.getSource();
         synchronized (values) {
             if (values.containsKey(e)) {
-                values.put(e, event.getValue());
+                putValue(e, event.getValue());
             } else {
                 if (LOG.isDebugEnabled()) LOG.debug("{} received event for unknown producer ({}); presumably that producer has recently been removed", this, e);
             }
@@ -186,7 +253,40 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
         onUpdated();
     }
 
+    /** sets the value for the producer, updating the accumulator if incremental; caller must synchronize on values */
+    private void putValue(Entity producer, T val) {
+        boolean hadValue = values.containsKey(producer);
+        T vo = values.put(producer, val);
+        if (accumulator != null) {
+            if (hadValue && valueFilter.apply(vo)) accumulator.remove(vo);
+            if (valueFilter.apply(val)) accumulator.add(val);
+            onAccumulatorUpdated();
+        }
+    }
+
+    /** 
+     * Rebuilds the accumulator from all values once there have been as many updates as there are values,
+     * so that any floating point error from repeated add and remove does not build up (costing amortized O(1) per update);
+     * caller must synchronize on values
+     */
+    private void onAccumulatorUpdated() {
+        if (++accumulatorUpdates > values.size()) rebuildAccumulator();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void rebuildAccumulator() {
+        accumulator = ((IncrementalTransformation<T, ? extends U>) (Function<?, ?>) transformation).newAccumulator();
+        for (T val : Iterables.filter(values.values(), valueFilter)) {
+            accumulator.add(val);
+        }
+        accumulatorUpdates = 0;
+    }
+
     protected void onUpdated() {
+        emission.request(getConfig(MIN_PERIOD_BETWEEN_EMISSIONS));
+    }
+    
+    protected void emitNow() {
         try {
             emit(targetSensor, compute());
         } catch (Throwable t) {
@@ -198,6 +298,7 @@ public class Aggregator<T,U> extends AbstractAggregator<T,U> implements SensorEv
     @Override
     protected Object compute() {
         synchronized (values) {
+            if (accumulator != null) return accumulator.get();
             // TODO Could avoid copying when filter not needed
             List<T> vs = MutableList.copyOf(Iterables.filter(values.values(), valueFilter));
             if (transformation==null) return vs;
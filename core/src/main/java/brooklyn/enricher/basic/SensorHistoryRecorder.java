@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.enricher.basic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import brooklyn.config.ConfigKey;
+import brooklyn.entity.basic.ConfigKeys;
+import brooklyn.entity.basic.EntityLocal;
+import brooklyn.event.AttributeSensor;
+import brooklyn.event.SensorEvent;
+import brooklyn.event.SensorEventListener;
+import brooklyn.event.basic.Sensors;
+import brooklyn.util.collections.DownsamplingTimeSeries;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.collections.TimestampedDoubleBuffer;
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Records the history of numeric sensors on its entity, so that it can be queried (e.g. over REST)
+ * for charting and diagnostics.
+ * <p>
+ * Values are held compressed in memory, at full resolution for the most recent {@link #POINTS_PER_BLOCK}
+ * &times; {@link #MAX_BLOCKS_PER_TIER} values of each sensor, and as means over each of the
+ * {@link #DOWNSAMPLED_RESOLUTIONS} for older values; see {@link DownsamplingTimeSeries}.
+ * Non-numeric values are ignored, and null is recorded as {@link Double#NaN}.
+ * <p>
+ * The history is not persisted, so starts empty again after rebind.
+ */
+@Beta
+public class SensorHistoryRecorder extends AbstractEnricher implements SensorEventListener<Object> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensorHistoryRecorder.class);
+
+    @SuppressWarnings("serial")
+    public static final ConfigKey<List<String>> SENSORS = ConfigKeys.newConfigKey(new TypeToken<List<String>>() {},
+            "enricher.history.sensors", "Names of the sensors whose history should be recorded");
+
+    public static final ConfigKey<Integer> POINTS_PER_BLOCK = ConfigKeys.newIntegerConfigKey("enricher.history.pointsPerBlock",
+            "Number of values compressed together", 120);
+
+    public static final ConfigKey<Integer> MAX_BLOCKS_PER_TIER = ConfigKeys.newIntegerConfigKey("enricher.history.maxBlocksPerTier",
+            "Number of blocks of values kept at each resolution before the oldest are downsampled (or, at the coarsest resolution, discarded)", 8);
+
+    @SuppressWarnings("serial")
+    public static final ConfigKey<List<Duration>> DOWNSAMPLED_RESOLUTIONS = ConfigKeys.newConfigKey(new TypeToken<List<Duration>>() {},
+            "enricher.history.downsampledResolutions", "Intervals, in increasing order, over which older values are averaged",
+            ImmutableList.of(Duration.ONE_MINUTE, Duration.ONE_HOUR));
+
+    /** guarded by itself */
+    private final Map<String, DownsamplingTimeSeries> histories = MutableMap.of();
+
+    @Override
+    public void setEntity(EntityLocal entity) {
+        super.setEntity(entity);
+        List<String> sensors = getConfig(SENSORS);
+        if (sensors == null || sensors.isEmpty()) {
+            LOG.warn("No sensors configured for "+this+" on "+entity+"; no history will be recorded");
+            return;
+        }
+        List<Long> resolutions = MutableList.of();
+        for (Duration resolution : getConfig(DOWNSAMPLED_RESOLUTIONS)) {
+            resolutions.add(resolution.toMilliseconds());
+        }
+        synchronized (histories) {
+            for (String sensor : sensors) {
+                histories.put(sensor, new DownsamplingTimeSeries(getConfig(POINTS_PER_BLOCK), getConfig(MAX_BLOCKS_PER_TIER), resolutions));
+            }
+        }
+        for (String sensor : sensors) {
+            AttributeSensor<Object> attribute = Sensors.newSensor(Object.class, sensor);
+            subscribe(entity, attribute, this);
+            Object value = entity.getAttribute(attribute);
+            if (value != null) record(sensor, System.currentTimeMillis(), value);
+        }
+    }
+
+    @Override
+    public void onEvent(SensorEvent<Object> event) {
+        record(event.getSensor().getName(), event.getTimestamp(), event.getValue());
+    }
+
+    protected void record(String sensor, long timestamp, Object value) {
+        double doubleValue;
+        if (value == null) {
+            doubleValue = Double.NaN;
+        } else if (value instanceof Number) {
+            doubleValue = ((Number) value).doubleValue();
+        } else {
+            if (LOG.isTraceEnabled()) LOG.trace("Not recording non-numeric value {} of {} on {}", new Object[] {value, sensor, entity});
+            return;
+        }
+        synchronized (histories) {
+            DownsamplingTimeSeries history = histories.get(sensor);
+            // events delivered out of order (e.g. from concurrent publishers) are dropped
+            if (history != null) history.add(timestamp, doubleValue);
+        }
+    }
+
+    /** the names of the sensors being recorded */
+    public Set<String> getRecordedSensors() {
+        synchronized (histories) {
+            return ImmutableSet.copyOf(histories.keySet());
+        }
+    }
+
+    /**
+     * The values recorded for the given sensor from {@code from} to {@code to} (inclusive, in milliseconds since the epoch),
+     * at the finest resolution held; or null if that sensor is not being recorded.
+     */
+    public TimestampedDoubleBuffer getHistory(String sensor, long from, long to) {
+        synchronized (histories) {
+            DownsamplingTimeSeries history = histories.get(sensor);
+            return (history == null) ? null : history.getPoints(from, to);
+        }
+    }
+}
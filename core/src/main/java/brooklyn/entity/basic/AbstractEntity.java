@@ -187,6 +187,8 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
     // i.e. for the values backed by storage
     private Reference<Entity> parent = new BasicReference<Entity>();
     private Set<Group> groups = Sets.newLinkedHashSet();
+    /** guards {@link #groups}, which is replaced by the storage-backed set in {@link #setManagementContext(ManagementContextInternal)} */
+    private final Object groupsLock = new Object();
     private Set<Entity> children = Sets.newLinkedHashSet();
     private Reference<List<Location>> locations = new BasicReference<List<Location>>(ImmutableList.<Location>of()); // dups removed in addLocations
     private Reference<Long> creationTimeUtc = new BasicReference<Long>(System.currentTimeMillis());
@@ -455,7 +457,6 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
 
         if (BrooklynFeatureEnablement.isEnabled(BrooklynFeatureEnablement.FEATURE_USE_BROOKLYN_LIVE_OBJECTS_DATAGRID_STORAGE)) {
             Entity oldParent = parent.get();
-            Set<Group> oldGroups = groups;
             Set<Entity> oldChildren = children;
             List<Location> oldLocations = locations.get();
             EntityConfigMap oldConfig = configsInternal;
@@ -465,7 +466,11 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
             String oldIconUrl = iconUrl.get();
 
             parent = managementContext.getStorage().getReference(getId()+"-parent");
-            groups = SetFromLiveMap.create(managementContext.getStorage().<Group,Boolean>getMap(getId()+"-groups"));
+            synchronized (groupsLock) {
+                Set<Group> oldGroups = groups;
+                groups = SetFromLiveMap.create(managementContext.getStorage().<Group,Boolean>getMap(getId()+"-groups"));
+                if (oldGroups.size() > 0) groups.addAll(oldGroups);
+            }
             children = SetFromLiveMap.create(managementContext.getStorage().<Entity,Boolean>getMap(getId()+"-children"));
             locations = managementContext.getStorage().getNonConcurrentList(getId()+"-locations");
             creationTimeUtc = managementContext.getStorage().getReference(getId()+"-creationTime");
@@ -479,7 +484,6 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
             // before setting the parent etc. However, for backwards compatibility we still support some
             // things calling the entity's constructor directly.
             if (oldParent != null) parent.set(oldParent);
-            if (oldGroups.size() > 0) groups.addAll(oldGroups);
             if (oldChildren.size() > 0) children.addAll(oldChildren);
             if (oldLocations.size() > 0) locations.set(ImmutableList.copyOf(oldLocations));
             if (creationTimeUtc.isNull()) creationTimeUtc.set(oldCreationTimeUtc);
@@ -675,13 +679,18 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
 
     @Override
     public void addGroup(Group e) {
-        groups.add(e);
+        // synchronized as groups may be added concurrently during a parallel rebind
+        synchronized (groupsLock) {
+            groups.add(e);
+        }
         getApplication();
     }
 
     @Override
     public void removeGroup(Group e) {
-        groups.remove(e);
+        synchronized (groupsLock) {
+            groups.remove(e);
+        }
         getApplication();
     }
 
@@ -697,7 +706,9 @@ public abstract class AbstractEntity extends AbstractBrooklynObject implements E
     
     @Override
     public Collection<Group> getGroups() { 
-        return ImmutableList.copyOf(groups);
+        synchronized (groupsLock) {
+            return ImmutableList.copyOf(groups);
+        }
     }
 
     /**
@@ -34,6 +34,7 @@ import brooklyn.util.guava.SerializablePredicate;
 import brooklyn.util.javalang.Reflections;
 import brooklyn.util.text.StringPredicates;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -41,6 +42,24 @@ import com.google.common.base.Predicates;
 @SuppressWarnings("serial")
 public class EntityPredicates {
 
+    /**
+     * Implemented by predicates which can only be satisfied by entities in a given application, with a given parent,
+     * or of given types, so that the entity manager can test just those candidates rather than every entity
+     * (e.g. when a {@link DynamicGroup} rescans). Each constraint is optional.
+     */
+    @Beta
+    public interface Indexable {
+        /** the id of the application which any matching entity must be in, or null */
+        @Nullable String getApplicationIdConstraint();
+        /** the parent which any matching entity must have, or null */
+        @Nullable Entity getParentConstraint();
+        /** 
+         * a predicate on the class of an entity (typically of its proxy) which must be satisfied by any matching entity, or null;
+         * this is applied to each distinct class rather than each entity
+         */
+        @Nullable Predicate<Class<?>> getTypeConstraint();
+    }
+
     public static Predicate<Entity> idEqualTo(final String val) {
         return idSatisfies(Predicates.equalTo(val));
     }
@@ -137,7 +156,7 @@ public class EntityPredicates {
     // ---------------------------
 
     public static Predicate<Entity> applicationIdEqualTo(final String val) {
-        return applicationIdSatisfies(Predicates.equalTo(val));
+        return new ApplicationIdEqualTo(val);
     }
 
     public static Predicate<Entity> applicationIdSatisfies(final Predicate<? super String> condition) {
@@ -159,6 +178,26 @@ public class EntityPredicates {
         }
     }
 
+    protected static class ApplicationIdEqualTo extends ApplicationIdSatisfies implements Indexable {
+        protected final String val;
+        protected ApplicationIdEqualTo(String val) {
+            super(Predicates.equalTo(val));
+            this.val = val;
+        }
+        @Override
+        public String getApplicationIdConstraint() {
+            return val;
+        }
+        @Override
+        public Entity getParentConstraint() {
+            return null;
+        }
+        @Override
+        public Predicate<Class<?>> getTypeConstraint() {
+            return null;
+        }
+    }
+
     /** @deprecated since 0.7.0 kept only to allow conversion of anonymous inner classes */
     @SuppressWarnings("unused") @Deprecated 
     private static Predicate<Entity> applicationIdEqualToOld(final String val) {
@@ -280,7 +319,7 @@ public class EntityPredicates {
         return new ImplementsInterface(typeRegex);
     }
 
-    protected static class ImplementsInterface implements SerializablePredicate<Entity> {
+    protected static class ImplementsInterface implements SerializablePredicate<Entity>, Indexable {
         protected final Pattern pattern;
 
         public ImplementsInterface(String typeRegex) {
@@ -289,14 +328,35 @@ public class EntityPredicates {
 
         @Override
         public boolean apply(@Nullable Entity input) {
-            if (input == null) return false;
-            for (Class<?> cls : Reflections.getAllInterfaces(input.getClass())) {
+            return (input != null) && implementsInterface(input.getClass());
+        }
+        
+        protected boolean implementsInterface(Class<?> type) {
+            for (Class<?> cls : Reflections.getAllInterfaces(type)) {
                 if (pattern.matcher(cls.getName()).matches()) {
                     return true;
                 }
             }
             return false;
         }
+        
+        @Override
+        public String getApplicationIdConstraint() {
+            return null;
+        }
+        @Override
+        public Entity getParentConstraint() {
+            return null;
+        }
+        @Override
+        public Predicate<Class<?>> getTypeConstraint() {
+            return new Predicate<Class<?>>() {
+                @Override
+                public boolean apply(Class<?> input) {
+                    return implementsInterface(input);
+                }
+            };
+        }
     }
 
     // ---------------------------
@@ -310,7 +370,7 @@ public class EntityPredicates {
 
     // if needed, could add parentSatisfies(...)
     
-    protected static class IsChildOf implements SerializablePredicate<Entity> {
+    protected static class IsChildOf implements SerializablePredicate<Entity>, Indexable {
         protected final Entity parent;
         protected IsChildOf(Entity parent) {
             this.parent = parent;
@@ -320,6 +380,18 @@ public class EntityPredicates {
             return (input != null) && Objects.equal(input.getParent(), parent);
         }
         @Override
+        public String getApplicationIdConstraint() {
+            return null;
+        }
+        @Override
+        public Entity getParentConstraint() {
+            return parent;
+        }
+        @Override
+        public Predicate<Class<?>> getTypeConstraint() {
+            return null;
+        }
+        @Override
         public String toString() {
             return "isChildOf("+parent+")";
         }
@@ -37,18 +37,26 @@ import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 public class EntityTypeSnapshot extends BrooklynTypeSnapshot implements EntityType {
     private static final long serialVersionUID = 4670930188951106009L;
     
     private final Map<String, Sensor<?>> sensors;
     private final Set<Effector<?>> effectors;
+    private final Map<String, Effector<?>> effectorsByName;
     private final Set<Sensor<?>> sensorsSet;
 
     EntityTypeSnapshot(String name, Map<String, ConfigKey<?>> configKeys, Map<String, Sensor<?>> sensors, Collection<Effector<?>> effectors) {
         super(name, configKeys);
         this.sensors = ImmutableMap.copyOf(sensors);
         this.effectors = ImmutableSet.copyOf(effectors);
+        Map<String, Effector<?>> effectorsByName = Maps.newLinkedHashMap();
+        for (Effector<?> effector : this.effectors) {
+            // first match wins, as when iterating over the effectors
+            if (!effectorsByName.containsKey(effector.getName())) effectorsByName.put(effector.getName(), effector);
+        }
+        this.effectorsByName = ImmutableMap.copyOf(effectorsByName);
         this.sensorsSet = ImmutableSet.copyOf(this.sensors.values());
     }
 
@@ -64,10 +72,9 @@ public class EntityTypeSnapshot extends BrooklynTypeSnapshot implements EntityTy
 
     @Override
     public Maybe<Effector<?>> getEffectorByName(String name) {
-        for (Effector<?> contender : effectors) {
-            if (name.equals(contender.getName()))
-                return Maybe.<Effector<?>>of(contender);
-        }
+        Effector<?> result = effectorsByName.get(name);
+        if (result != null)
+            return Maybe.<Effector<?>>of(result);
         return Maybe.<Effector<?>>absent("No effector matching '"+name+"'");        
     }
     
@@ -59,6 +59,7 @@ import brooklyn.util.repeat.Repeater;
 import brooklyn.util.text.Strings;
 import brooklyn.util.time.Duration;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
@@ -391,6 +392,15 @@ public class ServiceStateLogic {
             "enricher.service_state.children_and_members.ignore_entities.service_state_values", 
             "Service states (including null) which indicate an entity should be ignored when looking at children service states; anything apart from RUNNING not in this list will be treated as not healthy (by default just ON_FIRE will mean not healthy)", 
             MutableSet.<Lifecycle>builder().addAll(Lifecycle.values()).add(null).remove(Lifecycle.RUNNING).remove(Lifecycle.ON_FIRE).build().asUnmodifiable());
+        @Beta
+        public static final ConfigKey<Duration> MIN_PERIOD_BETWEEN_RECOMPUTATIONS = ConfigKeys.newDurationConfigKey("enricher.service_state.children_and_members.minPeriodBetweenRecomputations", 
+            "Minimum time between recomputing the indicators; changes of children and members within this period are combined "
+            + "and computed once it has elapsed (default 0, recomputing on every change); useful for large clusters, "
+            + "where starting or stopping causes bursts of changes", 
+            Duration.ZERO);
+
+        /** recomputes the indicators, throttled by {@link #MIN_PERIOD_BETWEEN_RECOMPUTATIONS} */
+        private ThrottledJob recomputation;
 
         protected String getKeyForMapSensor() {
             return Preconditions.checkNotNull(super.getUniqueTag());
@@ -407,6 +417,12 @@ public class ServiceStateLogic {
                 else throw new IllegalStateException("Cannot monitor only members for non-group entity "+entity+": "+this);
             }
             Preconditions.checkNotNull(getKeyForMapSensor());
+            recomputation = new ThrottledJob("recomputing "+getKeyForMapSensor(), new Runnable() {
+                @Override
+                public void run() {
+                    if (Entities.isManaged(entity)) recompute();
+                }
+            });
         }
 
         @Override
@@ -427,7 +443,8 @@ public class ServiceStateLogic {
         final static Set<ConfigKey<?>> RECONFIGURABLE_KEYS = ImmutableSet.<ConfigKey<?>>of(
             UP_QUORUM_CHECK, RUNNING_QUORUM_CHECK,
             DERIVE_SERVICE_NOT_UP, DERIVE_SERVICE_NOT_UP, 
-            IGNORE_ENTITIES_WITH_SERVICE_UP_NULL, IGNORE_ENTITIES_WITH_THESE_SERVICE_STATES);
+            IGNORE_ENTITIES_WITH_SERVICE_UP_NULL, IGNORE_ENTITIES_WITH_THESE_SERVICE_STATES,
+            MIN_PERIOD_BETWEEN_RECOMPUTATIONS);
         
         @Override
         protected <T> void doReconfigureConfig(ConfigKey<T> key, T val) {
@@ -460,6 +477,10 @@ public class ServiceStateLogic {
                 return;
             }
 
+            recomputation.request(getConfig(MIN_PERIOD_BETWEEN_RECOMPUTATIONS));
+        }
+
+        protected void recompute() {
             // override superclass to publish multiple sensors
             if (getConfig(DERIVE_SERVICE_PROBLEMS)) {
                 updateMapSensor(SERVICE_PROBLEMS, computeServiceProblems());
@@ -509,6 +530,8 @@ public class ServiceStateLogic {
         }
 
         protected Object computeServiceProblems() {
+            if (isQuorateRunningFromCounts()) return null;
+            
             Map<Entity, Lifecycle> values = getValues(SERVICE_STATE_ACTUAL);
             int numRunning=0;
             List<Entity> onesNotHealthy=MutableList.of();
@@ -537,6 +560,26 @@ public class ServiceStateLogic {
                     : Strings.join(onesNotHealthy, ", "));
         }
 
+        /**
+         * Checks the running quorum from the number of entities in each state, 
+         * so that the usual case of a quorum does not need to look at every entity.
+         * Returns false if not quorate or cannot tell, in which case the details are computed in full.
+         */
+        private boolean isQuorateRunningFromCounts() {
+            QuorumCheck qc = getConfig(RUNNING_QUORUM_CHECK);
+            Map<Object, Integer> counts = getValueCounts(SERVICE_STATE_ACTUAL);
+            if (qc==null || counts==null) return false;
+            Set<Lifecycle> ignoreStates = getConfig(IGNORE_ENTITIES_WITH_THESE_SERVICE_STATES);
+            int numRunning=0, numNotHealthy=0;
+            for (Map.Entry<Object, Integer> count: counts.entrySet()) {
+                // values are normally Lifecycle instances; anything needing coercion is left to the full computation
+                if (count.getKey()!=null && !(count.getKey() instanceof Lifecycle)) return false;
+                if (count.getKey()==Lifecycle.RUNNING) numRunning += count.getValue();
+                else if (!ignoreStates.contains(count.getKey())) numNotHealthy += count.getValue();
+            }
+            return qc.isQuorate(numRunning, numNotHealthy+numRunning);
+        }
+
         protected void updateMapSensor(AttributeSensor<Map<String, Object>> sensor, Object value) {
             if (log.isTraceEnabled()) log.trace("{} updating map sensor {} with {}", new Object[] { this, sensor, value });
 
@@ -593,6 +636,11 @@ public class ServiceStateLogic {
             configure(ComputeServiceIndicatorsFromChildrenAndMembers.RUNNING_QUORUM_CHECK, check);
             return self();
         }
+        @Beta
+        public ComputeServiceIndicatorsFromChildrenAndMembersSpec minPeriodBetweenRecomputations(Duration period) {
+            configure(ComputeServiceIndicatorsFromChildrenAndMembers.MIN_PERIOD_BETWEEN_RECOMPUTATIONS, period);
+            return self();
+        }
     }
 
     /** provides the default {@link ComputeServiceIndicatorsFromChildrenAndMembers} enricher, 
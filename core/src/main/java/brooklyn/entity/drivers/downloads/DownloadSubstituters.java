@@ -20,10 +20,8 @@ package brooklyn.entity.drivers.downloads;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.StringWriter;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -36,12 +34,11 @@ import brooklyn.entity.drivers.downloads.DownloadResolverManager.DownloadRequire
 import brooklyn.entity.drivers.downloads.DownloadResolverManager.DownloadTargets;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.text.TemplateProcessor;
 
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 
-import freemarker.cache.StringTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 
@@ -124,18 +121,12 @@ public class DownloadSubstituters {
 
     public static String substitute(String basevalue, Map<String,?> substitutions) {
         try {
-            Configuration cfg = new Configuration();
-            StringTemplateLoader templateLoader = new StringTemplateLoader();
-            templateLoader.putTemplate("config", basevalue);
-            cfg.setTemplateLoader(templateLoader);
-            Template template = cfg.getTemplate("config");
+            Template template = TemplateProcessor.getTemplate(basevalue);
             
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Writer out = new OutputStreamWriter(baos);
-            template.process(substitutions, out);
-            out.flush();
+            StringWriter out = new StringWriter();
+            TemplateProcessor.renderTemplate(template, substitutions, out);
             
-            return new String(baos.toByteArray());
+            return out.toString();
         } catch (IOException e) {
             LOG.warn("Error processing template '"+basevalue+"'", e);
             throw Exceptions.propagate(e);
@@ -115,6 +115,33 @@ public interface DynamicCluster extends AbstractGroup, Cluster, MemberReplaceabl
             "Initial cluster quorum size - number of initial nodes that must have been successfully started to report success (if < 0, then use value of INITIAL_SIZE)",
             -1);
 
+    @SetFromFlag("maxConcurrentChildStarts")
+    ConfigKey<Integer> MAX_CONCURRENT_CHILD_STARTS = ConfigKeys.newIntegerConfigKey(
+            "dynamiccluster.maxConcurrentChildStarts",
+            "Maximum number of members started at the same time when the cluster grows (if <= 0, then all are started at once)",
+            0);
+
+    @SetFromFlag("startWaveSize")
+    ConfigKey<Integer> START_WAVE_SIZE = ConfigKeys.newIntegerConfigKey(
+            "dynamiccluster.startWaveSize",
+            "Number of members added and started before the next are added, when the cluster grows (if <= 0, then all are added in one wave)",
+            0);
+
+    @SetFromFlag("startWaveSuccessThreshold")
+    ConfigKey<Double> START_WAVE_SUCCESS_THRESHOLD = ConfigKeys.newDoubleConfigKey(
+            "dynamiccluster.startWaveSuccessThreshold",
+            "Fraction of the members in a wave that must start successfully for the next wave to be added",
+            0.0);
+
+    AttributeSensor<Integer> MEMBER_STARTS_QUEUED = Sensors.newIntegerSensor(
+            "dynamiccluster.starts.queued", "Number of members waiting to be started");
+
+    AttributeSensor<Integer> MEMBER_STARTS_IN_FLIGHT = Sensors.newIntegerSensor(
+            "dynamiccluster.starts.inFlight", "Number of members currently starting");
+
+    AttributeSensor<Integer> MEMBER_STARTS_COMPLETED = Sensors.newIntegerSensor(
+            "dynamiccluster.starts.completed", "Number of member starts which have completed (successfully or not)");
+
     @SetFromFlag("memberSpec")
     ConfigKey<EntitySpec<?>> MEMBER_SPEC = ConfigKeys.newConfigKey(
             new TypeToken<EntitySpec<?>>() { },
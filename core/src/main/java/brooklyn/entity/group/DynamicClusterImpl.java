@@ -27,7 +27,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.annotation.Nullable;
 
@@ -51,6 +53,8 @@ import brooklyn.entity.proxying.EntitySpec;
 import brooklyn.entity.trait.Startable;
 import brooklyn.entity.trait.StartableMethods;
 import brooklyn.location.Location;
+import brooklyn.location.MachineManagementMixins.ExpectedObtains;
+import brooklyn.location.MachineManagementMixins.ObtainsMachinesInBatches;
 import brooklyn.location.MachineProvisioningLocation;
 import brooklyn.location.basic.Locations;
 import brooklyn.location.cloud.AvailabilityZoneExtension;
@@ -83,6 +87,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * A cluster of entities that can dynamically increase or decrease the number of entities.
@@ -131,6 +136,8 @@ public class DynamicClusterImpl extends AbstractGroupImpl implements DynamicClus
      */
     protected final Object mutex = new Object[0];
 
+    private final Object memberStartCountsMutex = new Object[0];
+
     private static final Function<Collection<Entity>, Entity> defaultRemovalStrategy = new Function<Collection<Entity>, Entity>() {
         @Override public Entity apply(Collection<Entity> contenders) {
             // choose newest entity that is stoppable, or if none are stoppable take the newest non-stoppable
@@ -644,25 +651,143 @@ public class DynamicClusterImpl extends AbstractGroupImpl implements DynamicClus
     }
 
     protected ReferenceWithError<Collection<Entity>> addInEachLocation(Iterable<Location> locations, Map<?,?> flags) {
+        List<Location> toAdd = Lists.newArrayList(locations);
+        int waveSize = getConfig(START_WAVE_SIZE);
+        double threshold = getConfig(START_WAVE_SUCCESS_THRESHOLD);
+        updateMemberStartCounts(toAdd.size(), 0, 0);
+        if (waveSize <= 0 || waveSize >= toAdd.size()) {
+            return addWaveInEachLocation(toAdd, flags);
+        }
+
+        Collection<Entity> result = Lists.newArrayList();
+        List<Throwable> errors = Lists.newArrayList();
+        Iterator<List<Location>> waves = Lists.partition(toAdd, waveSize).iterator();
+        int notAdded = toAdd.size();
+        try {
+            while (waves.hasNext()) {
+                List<Location> wave = waves.next();
+                // the wave's own starts are uncounted by the wave, even if it fails
+                notAdded -= wave.size();
+                ReferenceWithError<Collection<Entity>> added = addWaveInEachLocation(wave, flags);
+                result.addAll(added.getWithoutError());
+                if (added.hasError()) errors.add(added.getError());
+
+                int started = added.getWithoutError().size();
+                if (waves.hasNext() && started < threshold * wave.size()) {
+                    String msg = "Only "+started+" of "+wave.size()+" members started successfully in "+this+"; not adding remaining "+notAdded;
+                    LOG.warn(msg);
+                    errors.add(new IllegalStateException(msg));
+                    break;
+                }
+            }
+        } finally {
+            // the remaining waves will not be started, whether stopped by the threshold or by an error
+            if (notAdded > 0) updateMemberStartCounts(-notAdded, 0, 0);
+        }
+
+        if (!errors.isEmpty()) {
+            return ReferenceWithError.newInstanceMaskingError(result, Exceptions.create(errors));
+        }
+        return ReferenceWithError.newInstanceWithoutError(result);
+    }
+
+    /**
+     * Adds and starts a member in each of the given locations, with at most {@link #MAX_CONCURRENT_CHILD_STARTS}
+     * starting at once; the starts must already be counted in {@link #MEMBER_STARTS_QUEUED}.
+     */
+    protected ReferenceWithError<Collection<Entity>> addWaveInEachLocation(List<Location> locations, Map<?,?> flags) {
         List<Entity> addedEntities = Lists.newArrayList();
         Map<Entity, Location> addedEntityLocations = Maps.newLinkedHashMap();
         Map<Entity, Task<?>> tasks = Maps.newLinkedHashMap();
 
-        for (Location loc : locations) {
-            Entity entity = addNode(loc, flags);
-            addedEntities.add(entity);
-            addedEntityLocations.put(entity, loc);
-            if (entity instanceof Startable) {
-                Map<String, ?> args = ImmutableMap.of("locations", ImmutableList.of(loc));
-                Task<Void> task = Effectors.invocation(entity, Startable.START, args).asTask();
-                tasks.put(entity, task);
+        boolean allAdded = false;
+        try {
+            for (Location loc : locations) {
+                Entity entity = addNode(loc, flags);
+                addedEntities.add(entity);
+                addedEntityLocations.put(entity, loc);
+                if (entity instanceof Startable) {
+                    Map<String, ?> args = ImmutableMap.of("locations", ImmutableList.of(loc));
+                    Task<Void> task = Effectors.invocation(entity, Startable.START, args).asTask();
+                    tasks.put(entity, task);
+                }
+            }
+            allAdded = true;
+        } finally {
+            // if adding a member failed, none of this wave will be started
+            if (!allAdded) updateMemberStartCounts(-locations.size(), 0, 0);
+        }
+
+        int maxConcurrent = getConfig(MAX_CONCURRENT_CHILD_STARTS);
+        int numWorkers = (maxConcurrent > 0) ? Math.min(maxConcurrent, tasks.size()) : tasks.size();
+
+        // let locations which can create machines together know which members are about to obtain one: those started
+        // first by the workers below (no more than can be starting at once, otherwise the first would wait for those still queued)
+        Multimap<Location, Entity> firstStarts = LinkedHashMultimap.create();
+        for (Entity entity : Iterables.limit(tasks.keySet(), numWorkers)) {
+            firstStarts.put(addedEntityLocations.get(entity), entity);
+        }
+        final List<ExpectedObtains> expectedObtains = Lists.newArrayList();
+        for (Map.Entry<Location, Collection<Entity>> entry : firstStarts.asMap().entrySet()) {
+            if (entry.getKey() instanceof ObtainsMachinesInBatches && entry.getValue().size() > 1) {
+                expectedObtains.add(((ObtainsMachinesInBatches<?>) entry.getKey()).expectObtains(entry.getValue()));
+            }
+        }
+        if (!expectedObtains.isEmpty()) {
+            // a member whose start has ended (e.g. failed before obtaining) will not obtain, so others need not wait for it
+            for (final Map.Entry<Entity, Task<?>> entry : tasks.entrySet()) {
+                entry.getValue().addListener(new Runnable() {
+                    @Override public void run() {
+                        for (ExpectedObtains expected : expectedObtains) {
+                            expected.notObtaining(entry.getKey());
+                        }
+                    }}, MoreExecutors.sameThreadExecutor());
             }
         }
 
-        Task<List<?>> parallel = Tasks.parallel("starting "+tasks.size()+" node"+Strings.s(tasks.size())+" (parallel)", tasks.values());
-        TaskTags.markInessential(parallel);
-        DynamicTasks.queueIfPossible(parallel).orSubmitAsync(this);
-        Map<Entity, Throwable> errors = waitForTasksOnEntityStart(tasks);
+        // members which are not startable will not be started
+        updateMemberStartCounts(tasks.size() - locations.size(), 0, 0);
+
+        // start the members from a fixed number of workers, each taking the next start when its previous one ends
+        final Queue<Task<?>> pending = new ConcurrentLinkedQueue<Task<?>>(tasks.values());
+        List<Task<?>> workers = Lists.newArrayList();
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(Tasks.builder().name("starting nodes (worker "+(i+1)+" of "+numWorkers+")")
+                    .dynamic(true).swallowChildrenFailures(true)
+                    .body(new Runnable() {
+                        @Override public void run() {
+                            try {
+                                for (Task<?> task = pending.poll(); task != null; task = pending.poll()) {
+                                    updateMemberStartCounts(-1, 1, 0);
+                                    try {
+                                        TaskTags.markInessential(task);
+                                        DynamicTasks.queue(task).blockUntilEnded();
+                                    } finally {
+                                        updateMemberStartCounts(0, -1, 1);
+                                    }
+                                }
+                            } finally {
+                                // if interrupted, don't leave the cluster waiting for starts that will never be submitted
+                                for (Task<?> task = pending.poll(); task != null; task = pending.poll()) {
+                                    task.cancel(true);
+                                    updateMemberStartCounts(-1, 0, 0);
+                                }
+                            }
+                        }})
+                    .build());
+        }
+
+        Map<Entity, Throwable> errors;
+        try {
+            Task<List<?>> parallel = Tasks.parallel("starting "+tasks.size()+" node"+Strings.s(tasks.size())+" (parallel)", workers);
+            TaskTags.markInessential(parallel);
+            DynamicTasks.queueIfPossible(parallel).orSubmitAsync(this);
+            errors = waitForTasksOnEntityStart(tasks);
+        } finally {
+            for (ExpectedObtains expected : expectedObtains) {
+                expected.close();
+            }
+        }
 
         // if tracking, then report success/fail to the ZoneFailureDetector
         if (isAvailabilityZoneEnabled()) {
@@ -696,6 +821,18 @@ public class DynamicClusterImpl extends AbstractGroupImpl implements DynamicClus
         return ReferenceWithError.newInstanceWithoutError(result);
     }
 
+    private void updateMemberStartCounts(int queuedDelta, int inFlightDelta, int completedDelta) {
+        synchronized (memberStartCountsMutex) {
+            setAttribute(MEMBER_STARTS_QUEUED, nullToZero(getAttribute(MEMBER_STARTS_QUEUED)) + queuedDelta);
+            setAttribute(MEMBER_STARTS_IN_FLIGHT, nullToZero(getAttribute(MEMBER_STARTS_IN_FLIGHT)) + inFlightDelta);
+            setAttribute(MEMBER_STARTS_COMPLETED, nullToZero(getAttribute(MEMBER_STARTS_COMPLETED)) + completedDelta);
+        }
+    }
+
+    private static int nullToZero(Integer val) {
+        return (val == null) ? 0 : val;
+    }
+
     protected void quarantineFailedNodes(Collection<Entity> failedEntities) {
         for (Entity entity : failedEntities) {
             emit(ENTITY_QUARANTINED, entity);
@@ -51,6 +51,9 @@ import brooklyn.util.task.TaskTags;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Sets;
 
 /**
@@ -108,6 +111,36 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
         }
     }
     
+    /** How {@link #invoke(Object, Method, Object[])} dispatches a call to a method. */
+    private static enum MethodKind {
+        /** methods of {@link Object}, invoked directly */
+        OBJECT,
+        /** entity methods permitted on read-only entities, invoked directly */
+        PERMITTED_READ_ONLY,
+        /** other entity methods (i.e. not effectors), invoked directly unless read-only */
+        NON_EFFECTOR,
+        /** methods of the entity's own interface, which may be effectors */
+        OTHER
+    }
+    
+    /**
+     * The kind of each method called through a proxy, so that each call is a single lookup rather than 
+     * several set lookups keyed on a new {@link MethodSignature}.
+     * Weak keys (compared by identity) are sufficient, because the proxy classes hold their {@link Method} 
+     * instances and pass the same ones to each call; and mean entries do not outlive those classes.
+     */
+    private static final LoadingCache<Method, MethodKind> METHOD_KINDS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Method, MethodKind>() {
+                @Override public MethodKind load(Method m) {
+                    MethodSignature sig = new MethodSignature(m);
+                    if (OBJECT_METHODS.contains(sig)) return MethodKind.OBJECT;
+                    if (ENTITY_PERMITTED_READ_ONLY_METHODS.contains(sig)) return MethodKind.PERMITTED_READ_ONLY;
+                    if (ENTITY_NON_EFFECTOR_METHODS.contains(sig)) return MethodKind.NON_EFFECTOR;
+                    return MethodKind.OTHER;
+                }
+            });
+    
     public EntityProxyImpl(Entity entity) {
         this.delegate = checkNotNull(entity, "entity");
     }
@@ -180,12 +213,10 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
             throw new IllegalArgumentException("Static methods not supported via proxy on entity "+delegate);
         }
         
-        MethodSignature sig = new MethodSignature(m);
+        MethodKind kind = METHOD_KINDS.getUnchecked(m);
 
         Object result;
-        if (OBJECT_METHODS.contains(sig)) {
-            result = m.invoke(delegate, args);
-        } else if (ENTITY_PERMITTED_READ_ONLY_METHODS.contains(sig)) {
+        if (kind == MethodKind.OBJECT || kind == MethodKind.PERMITTED_READ_ONLY) {
             result = m.invoke(delegate, args);
         } else {
             if (!isMaster()) {
@@ -195,9 +226,9 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
                     // but including in it may allow us to tighten the methods in EntityTransientCopyInternal) 
                     result = m.invoke(delegate, args);
                 } else {
-                    throw new UnsupportedOperationException("Call to '"+sig+"' not permitted on read-only entity "+delegate);
+                    throw new UnsupportedOperationException("Call to '"+new MethodSignature(m)+"' not permitted on read-only entity "+delegate);
                 }
-            } else if (ENTITY_NON_EFFECTOR_METHODS.contains(sig)) {
+            } else if (kind == MethodKind.NON_EFFECTOR) {
                 result = m.invoke(delegate, args);
             } else {
                 Object[] nonNullArgs = (args == null) ? new Object[0] : args;
@@ -220,14 +251,8 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
     }
     
     private Effector<?> findEffector(Method m, Object[] args) {
-        String name = m.getName();
-        Set<Effector<?>> effectors = delegate.getEntityType().getEffectors();
-        for (Effector<?> contender : effectors) {
-            if (name.equals(contender.getName())) {
-                return contender;
-            }
-        }
-        return null;
+        // effectors can be added dynamically, so look up each time (indexed by name in the type snapshot)
+        return delegate.getEntityType().getEffectorByName(m.getName()).orNull();
     }
     
     private static class MethodSignature {
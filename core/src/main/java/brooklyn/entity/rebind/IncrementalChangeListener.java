@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind;
+
+import brooklyn.entity.Entity;
+import brooklyn.event.AttributeSensor;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A {@link ChangeListener} which can also be told when only an attribute of an entity has changed,
+ * so that it can persist just that attribute rather than the whole entity.
+ */
+@Beta
+public interface IncrementalChangeListener extends ChangeListener {
+
+    /** as {@link #onChanged(brooklyn.basic.BrooklynObject)} for the entity, when only the given attribute has changed */
+    void onAttributeChanged(Entity entity, AttributeSensor<?> attribute);
+}
@@ -38,6 +38,7 @@ import brooklyn.mementos.BrooklynMementoPersister;
 import brooklyn.util.text.Strings;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
 
 /**
@@ -73,7 +74,9 @@ public class InitialFullRebindIteration extends RebindIteration {
     protected void loadManifestFiles() throws Exception {
         checkEnteringPhase(1);
         Preconditions.checkState(mementoRawData==null, "Memento raw data should not yet be set when calling this");
+        Stopwatch rawDataTimer = Stopwatch.createStarted();
         mementoRawData = persistenceStoreAccess.loadMementoRawData(exceptionHandler);
+        notePhaseCompleted("loadManifestFiles.loadRawData", rawDataTimer);
         
         preprocessManifestFiles();
         
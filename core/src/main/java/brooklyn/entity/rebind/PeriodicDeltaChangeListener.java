@@ -20,6 +20,7 @@ package brooklyn.entity.rebind;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Semaphore;
@@ -37,13 +38,16 @@ import brooklyn.entity.Entity;
 import brooklyn.entity.Feed;
 import brooklyn.entity.basic.BrooklynTaskTags;
 import brooklyn.entity.basic.EntityInternal;
+import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
 import brooklyn.entity.rebind.persister.BrooklynPersistenceUtils;
 import brooklyn.entity.rebind.persister.PersistenceActivityMetrics;
+import brooklyn.event.AttributeSensor;
 import brooklyn.internal.BrooklynFeatureEnablement;
 import brooklyn.location.Location;
 import brooklyn.management.ExecutionContext;
 import brooklyn.management.Task;
 import brooklyn.mementos.BrooklynMementoPersister;
+import brooklyn.mementos.EntityMemento;
 import brooklyn.policy.Enricher;
 import brooklyn.policy.Policy;
 import brooklyn.util.collections.MutableMap;
@@ -60,6 +64,7 @@ import com.google.common.collect.Lists;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -75,7 +80,7 @@ import com.google.common.collect.Sets;
  * @author aled
  *
  */
-public class PeriodicDeltaChangeListener implements ChangeListener {
+public class PeriodicDeltaChangeListener implements IncrementalChangeListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(PeriodicDeltaChangeListener.class);
 
@@ -93,11 +98,14 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
         private Set<String> removedEnricherIds = Sets.newLinkedHashSet();
         private Set<String> removedFeedIds = Sets.newLinkedHashSet();
         private Set<String> removedCatalogItemIds = Sets.newLinkedHashSet();
+        
+        /** entities whose only changes are to attributes, with the names of those attributes */
+        private Map<Entity, Set<String>> entityAttributeChanges = Maps.newLinkedHashMap();
 
         public boolean isEmpty() {
             return locations.isEmpty() && entities.isEmpty() && policies.isEmpty() && 
                     enrichers.isEmpty() && feeds.isEmpty() &&
-                    catalogItems.isEmpty() &&
+                    catalogItems.isEmpty() && entityAttributeChanges.isEmpty() &&
                     removedEntityIds.isEmpty() && removedLocationIds.isEmpty() && removedPolicyIds.isEmpty() && 
                     removedEnricherIds.isEmpty() && removedFeedIds.isEmpty() &&
                     removedCatalogItemIds.isEmpty();
@@ -109,6 +117,20 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
             if (type==BrooklynObjectType.CATALOG_ITEM) {
                 removedCatalogItemIds.remove(instance.getId());
             }
+            if (type==BrooklynObjectType.ENTITY) {
+                // whole entity to be persisted anyway
+                entityAttributeChanges.remove(instance);
+            }
+        }
+        
+        public void addAttributeChange(Entity entity, String attributeName) {
+            if (entities.contains(entity) || removedEntityIds.contains(entity.getId())) return;
+            Set<String> attributeNames = entityAttributeChanges.get(entity);
+            if (attributeNames == null) {
+                attributeNames = Sets.newLinkedHashSet();
+                entityAttributeChanges.put(entity, attributeNames);
+            }
+            attributeNames.add(attributeName);
         }
         
         public void addIfNotRemoved(BrooklynObject instance) {
@@ -122,6 +144,9 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
             BrooklynObjectType type = BrooklynObjectType.of(instance);
             getUnsafeCollectionOfType(type).remove(instance);
             getRemovedIdsOfType(type).add(instance.getId());
+            if (type==BrooklynObjectType.ENTITY) {
+                entityAttributeChanges.remove(instance);
+            }
         }
 
         @SuppressWarnings("unchecked")
@@ -178,6 +203,7 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
     private final boolean persistPoliciesEnabled;
     private final boolean persistEnrichersEnabled;
     private final boolean persistFeedsEnabled;
+    private final boolean incrementalEnabled;
     
     private final Semaphore persistingMutex = new Semaphore(1);
     private final Object startMutex = new Object();
@@ -194,6 +220,8 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
         this.persistPoliciesEnabled = BrooklynFeatureEnablement.isEnabled(BrooklynFeatureEnablement.FEATURE_POLICY_PERSISTENCE_PROPERTY);
         this.persistEnrichersEnabled = BrooklynFeatureEnablement.isEnabled(BrooklynFeatureEnablement.FEATURE_ENRICHER_PERSISTENCE_PROPERTY);
         this.persistFeedsEnabled = BrooklynFeatureEnablement.isEnabled(BrooklynFeatureEnablement.FEATURE_FEED_PERSISTENCE_PROPERTY);
+        this.incrementalEnabled = (persister instanceof BrooklynMementoPersisterToObjectStore) 
+                && ((BrooklynMementoPersisterToObjectStore)persister).isIncrementalEnabled();
     }
     
     @SuppressWarnings("unchecked")
@@ -365,10 +393,10 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
             }
             
             if (LOG.isDebugEnabled()) LOG.debug("Checkpointing delta of memento: "
-                    + "updating entities={}, locations={}, policies={}, enrichers={}, catalog items={}; "
+                    + "updating entities={}, entity attributes={}, locations={}, policies={}, enrichers={}, catalog items={}; "
                     + "removing entities={}, locations={}, policies={}, enrichers={}, catalog items={}",
                     new Object[] {
-                        limitedCountString(prevDeltaCollector.entities), limitedCountString(prevDeltaCollector.locations), limitedCountString(prevDeltaCollector.policies), limitedCountString(prevDeltaCollector.enrichers), limitedCountString(prevDeltaCollector.catalogItems), 
+                        limitedCountString(prevDeltaCollector.entities), limitedCountString(prevDeltaCollector.entityAttributeChanges.keySet()), limitedCountString(prevDeltaCollector.locations), limitedCountString(prevDeltaCollector.policies), limitedCountString(prevDeltaCollector.enrichers), limitedCountString(prevDeltaCollector.catalogItems), 
                         limitedCountString(prevDeltaCollector.removedEntityIds), limitedCountString(prevDeltaCollector.removedLocationIds), limitedCountString(prevDeltaCollector.removedPolicyIds), limitedCountString(prevDeltaCollector.removedEnricherIds), limitedCountString(prevDeltaCollector.removedCatalogItemIds)});
 
             addReferencedObjects(prevDeltaCollector);
@@ -395,6 +423,15 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
                         }
                     }
                 }
+                for (Map.Entry<Entity, Set<String>> entry : prevDeltaCollector.entityAttributeChanges.entrySet()) {
+                    Entity instance = entry.getKey();
+                    try {
+                        EntityMemento memento = (EntityMemento) ((BrooklynObjectInternal)instance).getRebindSupport().getMemento();
+                        persisterDelta.addEntityAttributeChanges(memento, entry.getValue());
+                    } catch (Exception e) {
+                        exceptionHandler.onGenerateMementoFailed(BrooklynObjectType.ENTITY, instance, e);
+                    }
+                }
                 for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
                     persisterDelta.removed(type, prevDeltaCollector.getRemovedIdsOfType(type));
                 }
@@ -469,6 +506,22 @@ public class PeriodicDeltaChangeListener implements ChangeListener {
         }
     }
     
+    /**
+     * If the persister supports incremental persistence, records just the attribute as changed
+     * (unless the whole entity is already to be persisted); otherwise as {@link #onChanged(BrooklynObject)}.
+     */
+    @Override
+    public synchronized void onAttributeChanged(Entity entity, AttributeSensor<?> attribute) {
+        if (!incrementalEnabled) {
+            onChanged(entity);
+            return;
+        }
+        if (LOG.isTraceEnabled()) LOG.trace("onAttributeChanged: {} {}", entity, attribute.getName());
+        if (!isStopped()) {
+            deltaCollector.addAttributeChange(entity, attribute.getName());
+        }
+    }
+    
     public PersistenceExceptionHandler getExceptionHandler() {
         return exceptionHandler;
     }
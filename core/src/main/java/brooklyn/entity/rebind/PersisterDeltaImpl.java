@@ -20,6 +20,7 @@ package brooklyn.entity.rebind;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 import brooklyn.mementos.BrooklynMementoPersister.Delta;
@@ -34,6 +35,7 @@ import brooklyn.mementos.PolicyMemento;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 public class PersisterDeltaImpl implements Delta, MutableDelta {
@@ -53,6 +55,8 @@ public class PersisterDeltaImpl implements Delta, MutableDelta {
     Collection<String> removedEnricherIds = Sets.newLinkedHashSet();
     Collection <String> removedFeedIds = Sets.newLinkedHashSet();
     Collection<String> removedCatalogItemIds = Sets.newLinkedHashSet();
+    
+    Map<EntityMemento, Collection<String>> entityAttributeChanges = Maps.newLinkedHashMap();
 
     @Override
     public Collection<LocationMemento> locations() {
@@ -170,4 +174,22 @@ public class PersisterDeltaImpl implements Delta, MutableDelta {
         getRemovedIdsOfTypeMutable(type).addAll(removedIdsOfType);    
     }
 
+    /**
+     * Records that only the named attributes of the entity have changed, so that a persister supporting
+     * incremental persistence can write just those; the memento is the entity's complete memento, 
+     * for the attribute values and for when a complete write is needed.
+     * <p>
+     * Not included in {@link #entities()}, so must only be used with persisters which support it
+     * (see {@link brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore#isIncrementalEnabled()}).
+     */
+    @Beta
+    public void addEntityAttributeChanges(EntityMemento memento, Collection<String> changedAttributeNames) {
+        entityAttributeChanges.put(memento, changedAttributeNames);
+    }
+
+    @Beta
+    public Map<EntityMemento, Collection<String>> entityAttributeChanges() {
+        return Collections.unmodifiableMap(entityAttributeChanges);
+    }
+
 }
@@ -23,10 +23,19 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -170,6 +179,10 @@ public abstract class RebindIteration {
     // set on run start
     
     protected Stopwatch timer;
+    /** for instantiating and reconstructing entities concurrently, if {@link RebindManagerImpl#REBIND_PARALLELISM} is more than 1 */
+    protected ExecutorService executor;
+    /** time taken by each phase (and some sub-phases) so far, for the {@link #rebindMetrics} */
+    protected final Map<String, Duration> phaseDurations = Collections.synchronizedMap(new LinkedHashMap<String, Duration>());
     /** phase is used to ensure our steps are run as we've expected, and documented (in javadoc at top).
      * it's worth the extra effort due to the complication and the subtleties. */
     protected int phase = 0;
@@ -229,15 +242,31 @@ public abstract class RebindIteration {
     }
     
     protected void doRun() throws Exception {
+        Stopwatch phaseTimer = Stopwatch.createStarted();
         loadManifestFiles();
+        notePhaseCompleted("loadManifestFiles", phaseTimer);
         rebuildCatalog();
+        notePhaseCompleted("rebuildCatalog", phaseTimer);
         instantiateLocationsAndEntities();
+        notePhaseCompleted("instantiateLocationsAndEntities", phaseTimer);
         instantiateMementos();
+        notePhaseCompleted("instantiateMementos", phaseTimer);
         instantiateAdjuncts(instantiator); 
+        notePhaseCompleted("instantiateAdjuncts", phaseTimer);
         reconstructEverything();
+        notePhaseCompleted("reconstructEverything", phaseTimer);
         associateAdjunctsWithEntities();
+        notePhaseCompleted("associateAdjunctsWithEntities", phaseTimer);
         manageTheObjects();
+        notePhaseCompleted("manageTheObjects", phaseTimer);
         finishingUp();
+        notePhaseCompleted("finishingUp", phaseTimer);
+    }
+    
+    /** records the time on the given stopwatch against the given phase name, and restarts the stopwatch */
+    protected void notePhaseCompleted(String phaseName, Stopwatch phaseTimer) {
+        phaseDurations.put(phaseName, Duration.of(phaseTimer));
+        phaseTimer.reset().start();
     }
     
     protected abstract void loadManifestFiles() throws Exception;
@@ -256,27 +285,89 @@ public abstract class RebindIteration {
 
             timer = Stopwatch.createStarted();
             exceptionHandler.onStart(rebindContext);
+            if (rebindManager.rebindParallelism > 1) {
+                executor = Executors.newFixedThreadPool(rebindManager.rebindParallelism, new ThreadFactory() {
+                    @Override public Thread newThread(Runnable r) {
+                        return new Thread(r, "brooklyn-rebind");
+                    }});
+            }
 
             doRun();
             
             exceptionHandler.onDone();
             
             rebindMetrics.noteSuccess(Duration.of(timer));
+            rebindMetrics.notePhaseDurations(phaseDurations);
             noteErrors(exceptionHandler, null);
             
         } catch (Exception e) {
             rebindMetrics.noteFailure(Duration.of(timer));
+            rebindMetrics.notePhaseDurations(phaseDurations);
             
             Exceptions.propagateIfFatal(e);
             noteErrors(exceptionHandler, e);
             throw exceptionHandler.onFailed(e);
             
         } finally {
+            if (executor != null) executor.shutdownNow();
             rebindActive.release();
             RebindTracker.reset();
         }
     }
     
+    /** An action to be performed on each of several items, by {@link RebindIteration#forEachItem(Iterable, ItemAction)}. */
+    protected static abstract class ItemAction<T> {
+        protected abstract void run(T item) throws Exception;
+        /** called in the rebinding thread, in the order of the items, for each item whose {@link #run(Object)} failed */
+        protected abstract void onFailure(T item, Exception e);
+    }
+    
+    /**
+     * Runs the action on each item: sequentially, or concurrently if there is an {@link #executor}
+     * (in which case this waits for all to complete). Failures are passed to {@link ItemAction#onFailure(Object, Exception)}
+     * in the rebinding thread and in the order of the items, whatever order they happened in, so that reporting 
+     * to the {@link RebindExceptionHandler} (including failing fast) is deterministic.
+     */
+    protected <T> void forEachItem(Iterable<T> items, final ItemAction<T> action) {
+        if (executor == null) {
+            for (T item : items) {
+                try {
+                    action.run(item);
+                } catch (Exception e) {
+                    action.onFailure(item, e);
+                }
+            }
+            return;
+        }
+        
+        List<T> submittedItems = Lists.newArrayList();
+        List<Future<?>> futures = Lists.newArrayList();
+        for (final T item : items) {
+            submittedItems.add(item);
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override public Void call() throws Exception {
+                    RebindTracker.setRebinding();
+                    try {
+                        action.run(item);
+                    } finally {
+                        RebindTracker.reset();
+                    }
+                    return null;
+                }}));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!(cause instanceof Exception)) throw Exceptions.propagate(cause);
+                action.onFailure(submittedItems.get(i), (Exception)cause);
+            } catch (InterruptedException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+    }
+    
     protected void checkEnteringPhase(int targetPhase) {
         phase++;
         checkContinuingPhase(targetPhase);
@@ -294,7 +385,9 @@ public abstract class RebindIteration {
         
         // TODO building the manifests should be part of this class (or parent)
         // it does not have anything to do with the persistence store!
+        Stopwatch manifestTimer = Stopwatch.createStarted();
         mementoManifest = persistenceStoreAccess.loadMementoManifest(mementoRawData, exceptionHandler);
+        notePhaseCompleted("loadManifestFiles.extractManifests", manifestTimer);
         
         overwritingMaster = false;
         isEmpty = mementoManifest.isEmpty();
@@ -396,21 +489,30 @@ public abstract class RebindIteration {
         
         // Instantiate entities
         logRebindingDebug("RebindManager instantiating entities: {}", mementoManifest.getEntityIdToManifest().keySet());
-        for (Map.Entry<String, EntityMementoManifest> entry : mementoManifest.getEntityIdToManifest().entrySet()) {
-            String entityId = entry.getKey();
-            EntityMementoManifest entityManifest = entry.getValue();
-            String catalogItemId = findCatalogItemId(classLoader, mementoManifest.getEntityIdToManifest(), entityManifest);
-            
-            if (LOG.isTraceEnabled()) LOG.trace("RebindManager instantiating entity {}", entityId);
-            
-            try {
+        final Map<String, Entity> newEntities = new ConcurrentHashMap<String, Entity>();
+        forEachItem(mementoManifest.getEntityIdToManifest().values(), new ItemAction<EntityMementoManifest>() {
+            @Override protected void run(EntityMementoManifest entityManifest) throws Exception {
+                String entityId = entityManifest.getId();
+                String catalogItemId = findCatalogItemId(classLoader, mementoManifest.getEntityIdToManifest(), entityManifest);
+                
+                if (LOG.isTraceEnabled()) LOG.trace("RebindManager instantiating entity {}", entityId);
+                
                 Entity entity = (Entity) instantiator.newEntity(entityId, entityManifest.getType(), catalogItemId);
                 ((EntityInternal)entity).getManagementSupport().setReadOnly( rebindContext.isReadOnly(entity) );
-                rebindContext.registerEntity(entityId, entity);
-
-            } catch (Exception e) {
-                exceptionHandler.onCreateFailed(BrooklynObjectType.ENTITY, entityId, entityManifest.getType(), e);
+                if (executor == null) {
+                    rebindContext.registerEntity(entityId, entity);
+                } else {
+                    newEntities.put(entityId, entity);
+                }
+            }
+            @Override protected void onFailure(EntityMementoManifest entityManifest, Exception e) {
+                exceptionHandler.onCreateFailed(BrooklynObjectType.ENTITY, entityManifest.getId(), entityManifest.getType(), e);
             }
+        });
+        // if done concurrently, register them in a consistent order
+        for (String entityId : mementoManifest.getEntityIdToManifest().keySet()) {
+            Entity entity = newEntities.get(entityId);
+            if (entity != null) rebindContext.registerEntity(entityId, entity);
         }
     }
 
@@ -564,22 +666,55 @@ public abstract class RebindIteration {
    
         // Reconstruct entities
         logRebindingDebug("RebindManager reconstructing entities");
-        for (EntityMemento entityMemento : sortParentFirst(memento.getEntityMementos()).values()) {
-            Entity entity = rebindContext.lookup().lookupEntity(entityMemento.getId());
-            logRebindingDebug("RebindManager reconstructing entity {}", entityMemento);
-   
-            if (entity == null) {
-                // usually because of creation-failure, when not using fail-fast
-                exceptionHandler.onNotFound(BrooklynObjectType.ENTITY, entityMemento.getId());
-            } else {
-                try {
+        for (Collection<EntityMemento> entityMementos : groupParentFirst(memento.getEntityMementos())) {
+            final Map<String, Entity> entities = Maps.newLinkedHashMap();
+            List<EntityMemento> found = Lists.newArrayList();
+            for (EntityMemento entityMemento : entityMementos) {
+                Entity entity = rebindContext.lookup().lookupEntity(entityMemento.getId());
+                if (entity == null) {
+                    // usually because of creation-failure, when not using fail-fast
+                    exceptionHandler.onNotFound(BrooklynObjectType.ENTITY, entityMemento.getId());
+                } else {
+                    entities.put(entityMemento.getId(), entity);
+                    found.add(entityMemento);
+                }
+            }
+            
+            forEachItem(found, new ItemAction<EntityMemento>() {
+                @Override protected void run(EntityMemento entityMemento) throws Exception {
+                    Entity entity = entities.get(entityMemento.getId());
+                    logRebindingDebug("RebindManager reconstructing entity {}", entityMemento);
                     entityMemento.injectTypeClass(entity.getClass());
                     ((EntityInternal)entity).getRebindSupport().reconstruct(rebindContext, entityMemento);
-                } catch (Exception e) {
-                    exceptionHandler.onRebindFailed(BrooklynObjectType.ENTITY, entity, e);
                 }
-            }
+                @Override protected void onFailure(EntityMemento entityMemento, Exception e) {
+                    exceptionHandler.onRebindFailed(BrooklynObjectType.ENTITY, entities.get(entityMemento.getId()), e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Returns the entities in batches which can each be processed concurrently, each entity being in a later batch than its parent.
+     * When not running concurrently, this is a single batch in parent-first order (as per {@link #sortParentFirst(Map)}).
+     */
+    protected List<Collection<EntityMemento>> groupParentFirst(Map<String, EntityMemento> entityMementos) {
+        Map<String, EntityMemento> sorted = sortParentFirst(entityMementos);
+        List<Collection<EntityMemento>> result = Lists.newArrayList();
+        if (executor == null) {
+            result.add(sorted.values());
+            return result;
+        }
+        Map<String, Integer> depths = Maps.newHashMap();
+        for (EntityMemento entityMemento : sorted.values()) {
+            // parents come first, so their depth is already known
+            Integer parentDepth = (entityMemento.getParent() == null) ? null : depths.get(entityMemento.getParent());
+            int depth = (parentDepth == null) ? 0 : parentDepth + 1;
+            depths.put(entityMemento.getId(), depth);
+            while (result.size() <= depth) result.add(Lists.<EntityMemento>newArrayList());
+            result.get(depth).add(entityMemento);
         }
+        return result;
     }
 
     protected void associateAdjunctsWithEntities() {
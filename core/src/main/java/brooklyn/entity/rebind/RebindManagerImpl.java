@@ -45,6 +45,7 @@ import brooklyn.entity.rebind.persister.BrooklynPersistenceUtils;
 import brooklyn.entity.rebind.persister.BrooklynPersistenceUtils.CreateBackupMode;
 import brooklyn.entity.rebind.persister.PersistenceActivityMetrics;
 import brooklyn.entity.rebind.transformer.CompoundTransformer;
+import brooklyn.event.AttributeSensor;
 import brooklyn.internal.BrooklynFeatureEnablement;
 import brooklyn.management.ExecutionContext;
 import brooklyn.management.Task;
@@ -104,6 +105,13 @@ public class RebindManagerImpl implements RebindManager {
                 + "then linear regression to allow max 5% at 100 items and above", 
                 QuorumChecks.newLinearRange("[[0,-2],[10,8],[100,95],[200,190]]"));
 
+    public static final ConfigKey<Integer> REBIND_PARALLELISM =
+        ConfigKeys.newIntegerConfigKey("rebind.parallelism",
+                "Number of threads used to instantiate and reconstruct entities during rebind; "
+                + "if more than 1, entities are processed concurrently, with each entity reconstructed after its parent "
+                + "(failures are still reported in a consistent order)", 
+                1);
+
     public static final Logger LOG = LoggerFactory.getLogger(RebindManagerImpl.class);
 
     private final ManagementContextInternal managementContext;
@@ -131,6 +139,7 @@ public class RebindManagerImpl implements RebindManager {
     private RebindFailureMode addPolicyFailureMode;
     private RebindFailureMode loadPolicyFailureMode;
     private QuorumCheck danglingRefsQuorumRequiredHealthy;
+    final int rebindParallelism;
     
     private boolean isAwaitingInitialRebind;
     
@@ -178,6 +187,7 @@ public class RebindManagerImpl implements RebindManager {
         loadPolicyFailureMode = managementContext.getConfig().getConfig(LOAD_POLICY_FAILURE_MODE);
         
         danglingRefsQuorumRequiredHealthy = managementContext.getConfig().getConfig(DANGLING_REFERENCES_MIN_REQUIRED_HEALTHY);
+        rebindParallelism = Math.max(1, managementContext.getConfig().getConfig(REBIND_PARALLELISM));
 
         LOG.debug("{} initialized, settings: policies={}, enrichers={}, feeds={}, catalog={}",
                 new Object[]{this, persistPoliciesEnabled, persistEnrichersEnabled, persistFeedsEnabled, persistCatalogItemsEnabled});
@@ -599,7 +609,7 @@ public class RebindManagerImpl implements RebindManager {
      * failed to persist, and we'd expect other threads to throw the OutOfMemoryError so
      * we shouldn't lose anything.
      */
-    private static class SafeChangeListener implements ChangeListener {
+    private static class SafeChangeListener implements IncrementalChangeListener {
         private final ChangeListener delegate;
         
         public SafeChangeListener(ChangeListener delegate) {
@@ -632,6 +642,19 @@ public class RebindManagerImpl implements RebindManager {
                 LOG.error("Error persisting mememento onUnmanaged("+instance+"); continuing.", t);
             }
         }
+        
+        @Override
+        public void onAttributeChanged(Entity entity, AttributeSensor<?> attribute) {
+            try {
+                if (delegate instanceof IncrementalChangeListener) {
+                    ((IncrementalChangeListener)delegate).onAttributeChanged(entity, attribute);
+                } else {
+                    delegate.onChanged(entity);
+                }
+            } catch (Throwable t) {
+                LOG.error("Error persisting mememento onAttributeChanged("+entity+", "+attribute.getName()+"); continuing.", t);
+            }
+        }
     }
 
     public int getReadOnlyRebindCount() {
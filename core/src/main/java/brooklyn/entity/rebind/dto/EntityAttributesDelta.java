@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import brooklyn.basic.BrooklynObject;
+import brooklyn.basic.BrooklynTypes;
+import brooklyn.entity.Entity;
+import brooklyn.event.AttributeSensor;
+import brooklyn.event.Sensor;
+import brooklyn.mementos.EntityMemento;
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A record of the attributes of an entity which have changed since its {@link EntityMemento} was last persisted
+ * in full, for incremental persistence. Serialized in the same way as the memento, so the attribute values
+ * (and any attribute keys not statically defined on the entity type) appear exactly as they would in the
+ * memento's {@code attributes} and {@code attributeKeys}, and can be replayed onto it.
+ */
+@Beta
+public class EntityAttributesDelta implements Serializable {
+
+    private static final long serialVersionUID = -2585412916426004768L;
+
+    /**
+     * Extracts the given attributes from the (complete) memento; those named but absent from the memento
+     * (because they have been removed, or are not persisted) are recorded as removed.
+     */
+    public static EntityAttributesDelta of(EntityMemento memento, Collection<String> changedAttributeNames) {
+        Map<String, Sensor<?>> staticSensorKeys = getStaticSensorKeys(memento);
+
+        Map<String, Object> attributes = Maps.newLinkedHashMap();
+        Map<String, AttributeSensor<?>> attributeKeys = Maps.newLinkedHashMap();
+        for (Map.Entry<AttributeSensor<?>, Object> entry : memento.getAttributes().entrySet()) {
+            AttributeSensor<?> key = entry.getKey();
+            if (changedAttributeNames.contains(key.getName())) {
+                attributes.put(key.getName(), entry.getValue());
+                if (!key.equals(staticSensorKeys.get(key.getName())))
+                    attributeKeys.put(key.getName(), key);
+            }
+        }
+        List<String> removedAttributes = Lists.newArrayList();
+        for (String name : changedAttributeNames) {
+            if (!attributes.containsKey(name)) removedAttributes.add(name);
+        }
+        return new EntityAttributesDelta(memento.getId(), attributes, attributeKeys, removedAttributes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Sensor<?>> getStaticSensorKeys(EntityMemento memento) {
+        Class<?> clazz = memento.getTypeClass();
+        return (clazz == null) ? BrooklynTypes.getDefinedSensors(memento.getType()) : BrooklynTypes.getDefinedSensors((Class<? extends Entity>) clazz);
+    }
+
+    private String id;
+    private Map<String, Object> attributes;
+    private Map<String, AttributeSensor<?>> attributeKeys;
+    private List<String> removedAttributes;
+
+    @SuppressWarnings("unused") // For deserialisation
+    private EntityAttributesDelta() {}
+
+    public EntityAttributesDelta(String id, Map<String, Object> attributes, Map<String, AttributeSensor<?>> attributeKeys, List<String> removedAttributes) {
+        this.id = id;
+        // nulls rather than empty collections, for more compact output
+        this.attributes = attributes.isEmpty() ? null : attributes;
+        this.attributeKeys = attributeKeys.isEmpty() ? null : attributeKeys;
+        this.removedAttributes = removedAttributes.isEmpty() ? null : removedAttributes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes == null ? Collections.<String, Object>emptyMap() : Collections.unmodifiableMap(attributes);
+    }
+
+    public Map<String, AttributeSensor<?>> getAttributeKeys() {
+        return attributeKeys == null ? Collections.<String, AttributeSensor<?>>emptyMap() : Collections.unmodifiableMap(attributeKeys);
+    }
+
+    public List<String> getRemovedAttributes() {
+        return removedAttributes == null ? Collections.<String>emptyList() : Collections.unmodifiableList(removedAttributes);
+    }
+
+    /**
+     * Whether this record serializes without xstream back-references, which would not resolve once it is
+     * replayed into the memento. That is the case if the attribute values are simple values, brooklyn objects
+     * (written as references by id), and collections, maps and arrays of those, with none of the brooklyn objects,
+     * durations or containers appearing more than once; and if the attribute keys do not share type tokens.
+     * Values of any other type are not inspected, so are conservatively treated as not self-contained.
+     */
+    public boolean isSelfContained() {
+        Set<Object> seen = Sets.newIdentityHashSet();
+        for (Object value : getAttributes().values()) {
+            if (!isSelfContained(value, seen)) return false;
+        }
+        for (AttributeSensor<?> key : getAttributeKeys().values()) {
+            if (!seen.add(key) || !seen.add(key.getTypeToken())) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSelfContained(Object value, Set<Object> seen) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof Enum
+                || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float
+                || value instanceof Short || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal) {
+            // immutable types, which xstream never writes as references
+            return true;
+        }
+        if (!seen.add(value)) return false;
+        if (value instanceof BrooklynObject || value instanceof Duration) {
+            return true;
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!isSelfContained(entry.getKey(), seen) || !isSelfContained(entry.getValue(), seen)) return false;
+            }
+            return true;
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                if (!isSelfContained(element, seen)) return false;
+            }
+            return true;
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                if (!isSelfContained(element, seen)) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("id", id)
+                .add("attributes", getAttributes().keySet())
+                .add("removedAttributes", getRemovedAttributes())
+                .toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.persister;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.stream.Streams;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.BaseEncoding;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
+import com.thoughtworks.xstream.io.copy.HierarchicalStreamCopier;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+
+/**
+ * A compact alternative to {@link XmlMementoSerializer}, writing the same structure (with all the same aliases
+ * and converters, including those which use the {@link brooklyn.mementos.BrooklynMementoPersister.LookupContext})
+ * but using xstream's binary format rather than xml, so avoiding the cost of writing xml text. It is not quicker
+ * to load: the persister converts binary mementos back to xml as they are read, so that everything consuming the
+ * raw memento data (rebind, transformers, hot-standby) sees xml.
+ * <p>
+ * As {@link MementoSerializer} deals in strings, the binary form is base64-encoded, preceded by a header line
+ * giving the format version: {@code brooklyn-binary-memento:1}. Anything without that header is read as xml,
+ * so a store written with {@link XmlMementoSerializer} can be switched to this format, each object being
+ * converted as it is next persisted. Use {@link #toXml(String)} to get the equivalent xml (e.g. for xpath
+ * queries, or for {@link brooklyn.entity.rebind.transformer.CompoundTransformer}s), without deserializing.
+ */
+@Beta
+public class BinaryMementoSerializer<T> extends XmlMementoSerializer<T> {
+
+    public static final String HEADER_PREFIX = "brooklyn-binary-memento:";
+    public static final int FORMAT_VERSION = 1;
+
+    public BinaryMementoSerializer(ClassLoader classLoader) {
+        super(classLoader);
+    }
+
+    /** whether the given serialized form was written by this serializer (rather than being xml) */
+    public static boolean isBinary(String serialized) {
+        return serialized != null && serialized.startsWith(HEADER_PREFIX);
+    }
+
+    /** returns the xml equivalent of the given serialized form, or the given string if it is already xml */
+    public static String toXml(String serialized) {
+        if (!isBinary(serialized)) return serialized;
+        StringWriter result = new StringWriter();
+        PrettyPrintWriter xmlWriter = new PrettyPrintWriter(result);
+        new HierarchicalStreamCopier().copy(newBinaryReader(serialized), xmlWriter);
+        xmlWriter.flush();
+        return result.append("\n").toString();
+    }
+
+    @Override
+    public void serialize(Object object, Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryStreamWriter binaryWriter = new BinaryStreamWriter(bytes);
+        xstream.marshal(object, binaryWriter);
+        binaryWriter.flush();
+        try {
+            writer.append(HEADER_PREFIX).append(Integer.toString(FORMAT_VERSION)).append("\n");
+            writer.append(BaseEncoding.base64().encode(bytes.toByteArray())).append("\n");
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    @Override
+    public T deserialize(Reader reader) {
+        return fromString(Streams.readFully(reader));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T fromString(String serialized) {
+        if (!isBinary(serialized)) {
+            // e.g. written before the store was switched to this format
+            return super.deserialize(new StringReader(serialized));
+        }
+        return (T) xstream.unmarshal(newBinaryReader(serialized));
+    }
+
+    private static BinaryStreamReader newBinaryReader(String serialized) {
+        int headerEnd = serialized.indexOf('\n');
+        if (headerEnd < 0) throw new IllegalArgumentException("Invalid binary memento: no content after header");
+        String version = serialized.substring(HEADER_PREFIX.length(), headerEnd).trim();
+        if (!Integer.toString(FORMAT_VERSION).equals(version)) {
+            throw new IllegalStateException("Unsupported binary memento format version "+version+" (expected "+FORMAT_VERSION+")");
+        }
+        byte[] bytes = BaseEncoding.base64().decode(serialized.substring(headerEnd+1).trim());
+        return new BinaryStreamReader(new ByteArrayInputStream(bytes));
+    }
+}
@@ -21,9 +21,12 @@ package brooklyn.entity.rebind.persister;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -50,6 +53,7 @@ import brooklyn.entity.rebind.PersisterDeltaImpl;
 import brooklyn.entity.rebind.RebindExceptionHandler;
 import brooklyn.entity.rebind.dto.BrooklynMementoImpl;
 import brooklyn.entity.rebind.dto.BrooklynMementoManifestImpl;
+import brooklyn.entity.rebind.dto.EntityAttributesDelta;
 import brooklyn.entity.rebind.persister.PersistenceObjectStore.StoreObjectAccessor;
 import brooklyn.entity.rebind.persister.PersistenceObjectStore.StoreObjectAccessorWithLock;
 import brooklyn.management.classloading.ClassLoaderFromBrooklynClassLoadingContext;
@@ -58,6 +62,7 @@ import brooklyn.mementos.BrooklynMementoManifest;
 import brooklyn.mementos.BrooklynMementoPersister;
 import brooklyn.mementos.BrooklynMementoRawData;
 import brooklyn.mementos.CatalogItemMemento;
+import brooklyn.mementos.EntityMemento;
 import brooklyn.mementos.Memento;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.CompoundRuntimeException;
@@ -71,6 +76,7 @@ import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
@@ -99,13 +105,45 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             "Maximum number of attempts to serialize a memento (e.g. if first attempts fail because of concurrent modifications of an entity)", 
             5);
 
+    public static final ConfigKey<Boolean> PERSISTER_INCREMENTAL_ENABLED = ConfigKeys.newBooleanConfigKey(
+            "persister.incremental.enabled",
+            "Whether an entity whose only changes are to its attributes is persisted by appending a record of the changed attributes, "
+            + "rather than by rewriting its complete memento", 
+            false);
+
+    public static final ConfigKey<Integer> PERSISTER_INCREMENTAL_COMPACT_AFTER = ConfigKeys.newIntegerConfigKey(
+            "persister.incremental.compactAfterDeltas",
+            "Maximum number of attribute-change records appended for an entity before its complete memento is rewritten (and the records discarded)", 
+            50);
+
+    public static final ConfigKey<String> PERSISTER_SERIALIZATION_FORMAT = ConfigKeys.newStringConfigKey(
+            "persister.serializationFormat",
+            "Format in which mementos are written: 'xml', or 'binary' which is quicker to write but not to load (see BinaryMementoSerializer); "
+            + "either format can be read regardless of this setting, binary mementos being converted to xml as they are loaded", 
+            "xml");
+
+    private static final List<String> MANIFEST_FIELDS = ImmutableList.of("id", "type");
+    private static final List<String> ENTITY_MANIFEST_FIELDS = ImmutableList.of("id", "type", "parent", "catalogItemId");
+
+    /** sub-path for the attribute-change records appended for entities, when {@link #PERSISTER_INCREMENTAL_ENABLED} */
+    public static final String DELTAS_SUB_PATH = "deltas";
+    private static final String DELTAS_SUFFIX = ".delta";
+
     private final PersistenceObjectStore objectStore;
+    private final boolean binaryFormat;
     private final MementoSerializer<Object> serializerWithStandardClassLoader;
+    /** for the attribute-change records, which are always xml so they can be replayed onto the memento's xml */
+    private final MementoSerializer<Object> deltaSerializer;
 
     private final Map<String, StoreObjectAccessorWithLock> writers = new LinkedHashMap<String, PersistenceObjectStore.StoreObjectAccessorWithLock>();
 
     private final ListeningExecutorService executor;
 
+    private final boolean incrementalEnabled;
+    private final int compactAfterDeltas;
+    /** number of attribute-change records for each entity which has any, since its complete memento was last written */
+    private final ConcurrentMap<String, Integer> deltaCounts = new ConcurrentHashMap<String, Integer>();
+
     private volatile boolean writesAllowed = false;
     private volatile boolean writesShuttingDown = false;
     private StringConfigMap brooklynProperties;
@@ -121,10 +159,21 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         this.brooklynProperties = brooklynProperties;
         
         int maxSerializationAttempts = brooklynProperties.getConfig(PERSISTER_MAX_SERIALIZATION_ATTEMPTS);
-        MementoSerializer<Object> rawSerializer = new XmlMementoSerializer<Object>(classLoader);
+        String format = brooklynProperties.getConfig(PERSISTER_SERIALIZATION_FORMAT);
+        if ("binary".equalsIgnoreCase(format)) {
+            this.binaryFormat = true;
+        } else {
+            if (!"xml".equalsIgnoreCase(format)) LOG.warn("Unknown "+PERSISTER_SERIALIZATION_FORMAT.getName()+" '"+format+"'; using xml");
+            this.binaryFormat = false;
+        }
+        MementoSerializer<Object> rawSerializer = newRawSerializer(classLoader);
         this.serializerWithStandardClassLoader = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts);
 
         int maxThreadPoolSize = brooklynProperties.getConfig(PERSISTER_MAX_THREAD_POOL_SIZE);
+        this.incrementalEnabled = Boolean.TRUE.equals(brooklynProperties.getConfig(PERSISTER_INCREMENTAL_ENABLED));
+        this.compactAfterDeltas = brooklynProperties.getConfig(PERSISTER_INCREMENTAL_COMPACT_AFTER);
+        this.deltaSerializer = !binaryFormat ? serializerWithStandardClassLoader : 
+                new RetryingMementoSerializer<Object>(new XmlMementoSerializer<Object>(classLoader), maxSerializationAttempts);
 
         objectStore.createSubPath("entities");
         objectStore.createSubPath("locations");
@@ -132,6 +181,7 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         objectStore.createSubPath("enrichers");
         objectStore.createSubPath("feeds");
         objectStore.createSubPath("catalog");
+        objectStore.createSubPath(DELTAS_SUB_PATH);
 
         // FIXME does it belong here or to ManagementPlaneSyncRecordPersisterToObjectStore ?
         objectStore.createSubPath("plane");
@@ -159,12 +209,17 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
     
     protected MementoSerializer<Object> getSerializerWithCustomClassLoader(LookupContext lookupContext, ClassLoader classLoader) {
         int maxSerializationAttempts = brooklynProperties.getConfig(PERSISTER_MAX_SERIALIZATION_ATTEMPTS);
-        MementoSerializer<Object> rawSerializer = new XmlMementoSerializer<Object>(classLoader);
+        MementoSerializer<Object> rawSerializer = newRawSerializer(classLoader);
         MementoSerializer<Object> result = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts);
         result.setLookupContext(lookupContext);
         return result;
     }
     
+    /** both serializers read either format; this determines which is written */
+    protected MementoSerializer<Object> newRawSerializer(ClassLoader classLoader) {
+        return binaryFormat ? new BinaryMementoSerializer<Object>(classLoader) : new XmlMementoSerializer<Object>(classLoader);
+    }
+    
     @Nullable protected ClassLoader getCustomClassLoaderForBrooklynObject(LookupContext lookupContext, BrooklynObjectType type, String objectId) {
         BrooklynObject item = lookupContext.peek(type, objectId);
         // TODO enrichers etc aren't yet known -- would need to backtrack to the entity to get them from bundles
@@ -221,6 +276,15 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         return objectStore;
     }
 
+    /** 
+     * Whether entities whose attributes alone have changed can be passed to {@link #delta(Delta, PersistenceExceptionHandler)} 
+     * with just those attributes (see {@link PersisterDeltaImpl#addEntityAttributeChanges(EntityMemento, Collection)}).
+     */
+    @Beta
+    public boolean isIncrementalEnabled() {
+        return incrementalEnabled;
+    }
+
     protected StoreObjectAccessorWithLock getWriter(String path) {
         String id = path.substring(path.lastIndexOf('/')+1);
         synchronized (writers) {
@@ -270,8 +334,10 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         return subPathData;
     }
     
+    /** loads the persisted mementos as xml, converting any written in the {@link BinaryMementoSerializer binary} format */
     public BrooklynMementoRawData loadMementoRawData(final RebindExceptionHandler exceptionHandler) {
         BrooklynMementoRawData subPathData = listMementoSubPathsAsData(exceptionHandler);
+        final Map<String, String> deltaSubPaths = listDeltaSubPaths(exceptionHandler);
         
         final BrooklynMementoRawData.Builder builder = BrooklynMementoRawData.builder();
         
@@ -286,7 +352,14 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
                     exceptionHandler.onLoadMementoFailed(type, "memento "+id+" read error", e);
                 }
                 
-                String xmlId = (String) XmlUtil.xpath(contents, "/"+type.toCamelCase()+"/id");
+                // decode binary mementos once here, so that delta replay, manifests and transformers all see xml
+                if (contents != null) contents = BinaryMementoSerializer.toXml(contents);
+                
+                if (type == BrooklynObjectType.ENTITY && contents != null && deltaSubPaths.containsKey(id)) {
+                    contents = replayDeltas(id, contents, deltaSubPaths.get(id), exceptionHandler);
+                }
+                
+                String xmlId = getRootChildText(contents, ImmutableList.of("id")).get("id");
                 String safeXmlId = Strings.makeValidFilename(xmlId);
                 if (!Objects.equal(id, safeXmlId))
                     LOG.warn("ID mismatch on "+type.toCamelCase()+", "+id+" from path, "+safeXmlId+" from xml");
@@ -312,6 +385,56 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         return result;
     }
 
+    /** 
+     * Reads the given fields of a memento in one streaming pass (see {@link XmlUtil#rootChildText(String, Collection)}), 
+     * as empty strings if absent (as xpath would give).
+     */
+    private static Map<String, String> getRootChildText(String contents, Collection<String> names) {
+        Map<String, String> result = XmlUtil.rootChildText(contents, names);
+        for (String name : names) {
+            if (!result.containsKey(name)) result.put(name, "");
+        }
+        return result;
+    }
+
+    private Map<String, String> listDeltaSubPaths(RebindExceptionHandler exceptionHandler) {
+        try {
+            return listDeltaSubPaths();
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            exceptionHandler.onLoadMementoFailed(BrooklynObjectType.ENTITY, "Failed to list attribute delta files", e);
+            return MutableMap.of();
+        }
+    }
+
+    /** the sub-paths of the attribute delta files in the store, by entity id */
+    private Map<String, String> listDeltaSubPaths() {
+        Map<String, String> result = MutableMap.of();
+        for (Map.Entry<String, String> entry : makeIdSubPathMap(objectStore.listContentsWithSubPath(DELTAS_SUB_PATH)).entrySet()) {
+            String id = entry.getKey();
+            if (id.endsWith(DELTAS_SUFFIX)) {
+                result.put(id.substring(0, id.length()-DELTAS_SUFFIX.length()), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private String replayDeltas(String id, String contents, String deltasSubPath, RebindExceptionHandler exceptionHandler) {
+        try {
+            String records = read(deltasSubPath);
+            if (Strings.isBlank(records)) return contents;
+            int numRecords = EntityAttributesDeltaReplayer.splitRecords(records).size();
+            // so that compaction happens at the right time if we go on to persist this entity
+            deltaCounts.put(id, numRecords);
+            if (LOG.isTraceEnabled()) LOG.trace("Replaying {} attribute delta records onto memento of entity {}", numRecords, id);
+            return EntityAttributesDeltaReplayer.replay(id, contents, records);
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            exceptionHandler.onLoadMementoFailed(BrooklynObjectType.ENTITY, "memento "+id+" attribute delta replay error", e);
+            return contents;
+        }
+    }
+
     @Override
     public BrooklynMementoManifest loadMementoManifest(final RebindExceptionHandler exceptionHandler) throws IOException {
         return loadMementoManifest(null, exceptionHandler);
@@ -327,25 +450,18 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         Visitor visitor = new Visitor() {
             @Override
             public void visit(BrooklynObjectType type, String objectId, final String contents) throws Exception {
-                final String prefix = "/"+type.toCamelCase()+"/";
-
-                class XPathHelper {
-                    private String get(String innerPath) {
-                        return (String) XmlUtil.xpath(contents, prefix+innerPath);
-                    }
-                }
-                XPathHelper x = new XPathHelper();
-                
                 switch (type) {
                     case ENTITY:
-                        builder.entity(x.get("id"), x.get("type"), 
-                            Strings.emptyToNull(x.get("parent")), Strings.emptyToNull(x.get("catalogItemId")));
+                        Map<String, String> entityFields = getRootChildText(contents, ENTITY_MANIFEST_FIELDS);
+                        builder.entity(entityFields.get("id"), entityFields.get("type"), 
+                            Strings.emptyToNull(entityFields.get("parent")), Strings.emptyToNull(entityFields.get("catalogItemId")));
                         break;
                     case LOCATION:
                     case POLICY:
                     case ENRICHER:
                     case FEED:
-                        builder.putType(type, x.get("id"), x.get("type"));
+                        Map<String, String> fields = getRootChildText(contents, MANIFEST_FIELDS);
+                        builder.putType(type, fields.get("id"), fields.get("type"));
                         break;
                     case CATALOG_ITEM:
                         try {
@@ -518,6 +634,17 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             Stopwatch stopwatch = Stopwatch.createStarted();
             List<ListenableFuture<?>> futures = Lists.newArrayList();
             
+            // the store may hold attribute records not yet seen by this persister (e.g. if it has not loaded from it);
+            // note them so that they are deleted when the complete mementos are written
+            try {
+                for (String id : listDeltaSubPaths().keySet()) {
+                    deltaCounts.putIfAbsent(id, 0);
+                }
+            } catch (Exception e) {
+                Exceptions.propagateIfFatal(e);
+                LOG.warn("Failed to list attribute delta files in "+objectStore.getSummaryName()+" (continuing): "+e);
+            }
+            
             for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
                 for (Map.Entry<String, String> entry : newMemento.getObjectsOfType(type).entrySet()) {
                     futures.add(asyncPersist(type.getSubPathName(), type, entry.getKey(), entry.getValue(), exceptionHandler));
@@ -594,6 +721,11 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
                     futures.add(asyncPersist(type.getSubPathName(), entity, exceptionHandler));
                 }
             }
+            if (delta instanceof PersisterDeltaImpl) {
+                for (Map.Entry<EntityMemento, Collection<String>> entry : ((PersisterDeltaImpl)delta).entityAttributeChanges().entrySet()) {
+                    futures.add(asyncPersistAttributes(entry.getKey(), entry.getValue(), exceptionHandler));
+                }
+            }
             for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
                 for (String id : delta.getRemovedIdsOfType(type)) {
                     futures.add(asyncDelete(type.getSubPathName(), id, exceptionHandler));
@@ -651,6 +783,60 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             getWriter(getPath(subPath, memento.getId())).put(getSerializerWithStandardClassLoader().toString(memento));
         } catch (Exception e) {
             exceptionHandler.onPersistMementoFailed(memento, e);
+            return;
+        }
+        if (memento instanceof EntityMemento) {
+            supersedeDeltas(memento.getId(), exceptionHandler);
+        }
+    }
+    
+    /**
+     * Deletes any attribute records of the entity, as its complete memento has just been written and supersedes them;
+     * deleted after the write so a crash in between at worst replays slightly stale attributes, rather than losing them.
+     */
+    private void supersedeDeltas(String id, PersistenceExceptionHandler exceptionHandler) {
+        if (deltaCounts.remove(id) != null) {
+            deleteDeltas(id, exceptionHandler);
+        }
+    }
+    
+    /**
+     * Appends a record of the given attributes of the entity, unless it is time to compact
+     * (or the record is not self-contained), in which case writes the complete memento.
+     */
+    private void persistAttributes(EntityMemento memento, Collection<String> changedAttributes, PersistenceExceptionHandler exceptionHandler) {
+        String id = memento.getId();
+        Integer numDeltas = deltaCounts.get(id);
+        if (numDeltas == null) numDeltas = 0;
+        if (numDeltas >= compactAfterDeltas) {
+            if (LOG.isTraceEnabled()) LOG.trace("Compacting {} attribute delta records of entity {}", numDeltas, id);
+            persist(BrooklynObjectType.ENTITY.getSubPathName(), memento, exceptionHandler);
+            return;
+        }
+        try {
+            EntityAttributesDelta delta = EntityAttributesDelta.of(memento, changedAttributes);
+            if (!delta.isSelfContained()) {
+                // would be written with xstream back-references, which would not resolve once replayed into the memento
+                persist(BrooklynObjectType.ENTITY.getSubPathName(), memento, exceptionHandler);
+                return;
+            }
+            String record = deltaSerializer.toString(delta);
+            getWriter(getDeltasPath(id)).append(record);
+            deltaCounts.put(id, numDeltas+1);
+        } catch (Exception e) {
+            exceptionHandler.onPersistMementoFailed(memento, e);
+        }
+    }
+    
+    private void deleteDeltas(String id, PersistenceExceptionHandler exceptionHandler) {
+        String path = getDeltasPath(id);
+        try {
+            getWriter(path).delete();
+            synchronized (writers) {
+                writers.remove(path.substring(path.lastIndexOf('/')+1));
+            }
+        } catch (Exception e) {
+            exceptionHandler.onDeleteMementoFailed(id+DELTAS_SUFFIX, e);
         }
     }
     
@@ -662,6 +848,10 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             getWriter(getPath(subPath, id)).put(content);
         } catch (Exception e) {
             exceptionHandler.onPersistRawMementoFailed(type, id, e);
+            return;
+        }
+        if (type == BrooklynObjectType.ENTITY) {
+            supersedeDeltas(id, exceptionHandler);
         }
     }
     
@@ -675,6 +865,9 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         } catch (Exception e) {
             exceptionHandler.onDeleteMementoFailed(id, e);
         }
+        if (deltaCounts.remove(id) != null) {
+            deleteDeltas(id, exceptionHandler);
+        }
     }
 
     private ListenableFuture<?> asyncPersist(final String subPath, final Memento memento, final PersistenceExceptionHandler exceptionHandler) {
@@ -684,6 +877,13 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             }});
     }
 
+    private ListenableFuture<?> asyncPersistAttributes(final EntityMemento memento, final Collection<String> changedAttributes, final PersistenceExceptionHandler exceptionHandler) {
+        return executor.submit(new Runnable() {
+            public void run() {
+                persistAttributes(memento, changedAttributes, exceptionHandler);
+            }});
+    }
+
     private ListenableFuture<?> asyncPersist(final String subPath, final BrooklynObjectType type, final String id, final String content, final PersistenceExceptionHandler exceptionHandler) {
         return executor.submit(new Runnable() {
             public void run() {
@@ -702,6 +902,10 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         return subPath+"/"+Strings.makeValidFilename(id);
     }
 
+    private String getDeltasPath(String id) {
+        return getPath(DELTAS_SUB_PATH, id)+DELTAS_SUFFIX;
+    }
+
     @Override
     public String getBackingStoreDescription() {
         return getObjectStore().getSummaryName();
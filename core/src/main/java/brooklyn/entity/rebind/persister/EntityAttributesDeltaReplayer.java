@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.persister;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import brooklyn.entity.rebind.dto.EntityAttributesDelta;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.exceptions.Exceptions;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Replays the serialized {@link EntityAttributesDelta} records appended for an entity onto the XML of its
+ * last complete memento, giving the XML of the memento as it would have been had it been written in full.
+ * <p>
+ * This works on the raw XML (rather than on deserialized mementos) so that everything which consumes
+ * {@link brooklyn.mementos.BrooklynMementoRawData} sees the replayed state. Entries in the memento's
+ * {@code attributes} and {@code attributeKeys} are matched by name (both for the {@code <name>} and
+ * {@code <entry key="name">} forms written by {@link brooklyn.util.xstream.StringKeyMapConverter}).
+ */
+@Beta
+public class EntityAttributesDeltaReplayer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityAttributesDeltaReplayer.class);
+
+    /** root element of each record, as aliased in {@link XmlMementoSerializer} */
+    static final String RECORD_ELEMENT = "entityAttributes";
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+    /** neither builders nor transformers are thread-safe, and entities are loaded (and so replayed) in parallel */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+        @Override protected DocumentBuilder initialValue() {
+            try {
+                synchronized (DOCUMENT_BUILDER_FACTORY) {
+                    return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+                }
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+    };
+    private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<Transformer>() {
+        @Override protected Transformer initialValue() {
+            try {
+                synchronized (TRANSFORMER_FACTORY) {
+                    return TRANSFORMER_FACTORY.newTransformer();
+                }
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+    };
+
+    /**
+     * Returns the base memento XML with the given records applied in order.
+     * Records which cannot be parsed (e.g. the last, if the process died while appending it) are skipped with a warning.
+     */
+    public static String replay(String entityId, String baseXml, String records) {
+        try {
+            DocumentBuilder builder = DOCUMENT_BUILDER.get();
+            builder.reset();
+            Document base = builder.parse(new InputSource(new StringReader(baseXml)));
+            Element root = base.getDocumentElement();
+
+            for (String record : splitRecords(records)) {
+                Element recordElement;
+                try {
+                    recordElement = builder.parse(new InputSource(new StringReader(record))).getDocumentElement();
+                } catch (Exception e) {
+                    Exceptions.propagateIfFatal(e);
+                    LOG.warn("Skipping unparseable attributes delta record for entity "+entityId+": "+e);
+                    continue;
+                }
+                Element removed = getChild(recordElement, "removedAttributes");
+                if (removed != null) {
+                    Element attributes = getChild(root, "attributes");
+                    Element attributeKeys = getChild(root, "attributeKeys");
+                    for (Element name : getChildren(removed)) {
+                        if (attributes != null) removeEntry(attributes, name.getTextContent());
+                        if (attributeKeys != null) removeEntry(attributeKeys, name.getTextContent());
+                    }
+                }
+                mergeEntries(base, root, getChild(recordElement, "attributes"));
+                mergeEntries(base, root, getChild(recordElement, "attributeKeys"));
+            }
+
+            Transformer transformer = TRANSFORMER.get();
+            transformer.reset();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            StringWriter result = new StringWriter();
+            transformer.transform(new DOMSource(base), new StreamResult(result));
+            return result.toString()+"\n";
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    /** splits appended records, each of which starts on a new line with the record element */
+    static List<String> splitRecords(String records) {
+        List<String> result = MutableList.of();
+        String startTag = "<"+RECORD_ELEMENT+">";
+        int start = records.indexOf(startTag);
+        while (start >= 0) {
+            int next = records.indexOf("\n"+startTag, start);
+            String record = (next < 0) ? records.substring(start) : records.substring(start, next+1);
+            if (record.trim().length() > 0) result.add(record);
+            start = (next < 0) ? -1 : next+1;
+        }
+        return result;
+    }
+
+    private static void mergeEntries(Document base, Element root, Element deltaMap) {
+        if (deltaMap == null) return;
+        Element baseMap = getChild(root, deltaMap.getTagName());
+        if (baseMap == null) {
+            baseMap = base.createElement(deltaMap.getTagName());
+            root.appendChild(baseMap);
+        }
+        for (Element entry : getChildren(deltaMap)) {
+            removeEntry(baseMap, getEntryKey(entry));
+            baseMap.appendChild(base.importNode(entry, true));
+        }
+    }
+
+    private static void removeEntry(Element map, String key) {
+        for (Element entry : getChildren(map)) {
+            if (key.equals(getEntryKey(entry))) map.removeChild(entry);
+        }
+    }
+
+    private static String getEntryKey(Element entry) {
+        if ("entry".equals(entry.getTagName()) && entry.hasAttribute("key")) return entry.getAttribute("key");
+        return entry.getTagName();
+    }
+
+    private static Element getChild(Element parent, String name) {
+        for (Element child : getChildren(parent)) {
+            if (name.equals(child.getTagName())) return child;
+        }
+        return null;
+    }
+
+    private static List<Element> getChildren(Element parent) {
+        List<Element> result = MutableList.of();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) result.add((Element) child);
+        }
+        return result;
+    }
+}
@@ -28,6 +28,7 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -145,6 +146,26 @@ public class FileBasedObjectStore implements PersistenceObjectStore {
 
     @Override
     public List<String> listContentsWithSubPath(final String parentSubPath) {
+        return FluentIterable.from(listFiles(parentSubPath))
+                .transform(new Function<File, String>() {
+                    @Nullable
+                    @Override
+                    public String apply(@Nullable File input) {
+                        return format("%s/%s", parentSubPath, input.getName());
+                    }
+                }).toList();
+    }
+
+    @Override
+    public Map<String, Date> listContentsWithLastModifiedDates(String parentSubPath) {
+        Map<String, Date> result = MutableMap.of();
+        for (File file : listFiles(parentSubPath)) {
+            result.put(format("%s/%s", parentSubPath, file.getName()), new Date(file.lastModified()));
+        }
+        return result;
+    }
+
+    private List<File> listFiles(String parentSubPath) {
         if (!prepared) throw new IllegalStateException("Not yet prepared: "+this);
         
         Preconditions.checkNotNull(parentSubPath);
@@ -157,15 +178,8 @@ public class FileBasedObjectStore implements PersistenceObjectStore {
             }
         };
         File[] subPathDirFiles = subPathDir.listFiles(fileFilter);
-        if (subPathDirFiles==null) return ImmutableList.<String>of();
-        return FluentIterable.from(Arrays.asList(subPathDirFiles))
-                .transform(new Function<File, String>() {
-                    @Nullable
-                    @Override
-                    public String apply(@Nullable File input) {
-                        return format("%s/%s", parentSubPath, input.getName());
-                    }
-                }).toList();
+        if (subPathDirFiles==null) return ImmutableList.<File>of();
+        return Arrays.asList(subPathDirFiles);
     }
 
     @Override
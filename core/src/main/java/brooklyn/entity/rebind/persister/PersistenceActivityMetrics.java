@@ -32,6 +32,7 @@ public class PersistenceActivityMetrics {
     long count=0, failureCount=0;
     Long lastSuccessTime, lastDuration, lastFailureTime;
     List<Map<String,Object>> errorMessages = MutableList.of();
+    Map<String,Long> lastPhaseDurations = MutableMap.of();
 
     public void noteSuccess(Duration duration) {
         count++;
@@ -46,6 +47,17 @@ public class PersistenceActivityMetrics {
         lastDuration = duration!=null ? duration.toMilliseconds() : -1;
     }
 
+    /** records the time taken by each phase of the last run (e.g. of a rebind), replacing those previously noted */
+    public synchronized void notePhaseDurations(Map<String,Duration> phaseDurations) {
+        Map<String,Long> result = MutableMap.of();
+        synchronized (phaseDurations) {
+            for (Map.Entry<String,Duration> entry : phaseDurations.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toMilliseconds());
+            }
+        }
+        lastPhaseDurations = result;
+    }
+
     public void noteError(String error) {
         noteErrorObject(error);
     }
@@ -68,6 +80,7 @@ public class PersistenceActivityMetrics {
         result.put("lastSuccessTimeUtc", lastSuccessTime);
         result.put("lastSuccessTimeMillisSince", since(lastSuccessTime));
         result.put("lastDuration", lastDuration);
+        result.put("lastPhaseDurations", MutableMap.copyOf(lastPhaseDurations));
         result.put("failureCount", failureCount);
         result.put("lastFailureTimeUtc", lastFailureTime);
         result.put("lastFailureTimeMillisSince", since(lastFailureTime));
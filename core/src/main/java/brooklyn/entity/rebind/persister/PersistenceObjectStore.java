@@ -20,6 +20,7 @@ package brooklyn.entity.rebind.persister;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -129,6 +130,13 @@ public interface PersistenceObjectStore {
      */
     List<String> listContentsWithSubPath(String subPath);
 
+    /**
+     * As {@link #listContentsWithSubPath(String)}, but also giving the last modified date of each object
+     * (or null if not supported), taken from the listing itself so that no request is made per object.
+     */
+    @Beta
+    Map<String, Date> listContentsWithLastModifiedDates(String subPath);
+
     /** Entirely delete the contents of this persistence location.
      * Use with care, primarily in tests. This will recursively wipe the indicated location. */ 
     public void deleteCompletely();
@@ -47,6 +47,7 @@ import brooklyn.entity.rebind.dto.BasicEntityMemento;
 import brooklyn.entity.rebind.dto.BasicFeedMemento;
 import brooklyn.entity.rebind.dto.BasicLocationMemento;
 import brooklyn.entity.rebind.dto.BasicPolicyMemento;
+import brooklyn.entity.rebind.dto.EntityAttributesDelta;
 import brooklyn.entity.rebind.dto.MutableBrooklynMemento;
 import brooklyn.entity.trait.Identifiable;
 import brooklyn.event.basic.BasicAttributeSensor;
@@ -97,6 +98,7 @@ public class XmlMementoSerializer<T> extends XmlSerializer<T> implements Memento
         xstream.alias("brooklyn", MutableBrooklynMemento.class);
         
         xstream.alias("entity", BasicEntityMemento.class);
+        xstream.alias("entityAttributes", EntityAttributesDelta.class);
         xstream.alias("location", BasicLocationMemento.class);
         xstream.alias("policy", BasicPolicyMemento.class);
         xstream.alias("feed", BasicFeedMemento.class);
@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.event.feed;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import brooklyn.config.ConfigKey;
+import brooklyn.config.StringConfigMap;
+import brooklyn.entity.Entity;
+import brooklyn.entity.basic.BrooklynTaskTags;
+import brooklyn.entity.basic.ConfigKeys;
+import brooklyn.entity.basic.Entities;
+import brooklyn.management.Task;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.task.Tasks;
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the periodic jobs of all {@link Poller}s in a management context from a shared timer,
+ * as an alternative to a {@link brooklyn.util.task.ScheduledTask} per poll job.
+ * <p>
+ * Jobs with identical periods share a timer wheel: the period is divided into a number of slots,
+ * each job is assigned to a random slot (so that jobs registered together do not all fire together),
+ * and on each tick the jobs in the current slot are run. Jobs are run as plain callbacks in a
+ * shared pool, rather than as a new {@link Task} each time, unless {@link #CREATE_TASKS} is set
+ * (which is useful for seeing poll executions in the GUI when debugging).
+ * <p>
+ * As with a scheduled task, a job never runs concurrently with itself: if a job is still running
+ * when its slot comes round again, that execution is skipped. Each job's lag (how late it started
+ * compared to when it was due) and duration are recorded in its {@link Registration}.
+ * <p>
+ * Enabled by {@link #ENABLED}.
+ */
+@Beta
+public class PollScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PollScheduler.class);
+
+    public static final ConfigKey<Boolean> ENABLED = ConfigKeys.newBooleanConfigKey(
+            "brooklyn.feed.pollScheduler.enabled",
+            "whether feeds' periodic polls are run from a shared timer, rather than as a scheduled task per poll job",
+            false);
+
+    public static final ConfigKey<Boolean> CREATE_TASKS = ConfigKeys.newBooleanConfigKey(
+            "brooklyn.feed.pollScheduler.createTasks",
+            "whether the shared poll timer runs each poll as a (transient) task in the entity's execution context, "
+            + "for debugging; otherwise polls are run as plain callbacks",
+            false);
+
+    public static final ConfigKey<Integer> SLOTS_PER_PERIOD = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.feed.pollScheduler.slotsPerPeriod",
+            "the number of slots into which each poll period is divided, over which poll start times are spread",
+            32);
+
+    /** ticks are never more frequent than this, so short periods get fewer slots */
+    private static final long MIN_TICK_MILLIS = 10;
+
+    private final boolean createTasks;
+    private final int slotsPerPeriod;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final ConcurrentMap<Long, Wheel> wheelsByPeriod = new ConcurrentHashMap<Long, Wheel>();
+    private final Random random = new Random();
+
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalSkipped = new AtomicLong();
+    private volatile boolean terminated = false;
+
+    public PollScheduler(StringConfigMap config) {
+        this(config.getConfig(CREATE_TASKS), config.getConfig(SLOTS_PER_PERIOD));
+    }
+
+    public PollScheduler(boolean createTasks, int slotsPerPeriod) {
+        this.createTasks = createTasks;
+        this.slotsPerPeriod = Math.max(1, slotsPerPeriod);
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("brooklyn-poll-scheduler-%d")
+                .setDaemon(true)
+                .build();
+        timer = new ScheduledThreadPoolExecutor(1, threadFactory);
+        workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory);
+    }
+
+    /**
+     * Runs the given job once immediately, and then every period (at a randomly chosen offset within the period)
+     * until the registration is cancelled or the entity is no longer managed.
+     */
+    public Registration register(Entity entity, String name, Duration period, Runnable job) {
+        if (terminated) throw new IllegalStateException("Poll scheduler terminated; cannot register "+name+" for "+entity);
+        long periodMillis = Math.max(1, period.toMilliseconds());
+        Wheel wheel = wheelsByPeriod.get(periodMillis);
+        if (wheel == null) {
+            synchronized (wheelsByPeriod) {
+                wheel = wheelsByPeriod.get(periodMillis);
+                if (wheel == null) {
+                    wheel = new Wheel(periodMillis);
+                    wheelsByPeriod.put(periodMillis, wheel);
+                }
+            }
+        }
+        Registration result = new Registration(entity, name, periodMillis, job);
+        synchronized (random) {
+            result.slot = random.nextInt(wheel.slots.length);
+        }
+        wheel.slots[result.slot].add(result);
+        result.wheel = wheel;
+        if (log.isTraceEnabled()) log.trace("Registered poll {} in slot {} of {}", new Object[] {result, result.slot, wheel});
+        dispatch(result, System.currentTimeMillis());
+        return result;
+    }
+
+    public void terminate() {
+        terminated = true;
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public long getNumRegistrations() {
+        long result = 0;
+        for (Wheel wheel : wheelsByPeriod.values()) {
+            for (List<Registration> slot : wheel.slots) {
+                result += slot.size();
+            }
+        }
+        return result;
+    }
+
+    /** total number of poll job executions started */
+    public long getTotalRuns() {
+        return totalRuns.get();
+    }
+
+    /** total number of poll job executions skipped because the previous execution was still running */
+    public long getTotalSkipped() {
+        return totalSkipped.get();
+    }
+
+    /** snapshot of all registrations, e.g. to report on their lag and duration */
+    public List<Registration> getRegistrations() {
+        List<Registration> result = MutableList.of();
+        for (Wheel wheel : wheelsByPeriod.values()) {
+            for (List<Registration> slot : wheel.slots) {
+                result.addAll(slot);
+            }
+        }
+        return result;
+    }
+
+    private void dispatch(final Registration r, final long dueTime) {
+        if (!r.running.compareAndSet(false, true)) {
+            r.skippedCount.incrementAndGet();
+            totalSkipped.incrementAndGet();
+            return;
+        }
+        try {
+            workers.execute(new Runnable() {
+                @Override public void run() {
+                    runJob(r, dueTime);
+                }
+                @Override public String toString() {
+                    return "PollScheduler.run("+r+")";
+                }});
+        } catch (RuntimeException e) {
+            r.running.set(false);
+            if (!terminated) throw e;
+        }
+    }
+
+    private void runJob(Registration r, long dueTime) {
+        long startTime = System.currentTimeMillis();
+        r.lastLagMillis = startTime - dueTime;
+        if (r.lastLagMillis > r.maxLagMillis) r.maxLagMillis = r.lastLagMillis;
+        totalRuns.incrementAndGet();
+        try {
+            if (r.cancelled.get()) return;
+            if (Entities.isNoLongerManaged(r.entity)) {
+                if (log.isDebugEnabled()) log.debug("Cancelling poll {} as entity no longer managed", r);
+                r.cancel();
+                return;
+            }
+            if (createTasks) {
+                Task<?> task = Tasks.builder().dynamic(false).body(r.job).name(r.name)
+                        .tag(BrooklynTaskTags.TRANSIENT_TASK_TAG)
+                        .build();
+                Entities.submit(r.entity, task).getUnchecked();
+            } else {
+                r.job.run();
+            }
+        } catch (Throwable t) {
+            // poll jobs handle their own errors, so this is unexpected
+            if (!r.cancelled.get()) log.warn("Error in poll "+r+" (continuing): "+t, t);
+        } finally {
+            r.lastDurationMillis = System.currentTimeMillis() - startTime;
+            r.totalDurationMillis.addAndGet(r.lastDurationMillis);
+            r.runCount.incrementAndGet();
+            r.running.set(false);
+        }
+    }
+
+    /** the jobs for a given period, spread across slots, with a timer ticking once per slot */
+    private class Wheel implements Runnable {
+        final long periodMillis;
+        final long tickMillis;
+        final List<Registration>[] slots;
+        final ScheduledFuture<?> future;
+        long nextSlot = 0;
+
+        @SuppressWarnings("unchecked")
+        Wheel(long periodMillis) {
+            this.periodMillis = periodMillis;
+            int numSlots = (int) Math.max(1, Math.min(slotsPerPeriod, periodMillis / MIN_TICK_MILLIS));
+            this.tickMillis = Math.max(1, periodMillis / numSlots);
+            this.slots = new List[numSlots];
+            for (int i = 0; i < numSlots; i++) {
+                slots[i] = new CopyOnWriteArrayList<Registration>();
+            }
+            future = timer.scheduleAtFixedRate(this, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+                List<Registration> slot = slots[(int) (nextSlot++ % slots.length)];
+                for (Registration r : slot) {
+                    if (!r.cancelled.get()) dispatch(r, now);
+                }
+            } catch (Throwable t) {
+                // must not throw, as that would stop all future ticks for this period
+                if (!terminated) log.warn("Error in poll scheduler tick for "+this+" (continuing): "+t, t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PollScheduler.Wheel[period="+Duration.millis(periodMillis)+"; slots="+slots.length+"]";
+        }
+    }
+
+    /** a job registered with the scheduler, with statistics about its executions */
+    public class Registration {
+        private final Entity entity;
+        private final String name;
+        private final long periodMillis;
+        private final Runnable job;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong runCount = new AtomicLong();
+        private final AtomicLong skippedCount = new AtomicLong();
+        private final AtomicLong totalDurationMillis = new AtomicLong();
+        private volatile long lastLagMillis;
+        private volatile long maxLagMillis;
+        private volatile long lastDurationMillis;
+        private volatile Wheel wheel;
+        private volatile int slot;
+
+        private Registration(Entity entity, String name, long periodMillis, Runnable job) {
+            this.entity = entity;
+            this.name = name;
+            this.periodMillis = periodMillis;
+            this.job = job;
+        }
+
+        /** stops future executions; does not interrupt one which is in progress */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                Wheel w = wheel;
+                if (w != null) w.slots[slot].remove(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        public boolean isRunning() {
+            return running.get();
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Duration getPeriod() {
+            return Duration.millis(periodMillis);
+        }
+
+        public long getRunCount() {
+            return runCount.get();
+        }
+
+        /** number of executions skipped because the previous one was still running */
+        public long getSkippedCount() {
+            return skippedCount.get();
+        }
+
+        /** how late the most recent execution started, compared to when it was due */
+        public Duration getLastLag() {
+            return Duration.millis(lastLagMillis);
+        }
+
+        public Duration getMaxLag() {
+            return Duration.millis(maxLagMillis);
+        }
+
+        public Duration getLastDuration() {
+            return Duration.millis(lastDurationMillis);
+        }
+
+        public Duration getMeanDuration() {
+            long count = runCount.get();
+            return Duration.millis(count == 0 ? 0 : totalDurationMillis.get() / count);
+        }
+
+        public MutableMap<String, Object> getStats() {
+            return MutableMap.<String, Object>of("runCount", getRunCount(), "skippedCount", getSkippedCount(),
+                    "lastLag", getLastLag(), "maxLag", getMaxLag(),
+                    "lastDuration", getLastDuration(), "meanDuration", getMeanDuration());
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("entity", entity).add("name", name).add("period", getPeriod()).toString();
+        }
+    }
+}
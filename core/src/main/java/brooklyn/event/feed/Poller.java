@@ -19,6 +19,7 @@
 package brooklyn.event.feed;
 
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -31,7 +32,9 @@ import brooklyn.entity.basic.Entities;
 import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.basic.EntityLocal;
 import brooklyn.management.Task;
+import brooklyn.management.internal.ManagementContextInternal;
 import brooklyn.util.collections.MutableMap;
+import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.task.DynamicSequentialTask;
 import brooklyn.util.task.ScheduledTask;
 import brooklyn.util.task.Tasks;
@@ -56,6 +59,7 @@ public class Poller<V> {
     private final Set<PollJob<V>> pollJobs = new LinkedHashSet<PollJob<V>>();
     private final Set<Task<?>> oneOffTasks = new LinkedHashSet<Task<?>>();
     private final Set<ScheduledTask> tasks = new LinkedHashSet<ScheduledTask>();
+    private final Set<PollScheduler.Registration> registrations = new LinkedHashSet<PollScheduler.Registration>();
     private volatile boolean started = false;
     
     private static class PollJob<V> {
@@ -139,19 +143,35 @@ public class Poller<V> {
             oneOffTasks.add(((EntityInternal)entity).getExecutionContext().submit(task));
         }
         
+        PollScheduler pollScheduler = getPollSchedulerIfEnabled();
         for (final PollJob<V> pollJob : pollJobs) {
             final String scheduleName = pollJob.handler.getDescription();
             if (pollJob.pollPeriod.compareTo(Duration.ZERO) > 0) {
+                final Callable<Void> pollBody = new Callable<Void>() { public Void call() {
+                    if (onlyIfServiceUp && !Boolean.TRUE.equals(entity.getAttribute(Attributes.SERVICE_UP))) {
+                            return null;
+                    }
+                    pollJob.wrappedJob.run();
+                    return null; 
+                } };
+                if (pollScheduler != null) {
+                    registrations.add(pollScheduler.register(entity, scheduleName, pollJob.pollPeriod, new Runnable() {
+                        @Override public void run() {
+                            try {
+                                pollBody.call();
+                            } catch (Exception e) {
+                                throw Exceptions.propagate(e);
+                            }
+                        }
+                        @Override public String toString() {
+                            return "poll:"+scheduleName;
+                        }}));
+                    continue;
+                }
                 Callable<Task<?>> pollingTaskFactory = new Callable<Task<?>>() {
                     public Task<?> call() {
                         DynamicSequentialTask<Void> task = new DynamicSequentialTask<Void>(MutableMap.of("displayName", scheduleName, "entity", entity), 
-                            new Callable<Void>() { public Void call() {
-                                if (onlyIfServiceUp && !Boolean.TRUE.equals(entity.getAttribute(Attributes.SERVICE_UP))) {
-                                        return null;
-                                }
-                                pollJob.wrappedJob.run();
-                                return null; 
-                            } } );
+                            pollBody);
                         BrooklynTaskTags.setTransient(task);
                         return task;
                     }
@@ -164,6 +184,13 @@ public class Poller<V> {
         }
     }
     
+    /** the management context's shared poll scheduler, if {@link PollScheduler#ENABLED}, otherwise null */
+    protected PollScheduler getPollSchedulerIfEnabled() {
+        ManagementContextInternal mgmt = (ManagementContextInternal) ((EntityInternal)entity).getManagementContext();
+        if (!Boolean.TRUE.equals(mgmt.getConfig().getConfig(PollScheduler.ENABLED))) return null;
+        return mgmt.getPollScheduler();
+    }
+    
     public void stop() {
         if (log.isDebugEnabled()) log.debug("Stopping poll for {} (using {})", new Object[] {entity, this});
         if (!started) { 
@@ -178,8 +205,12 @@ public class Poller<V> {
         for (ScheduledTask task : tasks) {
             if (task != null) task.cancel();
         }
+        for (PollScheduler.Registration registration : registrations) {
+            registration.cancel();
+        }
         oneOffTasks.clear();
         tasks.clear();
+        registrations.clear();
     }
 
     public boolean isRunning() {
@@ -190,12 +221,30 @@ public class Poller<V> {
                 break;
             }
         }
+        for (PollScheduler.Registration registration : registrations) {
+            if (!registration.isCancelled()) {
+                hasActiveTasks = true;
+                break;
+            }
+        }
         if (!started && hasActiveTasks) {
             log.warn("Poller should not be running, but has active tasks, tasks: "+tasks);
         }
         return started && hasActiveTasks;
     }
     
+    /** 
+     * Lag and duration statistics for each periodic poll, keyed by poll description; 
+     * only available when using the shared {@link PollScheduler}, otherwise empty.
+     */
+    public Map<String, Map<String, Object>> getPollStats() {
+        Map<String, Map<String, Object>> result = MutableMap.of();
+        for (PollScheduler.Registration registration : registrations) {
+            result.put(registration.getName(), registration.getStats());
+        }
+        return result;
+    }
+    
     protected boolean isEmpty() {
         return pollJobs.isEmpty();
     }
@@ -37,11 +37,14 @@ import org.slf4j.LoggerFactory;
 import brooklyn.config.ConfigKey;
 import brooklyn.entity.basic.ConfigKeys;
 import brooklyn.entity.basic.Entities;
+import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.basic.EntityLocal;
 import brooklyn.event.feed.AbstractFeed;
 import brooklyn.event.feed.AttributePollHandler;
 import brooklyn.event.feed.DelegatingPollHandler;
 import brooklyn.event.feed.Poller;
+import brooklyn.management.internal.ManagementContextInternal;
+import brooklyn.util.http.HttpClientRegistry;
 import brooklyn.util.http.HttpTool;
 import brooklyn.util.http.HttpTool.HttpClientBuilder;
 import brooklyn.util.http.HttpToolResponse;
@@ -112,6 +115,11 @@ public class HttpFeed extends AbstractFeed {
             new TypeToken<SetMultimap<HttpPollIdentifier, HttpPollConfig<?>>>() {},
             "polls");
 
+    public static final ConfigKey<Boolean> SHARED_CLIENT = ConfigKeys.newBooleanConfigKey("sharedClient", 
+            "whether to use the management context's shared pooled http clients (see HttpClientRegistry), "
+            + "rather than a dedicated client for each url", 
+            true);
+
     public static Builder builder() {
         return new Builder();
     }
@@ -128,6 +136,7 @@ public class HttpFeed extends AbstractFeed {
         private boolean suspended = false;
         private Credentials credentials;
         private String uniqueTag;
+        private boolean sharedClient = true;
         private volatile boolean built;
 
         public Builder entity(EntityLocal val) {
@@ -208,6 +217,14 @@ public class HttpFeed extends AbstractFeed {
             this.uniqueTag = uniqueTag;
             return this;
         }
+        /** 
+         * Whether to use a pooled http client shared with other feeds in the management context (the default);
+         * if false, a dedicated client is created for each url.
+         */
+        public Builder sharedClient(boolean val) {
+            this.sharedClient = val;
+            return this;
+        }
         public HttpFeed build() {
             built = true;
             HttpFeed result = new HttpFeed(this);
@@ -275,6 +292,7 @@ public class HttpFeed extends AbstractFeed {
     
     protected HttpFeed(Builder builder) {
         setConfig(ONLY_IF_SERVICE_UP, builder.onlyIfServiceUp);
+        setConfig(SHARED_CLIENT, builder.sharedClient);
         Map<String,String> baseHeaders = ImmutableMap.copyOf(checkNotNull(builder.headers, "headers"));
         
         SetMultimap<HttpPollIdentifier, HttpPollConfig<?>> polls = HashMultimap.<HttpPollIdentifier,HttpPollConfig<?>>create();
@@ -311,6 +329,7 @@ public class HttpFeed extends AbstractFeed {
     @Override
     protected void preStart() {
         SetMultimap<HttpPollIdentifier, HttpPollConfig<?>> polls = getConfig(POLLS);
+        boolean sharedClient = !Boolean.FALSE.equals(getConfig(SHARED_CLIENT));
         
         for (final HttpPollIdentifier pollInfo : polls.keySet()) {
             // Though HttpClients are thread safe and can take advantage of connection pooling
@@ -319,7 +338,8 @@ public class HttpFeed extends AbstractFeed {
             //     threads of execution, it is highly recommended that each thread maintains its
             //     own dedicated instance of HttpContext.
             //  http://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
-            final HttpClient httpClient = createHttpClient(pollInfo);
+            // Each execute call below gets its own HttpContext, so a pooled client can be shared.
+            final HttpClient httpClient = sharedClient ? getSharedHttpClient(pollInfo) : createHttpClient(pollInfo);
 
             Set<HttpPollConfig<?>> configs = polls.get(pollInfo);
             long minPeriod = Integer.MAX_VALUE;
@@ -375,6 +395,12 @@ public class HttpFeed extends AbstractFeed {
         return builder.build();
     }
 
+    private HttpClient getSharedHttpClient(HttpPollIdentifier pollIdentifier) {
+        HttpClientRegistry registry = ((ManagementContextInternal) ((EntityInternal) entity).getManagementContext()).getHttpClientRegistry();
+        return registry.getClient(pollIdentifier.uriProvider.get(), pollIdentifier.credentials.orNull(), true, true, 
+                pollIdentifier.connectionTimeout, pollIdentifier.socketTimeout);
+    }
+
     @SuppressWarnings("unchecked")
     protected Poller<HttpToolResponse> getPoller() {
         return (Poller<HttpToolResponse>) super.getPoller();
@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,20 +39,26 @@ import brooklyn.entity.basic.EntityLocal;
 import brooklyn.event.feed.AbstractFeed;
 import brooklyn.event.feed.AttributePollHandler;
 import brooklyn.event.feed.DelegatingPollHandler;
+import brooklyn.event.feed.PollHandler;
 import brooklyn.event.feed.Poller;
 import brooklyn.location.basic.Locations;
 import brooklyn.location.basic.Machines;
 import brooklyn.location.basic.SshMachineLocation;
 import brooklyn.util.config.ConfigBag;
 import brooklyn.util.internal.ssh.SshTool;
+import brooklyn.util.text.Identifiers;
+import brooklyn.util.text.StringEscapes.BashStringEscapes;
 import brooklyn.util.time.Duration;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
@@ -101,6 +108,9 @@ public class SshFeed extends AbstractFeed {
     
     public static final ConfigKey<Boolean> EXEC_AS_COMMAND = ConfigKeys.newBooleanConfigKey("execAsCommand");
     
+    public static final ConfigKey<Boolean> BATCHED = ConfigKeys.newBooleanConfigKey("batched", 
+            "Whether to combine all polls with the same period into a single ssh exec each period", false);
+    
     @SuppressWarnings("serial")
     public static final ConfigKey<SetMultimap<SshPollIdentifier, SshPollConfig<?>>> POLLS = ConfigKeys.newConfigKey(
             new TypeToken<SetMultimap<SshPollIdentifier, SshPollConfig<?>>>() {},
@@ -117,6 +127,7 @@ public class SshFeed extends AbstractFeed {
         private Duration period = Duration.of(500, TimeUnit.MILLISECONDS);
         private List<SshPollConfig<?>> polls = Lists.newArrayList();
         private boolean execAsCommand = false;
+        private boolean batched = false;
         private String uniqueTag;
         private volatile boolean built;
         
@@ -158,6 +169,15 @@ public class SshFeed extends AbstractFeed {
             execAsCommand = false;
             return this;
         }
+        /** 
+         * Combines all polls with the same period into a single script, executed once per period,
+         * with each command's output and exit status then passed to its own poll handlers.
+         */
+        public Builder batched() { return batched(true); }
+        public Builder batched(boolean batched) {
+            this.batched = batched;
+            return this;
+        }
         public Builder uniqueTag(String uniqueTag) {
             this.uniqueTag = uniqueTag;
             return this;
@@ -216,6 +236,7 @@ public class SshFeed extends AbstractFeed {
         setConfig(ONLY_IF_SERVICE_UP, builder.onlyIfServiceUp);
         setConfig(MACHINE, builder.machine != null ? builder.machine : null);
         setConfig(EXEC_AS_COMMAND, builder.execAsCommand);
+        setConfig(BATCHED, builder.batched);
         
         SetMultimap<SshPollIdentifier, SshPollConfig<?>> polls = HashMultimap.<SshPollIdentifier,SshPollConfig<?>>create();
         for (SshPollConfig<?> config : builder.polls) {
@@ -240,6 +261,8 @@ public class SshFeed extends AbstractFeed {
     @Override
     protected void preStart() {
         SetMultimap<SshPollIdentifier, SshPollConfig<?>> polls = getConfig(POLLS);
+        boolean batched = Boolean.TRUE.equals(getConfig(BATCHED));
+        Map<Long, Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>>> handlersByPeriod = Maps.newLinkedHashMap();
         
         for (final SshPollIdentifier pollInfo : polls.keySet()) {
             Set<SshPollConfig<?>> configs = polls.get(pollInfo);
@@ -251,6 +274,16 @@ public class SshFeed extends AbstractFeed {
                 if (config.getPeriod() > 0) minPeriod = Math.min(minPeriod, config.getPeriod());
             }
             
+            if (batched) {
+                Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>> handlersForPeriod = handlersByPeriod.get(minPeriod);
+                if (handlersForPeriod == null) {
+                    handlersForPeriod = Maps.newLinkedHashMap();
+                    handlersByPeriod.put(minPeriod, handlersForPeriod);
+                }
+                handlersForPeriod.put(pollInfo, new DelegatingPollHandler<SshPollValue>(handlers));
+                continue;
+            }
+            
             getPoller().scheduleAtFixedRate(
                     new Callable<SshPollValue>() {
                         public SshPollValue call() throws Exception {
@@ -259,6 +292,68 @@ public class SshFeed extends AbstractFeed {
                     new DelegatingPollHandler<SshPollValue>(handlers),
                     minPeriod);
         }
+        
+        for (Map.Entry<Long, Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>>> entry : handlersByPeriod.entrySet()) {
+            final Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>> handlers = entry.getValue();
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            Poller<Map<SshPollIdentifier, SshPollValue>> poller = (Poller) getPoller();
+            poller.scheduleAtFixedRate(
+                    new Callable<Map<SshPollIdentifier, SshPollValue>>() {
+                        public Map<SshPollIdentifier, SshPollValue> call() throws Exception {
+                            return execBatch(handlers.keySet());
+                        }}, 
+                    new BatchPollHandler(handlers),
+                    entry.getKey());
+        }
+    }
+    
+    /** passes each command's result from a batch to the handlers for that command */
+    private static class BatchPollHandler implements PollHandler<Map<SshPollIdentifier, SshPollValue>> {
+        private final Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>> handlers;
+        
+        BatchPollHandler(Map<SshPollIdentifier, DelegatingPollHandler<SshPollValue>> handlers) {
+            this.handlers = handlers;
+        }
+        
+        @Override
+        public boolean checkSuccess(Map<SshPollIdentifier, SshPollValue> val) {
+            // success is determined per command, in onSuccess
+            return true;
+        }
+
+        @Override
+        public void onSuccess(Map<SshPollIdentifier, SshPollValue> val) {
+            for (Map.Entry<SshPollIdentifier, DelegatingPollHandler<SshPollValue>> entry : handlers.entrySet()) {
+                DelegatingPollHandler<SshPollValue> handler = entry.getValue();
+                SshPollValue result = val.get(entry.getKey());
+                if (handler.checkSuccess(result)) {
+                    handler.onSuccess(result);
+                } else {
+                    handler.onFailure(result);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Map<SshPollIdentifier, SshPollValue> val) {
+            onSuccess(val);
+        }
+
+        @Override
+        public void onException(Exception exception) {
+            for (DelegatingPollHandler<SshPollValue> handler : handlers.values()) {
+                handler.onException(exception);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            List<String> descriptions = Lists.newArrayList();
+            for (DelegatingPollHandler<SshPollValue> handler : handlers.values()) {
+                descriptions.add(handler.getDescription());
+            }
+            return "batch"+descriptions;
+        }
     }
     
     @SuppressWarnings("unchecked")
@@ -266,6 +361,92 @@ public class SshFeed extends AbstractFeed {
         return (Poller<SshPollValue>) super.getPoller();
     }
     
+    private Map<SshPollIdentifier, SshPollValue> execBatch(Collection<SshPollIdentifier> pollInfos) throws IOException {
+        List<String> commands = Lists.newArrayList();
+        List<Map<String, String>> envs = Lists.newArrayList();
+        for (SshPollIdentifier pollInfo : pollInfos) {
+            commands.add(pollInfo.command.get());
+            envs.add(pollInfo.env.get());
+        }
+        String delimiter = "BROOKLYN-SSH-FEED-"+Identifiers.makeRandomId(8);
+        SshPollValue combined = exec(buildBatchScript(delimiter, commands, envs), ImmutableMap.<String, String>of());
+        List<SshPollValue> results = parseBatchOutput(delimiter, combined, commands.size());
+        
+        Map<SshPollIdentifier, SshPollValue> result = Maps.newLinkedHashMap();
+        int i = 0;
+        for (SshPollIdentifier pollInfo : pollInfos) {
+            result.put(pollInfo, results.get(i++));
+        }
+        return result;
+    }
+    
+    /**
+     * Builds a script which runs each command in its own sub-shell (with its own environment),
+     * framing its stdout and stderr with delimiter lines and writing its exit status after the
+     * closing stdout delimiter, so they can be separated by {@link #parseBatchOutput(String, SshPollValue, int)}.
+     */
+    @VisibleForTesting
+    static String buildBatchScript(String delimiter, List<String> commands, List<Map<String, String>> envs) {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < commands.size(); i++) {
+            String marker = delimiter+":"+i;
+            script.append("echo '"+marker+":begin'; echo '"+marker+":begin' >&2\n");
+            script.append("(\n");
+            Map<String, String> env = envs.get(i);
+            if (env != null) {
+                for (Map.Entry<String, String> entry : env.entrySet()) {
+                    script.append("export "+entry.getKey()+"="+BashStringEscapes.wrapBash(entry.getValue())+"\n");
+                }
+            }
+            script.append(commands.get(i)+"\n");
+            script.append(") < /dev/null\n");
+            script.append("brooklyn_batch_exit_status=$?\n");
+            script.append("printf '\\n"+marker+":end:%s\\n' $brooklyn_batch_exit_status; printf '\\n"+marker+":end\\n' >&2\n");
+        }
+        return script.toString();
+    }
+    
+    /**
+     * Splits the result of running a script from {@link #buildBatchScript(String, List, List)} into the results 
+     * of the individual commands; a command whose output cannot be found (e.g. because the script was killed) 
+     * is reported with exit status -1.
+     */
+    @VisibleForTesting
+    static List<SshPollValue> parseBatchOutput(String delimiter, SshPollValue combined, int numCommands) {
+        String stdout = (combined.getStdout() != null) ? combined.getStdout() : "";
+        String stderr = (combined.getStderr() != null) ? combined.getStderr() : "";
+        List<SshPollValue> result = Lists.newArrayList();
+        for (int i = 0; i < numCommands; i++) {
+            String marker = delimiter+":"+i;
+            String begin = marker+":begin\n";
+            int outStart = stdout.indexOf(begin);
+            int outEnd = (outStart >= 0) ? stdout.indexOf("\n"+marker+":end:", outStart + begin.length()) : -1;
+            if (outEnd < 0) {
+                log.debug("Output of command {} not found in ssh batch output (exit status {})", i, combined.getExitStatus());
+                result.add(new SshPollValue(combined.getMachine(), -1, null, null));
+                continue;
+            }
+            String out = stdout.substring(outStart + begin.length(), outEnd);
+            int exitStart = outEnd + ("\n"+marker+":end:").length();
+            int exitEnd = stdout.indexOf('\n', exitStart);
+            int exitStatus;
+            try {
+                exitStatus = Integer.parseInt(stdout.substring(exitStart, exitEnd >= 0 ? exitEnd : stdout.length()).trim());
+            } catch (NumberFormatException e) {
+                exitStatus = -1;
+            }
+            
+            String err = null;
+            int errStart = stderr.indexOf(begin);
+            int errEnd = (errStart >= 0) ? stderr.indexOf("\n"+marker+":end\n", errStart + begin.length()) : -1;
+            if (errEnd >= 0) {
+                err = stderr.substring(errStart + begin.length(), errEnd);
+            }
+            result.add(new SshPollValue(combined.getMachine(), exitStatus, out, err));
+        }
+        return result;
+    }
+    
     private SshPollValue exec(String command, Map<String,String> env) throws IOException {
         SshMachineLocation machine = getMachine();
         Boolean execAsCommand = getConfig(EXEC_AS_COMMAND);
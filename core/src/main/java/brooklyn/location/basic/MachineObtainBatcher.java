@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.location.basic;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import brooklyn.entity.Entity;
+import brooklyn.location.MachineLocation;
+import brooklyn.location.MachineManagementMixins.ExpectedObtains;
+import brooklyn.location.MachineManagementMixins.ObtainsMachinesInBatches;
+import brooklyn.location.NoMachinesAvailableException;
+import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.guava.Maybe;
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Holds the calls to obtain a machine which have been announced with {@link ObtainsMachinesInBatches#expectObtains(Collection)},
+ * so that the location can provision them together with {@link ObtainsMachinesInBatches#obtain(List)}.
+ * <p>
+ * A location delegates {@code expectObtains} to {@link #expect(Collection)}, and starts its {@code obtain(Map)}
+ * by calling {@link #obtain(Map, Object, Duration)}, only obtaining the machine itself if that returns absent.
+ * A call joins a batch only if its caller (the {@code callerContext}) was one of those expected by that batch;
+ * entities are matched by id, so a caller may be the entity's proxy or its implementation.
+ */
+@Beta
+public class MachineObtainBatcher<T extends MachineLocation> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MachineObtainBatcher.class);
+
+    private final ObtainsMachinesInBatches<T> location;
+
+    private final Object mutex = new Object();
+
+    /** batches still expecting calls; guarded by mutex */
+    private final List<Batch> openBatches = Lists.newLinkedList();
+
+    public MachineObtainBatcher(ObtainsMachinesInBatches<T> location) {
+        this.location = location;
+    }
+
+    /** @see ObtainsMachinesInBatches#expectObtains(Collection) */
+    public ExpectedObtains expect(Collection<?> callers) {
+        checkArgument(!callers.isEmpty(), "callers must not be empty");
+        Batch result = new Batch(callers);
+        synchronized (mutex) {
+            openBatches.add(result);
+        }
+        return result;
+    }
+
+    /**
+     * If a call to obtain by this caller is expected, waits until the machine has been obtained along with
+     * the others in its batch; the batch is provisioned once all its expected callers have called (or been
+     * withdrawn), or it is closed, or {@code maxWait} has passed since its first call.
+     *
+     * @return the machine, or absent if no call by this caller was expected (so the caller should obtain the machine itself)
+     */
+    public Maybe<T> obtain(Map<?,?> flags, @Nullable Object caller, Duration maxWait) throws NoMachinesAvailableException {
+        if (caller == null) return Maybe.absent();
+        Object callerKey = keyFor(caller);
+        Request request = new Request(flags);
+        List<Request> toProvision = null;
+        synchronized (mutex) {
+            Batch batch = null;
+            for (Batch candidate : openBatches) {
+                if (candidate.expected.remove(callerKey)) {
+                    batch = candidate;
+                    break;
+                }
+            }
+            if (batch == null) return Maybe.absent();
+            if (batch.requests.isEmpty()) batch.firstRequestTime = System.currentTimeMillis();
+            batch.requests.add(request);
+            while (!batch.taken) {
+                long waitMillis = batch.firstRequestTime + maxWait.toMilliseconds() - System.currentTimeMillis();
+                if (batch.expected.isEmpty() || batch.closed || waitMillis <= 0) {
+                    batch.taken = true;
+                    openBatches.remove(batch);
+                    toProvision = ImmutableList.copyOf(batch.requests);
+                } else {
+                    try {
+                        mutex.wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        // not yet provisioned, so the caller can simply leave the batch
+                        batch.requests.remove(request);
+                        if (batch.expected.isEmpty() && batch.requests.isEmpty()) openBatches.remove(batch);
+                        mutex.notifyAll();
+                        throw Exceptions.propagate(e);
+                    }
+                }
+            }
+            // wake those waiting for this batch to be taken
+            mutex.notifyAll();
+        }
+
+        if (toProvision != null) provision(toProvision);
+
+        boolean returned = false;
+        try {
+            Maybe<T> result = Maybe.of(request.machine.get());
+            returned = true;
+            return result;
+        } catch (InterruptedException e) {
+            throw Exceptions.propagate(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NoMachinesAvailableException) throw (NoMachinesAvailableException) e.getCause();
+            throw Exceptions.propagate(e.getCause());
+        } finally {
+            // e.g. interrupted; the machine is being provisioned, so release it once it is obtained
+            if (!returned) releaseWhenObtained(request.machine);
+        }
+    }
+
+    private void releaseWhenObtained(ListenableFuture<T> machine) {
+        Futures.addCallback(machine, new FutureCallback<T>() {
+            @Override public void onSuccess(T result) {
+                LOG.debug("Releasing {} in {}, as its caller is no longer waiting for it", result, location);
+                try {
+                    location.release(result);
+                } catch (Exception e) {
+                    Exceptions.propagateIfFatal(e);
+                    LOG.warn("Problem releasing "+result+" in "+location+", whose caller is no longer waiting for it (continuing): "+e, e);
+                }
+            }
+            @Override public void onFailure(Throwable t) {
+                // nothing obtained, so nothing to release
+            }
+        });
+    }
+
+    private void provision(List<Request> requests) {
+        if (LOG.isDebugEnabled()) LOG.debug("Obtaining {} machine{} together in {}", new Object[] {requests.size(), requests.size() == 1 ? "" : "s", location});
+        List<Map<?,?>> flags = Lists.newArrayList();
+        for (Request request : requests) {
+            flags.add(request.flags);
+        }
+        List<ListenableFuture<T>> machines;
+        try {
+            machines = location.obtain(flags);
+        } catch (RuntimeException e) {
+            for (Request request : requests) {
+                request.machine.setException(e);
+            }
+            return;
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            final SettableFuture<T> target = requests.get(i).machine;
+            Futures.addCallback(machines.get(i), new FutureCallback<T>() {
+                @Override public void onSuccess(T result) {
+                    target.set(result);
+                }
+                @Override public void onFailure(Throwable t) {
+                    target.setException(t);
+                }
+            });
+        }
+    }
+
+    private static Object keyFor(Object caller) {
+        return (caller instanceof Entity) ? ((Entity) caller).getId() : caller;
+    }
+
+    private class Batch implements ExpectedObtains {
+        // all fields guarded by mutex
+        /** callers which have neither called nor been withdrawn */
+        final Set<Object> expected = Sets.newHashSet();
+        boolean closed;
+        boolean taken;
+        long firstRequestTime;
+        final List<Request> requests = Lists.newArrayList();
+
+        Batch(Collection<?> callers) {
+            for (Object caller : callers) {
+                expected.add(keyFor(caller));
+            }
+        }
+
+        @Override
+        public void notObtaining(Object caller) {
+            synchronized (mutex) {
+                if (expected.remove(keyFor(caller))) {
+                    // nothing left to wait for if no calls were made; otherwise the waiting calls take the batch
+                    if (expected.isEmpty() && requests.isEmpty()) openBatches.remove(this);
+                    mutex.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (mutex) {
+                closed = true;
+                openBatches.remove(this);
+                mutex.notifyAll();
+            }
+        }
+    }
+
+    private class Request {
+        final Map<?,?> flags;
+        final SettableFuture<T> machine = SettableFuture.create();
+
+        Request(Map<?,?> flags) {
+            this.flags = flags;
+        }
+    }
+}
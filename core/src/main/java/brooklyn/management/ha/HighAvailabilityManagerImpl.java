@@ -55,6 +55,7 @@ import brooklyn.location.Location;
 import brooklyn.management.Task;
 import brooklyn.management.ha.BasicMasterChooser.AlphabeticMasterChooser;
 import brooklyn.management.ha.ManagementPlaneSyncRecordPersister.Delta;
+import brooklyn.management.internal.AbstractManagementContext;
 import brooklyn.management.internal.BrooklynObjectManagementMode;
 import brooklyn.management.internal.LocalEntityManager;
 import brooklyn.management.internal.LocationManagerInternal;
@@ -1076,8 +1077,15 @@ public class HighAvailabilityManagerImpl implements HighAvailabilityManager {
             "history", nodeStateHistory));
         
         result.putAll(managementContext.getRebindManager().getMetrics());
-        result.put("managementStatePersistence", 
-            MutableMap.of("read", managementStateReadPersistenceMetrics, "write", managementStateWritePersistenceMetrics));
+        if (managementContext instanceof AbstractManagementContext && ((AbstractManagementContext)managementContext).getGarbageCollector()!=null) {
+            result.put("garbageCollection", ((AbstractManagementContext)managementContext).getGarbageCollector().getMetrics());
+        }
+        Map<String,Object> managementStatePersistence = MutableMap.<String,Object>of(
+            "read", managementStateReadPersistenceMetrics, "write", managementStateWritePersistenceMetrics);
+        if (persister instanceof ManagementPlaneSyncRecordPersisterToObjectStore) {
+            managementStatePersistence.put("sync", ((ManagementPlaneSyncRecordPersisterToObjectStore)persister).getSyncMetrics());
+        }
+        result.put("managementStatePersistence", managementStatePersistence);
         
         return result;
     }
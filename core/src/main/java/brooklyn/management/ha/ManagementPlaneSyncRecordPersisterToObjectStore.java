@@ -22,10 +22,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,13 +40,16 @@ import brooklyn.entity.rebind.persister.XmlMementoSerializer;
 import brooklyn.entity.rebind.plane.dto.BasicManagementNodeSyncRecord;
 import brooklyn.entity.rebind.plane.dto.ManagementPlaneSyncRecordImpl;
 import brooklyn.management.ManagementContext;
+import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.text.Identifiers;
 import brooklyn.util.text.Strings;
 import brooklyn.util.time.Duration;
 import brooklyn.util.time.Time;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Maps;
 
@@ -56,6 +60,7 @@ import com.google.common.collect.Maps;
  *     <ul>
  *       <li>{@code master} - contains the id of the management-node that is currently master
  *       <li>{@code change.log} - log of changes made
+ *       <li>{@code change.marker} - rewritten whenever a node-file changes other than by a heartbeat
  *       <li>{@code nodes/} - sub-directory, containing one file per management-node
  *         <ul>
  *           <li>{@code a9WiuVKp} - file named after the management-node's id, containing the management node's current state
@@ -88,8 +93,26 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
     // TODO Leak if we go through lots of managers; but tiny!
     private final ConcurrentMap<String, StoreObjectAccessorWithLock> nodeWriters = Maps.newConcurrentMap();
 
+    /**
+     * Node records as last read, by path, so that records need not be requested and deserialized on every poll.
+     * A heartbeat only changes a record's timestamps, and the remote timestamp is the last-modified date
+     * given by the listing; any other change to a record is signalled by rewriting the change marker,
+     * in which case all records are read again. The local timestamp of a cached record is therefore
+     * that of the last time it was read.
+     */
+    private final ConcurrentMap<String, ManagementNodeSyncRecord> nodeRecordCache = Maps.newConcurrentMap();
+    /** Records as last written by this persister, by node id, to tell whether a write is more than a heartbeat */
+    private final ConcurrentMap<String, ManagementNodeSyncRecord> nodeRecordsWritten = Maps.newConcurrentMap();
+    private volatile String lastChangeMarker;
+
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong nodesRead = new AtomicLong();
+    private final AtomicLong nodesUnchanged = new AtomicLong();
+    private volatile Long lastSyncDuration;
+
     private StoreObjectAccessorWithLock masterWriter;
     private StoreObjectAccessorWithLock changeLogWriter;
+    private StoreObjectAccessorWithLock changeMarkerWriter;
 
     private ManagementContext mgmt;
     private final PersistenceObjectStore objectStore;
@@ -131,9 +154,11 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
             masterWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("/master"));
             if (masterWriter.get() != null) {
                 changeLogWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("/change.log"));
+                changeMarkerWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("/change.marker"));
             } else {
                 masterWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("master"));
                 changeLogWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("change.log"));
+                changeMarkerWriter = new StoreObjectAccessorLocking(objectStore.newAccessor("change.marker"));
             }
         }
     }
@@ -187,13 +212,36 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
             builder.masterNodeId(masterNodeId);
         }
 
-        // Load node-files
-        List<String> nodeFiles = objectStore.listContentsWithSubPath(NODES_SUB_PATH);
+        // Read the change marker before listing: node-files are written before the marker, 
+        // so a change missed here is seen by the next poll.
+        String changeMarker = changeMarkerWriter.get();
+        boolean nodesChanged = changeMarker == null || !changeMarker.equals(lastChangeMarker);
+
+        // Load node-files; the listing gives the last-modified dates, so unchanged nodes need no request of their own
+        Map<String, Date> nodeFiles = objectStore.listContentsWithLastModifiedDates(NODES_SUB_PATH);
         LOG.trace("Loading nodes from {}; {} nodes.",
                 new Object[]{objectStore.getSummaryName(), nodeFiles.size()});
 
-        for (String nodeFile : nodeFiles) {
+        int numRead = 0;
+        for (Map.Entry<String, Date> nodeFileEntry : nodeFiles.entrySet()) {
+            String nodeFile = nodeFileEntry.getKey();
+            Date lastModifiedDate = nodeFileEntry.getValue();
+            ManagementNodeSyncRecord cached = nodeRecordCache.get(nodeFile);
+            if (cached != null && !nodesChanged) {
+                if (cached.getRemoteTimestamp()!=null && preferRemoteTimestampInMemento) {
+                    builder.node(cached);
+                    continue;
+                } else if (lastModifiedDate != null) {
+                    builder.node(BasicManagementNodeSyncRecord.builder()
+                            .from(cached)
+                            .remoteTimestamp(lastModifiedDate.getTime())
+                            .build());
+                    continue;
+                }
+            }
+
             PersistenceObjectStore.StoreObjectAccessor objectAccessor = objectStore.newAccessor(nodeFile);
+            numRead++;
             String nodeContents = null;
             Exception problem = null;
             try {
@@ -210,6 +258,7 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
                 } else {
                     LOG.warn("Node record "+nodeFile+" went away while "+mgmt.getManagementNodeId()+" was scanning, ignoring (it has probably been terminated)");
                     // if file was deleted, silently ignore
+                    nodeRecordCache.remove(nodeFile);
                     continue;
                 }
             }
@@ -218,24 +267,44 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
                 // shouldn't happen
                 throw Exceptions.propagate(new IllegalStateException("Node record "+nodeFile+" could not be deserialized when "+mgmt.getManagementNodeId()+" was scanning: "+nodeContents, problem));
             } else {
+                // cached as read, so that a remote timestamp in it is one stored in the file
+                nodeRecordCache.put(nodeFile, BasicManagementNodeSyncRecord.builder().from(memento).build());
+                if (lastModifiedDate == null) {
+                    // store does not give dates when listing
+                    lastModifiedDate = objectAccessor.getLastModifiedDate();
+                }
                 if (memento.getRemoteTimestamp()!=null && preferRemoteTimestampInMemento) {
                     // in test mode, the remote timestamp is stored in the file
                 } else {
                     if (memento.getRemoteTimestamp()!=null) {
                         LOG.debug("Ignoring remote timestamp in memento file ("+memento+"); looks like this data has been manually copied in");
                     }
-                    Date lastModifiedDate = objectAccessor.getLastModifiedDate();
                     ((BasicManagementNodeSyncRecord)memento).setRemoteTimestamp(lastModifiedDate!=null ? lastModifiedDate.getTime() : null);
                 }
                 builder.node(memento);
             }
         }
-
-        if (LOG.isDebugEnabled()) LOG.trace("Loaded management-plane memento; {} nodes, took {}",
-            nodeFiles.size(),
-            Time.makeTimeStringRounded(stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+        nodeRecordCache.keySet().retainAll(nodeFiles.keySet());
+        lastChangeMarker = changeMarker;
+
+        long duration = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        syncCount.incrementAndGet();
+        nodesRead.addAndGet(numRead);
+        nodesUnchanged.addAndGet(nodeFiles.size() - numRead);
+        lastSyncDuration = duration;
+        if (LOG.isDebugEnabled()) LOG.trace("Loaded management-plane memento; {} nodes ({} read, others unchanged), took {}",
+            new Object[] {nodeFiles.size(), numRead, Time.makeTimeStringRounded(duration)});
         return builder.build();
     }
+
+    /** counts of node records read and found unchanged, and the duration of the last {@link #loadSyncRecord()}, in milliseconds */
+    public Map<String, Object> getSyncMetrics() {
+        return MutableMap.<String, Object>of(
+            "count", syncCount.get(),
+            "nodesRead", nodesRead.get(),
+            "nodesUnchanged", nodesUnchanged.get(),
+            "lastDuration", lastSyncDuration);
+    }
     
     @Override
     public void delta(Delta delta) {
@@ -324,6 +393,16 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
         } catch (Exception e) {
             throw Exceptions.propagate(e);
         }
+        ManagementNodeSyncRecord previous = nodeRecordsWritten.put(node.getNodeId(), node);
+        if (!fileExists || previous == null || !isHeartbeatOf(node, previous)) {
+            // after the node-file, so that readers who see the new marker also see the new record
+            changeMarkerWriter.put(Identifiers.makeRandomId(8));
+            try {
+                changeMarkerWriter.waitForCurrentWrites(SYNC_WRITE_TIMEOUT);
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+        }
         if (!fileExists) {
             changeLogWriter.append(Time.makeDateString()+": created node "+node.getNodeId()+"\n");
         }
@@ -332,8 +411,19 @@ public class ManagementPlaneSyncRecordPersisterToObjectStore implements Manageme
         }
     }
     
+    /** whether the record differs from the previous one only in its timestamps (the remote timestamp being in the record only in test mode) */
+    private boolean isHeartbeatOf(ManagementNodeSyncRecord record, ManagementNodeSyncRecord previous) {
+        return Objects.equal(record.getBrooklynVersion(), previous.getBrooklynVersion())
+                && Objects.equal(record.getNodeId(), previous.getNodeId())
+                && Objects.equal(record.getUri(), previous.getUri())
+                && Objects.equal(record.getStatus(), previous.getStatus())
+                && Objects.equal(record.getPriority(), previous.getPriority())
+                && (!preferRemoteTimestampInMemento || Objects.equal(record.getRemoteTimestamp(), previous.getRemoteTimestamp()));
+    }
+
     private void deleteNode(String nodeId) {
         getOrCreateNodeWriter(nodeId).delete();
+        nodeRecordsWritten.remove(nodeId);
         changeLogWriter.append(Time.makeDateString()+": deleted node "+nodeId+"\n");
     }
 
@@ -27,13 +27,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +67,7 @@ import brooklyn.util.time.Duration;
 
 import com.google.common.base.Objects;
 import com.google.common.annotations.Beta;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
 
 /**
@@ -81,6 +86,10 @@ import com.google.common.collect.Iterables;
  * and keeping at most 100000 tasks in the system,
  * max 1000 tasks per entity, 50 per effector within that entity, and 50 per other non-effector tag
  * within that entity (or global if not attached to an entity).
+ * <p>
+ * Each run only looks at the tasks which can need deleting: completed tasks are queued in order of completion
+ * (for the age limit), and only the tags of tasks completed since the previous run are checked against
+ * the per-tag limits (unless the limits change).
  * 
  * @author aled
  */
@@ -149,6 +158,22 @@ public class BrooklynGarbageCollector {
     private ScheduledFuture<?> activeCollector;
     private Map<Entity,Task<?>> unmanagedEntitiesNeedingGc = new LinkedHashMap<Entity, Task<?>>();
     
+    /** ids and end times of completed non-subtasks, in order of completion, so aged tasks can be found without
+     * looking at all tasks; only ids are held so that this does not keep deleted tasks (and their results) reachable;
+     * may include tasks since deleted by other means, which are dropped when found */
+    private final Queue<CompletedTask> completedTasks = new ConcurrentLinkedQueue<CompletedTask>();
+    private final AtomicInteger completedTasksSize = new AtomicInteger();
+    /** tags of tasks completed since the last run, which may now be over capacity */
+    private final Set<Object> tagsOfTasksDoneSinceLastGc = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+    /** tags left over capacity by the last run (e.g. because their tasks were not yet done); guarded by this */
+    private volatile Set<Object> tagsOverCapacity = MutableSet.of();
+    /** limits used by the last run; if these change, all tags are checked; guarded by this */
+    private int lastMaxTasksPerEntity = -1, lastMaxTasksPerTag = -1;
+    
+    private final AtomicLong gcCount = new AtomicLong();
+    private volatile Long lastGcDuration;
+    private volatile Integer lastGcDeletedCount;
+    
     private Duration gcPeriod;
     private final boolean doSystemGc;
     private volatile boolean running = true;
@@ -194,7 +219,11 @@ public class BrooklynGarbageCollector {
     public void gcIteration() {
         try {
             logUsage("brooklyn gc (before)");
-            gcTasks();
+            Stopwatch timer = Stopwatch.createStarted();
+            int deleted = gcTasks();
+            lastGcDuration = timer.elapsed(TimeUnit.MILLISECONDS);
+            lastGcDeletedCount = deleted;
+            gcCount.incrementAndGet();
             logUsage("brooklyn gc (after)");
             
             if (doSystemGc) {
@@ -234,6 +263,16 @@ public class BrooklynGarbageCollector {
             executionManager.getTotalTasksSubmitted()+" total submitted)";
     }
     
+    /** the duration (in milliseconds) and number of tasks deleted by the last run, and the number of tasks retained */
+    public Map<String,Object> getMetrics() {
+        return MutableMap.<String,Object>of(
+            "count", gcCount.get(),
+            "lastDuration", lastGcDuration,
+            "lastDeletedCount", lastGcDeletedCount,
+            "retainedTasks", executionManager.getNumInMemoryTasks(),
+            "tagsOverCapacity", tagsOverCapacity.size());
+    }
+    
     public void shutdownNow() {
         running = false;
         if (activeCollector != null) activeCollector.cancel(true);
@@ -263,6 +302,14 @@ public class BrooklynGarbageCollector {
     public void onTaskDone(Task<?> task) {
         if (shouldDeleteTaskImmediately(task)) {
             executionManager.deleteTask(task);
+            return;
+        }
+        if (!BrooklynTaskTags.isSubTask(task)) {
+            completedTasks.add(new CompletedTask(task));
+            completedTasksSize.incrementAndGet();
+        }
+        for (Object tag : task.getTags()) {
+            if (!isTagIgnoredForGc(tag)) tagsOfTasksDoneSinceLastGc.add(tag);
         }
     }
     
@@ -337,11 +384,26 @@ public class BrooklynGarbageCollector {
         
         // now look at overcapacity tags, non-entity tags first
         
-        Set<Object> taskTags = executionManager.getTaskTags();
-        
         int maxTasksPerEntity = brooklynProperties.getConfig(MAX_TASKS_PER_ENTITY);
         int maxTasksPerTag = brooklynProperties.getConfig(MAX_TASKS_PER_TAG);
         
+        // submitting a task also raises its tags' counts, but only done tasks are deleted, so a tag pushed over
+        // capacity by a submission is picked up once that task (or another in the tag) completes; hence only
+        // tags of tasks done since the last run, and those left over capacity, need checking, unless the limits change
+        Set<Object> taskTags;
+        if (maxTasksPerEntity!=lastMaxTasksPerEntity || maxTasksPerTag!=lastMaxTasksPerTag) {
+            tagsOfTasksDoneSinceLastGc.clear();
+            taskTags = executionManager.getTaskTags();
+            lastMaxTasksPerEntity = maxTasksPerEntity;
+            lastMaxTasksPerTag = maxTasksPerTag;
+        } else {
+            taskTags = MutableSet.copyOf(tagsOverCapacity);
+            for (Iterator<Object> ti = tagsOfTasksDoneSinceLastGc.iterator(); ti.hasNext(); ) {
+                taskTags.add(ti.next());
+                ti.remove();
+            }
+        }
+        
         Map<Object,AtomicInteger> taskNonEntityTagsOverCapacity = MutableMap.of();
         Map<Object,AtomicInteger> taskEntityTagsOverCapacity = MutableMap.of();
         
@@ -380,6 +442,14 @@ public class BrooklynGarbageCollector {
         deletedCount += deletedGlobally;
         if (deletedGlobally>0) deletedCount += expireSubTasksWhoseSubmitterIsExpired();
         
+        Set<Object> stillOverCapacity = MutableSet.of();
+        for (Object tag : taskAllTagsOverCapacity.keySet()) {
+            Set<Task<?>> tasksWithTag = executionManager.tasksWithTagLiveOrNull(tag);
+            if (tasksWithTag!=null && tasksWithTag.size() > (tag instanceof WrappedEntity ? maxTasksPerEntity : maxTasksPerTag))
+                stillOverCapacity.add(tag);
+        }
+        tagsOverCapacity = stillOverCapacity;
+        
         return deletedCount;
     }
 
@@ -415,25 +485,37 @@ public class BrooklynGarbageCollector {
     protected void expireAgedTasks() {
         Duration maxTaskAge = brooklynProperties.getConfig(MAX_TASK_AGE);
         
-        Collection<Task<?>> allTasks = executionManager.allTasksLive();
-        Collection<Task<?>> tasksToDelete = MutableList.of();
-
-        try {
-            for (Task<?> task: allTasks) {
-                if (!task.isDone()) continue;
-                if (BrooklynTaskTags.isSubTask(task)) continue;
-
-                if (maxTaskAge.isShorterThan(Duration.sinceUtc(task.getEndTimeUtc())))
-                    tasksToDelete.add(task);
+        // completed tasks are queued in order of completion, so stop at the first which is not old enough
+        CompletedTask completed;
+        while ((completed = completedTasks.peek())!=null) {
+            Task<?> task = executionManager.getTask(completed.taskId);
+            if (task!=null) {
+                if (!maxTaskAge.isShorterThan(Duration.sinceUtc(completed.endTimeUtc))) break;
+                executionManager.deleteTask(task);
             }
-            
-        } catch (ConcurrentModificationException e) {
-            // delete what we've found so far
-            LOG.debug("Got CME inspecting aged tasks, with "+tasksToDelete.size()+" found for deletion: "+e);
+            // only this (synchronized) method removes from the head, so this is the task peeked
+            completedTasks.poll();
+            completedTasksSize.decrementAndGet();
         }
         
-        for (Task<?> task: tasksToDelete) {
-            executionManager.deleteTask(task);
+        // drop tasks deleted by other means, if they make up most of the queue
+        if (completedTasksSize.get() > 2*executionManager.getNumInMemoryTasks() + 100) {
+            for (Iterator<CompletedTask> ti = completedTasks.iterator(); ti.hasNext(); ) {
+                if (executionManager.getTask(ti.next().taskId)==null) {
+                    ti.remove();
+                    completedTasksSize.decrementAndGet();
+                }
+            }
+        }
+    }
+    
+    private static class CompletedTask {
+        final String taskId;
+        final long endTimeUtc;
+        
+        CompletedTask(Task<?> task) {
+            this.taskId = task.getId();
+            this.endTimeUtc = task.getEndTimeUtc();
         }
     }
     
@@ -500,7 +582,8 @@ public class BrooklynGarbageCollector {
         if (taskTagsInCategoryOverCapacity.isEmpty())
             return 0;
         
-        Collection<Task<?>> tasks = executionManager.allTasksLive();
+        // only tasks with an over-capacity tag can be deleted (or give grace to other tags)
+        Collection<Task<?>> tasks = tasksWithAnyTag(taskTagsInCategoryOverCapacity.keySet());
         List<Task<?>> tasksToConsiderDeleting = MutableList.of();
         try {
             for (Task<?> task: tasks) {
@@ -587,6 +670,18 @@ public class BrooklynGarbageCollector {
         return deleted;
     }
 
+    protected Collection<Task<?>> tasksWithAnyTag(Collection<Object> tags) {
+        Set<Task<?>> result = MutableSet.of();
+        for (Object tag : MutableList.copyOf(tags)) {
+            Set<Task<?>> tasksWithTag = executionManager.tasksWithTagLiveOrNull(tag);
+            if (tasksWithTag==null) continue;
+            synchronized (tasksWithTag) {
+                result.addAll(tasksWithTag);
+            }
+        }
+        return result;
+    }
+
     protected int expireIfOverCapacityGlobally() {
         Collection<Task<?>> tasksLive = executionManager.allTasksLive();
         if (tasksLive.size() <= brooklynProperties.getConfig(MAX_TASKS_GLOBAL))
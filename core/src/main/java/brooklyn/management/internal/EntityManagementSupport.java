@@ -34,6 +34,8 @@ import brooklyn.entity.Feed;
 import brooklyn.entity.basic.AbstractEntity;
 import brooklyn.entity.basic.Entities;
 import brooklyn.entity.basic.EntityInternal;
+import brooklyn.entity.rebind.ChangeListener;
+import brooklyn.entity.rebind.IncrementalChangeListener;
 import brooklyn.event.AttributeSensor;
 import brooklyn.management.ExecutionContext;
 import brooklyn.management.ManagementContext;
@@ -455,7 +457,12 @@ public class EntityManagementSupport {
             // TODO Could make this more efficient by inspecting the attribute to decide if needs persisted
             // immediately, or not important, or transient (e.g. do we really need to persist 
             // request-per-second count for rebind purposes?!)
-            getManagementContext().getRebindManager().getChangeListener().onChanged(entity);
+            ChangeListener changeListener = getManagementContext().getRebindManager().getChangeListener();
+            if (changeListener instanceof IncrementalChangeListener) {
+                ((IncrementalChangeListener)changeListener).onAttributeChanged(entity, attribute);
+            } else {
+                changeListener.onChanged(entity);
+            }
         }
         @Override
         public void onConfigChanged(ConfigKey<?> key) {
@@ -74,8 +74,10 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 
 public class LocalEntityManager implements EntityManagerInternal {
@@ -108,6 +110,12 @@ public class LocalEntityManager implements EntityManagerInternal {
     /** Proxies of the managed entities that are applications */
     protected final Set<Application> applications = Sets.newConcurrentHashSet();
 
+    /** Proxies of the managed entities, by application id; guarded by this */
+    protected final SetMultimap<String,Entity> entityProxiesByApplicationId = LinkedHashMultimap.create();
+    
+    /** Proxies of the managed entities, by the class of the proxy; guarded by this */
+    protected final SetMultimap<Class<?>,Entity> entityProxiesByType = LinkedHashMultimap.create();
+
     private final BrooklynStorage storage;
     private final Map<String,String> entityTypes;
     private final Set<String> applicationIds;
@@ -190,18 +198,69 @@ public class LocalEntityManager implements EntityManagerInternal {
     @Override
     public Collection<Entity> getEntitiesInApplication(Application application) {
         Predicate<Entity> predicate = EntityPredicates.applicationIdEqualTo(application.getId());
-        return ImmutableList.copyOf(Iterables.filter(entityProxiesById.values(), predicate));
+        return ImmutableList.copyOf(Iterables.filter(getCandidateEntities(predicate), predicate));
     }
 
+    /**
+     * Returns the managed entities matching the filter; if the filter is {@link EntityPredicates.Indexable}
+     * then only the candidates found from the indexes are tested.
+     */
     @Override
     public Collection<Entity> findEntities(Predicate<? super Entity> filter) {
-        return ImmutableList.copyOf(Iterables.filter(entityProxiesById.values(), filter));
+        return ImmutableList.copyOf(Iterables.filter(getCandidateEntities(filter), filter));
     }
     
     @Override
     public Collection<Entity> findEntitiesInApplication(Application application, Predicate<? super Entity> filter) {
         Predicate<Entity> predicate = Predicates.and(EntityPredicates.applicationIdEqualTo(application.getId()), filter);
-        return ImmutableList.copyOf(Iterables.filter(entityProxiesById.values(), predicate));
+        Iterable<Entity> candidates = getCandidateEntities(EntityPredicates.applicationIdEqualTo(application.getId()));
+        if (filter instanceof EntityPredicates.Indexable) {
+            Iterable<Entity> otherCandidates = getCandidateEntities(filter);
+            if (Iterables.size(otherCandidates) < Iterables.size(candidates)) candidates = otherCandidates;
+        }
+        return ImmutableList.copyOf(Iterables.filter(candidates, predicate));
+    }
+
+    /**
+     * Returns (a copy of) the smallest set of managed entities, according to the indexes, which includes all 
+     * those that could match the filter; or all managed entities if the filter is not {@link EntityPredicates.Indexable}.
+     * The filter must still be applied to the result.
+     */
+    protected Iterable<Entity> getCandidateEntities(Predicate<? super Entity> filter) {
+        if (!(filter instanceof EntityPredicates.Indexable)) {
+            return entityProxiesById.values();
+        }
+        EntityPredicates.Indexable indexable = (EntityPredicates.Indexable) filter;
+        Collection<Entity> result = null;
+        
+        Entity parent = indexable.getParentConstraint();
+        if (parent != null) {
+            // not holding our lock, as getChildren is entity code
+            result = Lists.newArrayList();
+            for (Entity child : parent.getChildren()) {
+                Entity proxy = entityProxiesById.get(child.getId());
+                if (proxy != null) result.add(proxy);
+            }
+        }
+        
+        synchronized (this) {
+            String applicationId = indexable.getApplicationIdConstraint();
+            if (applicationId != null) {
+                Set<Entity> inApplication = entityProxiesByApplicationId.get(applicationId);
+                if (result == null || inApplication.size() < result.size()) result = ImmutableList.copyOf(inApplication);
+            }
+            
+            Predicate<Class<?>> typeConstraint = indexable.getTypeConstraint();
+            if (typeConstraint != null) {
+                List<Entity> ofType = Lists.newArrayList();
+                for (Class<?> type : entityProxiesByType.keySet()) {
+                    if (typeConstraint.apply(type)) ofType.addAll(entityProxiesByType.get(type));
+                }
+                if (result == null || ofType.size() < result.size()) result = ofType;
+            }
+        }
+        
+        return (result != null) ? result : entityProxiesById.values();
     }
 
     @Override
@@ -658,6 +717,8 @@ public class LocalEntityManager implements EntityManagerInternal {
             proxyE = toProxyEntityIfAvailable(e);
         }
         entityProxiesById.put(e.getId(), proxyE);
+        entityProxiesByApplicationId.put(e.getApplicationId(), proxyE);
+        entityProxiesByType.put(proxyE.getClass(), proxyE);
         entityTypes.put(e.getId(), realE.getClass().getName());
         entitiesById.put(e.getId(), realE);
 
@@ -724,6 +785,8 @@ public class LocalEntityManager implements EntityManagerInternal {
 
             entities.remove(proxyE);
             entityProxiesById.remove(e.getId());
+            entityProxiesByApplicationId.remove(e.getApplicationId(), proxyE);
+            entityProxiesByType.remove(proxyE.getClass(), proxyE);
             entityModesById.remove(e.getId());
             Object old = entitiesById.remove(e.getId());
 
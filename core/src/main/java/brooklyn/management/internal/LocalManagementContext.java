@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import brooklyn.config.BrooklynProperties;
 import brooklyn.config.BrooklynProperties.Factory.Builder;
+import brooklyn.config.BrooklynServerConfig;
 import brooklyn.entity.Application;
 import brooklyn.entity.Effector;
 import brooklyn.entity.Entity;
@@ -44,6 +45,7 @@ import brooklyn.entity.effector.Effectors;
 import brooklyn.entity.proxying.InternalEntityFactory;
 import brooklyn.entity.proxying.InternalLocationFactory;
 import brooklyn.entity.proxying.InternalPolicyFactory;
+import brooklyn.event.feed.PollScheduler;
 import brooklyn.internal.BrooklynFeatureEnablement;
 import brooklyn.internal.storage.DataGridFactory;
 import brooklyn.location.Location;
@@ -57,11 +59,13 @@ import brooklyn.management.TaskAdaptable;
 import brooklyn.management.ha.OsgiManager;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.guava.Maybe;
+import brooklyn.util.http.HttpClientRegistry;
 import brooklyn.util.task.BasicExecutionContext;
 import brooklyn.util.task.BasicExecutionManager;
 import brooklyn.util.task.DynamicTasks;
 import brooklyn.util.task.TaskTags;
 import brooklyn.util.task.Tasks;
+import brooklyn.util.task.VirtualThreadExecutionManager;
 import brooklyn.util.text.Strings;
 
 import com.google.common.annotations.Beta;
@@ -119,6 +123,8 @@ public class LocalManagementContext extends AbstractManagementContext {
     private String managementPlaneId;
     private String managementNodeId;
     private BasicExecutionManager execution;
+    private PollScheduler pollScheduler;
+    private HttpClientRegistry httpClientRegistry;
     private SubscriptionManager subscriptions;
     private LocalEntityManager entityManager;
     private final LocalLocationManager locationManager;
@@ -263,6 +269,24 @@ public class LocalManagementContext extends AbstractManagementContext {
         return getEntityManager().getPolicyFactory();
     }
 
+    @Override
+    public synchronized PollScheduler getPollScheduler() {
+        if (!isRunning()) throw new IllegalStateException("Management context no longer running");
+        if (pollScheduler == null) {
+            pollScheduler = new PollScheduler(configMap);
+        }
+        return pollScheduler;
+    }
+
+    @Override
+    public synchronized HttpClientRegistry getHttpClientRegistry() {
+        if (!isRunning()) throw new IllegalStateException("Management context no longer running");
+        if (httpClientRegistry == null) {
+            httpClientRegistry = new HttpClientRegistry(configMap);
+        }
+        return httpClientRegistry;
+    }
+
     @Override
     public synchronized LocalLocationManager getLocationManager() {
         if (!isRunning()) throw new IllegalStateException("Management context no longer running");
@@ -308,12 +332,23 @@ public class LocalManagementContext extends AbstractManagementContext {
         if (!isRunning()) throw new IllegalStateException("Management context no longer running");
 
         if (execution == null) {
-            execution = new BasicExecutionManager(getManagementNodeId());
+            execution = newExecutionManager();
             gc = new BrooklynGarbageCollector(configMap, execution, getStorage());
         }
         return execution;
     }
     
+    protected BasicExecutionManager newExecutionManager() {
+        if (configMap.getConfig(BrooklynServerConfig.EXECUTION_USE_VIRTUAL_THREADS)) {
+            if (VirtualThreadExecutionManager.isSupported()) {
+                return new VirtualThreadExecutionManager(getManagementNodeId());
+            }
+            log.warn("Virtual threads requested for tasks ("+BrooklynServerConfig.EXECUTION_USE_VIRTUAL_THREADS.getName()+"), "
+                    + "but not supported in this JVM ("+System.getProperty("java.version")+"); using platform threads");
+        }
+        return new BasicExecutionManager(getManagementNodeId(), configMap.getConfig(BrooklynServerConfig.EXECUTION_MAX_POOLED_THREADS));
+    }
+    
     @Override
     public void terminate() {
         INSTANCES.remove(this);
@@ -325,6 +360,8 @@ public class LocalManagementContext extends AbstractManagementContext {
         if (usageManager != null) usageManager.terminate();
         if (execution != null) execution.shutdownNow();
         if (gc != null) gc.shutdownNow();
+        if (pollScheduler != null) pollScheduler.terminate();
+        if (httpClientRegistry != null) httpClientRegistry.terminate();
     }
 
     @Override
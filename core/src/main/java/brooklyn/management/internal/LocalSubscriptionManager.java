@@ -19,14 +19,16 @@
 package brooklyn.management.internal;
 
 import static brooklyn.util.JavaGroovyEquivalents.elvis;
-import static brooklyn.util.JavaGroovyEquivalents.groovyTruth;
 import static brooklyn.util.JavaGroovyEquivalents.join;
 import static brooklyn.util.JavaGroovyEquivalents.mapOf;
+import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -71,8 +73,20 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
     protected final ConcurrentMap<String, Subscription> allSubscriptions = new ConcurrentHashMap<String, Subscription>();
     @SuppressWarnings("rawtypes")
     protected final ConcurrentMap<Object, Set<Subscription>> subscriptionsBySubscriber = new ConcurrentHashMap<Object, Set<Subscription>>();
+    /**
+     * Two-level dispatch index: producer (or {@link #WILDCARD}) to sensor name (or {@link #WILDCARD}) to subscriptions.
+     * <p>
+     * The sets held in the index are never mutated; {@link #subscribe(Map, Subscription)} and {@link #unsubscribe(SubscriptionHandle)}
+     * replace them (copy-on-write, while holding the manager's lock) so that {@link #publish(SensorEvent)} can read them
+     * without any locking, and only visits the subscriptions that match the event's producer and sensor.
+     */
     @SuppressWarnings("rawtypes")
-    protected final ConcurrentMap<Object, Set<Subscription>> subscriptionsByToken = new ConcurrentHashMap<Object, Set<Subscription>>();
+    protected final ConcurrentMap<Object, ConcurrentMap<Object, Set<Subscription>>> subscriptionsByProducerAndSensor = new ConcurrentHashMap<Object, ConcurrentMap<Object, Set<Subscription>>>();
+    
+    /** key used in {@link #subscriptionsByProducerAndSensor} for subscriptions to any producer or any sensor */
+    protected static final Object WILDCARD = new Object() {
+        @Override public String toString() { return "*"; }
+    };
     
     public LocalSubscriptionManager(ExecutionManager m) {
         this.em = m;
@@ -110,7 +124,7 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
         
         if (LOG.isDebugEnabled()) LOG.debug("Creating subscription {} for {} on {} {} in {}", new Object[] {s.id, s.subscriber, producer, sensor, this});
         allSubscriptions.put(s.id, s);
-        addToMapOfSets(subscriptionsByToken, makeEntitySensorToken(s.producer, s.sensor), s);
+        addToIndex(s);
         if (s.subscriber!=null) {
             addToMapOfSets(subscriptionsBySubscriber, s.subscriber, s);
         }
@@ -125,12 +139,11 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
         return (Set<SubscriptionHandle>) ((Set<?>) elvis(subscriptionsBySubscriber.get(subscriber), Collections.emptySet()));
     }
 
-    public synchronized Set<SubscriptionHandle> getSubscriptionsForEntitySensor(Entity source, Sensor<?> sensor) {
+    public Set<SubscriptionHandle> getSubscriptionsForEntitySensor(Entity source, Sensor<?> sensor) {
         Set<SubscriptionHandle> subscriptions = new LinkedHashSet<SubscriptionHandle>();
-        subscriptions.addAll(elvis(subscriptionsByToken.get(makeEntitySensorToken(source, sensor)), Collections.emptySet()));
-        subscriptions.addAll(elvis(subscriptionsByToken.get(makeEntitySensorToken(null, sensor)), Collections.emptySet()));
-        subscriptions.addAll(elvis(subscriptionsByToken.get(makeEntitySensorToken(source, null)), Collections.emptySet()));
-        subscriptions.addAll(elvis(subscriptionsByToken.get(makeEntitySensorToken(null, null)), Collections.emptySet()));
+        for (Set<Subscription<?>> subs : lookupIndex(source, sensor)) {
+            subscriptions.addAll(subs);
+        }
         return subscriptions;
     }
 
@@ -144,7 +157,7 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
         if (!(sh instanceof Subscription)) throw new IllegalArgumentException("Only subscription handles of type Subscription supported: sh="+sh+"; type="+(sh != null ? sh.getClass().getCanonicalName() : null));
         Subscription s = (Subscription) sh;
         boolean result = allSubscriptions.remove(s.id) != null;
-        boolean b2 = removeFromMapOfCollections(subscriptionsByToken, makeEntitySensorToken(s.producer, s.sensor), s);
+        boolean b2 = removeFromIndex(s);
         assert result==b2;
         if (s.subscriber!=null) {
             boolean b3 = removeFromMapOfCollections(subscriptionsBySubscriber, s.subscriber, s);
@@ -173,8 +186,8 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
         if (LOG.isTraceEnabled()) LOG.trace("{} got event {}", this, event);
         totalEventsPublishedCount.incrementAndGet();
         
-        Set<Subscription> subs = (Set<Subscription>) ((Set<?>) getSubscriptionsForEntitySensor(event.getSource(), event.getSensor()));
-        if (groovyTruth(subs)) {
+        // each subscription is held in exactly one bucket, so no de-duplication is needed across them
+        for (Set<Subscription<?>> subs : lookupIndex(event.getSource(), event.getSensor())) {
             if (LOG.isTraceEnabled()) LOG.trace("sending {}, {} to {}", new Object[] {event.getSensor().getName(), event, join(subs, ",")});
             for (Subscription s : subs) {
                 if (s.eventFilter!=null && !s.eventFilter.apply(event))
@@ -215,6 +228,77 @@ public class LocalSubscriptionManager extends AbstractSubscriptionManager {
     public String toString() {
         return tostring;
     }
+
+    private static Object producerKey(Entity producer) {
+        return (producer != null) ? producer : WILDCARD;
+    }
+    
+    private static Object sensorKey(Sensor<?> sensor) {
+        return (sensor != null) ? checkNotNull(sensor.getName(), "sensor must have non-null name: %s", sensor) : WILDCARD;
+    }
+    
+    /**
+     * Returns the (non-empty) buckets of subscriptions matching the given producer and sensor,
+     * i.e. those for exactly that producer/sensor plus any wildcard subscriptions.
+     * Does not lock; the returned sets are immutable snapshots.
+     */
+    protected List<Set<Subscription<?>>> lookupIndex(Entity producer, Sensor<?> sensor) {
+        List<Set<Subscription<?>>> result = new ArrayList<Set<Subscription<?>>>(4);
+        Object sKey = sensorKey(sensor);
+        if (producer != null) {
+            addMatchingBuckets(result, subscriptionsByProducerAndSensor.get(producer), sKey);
+        }
+        addMatchingBuckets(result, subscriptionsByProducerAndSensor.get(WILDCARD), sKey);
+        return result;
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void addMatchingBuckets(List<Set<Subscription<?>>> result, ConcurrentMap<Object, Set<Subscription>> bySensor, Object sKey) {
+        if (bySensor == null) return;
+        Set subs;
+        if (sKey != WILDCARD) {
+            subs = bySensor.get(sKey);
+            if (subs != null) result.add(subs);
+        }
+        subs = bySensor.get(WILDCARD);
+        if (subs != null) result.add(subs);
+    }
+    
+    /** Adds to {@link #subscriptionsByProducerAndSensor}; caller must hold the lock on this manager. */
+    @SuppressWarnings("rawtypes")
+    private void addToIndex(Subscription<?> s) {
+        Object pKey = producerKey(s.producer);
+        ConcurrentMap<Object, Set<Subscription>> bySensor = subscriptionsByProducerAndSensor.get(pKey);
+        if (bySensor == null) {
+            bySensor = new ConcurrentHashMap<Object, Set<Subscription>>();
+            subscriptionsByProducerAndSensor.put(pKey, bySensor);
+        }
+        Object sKey = sensorKey(s.sensor);
+        Set<Subscription> oldSubs = bySensor.get(sKey);
+        Set<Subscription> newSubs = (oldSubs == null) ? new LinkedHashSet<Subscription>(2) : new LinkedHashSet<Subscription>(oldSubs);
+        newSubs.add(s);
+        bySensor.put(sKey, Collections.unmodifiableSet(newSubs));
+    }
+    
+    /** Removes from {@link #subscriptionsByProducerAndSensor}; caller must hold the lock on this manager. */
+    @SuppressWarnings("rawtypes")
+    private boolean removeFromIndex(Subscription<?> s) {
+        Object pKey = producerKey(s.producer);
+        ConcurrentMap<Object, Set<Subscription>> bySensor = subscriptionsByProducerAndSensor.get(pKey);
+        if (bySensor == null) return false;
+        Object sKey = sensorKey(s.sensor);
+        Set<Subscription> oldSubs = bySensor.get(sKey);
+        if (oldSubs == null || !oldSubs.contains(s)) return false;
+        if (oldSubs.size() == 1) {
+            bySensor.remove(sKey);
+            if (bySensor.isEmpty()) subscriptionsByProducerAndSensor.remove(pKey);
+        } else {
+            Set<Subscription> newSubs = new LinkedHashSet<Subscription>(oldSubs);
+            newSubs.remove(s);
+            bySensor.put(sKey, Collections.unmodifiableSet(newSubs));
+        }
+        return true;
+    }
     
     /**
      * Copied from LanguageUtils.groovy, to remove dependency.
@@ -33,12 +33,14 @@ import brooklyn.entity.basic.BrooklynTaskTags;
 import brooklyn.entity.proxying.InternalEntityFactory;
 import brooklyn.entity.proxying.InternalLocationFactory;
 import brooklyn.entity.proxying.InternalPolicyFactory;
+import brooklyn.event.feed.PollScheduler;
 import brooklyn.internal.storage.BrooklynStorage;
 import brooklyn.location.Location;
 import brooklyn.management.ManagementContext;
 import brooklyn.management.Task;
 import brooklyn.management.ha.OsgiManager;
 import brooklyn.util.guava.Maybe;
+import brooklyn.util.http.HttpClientRegistry;
 import brooklyn.util.task.TaskTags;
 
 import com.google.common.annotations.Beta;
@@ -93,6 +95,20 @@ public interface ManagementContextInternal extends ManagementContext {
     
     InternalPolicyFactory getPolicyFactory();
     
+    /** 
+     * @return The shared scheduler for feeds' periodic polls, 
+     * used if {@link PollScheduler#ENABLED} is set.
+     */
+    @Beta
+    PollScheduler getPollScheduler();
+    
+    /** 
+     * @return The registry of pooled http clients, shared by all {@link brooklyn.event.feed.http.HttpFeed}s
+     * (unless configured otherwise).
+     */
+    @Beta
+    HttpClientRegistry getHttpClientRegistry();
+    
     /**
      * Registers an entity that has been created, but that has not yet begun to be managed.
      * <p>
@@ -46,6 +46,7 @@ import brooklyn.entity.drivers.downloads.DownloadResolverManager;
 import brooklyn.entity.proxying.InternalEntityFactory;
 import brooklyn.entity.proxying.InternalLocationFactory;
 import brooklyn.entity.proxying.InternalPolicyFactory;
+import brooklyn.event.feed.PollScheduler;
 import brooklyn.entity.rebind.ChangeListener;
 import brooklyn.entity.rebind.PersistenceExceptionHandler;
 import brooklyn.entity.rebind.RebindExceptionHandler;
@@ -71,6 +72,7 @@ import brooklyn.management.ha.OsgiManager;
 import brooklyn.mementos.BrooklynMementoPersister;
 import brooklyn.mementos.BrooklynMementoRawData;
 import brooklyn.util.guava.Maybe;
+import brooklyn.util.http.HttpClientRegistry;
 import brooklyn.util.time.Duration;
 
 import com.google.common.base.Objects;
@@ -191,6 +193,18 @@ public class NonDeploymentManagementContext implements ManagementContextInternal
         return initialManagementContext.getPolicyFactory();
     }
 
+    @Override
+    public PollScheduler getPollScheduler() {
+        checkInitialManagementContextReal();
+        return initialManagementContext.getPollScheduler();
+    }
+
+    @Override
+    public HttpClientRegistry getHttpClientRegistry() {
+        checkInitialManagementContextReal();
+        return initialManagementContext.getHttpClientRegistry();
+    }
+
     @Override
     public EntityManager getEntityManager() {
         return entityManager;
@@ -69,9 +69,14 @@ import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -90,6 +95,28 @@ public class TypeCoercions {
     /** Store the coercion {@link Function functions} in a {@link Table table}. */
     @GuardedBy("TypeCoercions.class")
     private static Table<Class, Class, Function> registry = HashBasedTable.create();
+    
+    /** Immutable copy of {@link #registry}, replaced on each change, so that coercion can read it without locking. */
+    private static volatile Table<Class, Class, Function> registrySnapshot = ImmutableTable.of();
+    
+    public static final int MAX_COERCION_PLAN_SOURCE_TYPES = 1000;
+
+    /**
+     * The {@link CoercionPlan} for each pair of source and target classes which has been coerced, by source then target class.
+     * Classes are held weakly (compared by identity), and plans softly as they refer to the classes' methods, 
+     * so that the cache does not keep classes and their class loaders (e.g. of OSGi bundles) from being unloaded.
+     */
+    private static final LoadingCache<Class<?>, Cache<Class<?>, CoercionPlan>> coercionPlans = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_COERCION_PLAN_SOURCE_TYPES)
+            .build(new CacheLoader<Class<?>, Cache<Class<?>, CoercionPlan>>() {
+                @Override public Cache<Class<?>, CoercionPlan> load(Class<?> sourceType) {
+                    return CacheBuilder.newBuilder()
+                            .weakKeys()
+                            .softValues()
+                            .build();
+                }
+            });
 
     /**
      * Attempts to coerce {@code value} to {@code targetType}.
@@ -178,35 +205,24 @@ public class TypeCoercions {
             return (T) value.toString();
         }
 
+        // the methods and adapter (if any) for these types, looked up once and then cached
+        CoercionPlan plan = getCoercionPlan(value.getClass(), targetType);
+        
         //look for value.asType where Type is castable to targetType
-        String targetTypeSimpleName = getVerySimpleName(targetType);
-        if (targetTypeSimpleName!=null && targetTypeSimpleName.length()>0) {
-            for (Method m: value.getClass().getMethods()) {
-                if (m.getName().startsWith("as") && m.getParameterTypes().length==0 &&
-                        targetType.isAssignableFrom(m.getReturnType()) ) {
-                    if (m.getName().equals("as"+getVerySimpleName(m.getReturnType()))) {
-                        try {
-                            return (T) m.invoke(value);
-                        } catch (Exception e) {
-                            throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+m.getName()+" adapting failed, "+e);
-                        }
-                    }
-                }
+        if (plan.asMethod != null) {
+            try {
+                return (T) plan.asMethod.invoke(value);
+            } catch (Exception e) {
+                throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+plan.asMethod.getName()+" adapting failed, "+e);
             }
         }
         
         //now look for static TargetType.fromType(Type t) where value instanceof Type  
-        for (Method m: targetType.getMethods()) {
-            if (((m.getModifiers()&Modifier.STATIC)==Modifier.STATIC) && 
-                    m.getName().startsWith("from") && m.getParameterTypes().length==1 &&
-                    m.getParameterTypes()[0].isInstance(value)) {
-                if (m.getName().equals("from"+getVerySimpleName(m.getParameterTypes()[0]))) {
-                    try {
-                        return (T) m.invoke(null, value);
-                    } catch (Exception e) {
-                        throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+m.getName()+" adapting failed, "+e);
-                    }
-                }
+        if (plan.fromMethod != null) {
+            try {
+                return (T) plan.fromMethod.invoke(null, value);
+            } catch (Exception e) {
+                throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+plan.fromMethod.getName()+" adapting failed, "+e);
             }
         }
         
@@ -234,30 +250,95 @@ public class TypeCoercions {
         }
 
         //now look in registry
-        synchronized (TypeCoercions.class) {
-            Map<Class, Function> adapters = registry.row(targetType);
-            for (Map.Entry<Class, Function> entry : adapters.entrySet()) {
-                if (entry.getKey().isInstance(value)) {
-                    T result = (T) entry.getValue().apply(value);
-                    
-                    // Check if need to unwrap again (e.g. if want List<Integer> and are given a String "1,2,3"
-                    // then we'll have so far converted to List.of("1", "2", "3"). Call recursively.
-                    // First check that value has changed, to avoid stack overflow!
-                    if (!Objects.equal(value, result) && targetTypeToken.getType() instanceof ParameterizedType) {
-                        // Could duplicate check for `result instanceof Collection` etc; but recursive call
-                        // will be fine as if that doesn't match we'll safely reach `targetType.isInstance(value)`
-                        // and just return the result.
-                        return coerce(result, targetTypeToken);
-                    }
-                    return result;
-                }
-            }
+        if (plan.adapter != null) {
+            T result = (T) plan.adapter.apply(value);
+            
+            // Check if need to unwrap again (e.g. if want List<Integer> and are given a String "1,2,3"
+            // then we'll have so far converted to List.of("1", "2", "3"). Call recursively.
+            // First check that value has changed, to avoid stack overflow!
+            if (!Objects.equal(value, result) && targetTypeToken.getType() instanceof ParameterizedType) {
+                // Could duplicate check for `result instanceof Collection` etc; but recursive call
+                // will be fine as if that doesn't match we'll safely reach `targetType.isInstance(value)`
+                // and just return the result.
+                return coerce(result, targetTypeToken);
+            }
+            return result;
         }
 
         //not found
         throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): no adapter known");
     }
 
+    /**
+     * The result of the reflective and registry lookups done by {@link #coerce(Object, TypeToken)} for a given
+     * source and target class; any of these may be null, if there is no such way to coerce.
+     */
+    private static class CoercionPlan {
+        /** the registry from which {@link #adapter} was found; the plan is stale if this is no longer current */
+        final Table<Class, Class, Function> registry;
+        final Method asMethod;
+        final Method fromMethod;
+        final Function adapter;
+        
+        CoercionPlan(Table<Class, Class, Function> registry, Method asMethod, Method fromMethod, Function adapter) {
+            this.registry = registry;
+            this.asMethod = asMethod;
+            this.fromMethod = fromMethod;
+            this.adapter = adapter;
+        }
+    }
+    
+    private static CoercionPlan getCoercionPlan(Class<?> sourceType, Class<?> targetType) {
+        Table<Class, Class, Function> currentRegistry = registrySnapshot;
+        Cache<Class<?>, CoercionPlan> plansForSource = coercionPlans.getUnchecked(sourceType);
+        CoercionPlan result = plansForSource.getIfPresent(targetType);
+        if (result == null || result.registry != currentRegistry) {
+            result = new CoercionPlan(currentRegistry, findAsMethod(sourceType, targetType), findFromMethod(sourceType, targetType), 
+                    findAdapter(currentRegistry, sourceType, targetType));
+            plansForSource.put(targetType, result);
+        }
+        return result;
+    }
+    
+    /** finds {@code sourceType.asTargetType()}, or similar for a subtype of the target type */
+    private static Method findAsMethod(Class<?> sourceType, Class<?> targetType) {
+        String targetTypeSimpleName = getVerySimpleName(targetType);
+        if (targetTypeSimpleName!=null && targetTypeSimpleName.length()>0) {
+            for (Method m: sourceType.getMethods()) {
+                if (m.getName().startsWith("as") && m.getParameterTypes().length==0 &&
+                        targetType.isAssignableFrom(m.getReturnType()) ) {
+                    if (m.getName().equals("as"+getVerySimpleName(m.getReturnType()))) {
+                        return m;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+    /** finds static {@code TargetType.fromType(Type t)} where sourceType is a Type */
+    private static Method findFromMethod(Class<?> sourceType, Class<?> targetType) {
+        for (Method m: targetType.getMethods()) {
+            if (((m.getModifiers()&Modifier.STATIC)==Modifier.STATIC) && 
+                    m.getName().startsWith("from") && m.getParameterTypes().length==1 &&
+                    m.getParameterTypes()[0].isAssignableFrom(sourceType)) {
+                if (m.getName().equals("from"+getVerySimpleName(m.getParameterTypes()[0]))) {
+                    return m;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static Function findAdapter(Table<Class, Class, Function> registry, Class<?> sourceType, Class<?> targetType) {
+        for (Map.Entry<Class, Function> entry : registry.row(targetType).entrySet()) {
+            if (entry.getKey().isAssignableFrom(sourceType)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * Type coercion {@link Function function} for {@link Enum enums}.
      * <p>
@@ -475,7 +556,11 @@ public class TypeCoercions {
 
     /** Registers an adapter for use with type coercion. Returns any old adapter. */
     public synchronized static <A,B> Function registerAdapter(Class<A> sourceType, Class<B> targetType, Function<? super A,B> fn) {
-        return registry.put(targetType, sourceType, fn);
+        Function result = registry.put(targetType, sourceType, fn);
+        registrySnapshot = ImmutableTable.copyOf(registry);
+        // plans are also checked against the registry they were made from, in case of a concurrent coercion
+        coercionPlans.invalidateAll();
+        return result;
     }
 
     static { BrooklynInitialization.initTypeCoercionStandardAdapters(); }
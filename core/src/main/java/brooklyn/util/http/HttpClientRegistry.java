@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import brooklyn.config.ConfigKey;
+import brooklyn.config.StringConfigMap;
+import brooklyn.entity.basic.ConfigKeys;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Shares pooled {@link HttpClient}s between all users in a management context (e.g. all {@link brooklyn.event.feed.http.HttpFeed}s),
+ * rather than each creating its own client and connection manager.
+ * <p>
+ * There is one client (with its own {@link PoolingClientConnectionManager}) for each distinct combination
+ * of credentials, trust-all, lax-redirect and timeouts, so connections to a given host are kept alive
+ * and reused across entities. Connections per route and in total are limited by {@link #MAX_PER_ROUTE}
+ * and {@link #MAX_TOTAL}, and connections unused for {@link #IDLE_TIMEOUT} are closed by a background thread.
+ * <p>
+ * Each client records the number of requests, responses and the time to receive the response headers;
+ * see {@link SharedClient#getStats()}.
+ * <p>
+ * As the clients are shared, callers must not shut down their connection managers,
+ * nor change their parameters.
+ */
+@Beta
+public class HttpClientRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpClientRegistry.class);
+
+    public static final ConfigKey<Integer> MAX_PER_ROUTE = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.http.sharedClient.maxPerRoute",
+            "the maximum number of concurrent connections to any one host:port, per shared http client",
+            8);
+
+    public static final ConfigKey<Integer> MAX_TOTAL = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.http.sharedClient.maxTotal",
+            "the maximum number of concurrent connections, per shared http client",
+            200);
+
+    public static final ConfigKey<Duration> IDLE_TIMEOUT = ConfigKeys.newDurationConfigKey(
+            "brooklyn.http.sharedClient.idleTimeout",
+            "how long a pooled connection can be unused before it is closed",
+            Duration.THIRTY_SECONDS);
+
+    private static final String START_TIME_ATTRIBUTE = HttpClientRegistry.class.getName()+".startTime";
+
+    private final int maxPerRoute;
+    private final int maxTotal;
+    private final Duration idleTimeout;
+    private final ConcurrentMap<Key, SharedClient> clients = new ConcurrentHashMap<Key, SharedClient>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean terminated = false;
+
+    public HttpClientRegistry(StringConfigMap config) {
+        this(config.getConfig(MAX_PER_ROUTE), config.getConfig(MAX_TOTAL), config.getConfig(IDLE_TIMEOUT));
+    }
+
+    public HttpClientRegistry(int maxPerRoute, int maxTotal, Duration idleTimeout) {
+        this.maxPerRoute = Math.max(1, maxPerRoute);
+        this.maxTotal = Math.max(this.maxPerRoute, maxTotal);
+        this.idleTimeout = idleTimeout;
+        evictor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("brooklyn-http-client-evictor-%d")
+                .setDaemon(true)
+                .build());
+        long evictionPeriod = Math.max(1000, idleTimeout.toMilliseconds() / 2);
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override public void run() {
+                evictIdleConnections();
+            }}, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the shared client for the given settings, creating it if necessary.
+     * If credentials are supplied (and the uri is known) they are registered with the client for the uri's host and port,
+     * in the same way as {@link HttpTool.HttpClientBuilder#build()}.
+     *
+     * @param uri the uri to be requested, or null if not yet known
+     * @param credentials credentials, or null
+     * @param connectionTimeout timeout, or null for the default
+     * @param socketTimeout timeout, or null for the default
+     */
+    public HttpClient getClient(URI uri, Credentials credentials, boolean trustAll, boolean laxRedirect, Duration connectionTimeout, Duration socketTimeout) {
+        if (terminated) throw new IllegalStateException("Http client registry terminated; cannot get client for "+uri);
+        Key key = new Key(credentials, trustAll, laxRedirect, connectionTimeout, socketTimeout);
+        SharedClient client = clients.get(key);
+        if (client == null) {
+            synchronized (clients) {
+                client = clients.get(key);
+                if (client == null) {
+                    client = new SharedClient(key);
+                    clients.put(key, client);
+                }
+            }
+        }
+        if (uri != null && credentials != null) {
+            client.httpClient.getCredentialsProvider().setCredentials(new AuthScope(uri.getHost(), uri.getPort()), credentials);
+        }
+        if (uri == null && credentials != null) {
+            log.warn("credentials have no effect in shared http client unless URI for host is specified");
+        }
+        return client.httpClient;
+    }
+
+    public int getNumClients() {
+        return clients.size();
+    }
+
+    public Collection<SharedClient> getClients() {
+        return MutableList.copyOf(clients.values());
+    }
+
+    /** connection and latency statistics, summed over all shared clients */
+    public Map<String, Object> getStats() {
+        long leased = 0, available = 0, pending = 0, requests = 0, responses = 0, totalLatency = 0, maxLatency = 0;
+        for (SharedClient client : clients.values()) {
+            PoolStats poolStats = client.connectionManager.getTotalStats();
+            leased += poolStats.getLeased();
+            available += poolStats.getAvailable();
+            pending += poolStats.getPending();
+            requests += client.requestCount.get();
+            responses += client.responseCount.get();
+            totalLatency += client.totalLatencyMillis.get();
+            maxLatency = Math.max(maxLatency, client.maxLatencyMillis.get());
+        }
+        return MutableMap.<String, Object>builder()
+                .put("clients", clients.size())
+                .put("connectionsLeased", leased)
+                .put("connectionsAvailable", available)
+                .put("connectionsPending", pending)
+                .put("requests", requests)
+                .put("responses", responses)
+                .put("meanLatency", Duration.millis(responses == 0 ? 0 : totalLatency / responses))
+                .put("maxLatency", Duration.millis(maxLatency))
+                .build();
+    }
+
+    protected void evictIdleConnections() {
+        for (SharedClient client : clients.values()) {
+            try {
+                client.connectionManager.closeExpiredConnections();
+                client.connectionManager.closeIdleConnections(idleTimeout.toMilliseconds(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("Error closing idle connections of "+client+" (continuing)", e);
+            }
+        }
+    }
+
+    public void terminate() {
+        terminated = true;
+        evictor.shutdownNow();
+        synchronized (clients) {
+            for (SharedClient client : clients.values()) {
+                client.connectionManager.shutdown();
+            }
+            clients.clear();
+        }
+    }
+
+    private static class Key {
+        final Credentials credentials;
+        final boolean trustAll;
+        final boolean laxRedirect;
+        final Duration connectionTimeout;
+        final Duration socketTimeout;
+
+        Key(Credentials credentials, boolean trustAll, boolean laxRedirect, Duration connectionTimeout, Duration socketTimeout) {
+            this.credentials = credentials;
+            this.trustAll = trustAll;
+            this.laxRedirect = laxRedirect;
+            this.connectionTimeout = connectionTimeout;
+            this.socketTimeout = socketTimeout;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(credentials, trustAll, laxRedirect, connectionTimeout, socketTimeout);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key o = (Key) other;
+            return Objects.equal(credentials, o.credentials) && trustAll == o.trustAll && laxRedirect == o.laxRedirect
+                    && Objects.equal(connectionTimeout, o.connectionTimeout) && Objects.equal(socketTimeout, o.socketTimeout);
+        }
+
+        @Override
+        public String toString() {
+            // credentials deliberately omitted
+            return Objects.toStringHelper(this).omitNullValues()
+                    .add("user", credentials != null && credentials.getUserPrincipal() != null ? credentials.getUserPrincipal().getName() : null)
+                    .add("trustAll", trustAll)
+                    .add("laxRedirect", laxRedirect)
+                    .add("connectionTimeout", connectionTimeout)
+                    .add("socketTimeout", socketTimeout)
+                    .toString();
+        }
+    }
+
+    /** A pooled client shared by all users with the same settings. */
+    public class SharedClient {
+        private final Key key;
+        private final PoolingClientConnectionManager connectionManager;
+        private final DefaultHttpClient httpClient;
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong responseCount = new AtomicLong();
+        private final AtomicLong totalLatencyMillis = new AtomicLong();
+        private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+        SharedClient(Key key) {
+            this.key = key;
+
+            // register https up front for the default port, rather than per-uri as HttpClientBuilder does,
+            // because the scheme registry is shared by every route in the pool
+            SchemeRegistry schemeRegistry = new SchemeRegistry();
+            schemeRegistry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
+            try {
+                SSLSocketFactory sslSocketFactory = key.trustAll
+                        ? new SSLSocketFactory(new HttpTool.TrustAllStrategy(), SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER)
+                        : SSLSocketFactory.getSocketFactory();
+                schemeRegistry.register(new Scheme("https", 443, sslSocketFactory));
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+
+            connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setMaxTotal(maxTotal);
+
+            HttpTool.HttpClientBuilder builder = HttpTool.httpClientBuilder()
+                    .clientConnectionManager(connectionManager)
+                    .laxRedirect(key.laxRedirect);
+            if (key.connectionTimeout != null) builder.connectionTimeout(key.connectionTimeout);
+            if (key.socketTimeout != null) builder.socketTimeout(key.socketTimeout);
+            httpClient = (DefaultHttpClient) builder.build();
+
+            httpClient.addRequestInterceptor(new HttpRequestInterceptor() {
+                @Override public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+                    requestCount.incrementAndGet();
+                    context.setAttribute(START_TIME_ATTRIBUTE, System.currentTimeMillis());
+                }});
+            httpClient.addResponseInterceptor(new HttpResponseInterceptor() {
+                @Override public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+                    responseCount.incrementAndGet();
+                    Object startTime = context.getAttribute(START_TIME_ATTRIBUTE);
+                    if (startTime instanceof Long) {
+                        long latency = System.currentTimeMillis() - (Long) startTime;
+                        totalLatencyMillis.addAndGet(latency);
+                        long max;
+                        while (latency > (max = maxLatencyMillis.get())) {
+                            if (maxLatencyMillis.compareAndSet(max, latency)) break;
+                        }
+                    }
+                }});
+
+            if (log.isDebugEnabled()) log.debug("Created shared http client for {}", key);
+        }
+
+        public HttpClient getHttpClient() {
+            return httpClient;
+        }
+
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        public long getResponseCount() {
+            return responseCount.get();
+        }
+
+        public Duration getMeanLatency() {
+            long responses = responseCount.get();
+            return Duration.millis(responses == 0 ? 0 : totalLatencyMillis.get() / responses);
+        }
+
+        public Duration getMaxLatency() {
+            return Duration.millis(maxLatencyMillis.get());
+        }
+
+        public Map<String, Object> getStats() {
+            PoolStats poolStats = connectionManager.getTotalStats();
+            return MutableMap.<String, Object>builder()
+                    .put("connectionsLeased", poolStats.getLeased())
+                    .put("connectionsAvailable", poolStats.getAvailable())
+                    .put("connectionsPending", poolStats.getPending())
+                    .put("connectionsMax", poolStats.getMax())
+                    .put("requests", getRequestCount())
+                    .put("responses", getResponseCount())
+                    .put("meanLatency", getMeanLatency())
+                    .put("maxLatency", getMaxLatency())
+                    .build();
+        }
+
+        @Override
+        public String toString() {
+            return "SharedHttpClient["+key+"]";
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import brooklyn.entity.basic.BrooklynTaskTags;
 import brooklyn.internal.BrooklynFeatureEnablement;
 import brooklyn.management.ExecutionManager;
 import brooklyn.management.HasTaskChildren;
@@ -89,6 +90,9 @@ public class BasicExecutionManager implements ExecutionManager {
     private final ThreadFactory daemonThreadFactory;
     
     private final ExecutorService runner;
+    
+    /** bounded pool for top-level submissions, or null if all tasks run in the (unbounded) {@link #runner} */
+    private final BoundedPrioritizedExecutor boundedRunner;
         
     private final ScheduledExecutorService delayedRunner;
     
@@ -126,20 +130,31 @@ public class BasicExecutionManager implements ExecutionManager {
     };
     
     public BasicExecutionManager(String contextid) {
+        this(contextid, 0);
+    }
+    
+    /**
+     * @param maxPooledThreads if positive, tasks submitted from outside of another task 
+     *   (e.g. effector invocations, feed polls and subscription deliveries) are queued to run in a pool 
+     *   with at most this many threads, with effector and non-transient tasks ahead of transient tasks;
+     *   tasks submitted from within another task always run immediately, as their submitter may be blocked 
+     *   waiting for them. If zero or negative, all tasks run immediately in an unbounded pool.
+     */
+    public BasicExecutionManager(String contextid, int maxPooledThreads) {
         threadFactory = newThreadFactory(contextid);
         daemonThreadFactory = new ThreadFactoryBuilder()
                 .setThreadFactory(threadFactory)
                 .setDaemon(true)
                 .build();
                 
-        // use Executors.newCachedThreadPool(daemonThreadFactory), but timeout of 1s rather than 60s for better shutdown!
-        runner = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), 
-                daemonThreadFactory);
+        runner = newRunner(contextid, daemonThreadFactory);
             
         delayedRunner = new ScheduledThreadPoolExecutor(1, daemonThreadFactory);
+        
+        boundedRunner = maxPooledThreads > 0 ? new BoundedPrioritizedExecutor(maxPooledThreads, daemonThreadFactory) : null;
     }
     
-    private final static class UncaughtExceptionHandlerImplementation implements Thread.UncaughtExceptionHandler {
+    protected final static class UncaughtExceptionHandlerImplementation implements Thread.UncaughtExceptionHandler {
         @Override
         public void uncaughtException(Thread t, Throwable e) {
             log.error("Uncaught exception in thread "+t.getName(), e);
@@ -158,9 +173,21 @@ public class BasicExecutionManager implements ExecutionManager {
                 .build();
     }
     
+    /** 
+     * Creates the (unbounded) executor in which tasks are run.
+     * For use by overriders to use a different kind of thread (or pool); as for
+     * {@link #newThreadFactory(String)}, this is called by the constructor.
+     */
+    protected ExecutorService newRunner(String contextid, ThreadFactory daemonThreadFactory) {
+        // use Executors.newCachedThreadPool(daemonThreadFactory), but timeout of 1s rather than 60s for better shutdown!
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), 
+                daemonThreadFactory);
+    }
+    
     public void shutdownNow() {
         runner.shutdownNow();
         delayedRunner.shutdownNow();
+        if (boundedRunner!=null) boundedRunner.shutdownNow();
     }
     
     public void addListener(ExecutionListener listener) {
@@ -241,6 +268,31 @@ public class BasicExecutionManager implements ExecutionManager {
         return activeTaskCount.get();
     }
 
+    /** count of tasks waiting for a thread in the bounded pool; always 0 if not using a bounded pool */
+    public long getNumQueuedTasks() {
+        return boundedRunner!=null ? boundedRunner.getQueueDepth() : 0;
+    }
+    
+    /** count of tasks which have been taken from the bounded pool's queue to run; always 0 if not using a bounded pool */
+    public long getTotalTasksDequeued() {
+        return boundedRunner!=null ? boundedRunner.getTotalDequeuedCount() : 0;
+    }
+    
+    /** total time tasks have waited for a thread in the bounded pool; always 0 if not using a bounded pool */
+    public long getTotalQueueWaitTimeMillis() {
+        return boundedRunner!=null ? boundedRunner.getTotalQueueWaitTime(TimeUnit.MILLISECONDS) : 0;
+    }
+    
+    /** longest time any task has waited for a thread in the bounded pool; always 0 if not using a bounded pool */
+    public long getMaxQueueWaitTimeMillis() {
+        return boundedRunner!=null ? boundedRunner.getMaxQueueWaitTime(TimeUnit.MILLISECONDS) : 0;
+    }
+    
+    /** the maximum number of threads for top-level tasks, or 0 if unbounded */
+    public int getMaxPooledThreads() {
+        return boundedRunner!=null ? boundedRunner.getMaximumPoolSize() : 0;
+    }
+
     /** count of tasks kept in memory, often including ended tasks */
     public long getNumInMemoryTasks() {
         return tasksById.size();
@@ -574,7 +626,7 @@ public class BasicExecutionManager implements ExecutionManager {
             if (schedulers.size()>1) log.warn("multiple schedulers detected, using only the first, for "+task+": "+schedulers);
             future = schedulers.iterator().next().submit(job);
         } else {
-            future = runner.submit(job);
+            future = submitToRunner(task, job);
         }
         // on completion, listeners get triggered above; here, below we ensure they get triggered on cancel
         // (and we make sure the same ExecutionList is used in the future as in the task)
@@ -590,6 +642,27 @@ public class BasicExecutionManager implements ExecutionManager {
         return task;
     }
     
+    /** runs the job in the bounded pool if there is one and the task is not being submitted from within another task */
+    protected <T> Future<T> submitToRunner(Task<T> task, Callable<T> job) {
+        if (boundedRunner==null) return runner.submit(job);
+        Task<?> submitter = Tasks.current();
+        if (boundedRunner.isCurrentThreadWorker() || (submitter!=null && !(submitter instanceof ScheduledTask))) {
+            // the submitter may block on this task, so it cannot wait for a thread in the bounded pool
+            return runner.submit(job);
+        }
+        return boundedRunner.submit(job, getPriority(task));
+    }
+    
+    /** priority of the task when queued in the bounded pool; see {@link BoundedPrioritizedExecutor} */
+    protected int getPriority(Task<?> task) {
+        Set<Object> tags = task.getTags();
+        if (tags.contains(BrooklynTaskTags.EFFECTOR_TAG) || tags.contains(BrooklynTaskTags.NON_TRANSIENT_TASK_TAG))
+            return BoundedPrioritizedExecutor.PRIORITY_HIGH;
+        if (tags.contains(BrooklynTaskTags.TRANSIENT_TASK_TAG))
+            return BoundedPrioritizedExecutor.PRIORITY_LOW;
+        return BoundedPrioritizedExecutor.PRIORITY_NORMAL;
+    }
+    
     protected void beforeSubmitScheduledTaskAllIterations(Map<?,?> flags, Task<?> task) {
         internalBeforeSubmit(flags, task);
     }
@@ -724,7 +797,9 @@ public class BasicExecutionManager implements ExecutionManager {
      */
     public void setTaskSchedulerForTag(Object tag, TaskScheduler scheduler) {
         synchronized (schedulerByTag) {
-            scheduler.injectExecutor(runner);
+            // the scheduler serialises jobs for the tag itself, and its jobs are not awaited by a submitting task,
+            // so they can be queued in the bounded pool if there is one
+            scheduler.injectExecutor(boundedRunner!=null ? boundedRunner : runner);
 
             Object old = schedulerByTag.put(tag, scheduler);
             if (old!=null && old!=scheduler) {
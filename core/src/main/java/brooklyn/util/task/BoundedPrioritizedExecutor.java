@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A thread pool with a fixed maximum number of threads, whose queue orders jobs by priority
+ * (lowest value first) and then in submission order, so that jobs of equal priority are run fairly.
+ * <p>
+ * Records how long jobs wait in the queue, to give an indication of back-pressure.
+ * <p>
+ * Used by {@link BasicExecutionManager} when it is configured with a maximum number of pooled threads.
+ */
+@Beta
+public class BoundedPrioritizedExecutor extends ThreadPoolExecutor {
+
+    /** priority for jobs which a user is likely to be waiting on, such as effectors */
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 10;
+    /** priority for background jobs, such as transient feed polls */
+    public static final int PRIORITY_LOW = 20;
+
+    private static final ThreadLocal<Boolean> IS_WORKER = new ThreadLocal<Boolean>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong totalDequeuedCount = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    public BoundedPrioritizedExecutor(int maxThreads, ThreadFactory threadFactory) {
+        super(maxThreads, maxThreads, 10L, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), threadFactory);
+        allowCoreThreadTimeOut(true);
+    }
+
+    /** submits the given job with the given priority; see the constants in this class */
+    public <T> Future<T> submit(Callable<T> job, int priority) {
+        PrioritizedFutureTask<T> result = new PrioritizedFutureTask<T>(job, priority, sequence.getAndIncrement());
+        execute(result);
+        return result;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!(command instanceof PrioritizedFutureTask)) {
+            command = new PrioritizedFutureTask<Void>(Executors.<Void>callable(command, null), PRIORITY_NORMAL, sequence.getAndIncrement());
+        }
+        super.execute(command);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedFutureTask<T>(callable, PRIORITY_NORMAL, sequence.getAndIncrement());
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedFutureTask<T>(Executors.callable(runnable, value), PRIORITY_NORMAL, sequence.getAndIncrement());
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        IS_WORKER.set(true);
+        if (r instanceof PrioritizedFutureTask) {
+            long wait = System.nanoTime() - ((PrioritizedFutureTask<?>)r).queuedTimeNanos;
+            totalDequeuedCount.incrementAndGet();
+            totalQueueWaitNanos.addAndGet(wait);
+            long oldMax;
+            do {
+                oldMax = maxQueueWaitNanos.get();
+            } while (wait > oldMax && !maxQueueWaitNanos.compareAndSet(oldMax, wait));
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        IS_WORKER.remove();
+        super.afterExecute(r, t);
+    }
+
+    /** whether the calling thread is one of this pool's threads, currently running a job */
+    public boolean isCurrentThreadWorker() {
+        return Boolean.TRUE.equals(IS_WORKER.get());
+    }
+
+    /** number of jobs submitted but waiting for a thread */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /** number of jobs which have been taken from the queue to run */
+    public long getTotalDequeuedCount() {
+        return totalDequeuedCount.get();
+    }
+
+    /** total time jobs have spent waiting in the queue, across all jobs which have started */
+    public long getTotalQueueWaitTime(TimeUnit unit) {
+        return unit.convert(totalQueueWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /** longest time any job has spent waiting in the queue */
+    public long getMaxQueueWaitTime(TimeUnit unit) {
+        return unit.convert(maxQueueWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static class PrioritizedFutureTask<T> extends FutureTask<T> implements Comparable<PrioritizedFutureTask<?>> {
+        final int priority;
+        final long sequence;
+        final long queuedTimeNanos = System.nanoTime();
+
+        PrioritizedFutureTask(Callable<T> callable, int priority, long sequence) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PrioritizedFutureTask<?> o) {
+            if (priority != o.priority) return (priority < o.priority) ? -1 : 1;
+            return (sequence < o.sequence) ? -1 : (sequence == o.sequence ? 0 : 1);
+        }
+    }
+}
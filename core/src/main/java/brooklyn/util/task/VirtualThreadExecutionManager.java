@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import brooklyn.util.exceptions.Exceptions;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * An execution manager which runs each task in its own virtual thread, rather than in a pooled platform thread.
+ * <p>
+ * Most tasks spend nearly all of their time blocked on I/O (ssh commands, http polls, jmx reads),
+ * so this allows very many concurrent tasks without the memory cost of a platform thread each.
+ * Scheduling of {@link ScheduledTask}s is still done by a platform thread, and the per-thread
+ * current task (see {@link BasicExecutionManager#getPerThreadCurrentTask()}) and hence
+ * {@link DynamicSequentialTask} queueing behave exactly as for {@link BasicExecutionManager}.
+ * <p>
+ * Virtual threads require Java 21 or later, and are accessed reflectively so that brooklyn still
+ * compiles and runs on older JVMs; use {@link #isSupported()} to check before constructing.
+ * Note that code which blocks while holding a monitor pins the underlying carrier thread,
+ * so offers less benefit.
+ */
+@Beta
+public class VirtualThreadExecutionManager extends BasicExecutionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadExecutionManager.class);
+
+    /** whether this JVM supports virtual threads */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public VirtualThreadExecutionManager(String contextid) {
+        super(contextid);
+    }
+
+    /** ignores the supplied (platform) thread factory, creating a new virtual thread for every task */
+    @Override
+    protected ExecutorService newRunner(String contextid, ThreadFactory daemonThreadFactory) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads not supported in this JVM ("+System.getProperty("java.version")+")");
+        }
+        try {
+            Class<?> builderClazz = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClazz.getMethod("name", String.class, long.class).invoke(builder, "brooklyn-execmanager-"+contextid+"-virtual-", 0L);
+            builder = builderClazz.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class)
+                    .invoke(builder, new UncaughtExceptionHandlerImplementation());
+            ThreadFactory virtualThreadFactory = (ThreadFactory) builderClazz.getMethod("factory").invoke(builder);
+
+            if (log.isDebugEnabled()) log.debug("Using virtual threads for tasks in execution manager "+contextid);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, virtualThreadFactory);
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+}
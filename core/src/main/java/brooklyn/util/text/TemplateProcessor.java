@@ -18,12 +18,15 @@
  */
 package brooklyn.util.text;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,15 +40,20 @@ import brooklyn.management.ManagementContext;
 import brooklyn.management.internal.ManagementContextInternal;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.time.Duration;
 
 import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import com.google.common.io.Files;
 
-import freemarker.cache.StringTemplateLoader;
+import freemarker.core.Environment;
 import freemarker.template.Configuration;
 import freemarker.template.ObjectWrapper;
 import freemarker.template.Template;
+import freemarker.template.TemplateException;
 import freemarker.template.TemplateHashModel;
 import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelException;
@@ -57,11 +65,32 @@ import freemarker.template.TemplateModelException;
  * <p>
  * See {@link #processTemplateContents(String, ManagementContextInternal, Map)} for
  * a description of how management access is done.
+ * <p>
+ * Templates are parsed once for given contents, and kept in a shared bounded cache;
+ * see {@link #getTemplate(String)} and {@link #getMetrics()}.
  */
 public class TemplateProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(TemplateProcessor.class);
 
+    /** maximum number of distinct template contents whose parsed form is cached */
+    public static final int MAX_CACHED_TEMPLATES = 500;
+    
+    /** shared by all templates; not modified after construction, so safe for concurrent use */
+    private static final Configuration CONFIGURATION = new Configuration();
+    static {
+        CONFIGURATION.setObjectWrapper(ObjectWrapper.DEFAULT_WRAPPER);
+    }
+    
+    /** parsed templates, keyed by their contents */
+    private static final Cache<String, Template> TEMPLATES = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TEMPLATES)
+            .recordStats()
+            .build();
+    
+    private static final AtomicLong renderCount = new AtomicLong();
+    private static final AtomicLong renderTotalNanos = new AtomicLong();
+
     protected static TemplateModel wrapAsTemplateModel(Object o) throws TemplateModelException {
         if (o instanceof Map) return new DotSplittingTemplateModel((Map<?,?>)o);
         return ObjectWrapper.DEFAULT_WRAPPER.wrap(o);
@@ -332,20 +361,31 @@ public class TemplateProcessor {
     
     /** Processes template contents against the given {@link TemplateHashModel}. */
     public static String processTemplateContents(String templateContents, final TemplateHashModel substitutions) {
+        StringWriter out = new StringWriter();
+        processTemplateContents(templateContents, substitutions, out);
+        return out.toString();
+    }
+    
+    /** As {@link #processTemplateContents(String, Map)}, but writing the result to the given writer. */
+    public static void processTemplateContents(String templateContents, final Map<String, ? extends Object> substitutions, Writer out) {
+        TemplateHashModel root;
+        try {
+            root = substitutions != null
+                ? (TemplateHashModel)wrapAsTemplateModel(substitutions)
+                : null;
+        } catch (TemplateModelException e) {
+            throw new IllegalStateException("Unable to set up TemplateHashModel to parse template, given "+substitutions+": "+e, e);
+        }
+        
+        processTemplateContents(templateContents, root, out);
+    }
+    
+    /** As {@link #processTemplateContents(String, TemplateHashModel)}, but writing the result to the given writer. */
+    public static void processTemplateContents(String templateContents, final TemplateHashModel substitutions, Writer out) {
         try {
-            Configuration cfg = new Configuration();
-            StringTemplateLoader templateLoader = new StringTemplateLoader();
-            templateLoader.putTemplate("config", templateContents);
-            cfg.setTemplateLoader(templateLoader);
-            Template template = cfg.getTemplate("config");
-
             // TODO could expose CAMP '$brooklyn:' style dsl, based on template.createProcessingEnvironment
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Writer out = new OutputStreamWriter(baos);
-            template.process(substitutions, out);
+            renderTemplate(getTemplate(templateContents), substitutions, out);
             out.flush();
-
-            return new String(baos.toByteArray());
         } catch (Exception e) {
             log.warn("Error processing template (propagating): "+e, e);
             log.debug("Template which could not be parsed (causing "+e+") is:"
@@ -353,4 +393,47 @@ public class TemplateProcessor {
             throw Exceptions.propagate(e);
         }
     }
+    
+    /**
+     * Returns the parsed template for the given contents, from the shared cache if these contents 
+     * have been seen recently. The template can be used concurrently.
+     * 
+     * @throws IOException if the contents cannot be parsed (as a {@link freemarker.core.ParseException})
+     */
+    public static Template getTemplate(String templateContents) throws IOException {
+        Template result = TEMPLATES.getIfPresent(templateContents);
+        if (result == null) {
+            // concurrent callers may both parse the same contents; either result is fine to keep
+            result = new Template("config", new StringReader(templateContents), CONFIGURATION);
+            TEMPLATES.put(templateContents, result);
+        }
+        return result;
+    }
+    
+    /** Renders the template with the given data model to the writer, recording the time taken in the {@link #getMetrics() metrics}. */
+    public static void renderTemplate(Template template, Object dataModel, Writer out) throws TemplateException, IOException {
+        long start = System.nanoTime();
+        try {
+            Environment env = template.createProcessingEnvironment(dataModel, out);
+            // as for a new Configuration per template, rather than the defaults when the shared one was created
+            env.setLocale(Locale.getDefault());
+            env.setTimeZone(TimeZone.getDefault());
+            env.process();
+        } finally {
+            renderCount.incrementAndGet();
+            renderTotalNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+    
+    /** Metrics about the template cache (hits, misses, hit rate and size) and the templates rendered. */
+    public static Map<String,Object> getMetrics() {
+        CacheStats stats = TEMPLATES.stats();
+        return MutableMap.<String,Object>of(
+                "cacheHits", stats.hitCount(),
+                "cacheMisses", stats.missCount(),
+                "cacheHitRate", stats.hitRate(),
+                "cacheSize", TEMPLATES.size(),
+                "renders", renderCount.get(),
+                "totalRenderTime", Duration.nanos(renderTotalNanos.get()));
+    }
 }
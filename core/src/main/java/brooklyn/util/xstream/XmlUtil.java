@@ -18,36 +18,70 @@
  */
 package brooklyn.util.xstream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.collections.MutableSet;
 import brooklyn.util.exceptions.Exceptions;
 
 public class XmlUtil {
 
+    // factories are not guaranteed thread-safe, and builders are not, so keep one of each per thread;
+    // see http://stackoverflow.com/questions/9828254/is-documentbuilderfactory-thread-safe-in-java-5
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+        @Override protected DocumentBuilder initialValue() {
+            try {
+                return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+    };
+    private static final ThreadLocal<XPath> XPATH = new ThreadLocal<XPath>() {
+        @Override protected XPath initialValue() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+    
+    // creating readers from a configured factory is thread-safe
+    private static final XMLInputFactory STAX_FACTORY = newStaxFactory();
+    
+    private static XMLInputFactory newStaxFactory() {
+        XMLInputFactory result = XMLInputFactory.newInstance();
+        result.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return result;
+    }
+
     public static Object xpath(String xml, String xpath) {
-        // TODO Could share factory/doc in thread-local storage; see http://stackoverflow.com/questions/9828254/is-documentbuilderfactory-thread-safe-in-java-5
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new ByteArrayInputStream(xml.getBytes()));
-            XPathFactory xPathfactory = XPathFactory.newInstance();
-            XPathExpression expr = xPathfactory.newXPath().compile(xpath);
+            DocumentBuilder builder = DOCUMENT_BUILDER.get();
+            builder.reset();
+            Document doc = builder.parse(new InputSource(new StringReader(xml)));
+            XPathExpression expr = XPATH.get().compile(xpath);
             
             return expr.evaluate(doc);
             
-        } catch (ParserConfigurationException e) {
-            throw Exceptions.propagate(e);
         } catch (SAXException e) {
             throw Exceptions.propagate(e);
         } catch (IOException e) {
@@ -56,4 +90,65 @@ public class XmlUtil {
             throw Exceptions.propagate(e);
         }
     }
+
+    /**
+     * Returns the text of the named children of the root element (as for the xpath {@code /root/name}),
+     * in a single streaming pass which stops as soon as all are found, so usually without reading the rest
+     * of the document. Names which are not found are absent from the result.
+     * <p>
+     * Much cheaper than a call to {@link #xpath(String, String)} for each name, which parses the whole document each time.
+     */
+    public static Map<String,String> rootChildText(String xml, Collection<String> names) {
+        Set<String> remaining = MutableSet.copyOf(names);
+        Map<String,String> result = MutableMap.of();
+        try {
+            XMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(new StringReader(xml));
+            try {
+                int depth = 0;
+                while (!remaining.isEmpty() && reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == 2 && remaining.remove(reader.getLocalName())) {
+                            result.put(reader.getLocalName(), readText(reader));
+                            depth--;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        if (depth == 0) break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw Exceptions.propagate(e);
+        }
+        return result;
+    }
+
+    /** reads all text within the current element (including that of nested elements), leaving the reader at its end */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder result = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                depth++;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth--;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                result.append(reader.getText());
+                break;
+            default:
+                break;
+            }
+        }
+        return result.toString();
+    }
 }
@@ -45,6 +45,7 @@ import brooklyn.util.collections.MutableMap;
 import brooklyn.util.collections.MutableSet;
 import brooklyn.util.guava.Functionals;
 import brooklyn.util.text.StringFunctions;
+import brooklyn.util.time.Duration;
 
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
@@ -307,6 +308,93 @@ public class EnrichersTest extends BrooklynAppUnitTestSupport {
         EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 5);
     }
 
+    @Test
+    public void testAggregatingIncrementalSumAndMax() {
+        group.addMember(entity);
+        group.addMember(entity2);
+        group.addEnricher(Enrichers.builder()
+                .aggregating(NUM1)
+                .publishing(NUM2)
+                .fromMembers()
+                .computingSum()
+                .incremental()
+                .build());
+        group.addEnricher(Enrichers.builder()
+                .aggregating(NUM1)
+                .publishing(NUM3)
+                .fromMembers()
+                .computingMax()
+                .incremental()
+                .build());
+        
+        entity.setAttribute(NUM1, 2);
+        entity2.setAttribute(NUM1, 3);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 5);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM3, 3);
+        
+        entity2.setAttribute(NUM1, 1);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 3);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM3, 2);
+        
+        group.removeMember(entity);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 1);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM3, 1);
+    }
+    
+    @Test
+    public void testAggregatingMinMatchesFullComputation() {
+        group.addMember(entity);
+        group.addMember(entity2);
+        group.addEnricher(Enrichers.builder()
+                .aggregating(NUM1)
+                .publishing(NUM2)
+                .fromMembers()
+                .computingMin()
+                .build());
+        group.addEnricher(Enrichers.builder()
+                .aggregating(NUM1)
+                .publishing(NUM3)
+                .fromMembers()
+                .computingMin()
+                .incremental()
+                .build());
+        
+        entity.setAttribute(NUM1, 4);
+        entity2.setAttribute(NUM1, 3);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 3);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM3, 3);
+        
+        entity2.setAttribute(NUM1, 5);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 4);
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM3, 4);
+    }
+    
+    @Test
+    public void testAggregatingWithMinPeriodBetweenEmissionsPublishesLatest() {
+        final RecordingSensorEventListener record = new RecordingSensorEventListener();
+        app.getManagementContext().getSubscriptionManager().subscribe(group, NUM2, record);
+        group.addMember(entity);
+        group.addEnricher(Enrichers.builder()
+                .aggregating(NUM1)
+                .publishing(NUM2)
+                .fromMembers()
+                .computingSum()
+                .minPeriodBetweenEmissions(Duration.millis(500))
+                .build());
+        
+        for (int i = 1; i <= 100; i++) {
+            entity.setAttribute(NUM1, i);
+        }
+        EntityTestUtils.assertAttributeEqualsEventually(group, NUM2, 100);
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                Assert.assertEquals(Iterables.getLast(record.events).getValue(), 100);
+            }});
+        
+        // the burst is published at most once immediately and once when the period ends (plus any initial value)
+        Assert.assertTrue(record.events.size() <= 5, "events="+record.events);
+    }
+
     @Test
     public void testAggregatingExcludingBlankString() {
         group.addMember(entity);
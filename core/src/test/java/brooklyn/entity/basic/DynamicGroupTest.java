@@ -140,6 +140,26 @@ public class DynamicGroupTest {
         assertEqualsIgnoringOrder(group.getMembers(), ImmutableSet.of(e3));
     }
 
+    @Test
+    public void testGroupWithIndexableFilters() throws Exception {
+        TestEntity e3 = e1.createAndManageChild(EntitySpec.create(TestEntity.class));
+        TestApplication app2 = ApplicationBuilder.newManagedApp(TestApplication.class, app.getManagementContext());
+        TestEntity e4 = app2.createAndManageChild(EntitySpec.create(TestEntity.class));
+        
+        group.setEntityFilter(EntityPredicates.isChildOf(e1));
+        assertEqualsIgnoringOrder(group.getMembers(), ImmutableSet.of(e3));
+        
+        group.setEntityFilter(EntityPredicates.applicationIdEqualTo(app2.getId()));
+        assertEqualsIgnoringOrder(group.getMembers(), ImmutableSet.of(app2, e4));
+        
+        group.setEntityFilter(EntityPredicates.hasInterfaceMatching(".*TestEntity"));
+        assertEqualsIgnoringOrder(group.getMembers(), ImmutableSet.of(e1, e2, e3, e4));
+        
+        Entities.unmanage(e3);
+        group.rescanEntities();
+        assertEqualsIgnoringOrder(group.getMembers(), ImmutableSet.of(e1, e2, e4));
+    }
+
     @Test
     public void testGroupDetectsChangedEntities() throws Exception {
         final AttributeSensor<String> MY_ATTRIBUTE = Sensors.newStringSensor("test.myAttribute", "My test attribute");
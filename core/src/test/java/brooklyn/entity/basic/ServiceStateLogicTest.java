@@ -18,12 +18,17 @@
  */
 package brooklyn.entity.basic;
 
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import brooklyn.entity.BrooklynAppUnitTestSupport;
 import brooklyn.entity.Entity;
+import brooklyn.entity.basic.EntitySubscriptionTest.RecordingSensorEventListener;
 import brooklyn.entity.basic.ServiceStateLogic.ComputeServiceIndicatorsFromChildrenAndMembers;
 import brooklyn.entity.basic.ServiceStateLogic.ServiceNotUpLogic;
 import brooklyn.entity.basic.ServiceStateLogic.ServiceProblemsLogic;
@@ -33,16 +38,20 @@ import brooklyn.event.AttributeSensor;
 import brooklyn.event.basic.Sensors;
 import brooklyn.location.Location;
 import brooklyn.policy.Enricher;
+import brooklyn.test.Asserts;
 import brooklyn.test.EntityTestUtils;
 import brooklyn.test.entity.TestEntity;
 import brooklyn.test.entity.TestEntityImpl.TestEntityWithoutEnrichers;
+import brooklyn.util.collections.MutableList;
 import brooklyn.util.collections.QuorumCheck.QuorumChecks;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.time.Duration;
 
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 @Test
 public class ServiceStateLogicTest extends BrooklynAppUnitTestSupport {
@@ -276,6 +285,63 @@ public class ServiceStateLogicTest extends BrooklynAppUnitTestSupport {
         EntityTestUtils.assertAttributeEqualsContinually(cluster, Attributes.SERVICE_STATE_ACTUAL, Lifecycle.RUNNING);
     }
 
+    @Test
+    public void testCoalescedRecomputationIsEventuallyConsistent() {
+        TestEntity parent = app.createAndManageChild(EntitySpec.create(TestEntity.class, TestEntityWithoutEnrichers.class));
+        parent.addEnricher(ServiceStateLogic.newEnricherFromChildren()
+                .minPeriodBetweenRecomputations(Duration.millis(500)));
+        List<EntityInternal> children = MutableList.of();
+        for (int i = 0; i < 3; i++) {
+            EntityInternal child = (EntityInternal) parent.addChild(EntitySpec.create(TestEntity.class, TestEntityWithoutEnrichers.class));
+            Entities.manage(child);
+            child.setAttribute(Attributes.SERVICE_UP, true);
+            child.setAttribute(Attributes.SERVICE_STATE_ACTUAL, Lifecycle.RUNNING);
+            children.add(child);
+        }
+        assertHasProblemFromChildrenEventually(parent, false);
+        
+        final RecordingSensorEventListener notUpIndicators = new RecordingSensorEventListener();
+        final RecordingSensorEventListener problems = new RecordingSensorEventListener();
+        app.getManagementContext().getSubscriptionManager().subscribe(parent, Attributes.SERVICE_NOT_UP_INDICATORS, notUpIndicators);
+        app.getManagementContext().getSubscriptionManager().subscribe(parent, Attributes.SERVICE_PROBLEMS, problems);
+        
+        // a burst of changes, each of which would change the indicators if recomputed, ending with them all down and one on fire
+        for (int i = 0; i < 20; i++) {
+            for (EntityInternal child : children) {
+                child.setAttribute(Attributes.SERVICE_UP, i % 2 == 1);
+            }
+            children.get(0).setAttribute(Attributes.SERVICE_STATE_ACTUAL, (i % 2 == 1) ? Lifecycle.ON_FIRE : Lifecycle.RUNNING);
+        }
+        for (EntityInternal child : children) {
+            child.setAttribute(Attributes.SERVICE_UP, false);
+        }
+        children.get(0).setAttribute(Attributes.SERVICE_STATE_ACTUAL, Lifecycle.ON_FIRE);
+        assertHasProblemFromChildrenEventually(parent, true);
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                Map<?, ?> lastNotUpIndicators = (Map<?, ?>) Iterables.getLast(notUpIndicators.events).getValue();
+                Map<?, ?> lastProblems = (Map<?, ?>) Iterables.getLast(problems.events).getValue();
+                Assert.assertTrue(lastNotUpIndicators.containsKey(ComputeServiceIndicatorsFromChildrenAndMembers.DEFAULT_UNIQUE_TAG), "notUpIndicators="+lastNotUpIndicators);
+                Assert.assertTrue(lastProblems.containsKey(ComputeServiceIndicatorsFromChildrenAndMembers.DEFAULT_UNIQUE_TAG), "problems="+lastProblems);
+            }});
+        
+        // the burst is recomputed at most once immediately and once when the period ends, not for each change
+        Assert.assertTrue(notUpIndicators.events.size() <= 3, "notUpIndicators="+notUpIndicators.events);
+        Assert.assertTrue(problems.events.size() <= 3, "problems="+problems.events);
+        
+        children.get(0).setAttribute(Attributes.SERVICE_STATE_ACTUAL, Lifecycle.RUNNING);
+        assertHasProblemFromChildrenEventually(parent, false);
+    }
+
+    private static void assertHasProblemFromChildrenEventually(Entity x, final boolean expected) {
+        EntityTestUtils.assertAttributeEventually(ImmutableMap.of("timeout", Duration.seconds(3)), x, Attributes.SERVICE_PROBLEMS, 
+            new Predicate<Map<String, Object>>() {
+                @Override public boolean apply(Map<String, Object> input) {
+                    boolean hasProblem = input != null && input.containsKey(ComputeServiceIndicatorsFromChildrenAndMembers.DEFAULT_UNIQUE_TAG);
+                    return hasProblem == expected;
+                }});
+    }
+
     private static <T> void assertAttributeEqualsEventually(Entity x, AttributeSensor<T> sensor, T value) {
         try {
             EntityTestUtils.assertAttributeEqualsEventually(ImmutableMap.of("timeout", Duration.seconds(3)), x, sensor, value);
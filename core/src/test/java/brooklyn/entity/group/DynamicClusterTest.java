@@ -566,6 +566,87 @@ public class DynamicClusterTest extends BrooklynAppUnitTestSupport {
         }
     }
 
+    @Test
+    public void testLimitsConcurrentMemberStarts() throws Exception {
+        final AtomicInteger starting = new AtomicInteger(0);
+        final AtomicInteger maxStarting = new AtomicInteger(0);
+        DynamicCluster cluster = app.createAndManageChild(EntitySpec.create(DynamicCluster.class)
+                .configure("maxConcurrentChildStarts", 2)
+                .configure("initialSize", 0)
+                .configure("factory", new EntityFactory() {
+                    @Override public Entity newEntity(Map flags, Entity parent) {
+                        return new TestEntityImpl(flags, parent) {
+                            @Override
+                            public void start(Collection<? extends Location> locs) {
+                                int now = starting.incrementAndGet();
+                                synchronized (maxStarting) {
+                                    maxStarting.set(Math.max(maxStarting.get(), now));
+                                }
+                                Time.sleep(50);
+                                starting.decrementAndGet();
+                                super.start(locs);
+                            }
+                        };
+                    }}));
+
+        cluster.start(ImmutableList.of(loc));
+        cluster.resize(6);
+
+        assertEquals(cluster.getMembers().size(), 6);
+        assertEquals(maxStarting.get(), 2);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_QUEUED), (Integer)0);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_IN_FLIGHT), (Integer)0);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_COMPLETED), (Integer)6);
+    }
+
+    @Test
+    public void testStopsAddingWavesBelowSuccessThreshold() throws Exception {
+        final AtomicInteger counter = new AtomicInteger(0);
+        DynamicCluster cluster = app.createAndManageChild(EntitySpec.create(DynamicCluster.class)
+                .configure("quarantineFailedEntities", false)
+                .configure("startWaveSize", 2)
+                .configure("startWaveSuccessThreshold", 0.5)
+                .configure("initialSize", 0)
+                .configure("factory", new EntityFactory() {
+                    @Override public Entity newEntity(Map flags, Entity parent) {
+                        int num = counter.incrementAndGet();
+                        return app.getManagementContext().getEntityManager().createEntity(EntitySpec.create(FailingEntity.class)
+                                .configure(flags)
+                                .configure(FailingEntity.FAIL_ON_START, (num==3 || num==4))
+                                .parent(parent));
+                    }}));
+
+        cluster.start(ImmutableList.of(loc));
+
+        // first wave starts, second wave fails, so the third is never added
+        resizeExpectingError(cluster, 6);
+        assertEquals(counter.get(), 4);
+        assertEquals(cluster.getCurrentSize(), (Integer)2);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_QUEUED), (Integer)0);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_COMPLETED), (Integer)4);
+    }
+
+    @Test
+    public void testUncountsQueuedStartsWhenAddingMemberFails() throws Exception {
+        final AtomicInteger counter = new AtomicInteger(0);
+        DynamicCluster cluster = app.createAndManageChild(EntitySpec.create(DynamicCluster.class)
+                .configure("startWaveSize", 2)
+                .configure("initialSize", 0)
+                .configure("factory", new EntityFactory() {
+                    @Override public Entity newEntity(Map flags, Entity parent) {
+                        if (counter.incrementAndGet() == 2) throw new IllegalStateException("Simulating failure to create member for test");
+                        return new TestEntityImpl(flags, parent);
+                    }}));
+
+        cluster.start(ImmutableList.of(loc));
+
+        // adding the first wave fails, so neither it nor the second wave is started
+        resizeExpectingError(cluster, 4);
+        assertEquals(counter.get(), 2);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_QUEUED), (Integer)0);
+        assertEquals(cluster.getAttribute(DynamicCluster.MEMBER_STARTS_IN_FLIGHT), (Integer)0);
+    }
+
     @Test
     public void defaultRemovalStrategyShutsDownNewestFirstWhenResizing() throws Exception {
         final List<Entity> creationOrder = Lists.newArrayList();
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind;
+
+import static brooklyn.test.EntityTestUtils.assertAttributeEquals;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import brooklyn.config.BrooklynProperties;
+import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
+import brooklyn.event.AttributeSensor;
+import brooklyn.event.basic.Sensors;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.test.entity.TestEntity;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+public class RebindIncrementalPersistenceTest extends RebindTestFixtureWithApp {
+
+    private static final AttributeSensor<String> MY_DYNAMIC_SENSOR = Sensors.newStringSensor("test.myDynamicSensor");
+    @SuppressWarnings("rawtypes")
+    private static final AttributeSensor<List> MY_LIST_SENSOR = Sensors.newSensor(List.class, "test.myList");
+    @SuppressWarnings("rawtypes")
+    private static final AttributeSensor<List> MY_OTHER_LIST_SENSOR = Sensors.newSensor(List.class, "test.myOtherList");
+
+    private static final int COMPACT_AFTER = 3;
+
+    @Override
+    protected LocalManagementContext createOrigManagementContext() {
+        BrooklynProperties properties = BrooklynProperties.Factory.newDefault();
+        properties.put(BrooklynMementoPersisterToObjectStore.PERSISTER_INCREMENTAL_ENABLED, true);
+        properties.put(BrooklynMementoPersisterToObjectStore.PERSISTER_INCREMENTAL_COMPACT_AFTER, COMPACT_AFTER);
+        return RebindTestUtils.managementContextBuilder(mementoDir, classLoader)
+                .properties(properties)
+                .persistPeriodMillis(getPersistPeriodMillis())
+                .forLive(useLiveManagementContext())
+                .emptyCatalog(useEmptyCatalog())
+                .buildStarted();
+    }
+
+    @Test
+    public void testAttributeChangesAppendedAndReplayedOnRebind() throws Exception {
+        TestEntity origEntity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(origApp);
+        String origEntityContents = Files.toString(getEntityFile(origEntity), Charsets.UTF_8);
+
+        origEntity.setAttribute(TestEntity.SEQUENCE, 1);
+        origEntity.setAttribute(MY_DYNAMIC_SENSOR, "myval");
+        RebindTestUtils.waitForPersisted(origApp);
+        origEntity.setAttribute(TestEntity.SEQUENCE, 2);
+        RebindTestUtils.waitForPersisted(origApp);
+
+        assertEquals(Files.toString(getEntityFile(origEntity), Charsets.UTF_8), origEntityContents);
+        String deltas = Files.toString(getDeltasFile(origEntity), Charsets.UTF_8);
+        assertTrue(deltas.contains("test.sequence"), deltas);
+        assertTrue(deltas.contains("myval"), deltas);
+
+        newApp = rebind();
+        TestEntity newEntity = (TestEntity) newManagementContext.getEntityManager().getEntity(origEntity.getId());
+        assertAttributeEquals(newEntity, TestEntity.SEQUENCE, 2);
+        assertEquals(newEntity.getAttribute(Sensors.newStringSensor(MY_DYNAMIC_SENSOR.getName())), "myval");
+    }
+
+    @Test
+    public void testCompactsAfterConfiguredNumberOfDeltas() throws Exception {
+        TestEntity origEntity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(origApp);
+
+        for (int i = 1; i <= COMPACT_AFTER; i++) {
+            origEntity.setAttribute(TestEntity.SEQUENCE, i);
+            RebindTestUtils.waitForPersisted(origApp);
+            assertTrue(getDeltasFile(origEntity).exists());
+        }
+        origEntity.setAttribute(TestEntity.SEQUENCE, COMPACT_AFTER+1);
+        RebindTestUtils.waitForPersisted(origApp);
+        assertFalse(getDeltasFile(origEntity).exists());
+
+        newApp = rebind();
+        TestEntity newEntity = (TestEntity) newManagementContext.getEntityManager().getEntity(origEntity.getId());
+        assertAttributeEquals(newEntity, TestEntity.SEQUENCE, COMPACT_AFTER+1);
+    }
+
+    @Test
+    public void testSkipsTruncatedDeltaRecordOnRebind() throws Exception {
+        TestEntity origEntity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(origApp);
+        origEntity.setAttribute(TestEntity.SEQUENCE, 1);
+        RebindTestUtils.waitForPersisted(origApp);
+
+        // as though the process died part way through appending a record
+        origManagementContext.getRebindManager().stopPersistence();
+        Files.append("<entityAttributes>\n  <id>"+origEntity.getId()+"</id>\n  <attri", getDeltasFile(origEntity), Charsets.UTF_8);
+
+        newApp = rebind();
+        TestEntity newEntity = (TestEntity) newManagementContext.getEntityManager().getEntity(origEntity.getId());
+        assertAttributeEquals(newEntity, TestEntity.SEQUENCE, 1);
+    }
+
+    @Test
+    public void testFullCheckpointSupersedesDeltas() throws Exception {
+        TestEntity origEntity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(origApp);
+        origEntity.setAttribute(TestEntity.SEQUENCE, 1);
+        RebindTestUtils.waitForPersisted(origApp);
+        assertTrue(getDeltasFile(origEntity).exists());
+
+        origManagementContext.getRebindManager().forcePersistNow(true, null);
+        assertFalse(getDeltasFile(origEntity).exists());
+
+        // a later full write would otherwise have the older attribute records replayed over it on rebind
+        origEntity.setAttribute(TestEntity.SEQUENCE, 2);
+        origManagementContext.getRebindManager().forcePersistNow(true, null);
+
+        newApp = rebind();
+        TestEntity newEntity = (TestEntity) newManagementContext.getEntityManager().getEntity(origEntity.getId());
+        assertAttributeEquals(newEntity, TestEntity.SEQUENCE, 2);
+    }
+
+    @Test
+    public void testValuesSharedBetweenAttributesWrittenInFull() throws Exception {
+        TestEntity origEntity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(origApp);
+        String origEntityContents = Files.toString(getEntityFile(origEntity), Charsets.UTF_8);
+
+        // the same list in two attributes would be written with an xstream back-reference
+        List<String> shared = Lists.newArrayList("a", "b");
+        origEntity.setAttribute(MY_LIST_SENSOR, shared);
+        origEntity.setAttribute(MY_OTHER_LIST_SENSOR, shared);
+        RebindTestUtils.waitForPersisted(origApp);
+
+        assertFalse(getDeltasFile(origEntity).exists());
+        assertFalse(Files.toString(getEntityFile(origEntity), Charsets.UTF_8).equals(origEntityContents));
+
+        newApp = rebind();
+        TestEntity newEntity = (TestEntity) newManagementContext.getEntityManager().getEntity(origEntity.getId());
+        assertEquals(newEntity.getAttribute(Sensors.newSensor(List.class, MY_OTHER_LIST_SENSOR.getName())), shared);
+    }
+
+    private File getEntityFile(TestEntity entity) {
+        return new File(new File(mementoDir, "entities"), entity.getId());
+    }
+
+    private File getDeltasFile(TestEntity entity) {
+        return new File(new File(mementoDir, BrooklynMementoPersisterToObjectStore.DELTAS_SUB_PATH), entity.getId()+".delta");
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import brooklyn.config.BrooklynProperties;
+import brooklyn.entity.Entity;
+import brooklyn.entity.basic.BasicGroup;
+import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.test.entity.TestEntity;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+public class RebindParallelTest extends RebindTestFixtureWithApp {
+
+    @Override
+    protected LocalManagementContext createNewManagementContext(File mementoDir) {
+        if (mementoDir==null) mementoDir = this.mementoDir;
+        BrooklynProperties properties = BrooklynProperties.Factory.newDefault();
+        properties.put(RebindManagerImpl.REBIND_PARALLELISM, 4);
+        return RebindTestUtils.managementContextBuilder(mementoDir, classLoader)
+                .properties(properties)
+                .forLive(useLiveManagementContext())
+                .emptyCatalog(useEmptyCatalog())
+                .buildUnstarted();
+    }
+
+    @Test
+    public void testRebindsTreeAndGroupsConcurrently() throws Exception {
+        BasicGroup origGroup = origApp.createAndManageChild(EntitySpec.create(BasicGroup.class));
+        List<TestEntity> origLeaves = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            TestEntity origChild = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+            origChild.setAttribute(TestEntity.SEQUENCE, i);
+            for (int j = 0; j < 5; j++) {
+                TestEntity origGrandchild = origChild.addChild(EntitySpec.create(TestEntity.class));
+                origManagementContext.getEntityManager().manage(origGrandchild);
+                origGrandchild.setAttribute(TestEntity.SEQUENCE, i*10+j);
+                origGroup.addMember(origGrandchild);
+                origLeaves.add(origGrandchild);
+            }
+        }
+        
+        newApp = rebind();
+        
+        assertEquals(newApp.getChildren().size(), 6);
+        BasicGroup newGroup = (BasicGroup) newManagementContext.getEntityManager().getEntity(origGroup.getId());
+        assertEquals(newGroup.getMembers().size(), origLeaves.size());
+        for (TestEntity origLeaf : origLeaves) {
+            TestEntity newLeaf = (TestEntity) newManagementContext.getEntityManager().getEntity(origLeaf.getId());
+            Entity newParent = newManagementContext.getEntityManager().getEntity(origLeaf.getParent().getId());
+            assertEquals(newLeaf.getParent(), newParent);
+            assertEquals(newParent.getParent(), newApp);
+            assertEquals(newLeaf.getAttribute(TestEntity.SEQUENCE), origLeaf.getAttribute(TestEntity.SEQUENCE));
+            assertEquals(ImmutableSet.copyOf(newLeaf.getGroups()), ImmutableSet.of(newGroup));
+            assertEquals(newParent.getChildren().size(), 5);
+        }
+    }
+}
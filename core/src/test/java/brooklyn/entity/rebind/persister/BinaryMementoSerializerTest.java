@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.persister;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.util.collections.MutableMap;
+
+/** Runs all the {@link XmlMementoSerializerTest} tests against the binary format, as well as its own. */
+public class BinaryMementoSerializerTest extends XmlMementoSerializerTest {
+
+    @BeforeMethod(alwaysRun=true)
+    @Override
+    public void setUp() throws Exception {
+        serializer = new BinaryMementoSerializer<Object>(BinaryMementoSerializerTest.class.getClassLoader());
+    }
+
+    @Test
+    public void testWritesVersionHeader() throws Exception {
+        String serialized = serializer.toString(MutableMap.of("mykey", "myval"));
+        assertTrue(serialized.startsWith(BinaryMementoSerializer.HEADER_PREFIX+BinaryMementoSerializer.FORMAT_VERSION+"\n"), serialized);
+        assertTrue(BinaryMementoSerializer.isBinary(serialized));
+        assertFalse(serialized.contains("mykey"), serialized);
+    }
+
+    @Test
+    public void testReadsXml() throws Exception {
+        String xml = new XmlMementoSerializer<Object>(BinaryMementoSerializerTest.class.getClassLoader()).toString(MutableMap.of("mykey", "myval"));
+        assertFalse(BinaryMementoSerializer.isBinary(xml));
+        assertEquals(serializer.fromString(xml), MutableMap.of("mykey", "myval"));
+    }
+
+    @Test
+    public void testToXml() throws Exception {
+        XmlMementoSerializer<Object> xmlSerializer = new XmlMementoSerializer<Object>(BinaryMementoSerializerTest.class.getClassLoader());
+        Object obj = MutableMap.of("mykey", "myval", "myotherkey", 123);
+        String xml = BinaryMementoSerializer.toXml(serializer.toString(obj));
+        assertTrue(xml.contains("<mykey>myval</mykey>"), xml);
+        assertEquals(xmlSerializer.fromString(xml), obj);
+        assertEquals(BinaryMementoSerializer.toXml(xml), xml);
+    }
+
+    @Test(expectedExceptions=IllegalStateException.class)
+    public void testRejectsUnknownVersion() throws Exception {
+        String serialized = serializer.toString(MutableMap.of("mykey", "myval"));
+        serializer.fromString(serialized.replaceFirst(BinaryMementoSerializer.HEADER_PREFIX+"\\d+", BinaryMementoSerializer.HEADER_PREFIX+"999"));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.persister;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class EntityAttributesDeltaReplayerTest {
+
+    private static final String BASE = "<entity>\n"
+            + "  <id>myid</id>\n"
+            + "  <attributes>\n"
+            + "    <test.mySensor>oldval</test.mySensor>\n"
+            + "    <test.myDynamicSensor>myval</test.myDynamicSensor>\n"
+            + "  </attributes>\n"
+            + "  <attributeKeys>\n"
+            + "    <test.myDynamicSensor>\n"
+            + "      <attributeSensor><name>test.myDynamicSensor</name></attributeSensor>\n"
+            + "    </test.myDynamicSensor>\n"
+            + "  </attributeKeys>\n"
+            + "</entity>\n";
+
+    @Test
+    public void testReplaysChangedAttributes() throws Exception {
+        String result = EntityAttributesDeltaReplayer.replay("myid", BASE,
+                "<entityAttributes>\n  <id>myid</id>\n  <attributes>\n    <test.mySensor>newval</test.mySensor>\n  </attributes>\n</entityAttributes>\n");
+        assertTrue(result.contains("<test.mySensor>newval</test.mySensor>"), result);
+        assertFalse(result.contains("oldval"), result);
+        assertTrue(result.contains("<test.myDynamicSensor>myval</test.myDynamicSensor>"), result);
+    }
+
+    @Test
+    public void testRemovesAttributeValueAndKey() throws Exception {
+        String result = EntityAttributesDeltaReplayer.replay("myid", BASE,
+                "<entityAttributes>\n  <id>myid</id>\n  <removedAttributes>\n    <string>test.myDynamicSensor</string>\n  </removedAttributes>\n</entityAttributes>\n");
+        assertFalse(result.contains("test.myDynamicSensor"), result);
+        assertTrue(result.contains("<test.mySensor>oldval</test.mySensor>"), result);
+    }
+}
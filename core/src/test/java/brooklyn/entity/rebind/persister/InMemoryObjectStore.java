@@ -140,6 +140,18 @@ public class InMemoryObjectStore implements PersistenceObjectStore {
         }
     }
 
+    @Override
+    public Map<String, Date> listContentsWithLastModifiedDates(final String parentSubPath) {
+        if (!prepared) throw new IllegalStateException("prepare method not yet invoked: "+this);
+        synchronized (filesByName) {
+            Map<String, Date> result = MutableMap.of();
+            for (String file: filesByName.keySet())
+                if (file.startsWith(parentSubPath))
+                    result.put(file, fileModTimesByName.get(file));
+            return result;
+        }
+    }
+
     @Override
     public void close() {
     }
@@ -20,6 +20,7 @@ package brooklyn.entity.rebind.persister;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -165,6 +166,18 @@ public class ListeningObjectStore implements PersistenceObjectStore {
         return result;
     }
 
+    @Override
+    public Map<String, Date> listContentsWithLastModifiedDates(String subPath) {
+        for (ObjectStoreTransactionListener listener: listeners)
+            listener.recordQueryOut("requesting list with dates "+subPath, 1+subPath.length());
+        
+        Map<String, Date> result = delegate.listContentsWithLastModifiedDates(subPath);
+        
+        for (ObjectStoreTransactionListener listener: listeners)
+            listener.recordDataIn("receiving list with dates "+subPath, result.toString().length());
+        return result;
+    }
+
     @Override
     public void close() {
         delegate.close();
@@ -243,6 +256,8 @@ public class ListeningObjectStore implements PersistenceObjectStore {
         }
         @Override
         public Date getLastModifiedDate() {
+            for (ObjectStoreTransactionListener listener: listeners)
+                listener.recordQueryOut("requesting last modified date "+path, path.length());
             return delegate.getLastModifiedDate();
         }
     }
@@ -68,7 +68,7 @@ public class XmlMementoSerializerTest {
 
     private static final Logger LOG = LoggerFactory.getLogger(XmlMementoSerializerTest.class);
 
-    private XmlMementoSerializer<Object> serializer;
+    protected XmlMementoSerializer<Object> serializer;
 
     @BeforeMethod(alwaysRun=true)
     public void setUp() throws Exception {
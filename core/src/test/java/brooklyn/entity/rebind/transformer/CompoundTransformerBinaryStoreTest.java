@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.entity.rebind.transformer;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+
+import org.testng.annotations.Test;
+
+import brooklyn.config.BrooklynProperties;
+import brooklyn.entity.rebind.RebindTestUtils;
+import brooklyn.entity.rebind.persister.BinaryMementoSerializer;
+import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.mementos.BrooklynMementoRawData;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Runs the {@link CompoundTransformerTest}s against a store written in the binary format.
+ */
+public class CompoundTransformerBinaryStoreTest extends CompoundTransformerTest {
+
+    @Override
+    protected LocalManagementContext createOrigManagementContext() {
+        BrooklynProperties properties = BrooklynProperties.Factory.newDefault();
+        properties.put(BrooklynMementoPersisterToObjectStore.PERSISTER_SERIALIZATION_FORMAT, "binary");
+        return RebindTestUtils.managementContextBuilder(mementoDir, classLoader)
+                .properties(properties)
+                .persistPeriodMillis(getPersistPeriodMillis())
+                .forLive(useLiveManagementContext())
+                .emptyCatalog(useEmptyCatalog())
+                .buildStarted();
+    }
+
+    @Test
+    public void testTransformsXmlOfBinaryStore() throws Exception {
+        RebindTestUtils.waitForPersisted(origApp);
+        String stored = Files.toString(new File(new File(mementoDir, "entities"), origApp.getId()), Charsets.UTF_8);
+        assertTrue(BinaryMementoSerializer.isBinary(stored), stored);
+
+        BrooklynMementoRawData transformed = transform(origManagementContext, CompoundTransformer.builder()
+                .renameType("brooklyn.test.entity.TestApplicationImpl", "brooklyn.test.entity.TestApplicationRenamed")
+                .build());
+        String entity = transformed.getEntities().get(origApp.getId());
+        assertFalse(BinaryMementoSerializer.isBinary(entity), entity);
+        assertTrue(entity.contains("<type>brooklyn.test.entity.TestApplicationRenamed</type>"), entity);
+    }
+}
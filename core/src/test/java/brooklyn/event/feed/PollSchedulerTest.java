@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.event.feed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.BrooklynAppUnitTestSupport;
+import brooklyn.entity.basic.Entities;
+import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.test.Asserts;
+import brooklyn.test.entity.TestEntity;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.time.Duration;
+import brooklyn.util.time.Time;
+
+public class PollSchedulerTest extends BrooklynAppUnitTestSupport {
+
+    private TestEntity entity;
+    private PollScheduler scheduler;
+
+    @BeforeMethod(alwaysRun=true)
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        entity = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+        scheduler = new PollScheduler(false, 8);
+    }
+
+    @AfterMethod(alwaysRun=true)
+    @Override
+    public void tearDown() throws Exception {
+        if (scheduler != null) scheduler.terminate();
+        super.tearDown();
+    }
+
+    @Test
+    public void testRunsRepeatedlyUntilCancelled() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final PollScheduler.Registration registration = scheduler.register(entity, "counter", Duration.millis(20), newCounter(counter));
+
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertTrue(counter.get() >= 5, "counter="+counter.get());
+                assertTrue(registration.getRunCount() >= 5, "runCount="+registration.getRunCount());
+            }});
+
+        registration.cancel();
+        Time.sleep(Duration.millis(50));
+        final int countAfterCancel = counter.get();
+        Asserts.succeedsContinually(MutableMap.of("timeout", 200), new Runnable() {
+            @Override public void run() {
+                assertEquals(counter.get(), countAfterCancel);
+            }});
+        assertEquals(scheduler.getNumRegistrations(), 0);
+    }
+
+    @Test
+    public void testSkipsWhenPreviousExecutionStillRunning() throws Exception {
+        final AtomicInteger concurrentCalls = new AtomicInteger();
+        final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+        final PollScheduler.Registration registration = scheduler.register(entity, "slow", Duration.millis(10), new Runnable() {
+            @Override public void run() {
+                int current = concurrentCalls.incrementAndGet();
+                if (current > maxConcurrentCalls.get()) maxConcurrentCalls.set(current);
+                Time.sleep(Duration.millis(100));
+                concurrentCalls.decrementAndGet();
+            }});
+
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertTrue(registration.getRunCount() >= 2, "runCount="+registration.getRunCount());
+                assertTrue(registration.getSkippedCount() > 0, "skipped="+registration.getSkippedCount());
+            }});
+        assertEquals(maxConcurrentCalls.get(), 1);
+        assertTrue(registration.getLastDuration().toMilliseconds() >= 100, "duration="+registration.getLastDuration());
+    }
+
+    @Test
+    public void testCancelledWhenEntityUnmanaged() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final PollScheduler.Registration registration = scheduler.register(entity, "counter", Duration.millis(10), newCounter(counter));
+
+        Entities.unmanage(entity);
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertTrue(registration.isCancelled());
+            }});
+    }
+
+    @Test
+    public void testPollerUsesSchedulerWhenEnabled() throws Exception {
+        mgmt.getBrooklynProperties().put(PollScheduler.ENABLED, true);
+        final AtomicInteger counter = new AtomicInteger();
+        Poller<Integer> poller = new Poller<Integer>(entity, false);
+        poller.scheduleAtFixedRate(
+                new Callable<Integer>() {
+                    @Override public Integer call() {
+                        return counter.incrementAndGet();
+                    }},
+                new PollHandler<Integer>() {
+                    @Override public boolean checkSuccess(Integer val) {
+                        return true;
+                    }
+                    @Override public void onSuccess(Integer val) {
+                        entity.setAttribute(TestEntity.SEQUENCE, val);
+                    }
+                    @Override public void onFailure(Integer val) {
+                    }
+                    @Override public void onException(Exception exception) {
+                    }
+                    @Override public String getDescription() {
+                        return "sequence";
+                    }
+                },
+                Duration.millis(10));
+        poller.start();
+        try {
+            Asserts.succeedsEventually(new Runnable() {
+                @Override public void run() {
+                    assertTrue(entity.getAttribute(TestEntity.SEQUENCE) >= 5);
+                }});
+            assertTrue(poller.isRunning());
+            assertEquals(poller.getPollStats().size(), 1);
+        } finally {
+            poller.stop();
+        }
+        assertEquals(mgmt.getPollScheduler().getNumRegistrations(), 0);
+    }
+
+    private Runnable newCounter(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override public void run() {
+                counter.incrementAndGet();
+            }};
+    }
+}
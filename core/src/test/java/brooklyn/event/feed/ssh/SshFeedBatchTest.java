@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.event.feed.ssh;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class SshFeedBatchTest {
+
+    private static final String DELIM = "DELIM";
+
+    @Test
+    public void testBuildBatchScriptFramesEachCommand() {
+        List<Map<String, String>> envs = ImmutableList.<Map<String, String>>of(
+                ImmutableMap.<String, String>of(),
+                ImmutableMap.of("FOO", "a \"quoted\" $value"));
+        String script = SshFeed.buildBatchScript(DELIM, ImmutableList.of("echo one", "echo two"), envs);
+
+        assertTrue(script.contains("echo 'DELIM:0:begin'"), script);
+        assertTrue(script.contains("echo 'DELIM:1:begin'"), script);
+        assertTrue(script.contains("export FOO=\"a \\\"quoted\\\" \\$value\""), script);
+        assertTrue(script.indexOf("echo one") < script.indexOf("echo two"), script);
+    }
+
+    @Test
+    public void testParseBatchOutputSplitsStdoutStderrAndExitStatus() {
+        String stdout = "DELIM:0:begin\nhello\n\nDELIM:0:end:0\n"
+                + "DELIM:1:begin\nno-newline\nDELIM:1:end:123\n";
+        String stderr = "DELIM:0:begin\n\nDELIM:0:end\n"
+                + "DELIM:1:begin\noops\n\nDELIM:1:end\n";
+        List<SshPollValue> results = SshFeed.parseBatchOutput(DELIM, new SshPollValue(null, 0, stdout, stderr), 2);
+
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).getExitStatus(), 0);
+        assertEquals(results.get(0).getStdout(), "hello\n");
+        assertEquals(results.get(0).getStderr(), "");
+        assertEquals(results.get(1).getExitStatus(), 123);
+        assertEquals(results.get(1).getStdout(), "no-newline");
+        assertEquals(results.get(1).getStderr(), "oops\n");
+    }
+
+    @Test
+    public void testParseBatchOutputReportsMissingCommandAsFailed() {
+        String stdout = "DELIM:0:begin\nhello\n\nDELIM:0:end:0\n"
+                + "DELIM:1:begin\npartial";
+        List<SshPollValue> results = SshFeed.parseBatchOutput(DELIM, new SshPollValue(null, 255, stdout, ""), 2);
+
+        assertEquals(results.get(0).getExitStatus(), 0);
+        assertEquals(results.get(1).getExitStatus(), -1);
+        assertNull(results.get(1).getStdout());
+    }
+}
@@ -180,6 +180,34 @@ public class SshFeedIntegrationTest extends BrooklynAppUnitTestSupport {
         EntityTestUtils.assertAttributeEventually(entity, SENSOR_STRING, StringPredicates.containsLiteral("Exit status 123"));
     }
     
+    @Test(groups="Integration")
+    public void testBatchedPollsReturnOwnOutputAndExitStatus() throws Exception {
+        final AttributeSensor<Integer> exitSensor = Sensors.newIntegerSensor("anExitStatus", "");
+        final AttributeSensor<String> stderrSensor = Sensors.newStringSensor("aStderr", "");
+        feed = SshFeed.builder()
+                .entity(entity)
+                .machine(machine)
+                .batched()
+                .poll(new SshPollConfig<String>(SENSOR_STRING)
+                        .command("echo hello")
+                        .onSuccess(SshValueFunctions.stdout()))
+                .poll(new SshPollConfig<Integer>(exitSensor)
+                        .command("exit 123")
+                        .checkSuccess(Predicates.alwaysTrue())
+                        .onSuccess(SshValueFunctions.exitStatus()))
+                .poll(new SshPollConfig<String>(stderrSensor)
+                        .env(MutableMap.of("MSG", "from env"))
+                        .command("echo $MSG >&2; exit 1")
+                        .onFailure(SshValueFunctions.stderr()))
+                .build();
+        
+        EntityTestUtils.assertAttributeEventually(entity, SENSOR_STRING, 
+            Predicates.compose(Predicates.equalTo("hello"), StringFunctions.trim()));
+        EntityTestUtils.assertAttributeEqualsEventually(entity, exitSensor, 123);
+        EntityTestUtils.assertAttributeEventually(entity, stderrSensor, 
+            Predicates.compose(Predicates.equalTo("from env"), StringFunctions.trim()));
+    }
+    
     @Test(groups="Integration")
     public void testAddedEarly() throws Exception {
         final TestEntity entity2 = app.addChild(EntitySpec.create(TestEntity.class)
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.location.basic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.basic.Entities;
+import brooklyn.location.MachineManagementMixins.ExpectedObtains;
+import brooklyn.location.MachineManagementMixins.ObtainsMachinesInBatches;
+import brooklyn.location.NoMachinesAvailableException;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.test.Asserts;
+import brooklyn.test.entity.LocalManagementContextForTests;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.collections.MutableSet;
+import brooklyn.util.guava.Maybe;
+import brooklyn.util.time.Duration;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+public class MachineObtainBatcherTest {
+
+    public static class BatchRecordingLocation extends FixedListMachineProvisioningLocation<SshMachineLocation>
+            implements ObtainsMachinesInBatches<SshMachineLocation> {
+        private static final long serialVersionUID = 1L;
+
+        final MachineObtainBatcher<SshMachineLocation> batcher = new MachineObtainBatcher<SshMachineLocation>(this);
+        final List<Integer> batchSizes = Lists.newCopyOnWriteArrayList();
+        final List<SshMachineLocation> released = Lists.newCopyOnWriteArrayList();
+        volatile Duration maxWait = Duration.ONE_MINUTE;
+        /** the machines obtained together are usable once this completes */
+        volatile ListenableFuture<?> usable = Futures.immediateFuture(null);
+
+        @Override
+        public SshMachineLocation obtain(Map<?,?> flags) throws NoMachinesAvailableException {
+            Maybe<SshMachineLocation> batched = batcher.obtain(flags, flags.get("callerContext"), maxWait);
+            return batched.isPresent() ? batched.get() : super.obtain(flags);
+        }
+
+        @Override
+        public List<ListenableFuture<SshMachineLocation>> obtain(List<? extends Map<?,?>> flagsForEachMachine) {
+            batchSizes.add(flagsForEachMachine.size());
+            List<ListenableFuture<SshMachineLocation>> result = Lists.newArrayList();
+            for (Map<?,?> flags : flagsForEachMachine) {
+                try {
+                    result.add(Futures.transform(usable, Functions.constant(super.obtain(flags))));
+                } catch (NoMachinesAvailableException e) {
+                    result.add(Futures.<SshMachineLocation>immediateFailedFuture(e));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public ExpectedObtains expectObtains(Collection<?> callers) {
+            return batcher.expect(callers);
+        }
+
+        @Override
+        public void release(SshMachineLocation machine) {
+            released.add(machine);
+            super.release(machine);
+        }
+    }
+
+    private LocalManagementContext mgmt;
+    private BatchRecordingLocation provisioner;
+    private ListeningExecutorService executor;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        mgmt = LocalManagementContextForTests.newInstance();
+        List<SshMachineLocation> machines = MutableList.of();
+        for (int i = 1; i <= 3; i++) {
+            machines.add(mgmt.getLocationManager().createLocation(MutableMap.of("address", "192.168.144."+i), SshMachineLocation.class));
+        }
+        provisioner = mgmt.getLocationManager().createLocation(MutableMap.of("machines", machines), BatchRecordingLocation.class);
+        executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (executor != null) executor.shutdownNow();
+        if (mgmt != null) Entities.destroyAll(mgmt);
+    }
+
+    @Test
+    public void testObtainsIndividuallyWhenNotExpected() throws Exception {
+        provisioner.obtain(MutableMap.of("callerContext", "a"));
+        assertEquals(provisioner.batchSizes, ImmutableList.of());
+    }
+
+    @Test
+    public void testObtainsExpectedCallsTogether() throws Exception {
+        ExpectedObtains expected = provisioner.expectObtains(ImmutableList.of("a", "b", "c"));
+        List<Future<SshMachineLocation>> machines = Lists.newArrayList();
+        for (String caller : ImmutableList.of("a", "b", "c")) {
+            machines.add(submitObtain(caller));
+        }
+        assertEquals(getAll(machines).size(), 3);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(3));
+        expected.close();
+    }
+
+    @Test
+    public void testObtainsUnexpectedCallersIndividually() throws Exception {
+        ExpectedObtains expected = provisioner.expectObtains(ImmutableList.of("a", "b"));
+        Future<SshMachineLocation> held = submitObtain("a");
+        
+        // neither a caller not expected, nor one without a caller context, joins the batch
+        provisioner.obtain(MutableMap.of("callerContext", "other"));
+        provisioner.obtain(MutableMap.of());
+        assertEquals(provisioner.batchSizes, ImmutableList.of());
+        assertFalse(held.isDone());
+
+        expected.close();
+        held.get(10, TimeUnit.SECONDS);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(1));
+    }
+
+    @Test
+    public void testWithdrawnCallerDoesNotHoldOthers() throws Exception {
+        ExpectedObtains expected = provisioner.expectObtains(ImmutableList.of("a", "b", "c"));
+        List<Future<SshMachineLocation>> machines = ImmutableList.of(submitObtain("a"), submitObtain("b"));
+        Thread.sleep(100);
+        assertFalse(machines.get(0).isDone());
+
+        // e.g. "c" failed to start before obtaining; the others are provisioned without waiting for it
+        expected.notObtaining("c");
+        assertEquals(getAll(machines).size(), 2);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(2));
+
+        // a caller which has already obtained its machine is not affected
+        expected.notObtaining("a");
+        expected.close();
+    }
+
+    @Test
+    public void testClosingObtainsHeldCalls() throws Exception {
+        ExpectedObtains expected = provisioner.expectObtains(ImmutableList.of("a", "b", "c"));
+        List<Future<SshMachineLocation>> machines = ImmutableList.of(submitObtain("a"), submitObtain("b"));
+        Thread.sleep(100);
+        assertFalse(machines.get(0).isDone());
+
+        expected.close();
+        assertEquals(getAll(machines).size(), 2);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(2));
+
+        // no longer expected, so obtained individually
+        provisioner.obtain(MutableMap.of("callerContext", "c"));
+        assertEquals(provisioner.batchSizes, ImmutableList.of(2));
+    }
+
+    @Test
+    public void testObtainsHeldCallsAfterMaxWait() throws Exception {
+        provisioner.maxWait = Duration.millis(100);
+        provisioner.expectObtains(ImmutableList.of("a", "b", "c"));
+        List<Future<SshMachineLocation>> machines = ImmutableList.of(submitObtain("a"));
+        assertEquals(getAll(machines).size(), 1);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(1));
+    }
+
+    @Test
+    public void testInterruptedCallerLeavesBatch() throws Exception {
+        ExpectedObtains expected = provisioner.expectObtains(ImmutableList.of("a", "b", "c"));
+        Future<SshMachineLocation> interrupted = submitObtain("a");
+        Future<SshMachineLocation> machine = submitObtain("b");
+        Thread.sleep(100);
+        interrupted.cancel(true);
+        Thread.sleep(100);
+
+        expected.notObtaining("c");
+        machine.get(10, TimeUnit.SECONDS);
+        assertEquals(provisioner.batchSizes, ImmutableList.of(1));
+        assertEquals(provisioner.released, ImmutableList.of());
+    }
+
+    @Test
+    public void testReleasesMachineWhenCallerInterruptedAfterProvisioningStarted() throws Exception {
+        SettableFuture<Void> usable = SettableFuture.create();
+        provisioner.usable = usable;
+        provisioner.expectObtains(ImmutableList.of("a"));
+        Future<SshMachineLocation> interrupted = submitObtain("a");
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertEquals(provisioner.batchSizes, ImmutableList.of(1));
+            }});
+        interrupted.cancel(true);
+        
+        // once the machine is obtained, it is released, and so can be obtained again
+        usable.set(null);
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertEquals(provisioner.released.size(), 1);
+            }});
+        for (int i = 0; i < 3; i++) {
+            provisioner.obtain(MutableMap.of());
+        }
+    }
+
+    private Future<SshMachineLocation> submitObtain(final String caller) {
+        return executor.submit(new Callable<SshMachineLocation>() {
+            @Override public SshMachineLocation call() throws Exception {
+                return provisioner.obtain(MutableMap.of("callerContext", caller));
+            }});
+    }
+
+    private static Set<SshMachineLocation> getAll(List<Future<SshMachineLocation>> futures) throws Exception {
+        Set<SshMachineLocation> result = MutableSet.of();
+        for (Future<SshMachineLocation> future : futures) {
+            result.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return result;
+    }
+}
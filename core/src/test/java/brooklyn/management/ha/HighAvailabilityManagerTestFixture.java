@@ -37,6 +37,8 @@ import brooklyn.BrooklynVersion;
 import brooklyn.entity.basic.Entities;
 import brooklyn.entity.rebind.PersistenceExceptionHandlerImpl;
 import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
+import brooklyn.entity.rebind.persister.ListeningObjectStore;
+import brooklyn.entity.rebind.persister.ListeningObjectStore.RecordingTransactionListener;
 import brooklyn.entity.rebind.persister.PersistMode;
 import brooklyn.entity.rebind.persister.PersistenceObjectStore;
 import brooklyn.entity.rebind.plane.dto.BasicManagementNodeSyncRecord;
@@ -227,6 +229,39 @@ public abstract class HighAvailabilityManagerTestFixture {
         assertNotEquals(state.getManagementNodes().get(ownNodeId).getStatus(), ManagementNodeState.FAILED);
     }
 
+    @Test
+    public void testLoadSyncRecordRequestsOnlyChangedNodeRecords() throws Exception {
+        persister.delta(ManagementPlaneSyncRecordDeltaImpl.builder()
+                .node(newManagerMemento("node1", ManagementNodeState.STANDBY))
+                .build());
+        RecordingTransactionListener listener = new RecordingTransactionListener("ha-sync");
+        ManagementPlaneSyncRecordPersisterToObjectStore reader = new ManagementPlaneSyncRecordPersisterToObjectStore(
+                managementContext, new ListeningObjectStore(objectStore, listener), classLoader);
+        reader.preferRemoteTimestampInMemento();
+        assertEquals(reader.loadSyncRecord().getManagementNodes().size(), 2);
+        
+        // unchanged nodes cost nothing beyond reading the master and the change marker, and listing the nodes
+        int queriesBefore = listener.getCountQueriesOut();
+        assertEquals(reader.loadSyncRecord().getManagementNodes().size(), 2);
+        assertEquals(listener.getCountQueriesOut() - queriesBefore, 3);
+        assertEquals(reader.getSyncMetrics().get("nodesUnchanged"), 2L);
+        
+        // a heartbeat is seen (through the listing, or here the record), without reading the other nodes
+        tickerAdvance(Duration.ONE_SECOND);
+        persister.delta(ManagementPlaneSyncRecordDeltaImpl.builder()
+                .node(newManagerMemento("node1", ManagementNodeState.STANDBY))
+                .build());
+        assertEquals(reader.loadSyncRecord().getManagementNodes().get("node1").getRemoteTimestamp(), (Long) tickerCurrentMillis());
+        
+        // and a changed record is read
+        persister.delta(ManagementPlaneSyncRecordDeltaImpl.builder()
+                .node(newManagerMemento("node1", ManagementNodeState.MASTER))
+                .build());
+        ManagementPlaneSyncRecord state = reader.loadSyncRecord();
+        assertEquals(state.getManagementNodes().get("node1").getStatus(), ManagementNodeState.MASTER);
+        assertEquals(state.getManagementNodes().get(ownNodeId).getStatus(), ManagementNodeState.HOT_STANDBY);
+    }
+
     protected Duration getPollPeriod() {
         return Duration.millis(10);
     }
@@ -178,6 +178,26 @@ public class EntityExecutionManagerTest {
         assertTaskCountForEntitySoon(e, 2);
     }
     
+    @Test
+    public void testGcTaskAtNormalTagLimitAfterEarlierGc() throws Exception {
+        app = TestApplication.Factory.newManagedInstanceForTests();
+        e = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+        
+        ((BrooklynProperties)app.getManagementContext().getConfig()).put(
+            BrooklynGarbageCollector.MAX_TASKS_PER_TAG, 2);
+        // subsequent runs only look at the tags of tasks completed since
+        forceGc();
+
+        for (int count=0; count<5; count++)
+            runEmptyTaskWithNameAndTags(e, "task"+count, ManagementContextInternal.NON_TRANSIENT_TASK_TAG, "boring-tag");
+
+        assertTaskCountForEntitySoon(e, 2);
+        
+        Map<String, Object> metrics = ((LocalManagementContext)app.getManagementContext()).getGarbageCollector().getMetrics();
+        assertTrue((Long)metrics.get("count") >= 2, "metrics="+metrics);
+        assertTrue((Long)metrics.get("retainedTasks") >= 2, "metrics="+metrics);
+    }
+    
     @Test
     public void testGcTaskAtEntityLimit() throws Exception {
         app = TestApplication.Factory.newManagedInstanceForTests();
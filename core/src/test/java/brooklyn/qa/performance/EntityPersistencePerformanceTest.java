@@ -18,31 +18,51 @@
  */
 package brooklyn.qa.performance;
 
+import java.io.File;
 import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
+import brooklyn.config.BrooklynProperties;
+import brooklyn.entity.basic.ApplicationBuilder;
+import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.entity.rebind.RebindOptions;
 import brooklyn.entity.rebind.RebindTestFixtureWithApp;
+import brooklyn.entity.rebind.RebindTestUtils;
+import brooklyn.entity.rebind.persister.BinaryMementoSerializer;
+import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
+import brooklyn.entity.rebind.persister.MementoSerializer;
+import brooklyn.entity.rebind.persister.XmlMementoSerializer;
 import brooklyn.location.LocationSpec;
 import brooklyn.location.basic.SimulatedLocation;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.mementos.Memento;
 import brooklyn.policy.Policy;
 import brooklyn.policy.PolicySpec;
 import brooklyn.test.PerformanceTestUtils;
+import brooklyn.test.entity.LocalManagementContextForTests;
+import brooklyn.test.entity.TestApplication;
 import brooklyn.test.entity.TestEntity;
 import brooklyn.test.policy.TestPolicy;
+import brooklyn.util.os.Os;
 import brooklyn.util.repeat.Repeater;
 import brooklyn.util.time.Duration;
 
 import com.google.common.base.Predicates;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Callables;
 
 public class EntityPersistencePerformanceTest extends RebindTestFixtureWithApp {
 
+    private static final Logger LOG = LoggerFactory.getLogger(EntityPersistencePerformanceTest.class);
+
     // TODO Not measuring performance per cycle; just looking at CPU usage during test
     
     protected int getPersistPeriodMillis() {
@@ -65,6 +85,109 @@ public class EntityPersistencePerformanceTest extends RebindTestFixtureWithApp {
         run(NUM_ENTITIES, TEST_LENGTH, REPEAT_EVERY, "rapidChanges");
     }
     
+    @Test(groups="Integration")
+    public void testSerializationFormats() throws Exception {
+        final int NUM_ENTITIES = 100;
+        final int NUM_ITERATIONS = 100;
+        
+        List<Memento> mementos = Lists.newArrayList();
+        for (int i = 0; i < NUM_ENTITIES; i++) {
+            TestEntity entity = origApp.createAndManageChild(EntitySpec.create(TestEntity.class)
+                    .configure(TestEntity.CONF_NAME, "name-"+i));
+            entity.setAttribute(TestEntity.SEQUENCE, i);
+            entity.setAttribute(TestEntity.NAME, "name-"+i);
+            mementos.add(((EntityInternal)entity).getRebindSupport().getMemento());
+        }
+        
+        ClassLoader classLoader = getClass().getClassLoader();
+        measureSerialization("xml", new XmlMementoSerializer<Object>(classLoader), mementos, NUM_ITERATIONS);
+        measureSerialization("binary", new BinaryMementoSerializer<Object>(classLoader), mementos, NUM_ITERATIONS);
+    }
+    
+    /**
+     * Measures loading a store written in each format through the real rebind path (reading the raw data,
+     * which converts binary mementos to xml, then deserializing and reconstructing the entities).
+     */
+    @Test(groups="Integration")
+    public void testRebindFromSerializationFormats() throws Exception {
+        final int NUM_ENTITIES = 100;
+        final int NUM_ITERATIONS = 10;
+        
+        measureRebind("xml", NUM_ENTITIES, NUM_ITERATIONS);
+        measureRebind("binary", NUM_ENTITIES, NUM_ITERATIONS);
+    }
+    
+    /** times writes only: rebind never deserializes with the binary serializer directly (see {@link #measureRebind(String, int, int)}) */
+    protected void measureSerialization(String format, MementoSerializer<Object> serializer, List<Memento> mementos, int numIterations) {
+        long size = 0;
+        for (Memento memento : mementos) {
+            size += serializer.toString(memento).length();
+        }
+        
+        // warm-up
+        for (int i = 0; i < numIterations/10; i++) {
+            for (Memento memento : mementos) serializer.toString(memento);
+        }
+        
+        Stopwatch serializeTime = Stopwatch.createStarted();
+        for (int i = 0; i < numIterations; i++) {
+            for (Memento memento : mementos) serializer.toString(memento);
+        }
+        serializeTime.stop();
+        
+        int numOps = numIterations * mementos.size();
+        String msg = format+" serialization of "+mementos.size()+" entity mementos: "+size+" chars in total; "
+                + "serialize "+(serializeTime.elapsed(TimeUnit.MICROSECONDS)/numOps)+"us each";
+        LOG.info(msg);
+        System.out.println("\n"+msg+"\n");
+    }
+    
+    protected void measureRebind(String format, int numEntities, int numIterations) throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File dir = Os.newTempDir(getClass());
+        try {
+            BrooklynProperties properties = BrooklynProperties.Factory.newDefault();
+            properties.put(BrooklynMementoPersisterToObjectStore.PERSISTER_SERIALIZATION_FORMAT, format);
+            
+            LocalManagementContext mgmt = RebindTestUtils.managementContextBuilder(dir, classLoader)
+                    .properties(properties)
+                    .persistPeriodMillis(getPersistPeriodMillis())
+                    .buildStarted();
+            TestApplication app = ApplicationBuilder.newManagedApp(TestApplication.class, mgmt);
+            for (int i = 0; i < numEntities; i++) {
+                TestEntity entity = app.createAndManageChild(EntitySpec.create(TestEntity.class)
+                        .configure(TestEntity.CONF_NAME, "name-"+i));
+                entity.setAttribute(TestEntity.SEQUENCE, i);
+                entity.setAttribute(TestEntity.NAME, "name-"+i);
+            }
+            RebindTestUtils.waitForPersisted(app);
+            mgmt.terminate();
+            
+            Stopwatch rebindTime = Stopwatch.createUnstarted();
+            for (int i = 0; i < numIterations+1; i++) {
+                LocalManagementContext newMgmt = new LocalManagementContextForTests(properties);
+                try {
+                    // first iteration is a warm-up
+                    if (i > 0) rebindTime.start();
+                    RebindTestUtils.rebindAll(RebindOptions.create()
+                            .newManagementContext(newMgmt)
+                            .mementoDir(dir)
+                            .classLoader(classLoader));
+                    if (i > 0) rebindTime.stop();
+                } finally {
+                    newMgmt.terminate();
+                }
+            }
+            
+            String msg = "rebind of "+numEntities+" entities persisted as "+format+": "
+                    + (rebindTime.elapsed(TimeUnit.MILLISECONDS)/numIterations)+"ms each";
+            LOG.info(msg);
+            System.out.println("\n"+msg+"\n");
+        } finally {
+            Os.deleteRecursively(dir);
+        }
+    }
+    
     protected void run(int numEntities, Duration testLength, Duration repeatEvery, String loggingContext) throws Exception {
         final List<TestEntity> entities = Lists.newArrayList();
         final List<SimulatedLocation> locs = Lists.newArrayList();
@@ -30,8 +30,10 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.event.AttributeSensor;
 import brooklyn.event.SensorEvent;
 import brooklyn.event.SensorEventListener;
+import brooklyn.event.basic.Sensors;
 import brooklyn.management.SubscriptionManager;
 import brooklyn.test.entity.TestEntity;
 import brooklyn.util.collections.MutableMap;
@@ -165,4 +167,56 @@ public class SubscriptionPerformanceTest extends AbstractPerformanceTest {
             throw exception.get();
         }
     }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testManySubscribersPerEntityOnlyMatchingDelivered() throws Exception {
+        int numUnrelatedSensorsPerEntity = 100;
+        final int numMatchingSubscribersPerEntity = 5;
+        int numIterations = NUM_ITERATIONS;
+        double minRatePerSec = 100 * PERFORMANCE_EXPECTATION;
+        final AtomicInteger iter = new AtomicInteger();
+        final int expectedCount = numIterations*numMatchingSubscribersPerEntity;
+        final AtomicReference<RuntimeException> exception = new AtomicReference<RuntimeException>();
+        
+        final AtomicInteger listenerCount = new AtomicInteger();
+        final CountDownLatch completionLatch = new CountDownLatch(1);
+        
+        for (TestEntity e : entities) {
+            for (int i = 0; i < numUnrelatedSensorsPerEntity; i++) {
+                AttributeSensor<Integer> unrelatedSensor = Sensors.newIntegerSensor("test.unrelated."+i);
+                subscriptionManager.subscribe(MutableMap.<String, Object>of("subscriber", e.getId()+"-unrelated-"+i), e, unrelatedSensor, new SensorEventListener<Integer>() {
+                    public void onEvent(SensorEvent<Integer> event) {
+                        exception.set(new RuntimeException("Unrelated subscriber called with "+event));
+                        throw exception.get();
+                    }});
+            }
+            for (int i = 0; i < numMatchingSubscribersPerEntity; i++) {
+                subscriptionManager.subscribe(MutableMap.<String, Object>of("subscriber", e.getId()+"-"+i), e, TestEntity.SEQUENCE, new SensorEventListener<Integer>() {
+                    public void onEvent(SensorEvent<Integer> event) {
+                        int count = listenerCount.incrementAndGet();
+                        if (count >= expectedCount) completionLatch.countDown();
+                    }});
+            }
+        }
+        
+        measureAndAssert("updateAttributeWithManySubscribersPerEntity", numIterations, minRatePerSec,
+                new Runnable() {
+                    @Override public void run() {
+                        int i = iter.getAndIncrement();
+                        entities.get(i % entities.size()).setAttribute(TestEntity.SEQUENCE, i);
+                    }},
+                new Runnable() {
+                    public void run() {
+                        try {
+                            completionLatch.await(LONG_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            throw Exceptions.propagate(e);
+                        } 
+                        assertTrue(completionLatch.getCount() <= 0);
+                    }});
+        
+        if (exception.get() != null) {
+            throw exception.get();
+        }
+    }
 }
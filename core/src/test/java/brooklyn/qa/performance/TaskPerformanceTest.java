@@ -20,6 +20,7 @@ package brooklyn.qa.performance;
 
 import static org.testng.Assert.assertTrue;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -35,8 +36,10 @@ import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.task.BasicExecutionManager;
 import brooklyn.util.task.SingleThreadedScheduler;
+import brooklyn.util.task.VirtualThreadExecutionManager;
 import brooklyn.util.time.Time;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
@@ -170,6 +173,75 @@ public class TaskPerformanceTest extends AbstractPerformanceTest {
         if (exceptions.size() > 0) throw exceptions.get(0);
     }
     
+    @Test(groups={"Integration", "Acceptance"})
+    public void testManyConcurrentBlockedTasksPlatformVersusVirtualThreads() throws Exception {
+        int numTasks = 10000;
+        
+        BasicExecutionManager platformEm = new BasicExecutionManager("platform");
+        try {
+            measureConcurrentBlockedTasks("platformThreads", platformEm, numTasks);
+        } finally {
+            platformEm.shutdownNow();
+        }
+        
+        if (!VirtualThreadExecutionManager.isSupported()) {
+            LOG.info("Virtual threads not supported in this JVM; skipping comparison");
+            return;
+        }
+        BasicExecutionManager virtualEm = new VirtualThreadExecutionManager("virtual");
+        try {
+            measureConcurrentBlockedTasks("virtualThreads", virtualEm, numTasks);
+        } finally {
+            virtualEm.shutdownNow();
+        }
+    }
+    
+    /** submits the given number of tasks which all block until released, reporting the rate they start and the memory they use */
+    protected void measureConcurrentBlockedTasks(String prefix, BasicExecutionManager em, int numTasks) throws Exception {
+        final CountDownLatch startedLatch = new CountDownLatch(numTasks);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final CountDownLatch completionLatch = new CountDownLatch(numTasks);
+        
+        Runnable work = new Runnable() {
+            public void run() {
+                startedLatch.countDown();
+                try {
+                    releaseLatch.await();
+                } catch (InterruptedException e) {
+                    throw Exceptions.propagate(e);
+                } finally {
+                    completionLatch.countDown();
+                }
+            }};
+        
+        for (int i = 0; i < 5; i++) System.gc();
+        long memBefore = usedMemory();
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < numTasks; i++) {
+            em.submit(work);
+        }
+        assertTrue(startedLatch.await(LONG_TIMEOUT_MS, TimeUnit.MILLISECONDS), prefix+": only "+(numTasks-startedLatch.getCount())+" started");
+        long startMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 5; i++) System.gc();
+        long memDuring = usedMemory();
+        int liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        
+        releaseLatch.countDown();
+        assertTrue(completionLatch.await(LONG_TIMEOUT_MS, TimeUnit.MILLISECONDS), prefix+": only "+(numTasks-completionLatch.getCount())+" completed");
+        long totalMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        
+        String msg = prefix+": "+numTasks+" concurrent blocked tasks started in "+startMillis+"ms, completed in "+totalMillis+"ms "
+                + "(tasksPerSec="+((double)numTasks/Math.max(1, totalMillis)*1000)+"); "
+                + "memPerTask="+((memDuring-memBefore)/numTasks)+" bytes; platformThreads="+liveThreads;
+        LOG.info(msg);
+        System.out.println("\n"+msg+"\n");
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
     public static void main(String[] args) throws Exception {
         TaskPerformanceTest t = new TaskPerformanceTest();
         t.setUp();
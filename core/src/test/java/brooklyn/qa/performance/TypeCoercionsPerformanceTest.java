@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.qa.performance;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.basic.Lifecycle;
+import brooklyn.util.exceptions.Exceptions;
+import brooklyn.util.flags.TypeCoercions;
+import brooklyn.util.time.Duration;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Measures coercion throughput when many threads coerce at once (as happens when lots of entities
+ * resolve config concurrently), covering the adapter registry, {@code fromXxx} and enum routes.
+ */
+public class TypeCoercionsPerformanceTest extends AbstractPerformanceTest {
+
+    private static final int NUM_THREADS = 16;
+    private static final int COERCIONS_PER_THREAD = 100;
+    
+    private ExecutorService executor;
+    
+    @BeforeMethod(alwaysRun=true)
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        executor = Executors.newFixedThreadPool(NUM_THREADS);
+    }
+    
+    @AfterMethod(alwaysRun=true)
+    @Override
+    public void tearDown() throws Exception {
+        if (executor != null) executor.shutdownNow();
+        super.tearDown();
+    }
+    
+    @Test(groups={"Integration", "Acceptance"})
+    public void testConcurrentCoercions() {
+        int numIterations = 1000;
+        double minRatePerSec = 100 * PERFORMANCE_EXPECTATION; // i.e. 100*1600 coercions per sec
+        
+        final List<Callable<Void>> tasks = Lists.newArrayList();
+        for (int i = 0; i < NUM_THREADS; i++) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int j = 0; j < COERCIONS_PER_THREAD; j++) {
+                        TypeCoercions.coerce("1m", Duration.class);
+                        TypeCoercions.coerce(j, String.class);
+                        TypeCoercions.coerce("running", Lifecycle.class);
+                        TypeCoercions.coerce(1, Long.class);
+                    }
+                    return null;
+                }});
+        }
+        
+        measureAndAssert("coerceConcurrently("+NUM_THREADS+" threads)", numIterations, minRatePerSec, new Runnable() {
+            public void run() {
+                try {
+                    for (Future<Void> future : executor.invokeAll(tasks)) {
+                        future.get();
+                    }
+                } catch (Exception e) {
+                    throw Exceptions.propagate(e);
+                }
+            }});
+    }
+}
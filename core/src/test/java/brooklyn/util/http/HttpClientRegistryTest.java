@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.HttpClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.util.time.Duration;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.mockwebserver.MockResponse;
+
+public class HttpClientRegistryTest {
+
+    private BetterMockWebServer server;
+    private URI baseUri;
+    private HttpClientRegistry registry;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        server = BetterMockWebServer.newInstanceLocalhost();
+        for (int i = 0; i < 10; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody("hello"));
+        }
+        server.play();
+        baseUri = server.getUrl("/").toURI();
+        registry = new HttpClientRegistry(4, 20, Duration.ONE_MINUTE);
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (registry != null) registry.terminate();
+        if (server != null) server.shutdown();
+    }
+
+    @Test
+    public void testSameSettingsShareClient() throws Exception {
+        HttpClient client1 = registry.getClient(baseUri.resolve("/a"), null, true, true, Duration.ONE_SECOND, null);
+        HttpClient client2 = registry.getClient(baseUri.resolve("/b"), null, true, true, Duration.ONE_SECOND, null);
+        HttpClient client3 = registry.getClient(baseUri, null, true, true, Duration.TEN_SECONDS, null);
+        HttpClient client4 = registry.getClient(baseUri, new UsernamePasswordCredentials("user", "pass"), true, true, Duration.ONE_SECOND, null);
+
+        assertSame(client1, client2);
+        assertNotSame(client1, client3);
+        assertNotSame(client1, client4);
+        assertEquals(registry.getNumClients(), 3);
+    }
+
+    @Test
+    public void testReusesConnectionsAndRecordsStats() throws Exception {
+        HttpClient client = registry.getClient(baseUri, null, true, true, null, null);
+        for (int i = 0; i < 3; i++) {
+            HttpToolResponse response = HttpTool.httpGet(client, baseUri, ImmutableMap.<String,String>of());
+            assertEquals(response.getResponseCode(), 200);
+        }
+
+        // sequence number is the index of the request on its connection, so the third request reused the connection
+        server.takeRequest();
+        server.takeRequest();
+        assertTrue(server.takeRequest().getSequenceNumber() > 0);
+
+        HttpClientRegistry.SharedClient sharedClient = Iterables.getOnlyElement(registry.getClients());
+        assertEquals(sharedClient.getRequestCount(), 3);
+        assertEquals(sharedClient.getResponseCount(), 3);
+        assertEquals(sharedClient.getStats().get("connectionsLeased"), 0);
+        assertEquals(sharedClient.getStats().get("connectionsAvailable"), 1);
+        assertEquals(registry.getStats().get("responses"), 3L);
+    }
+
+    @Test(expectedExceptions=IllegalStateException.class)
+    public void testGetClientFailsAfterTerminate() throws Exception {
+        registry.terminate();
+        registry.getClient(baseUri, null, true, true, null, null);
+    }
+}
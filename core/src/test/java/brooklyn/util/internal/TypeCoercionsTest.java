@@ -38,6 +38,7 @@ import brooklyn.util.flags.ClassCoercionException;
 import brooklyn.util.flags.TypeCoercions;
 import brooklyn.util.text.StringPredicates;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -312,6 +313,25 @@ public class TypeCoercionsTest {
         TypeCoercions.coerce(new Object(), TypeToken.of(Integer.class));
     }
 
+    @Test
+    public void testAdapterRegisteredAfterFailedCoercionIsUsed() {
+        try {
+            TypeCoercions.coerce(new LateAdaptedSource(), LateAdaptedTarget.class);
+            Assert.fail("Expected coercion to fail before adapter registered");
+        } catch (ClassCoercionException e) {
+            // expected
+        }
+        TypeCoercions.registerAdapter(LateAdaptedSource.class, LateAdaptedTarget.class, new Function<LateAdaptedSource, LateAdaptedTarget>() {
+            @Override public LateAdaptedTarget apply(LateAdaptedSource input) {
+                return new LateAdaptedTarget();
+            }
+        });
+        Assert.assertNotNull(TypeCoercions.coerce(new LateAdaptedSource(), LateAdaptedTarget.class));
+    }
+
+    public static class LateAdaptedSource {}
+    public static class LateAdaptedTarget {}
+
     public static class WithAs {
         String value;
         public WithAs(Object x) { value = ""+x; }
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.task;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.basic.BrooklynTaskTags;
+import brooklyn.management.Task;
+import brooklyn.test.Asserts;
+import brooklyn.util.collections.MutableList;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.exceptions.Exceptions;
+
+import com.google.common.collect.ImmutableList;
+
+public class BasicExecutionManagerBoundedPoolTest {
+
+    private BasicExecutionManager em;
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() {
+        if (em != null) em.shutdownNow();
+    }
+
+    @Test
+    public void testLimitsConcurrentTopLevelTasks() throws Exception {
+        em = new BasicExecutionManager("mycontext", 2);
+        final CountDownLatch latch = new CountDownLatch(1);
+        List<Task<?>> tasks = MutableList.of();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(em.submit(newLatchAwaiter(latch)));
+        }
+
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertEquals(em.getNumActiveTasks(), 2);
+                assertEquals(em.getNumQueuedTasks(), 3);
+            }});
+
+        latch.countDown();
+        for (Task<?> task : tasks) {
+            task.get();
+        }
+        assertEquals(em.getNumQueuedTasks(), 0);
+        assertEquals(em.getTotalTasksDequeued(), 5);
+        assertTrue(em.getMaxQueueWaitTimeMillis() > 0, "maxWait="+em.getMaxQueueWaitTimeMillis());
+    }
+
+    @Test
+    public void testNonTransientTasksRunAheadOfTransientTasks() throws Exception {
+        em = new BasicExecutionManager("mycontext", 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<String> order = new CopyOnWriteArrayList<String>();
+
+        Task<?> blocker = em.submit(newLatchAwaiter(latch));
+        Task<?> transientTask = em.submit(MutableMap.of("tag", BrooklynTaskTags.TRANSIENT_TASK_TAG), newRecorder(order, "transient"));
+        Task<?> normalTask = em.submit(newRecorder(order, "normal"));
+        Task<?> effectorTask = em.submit(MutableMap.of("tag", BrooklynTaskTags.EFFECTOR_TAG), newRecorder(order, "effector"));
+
+        latch.countDown();
+        for (Task<?> task : ImmutableList.of(blocker, transientTask, normalTask, effectorTask)) {
+            task.get();
+        }
+        assertEquals(order, ImmutableList.of("effector", "normal", "transient"));
+    }
+
+    @Test
+    public void testTaskSubmittedFromTaskDoesNotWaitForPool() throws Exception {
+        em = new BasicExecutionManager("mycontext", 1);
+        Task<String> parent = em.submit(new Callable<String>() {
+            @Override public String call() throws Exception {
+                Task<String> child = em.submit(new Callable<String>() {
+                    @Override public String call() {
+                        return "child";
+                    }});
+                return "parent-"+child.get(10, TimeUnit.SECONDS);
+            }});
+
+        assertEquals(parent.get(10, TimeUnit.SECONDS), "parent-child");
+    }
+
+    @Test
+    public void testSingleThreadedSchedulerStillExecutesInOrder() throws Exception {
+        em = new BasicExecutionManager("mycontext", 2);
+        em.setTaskSchedulerForTag("category1", SingleThreadedScheduler.class);
+
+        final int NUM_TIMES = 1000;
+        final List<Integer> result = new CopyOnWriteArrayList<Integer>();
+        for (int i = 0; i < NUM_TIMES; i++) {
+            final int counter = i;
+            em.submit(MutableMap.of("tag", "category1"), new Runnable() {
+                public void run() {
+                    result.add(counter);
+                }});
+        }
+
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertEquals(result.size(), NUM_TIMES);
+            }});
+        for (int i = 0; i < NUM_TIMES; i++) {
+            assertEquals(result.get(i), (Integer)i);
+        }
+    }
+
+    private Runnable newLatchAwaiter(final CountDownLatch latch) {
+        return new Runnable() {
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw Exceptions.propagate(e);
+                }
+            }};
+    }
+
+    private Runnable newRecorder(final List<String> order, final String name) {
+        return new Runnable() {
+            public void run() {
+                order.add(name);
+            }};
+    }
+}
@@ -19,6 +19,10 @@
 package brooklyn.util.text;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.StringWriter;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
@@ -156,6 +160,21 @@ public class TemplateProcessorTest extends BrooklynAppUnitTestSupport {
         assertEquals(result, "myval");
     }
     
+    @Test
+    public void testReusesParsedTemplateForSameContents() throws Exception {
+        String templateContents = "${mykey} "+Identifiers.makeRandomId(8);
+        assertSame(TemplateProcessor.getTemplate(templateContents), TemplateProcessor.getTemplate(templateContents));
+        long hits = (Long) TemplateProcessor.getMetrics().get("cacheHits");
+        
+        String result1 = TemplateProcessor.processTemplateContents(templateContents, ImmutableMap.of("mykey", "myval1"));
+        StringWriter out = new StringWriter();
+        TemplateProcessor.processTemplateContents(templateContents, ImmutableMap.of("mykey", "myval2"), out);
+        
+        assertTrue(result1.startsWith("myval1 "), result1);
+        assertTrue(out.toString().startsWith("myval2 "), out.toString());
+        assertTrue((Long) TemplateProcessor.getMetrics().get("cacheHits") >= hits + 2, "metrics="+TemplateProcessor.getMetrics());
+    }
+    
     @Test
     public void testDotSeparatedKey() {
         String templateContents = "${a.b}";
@@ -22,6 +22,8 @@ import static org.testng.Assert.assertEquals;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class XmlUtilTest {
 
@@ -30,4 +32,26 @@ public class XmlUtilTest {
         String xml = "<a><b>myb</b></a>";
         assertEquals(XmlUtil.xpath(xml, "/a/b[text()]"), "myb");
     }
+
+    @Test
+    public void testRootChildText() throws Exception {
+        String xml = "<entity>\n"
+                + "  <displayName>my &amp; name</displayName>\n"
+                + "  <id>myid</id>\n"
+                + "  <config><id>nested</id><parent>nested</parent></config>\n"
+                + "  <type><![CDATA[my.Type]]></type>\n"
+                + "  <parent>myparent</parent>\n"
+                + "</entity>";
+        assertEquals(XmlUtil.rootChildText(xml, ImmutableList.of("id", "type", "parent", "catalogItemId")), 
+                ImmutableMap.of("id", "myid", "type", "my.Type", "parent", "myparent"));
+        assertEquals(XmlUtil.rootChildText(xml, ImmutableList.of("displayName", "config")), 
+                ImmutableMap.of("displayName", "my & name", "config", "nestednested"));
+    }
+
+    @Test
+    public void testRootChildTextStopsWhenAllFound() throws Exception {
+        // would fail to parse if read to the end
+        String xml = "<a><b>myb</b><c>myc</c><d>unclosed</a>";
+        assertEquals(XmlUtil.rootChildText(xml, ImmutableList.of("b")), ImmutableMap.of("b", "myb"));
+    }
 }
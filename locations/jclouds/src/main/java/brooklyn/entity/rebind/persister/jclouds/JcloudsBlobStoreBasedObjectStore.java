@@ -20,7 +20,9 @@ package brooklyn.entity.rebind.persister.jclouds;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -39,6 +41,7 @@ import brooklyn.location.jclouds.JcloudsLocation;
 import brooklyn.location.jclouds.JcloudsUtil;
 import brooklyn.management.ManagementContext;
 import brooklyn.management.ha.HighAvailabilityMode;
+import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.FatalConfigurationRuntimeException;
 import brooklyn.util.text.Strings;
 
@@ -173,20 +176,38 @@ public class JcloudsBlobStoreBasedObjectStore implements PersistenceObjectStore
 
     @Override
     public List<String> listContentsWithSubPath(final String parentSubPath) {
-        checkPrepared();
-        return FluentIterable.from(context.getBlobStore().list(getContainerNameFirstPart(), 
-            ListContainerOptions.Builder.inDirectory(getItemInContainerSubPath(parentSubPath))))
+        return FluentIterable.from(listBlobs(parentSubPath))
                 .transform(new Function<StorageMetadata, String>() {
                     @Override
                     public String apply(@javax.annotation.Nullable StorageMetadata input) {
-                        String result = input.getName();
-                        result = Strings.removeFromStart(result, containerSubPath);
-                        result = Strings.removeFromStart(result, "/");
-                        return result;
+                        return getPathInStore(input);
                     }
                 }).toList();
     }
 
+    @Override
+    public Map<String, Date> listContentsWithLastModifiedDates(String parentSubPath) {
+        // the list response already carries each blob's last-modified date, so no HEAD per blob
+        Map<String, Date> result = MutableMap.of();
+        for (StorageMetadata blob : listBlobs(parentSubPath)) {
+            result.put(getPathInStore(blob), blob.getLastModified());
+        }
+        return result;
+    }
+
+    private Iterable<? extends StorageMetadata> listBlobs(String parentSubPath) {
+        checkPrepared();
+        return context.getBlobStore().list(getContainerNameFirstPart(), 
+            ListContainerOptions.Builder.inDirectory(getItemInContainerSubPath(parentSubPath)));
+    }
+
+    private String getPathInStore(StorageMetadata blob) {
+        String result = blob.getName();
+        result = Strings.removeFromStart(result, containerSubPath);
+        result = Strings.removeFromStart(result, "/");
+        return result;
+    }
+
     @Override
     public void close() {
         if (context!=null)
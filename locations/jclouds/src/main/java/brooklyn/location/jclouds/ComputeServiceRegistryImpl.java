@@ -60,6 +60,8 @@ public class ComputeServiceRegistryImpl implements ComputeServiceRegistry, Jclou
 
     protected final Object createComputeServicesMutex = new Object();
 
+    protected final Map<ComputeService,ResolvedTemplateCache> resolvedTemplateCaches = new ConcurrentHashMap<ComputeService,ResolvedTemplateCache>();
+
     @Override
     public ComputeService findComputeService(ConfigBag conf, boolean allowReuse) {
         String provider = checkNotNull(conf.get(CLOUD_PROVIDER), "provider must not be null");
@@ -152,11 +154,27 @@ public class ComputeServiceRegistryImpl implements ComputeServiceRegistry, Jclou
                 }
                 LOG.debug("jclouds ComputeService created "+computeService+", adding to cache, for "+Sanitizer.sanitize(properties));
                 cachedComputeServices.put(cacheKey, computeService);
+                resolvedTemplateCaches.put(computeService, new ResolvedTemplateCache());
             }
         }
         return computeService;
      }
 
+    /**
+     * Returns the templates resolved with the given compute service, or null if it is not one this registry
+     * is reusing (in which case each is only used once, so resolved templates would not be reused either).
+     */
+    public ResolvedTemplateCache getResolvedTemplateCache(ComputeService computeService) {
+        return resolvedTemplateCaches.get(computeService);
+    }
+
+    /** Forgets the templates resolved with all compute services, so that images and hardware are matched again when next used. */
+    public void invalidateResolvedTemplates() {
+        for (ResolvedTemplateCache cache : resolvedTemplateCaches.values()) {
+            cache.invalidateAll();
+        }
+    }
+
     /** returns the jclouds modules we typically install */ 
     protected ImmutableSet<Module> getCommonModules() {
         return ImmutableSet.<Module> of(
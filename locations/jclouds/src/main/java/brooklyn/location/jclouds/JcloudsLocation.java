@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,13 +91,17 @@ import org.slf4j.LoggerFactory;
 import brooklyn.config.ConfigKey;
 import brooklyn.config.ConfigKey.HasConfigKey;
 import brooklyn.config.ConfigUtils;
+import brooklyn.entity.basic.ConfigKeys;
+import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.basic.Sanitizer;
 import brooklyn.entity.rebind.persister.LocationWithObjectStore;
 import brooklyn.entity.rebind.persister.PersistenceObjectStore;
 import brooklyn.entity.rebind.persister.jclouds.JcloudsBlobStoreBasedObjectStore;
 import brooklyn.location.LocationSpec;
 import brooklyn.location.MachineLocation;
+import brooklyn.location.MachineManagementMixins.ExpectedObtains;
 import brooklyn.location.MachineManagementMixins.MachineMetadata;
+import brooklyn.location.MachineManagementMixins.ObtainsMachinesInBatches;
 import brooklyn.location.MachineManagementMixins.RichMachineProvisioningLocation;
 import brooklyn.location.NoMachinesAvailableException;
 import brooklyn.location.access.PortForwardManager;
@@ -105,15 +110,18 @@ import brooklyn.location.basic.BasicMachineMetadata;
 import brooklyn.location.basic.LocationConfigKeys;
 import brooklyn.location.basic.LocationConfigUtils;
 import brooklyn.location.basic.LocationConfigUtils.OsCredential;
+import brooklyn.location.basic.MachineObtainBatcher;
 import brooklyn.location.basic.SshMachineLocation;
 import brooklyn.location.cloud.AbstractCloudMachineProvisioningLocation;
 import brooklyn.location.cloud.AvailabilityZoneExtension;
 import brooklyn.location.cloud.CloudMachineNamer;
 import brooklyn.location.jclouds.JcloudsPredicates.NodeInLocation;
+import brooklyn.location.jclouds.ResolvedTemplateCache.ResolvedTemplate;
 import brooklyn.location.jclouds.networking.JcloudsPortForwarderExtension;
 import brooklyn.location.jclouds.templates.PortableTemplateBuilder;
 import brooklyn.location.jclouds.zone.AwsAvailabilityZoneExtension;
 import brooklyn.management.AccessController;
+import brooklyn.management.Task;
 import brooklyn.util.ResourceUtils;
 import brooklyn.util.collections.MutableList;
 import brooklyn.util.collections.MutableMap;
@@ -139,6 +147,8 @@ import brooklyn.util.ssh.IptablesCommands;
 import brooklyn.util.ssh.IptablesCommands.Chain;
 import brooklyn.util.ssh.IptablesCommands.Policy;
 import brooklyn.util.stream.Streams;
+import brooklyn.util.task.TaskInternal;
+import brooklyn.util.task.Tasks;
 import brooklyn.util.text.ByteSizeStrings;
 import brooklyn.util.text.Identifiers;
 import brooklyn.util.text.KeyValueParser;
@@ -172,13 +182,15 @@ import com.google.common.io.Files;
 import com.google.common.net.HostAndPort;
 import com.google.common.primitives.Ints;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * For provisioning and managing VMs in a particular provider/region, using jclouds.
  * Configuration flags are defined in {@link JcloudsLocationConfig}.
  */
 @SuppressWarnings("serial")
-public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation implements JcloudsLocationConfig, RichMachineProvisioningLocation<SshMachineLocation>, LocationWithObjectStore {
+public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation implements JcloudsLocationConfig, RichMachineProvisioningLocation<SshMachineLocation>,
+        ObtainsMachinesInBatches<SshMachineLocation>, LocationWithObjectStore {
 
     // TODO After converting from Groovy to Java, this is now very bad code! It relies entirely on putting
     // things into and taking them out of maps; it's not type-safe, and it's thus very error-prone.
@@ -208,6 +220,12 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
     @SetFromFlag // so it's persisted
     private final Map<JcloudsSshMachineLocation,String> vmInstanceIds = Maps.newLinkedHashMap();
 
+    private final transient MachineObtainBatcher<SshMachineLocation> obtainBatcher = new MachineObtainBatcher<SshMachineLocation>(this);
+
+    /** the task which called obtain, passed with its flags when the machine is obtained together with others in another thread */
+    private static final ConfigKey<Task<?>> OBTAIN_CALLER_TASK = ConfigKeys.newConfigKey(new TypeToken<Task<?>>() {},
+            "jclouds.obtain.callerTask", "The task which called obtain (internal use only, when obtaining machines together)");
+
     static { Networking.init(); }
 
     public JcloudsLocation() {
@@ -523,6 +541,14 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
      * (for initial login, and a user potentially to create for subsequent ie normal access) */
     public JcloudsSshMachineLocation obtain(Map<?,?> flags) throws NoMachinesAvailableException {
         ConfigBag setup = ConfigBag.newInstanceExtending(config().getBag(), flags);
+        Task<?> callerTask = Tasks.current();
+        Map<?,?> batchFlags = (callerTask == null) ? flags : MutableMap.builder().putAll(flags).put(OBTAIN_CALLER_TASK, callerTask).build();
+        Maybe<SshMachineLocation> batched = obtainBatcher.obtain(batchFlags, setup.get(CALLER_CONTEXT), setup.get(MACHINE_BATCH_MAX_WAIT));
+        if (batched.isPresent()) return (JcloudsSshMachineLocation) batched.get();
+        return obtainIndividually(setup);
+    }
+
+    protected JcloudsSshMachineLocation obtainIndividually(ConfigBag setup) throws NoMachinesAvailableException {
         Integer attempts = setup.get(MACHINE_CREATE_ATTEMPTS);
         List<Exception> exceptions = Lists.newArrayList();
         if (attempts == null || attempts < 1) attempts = 1;
@@ -550,7 +576,226 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
         }
     }
 
+    @Override
+    public ExpectedObtains expectObtains(Collection<?> callers) {
+        return obtainBatcher.expect(callers);
+    }
+
+    /**
+     * Obtains the machines, creating those whose flags have the same {@link #getObtainTogetherKey(ConfigBag)}
+     * with a single template and a single call to {@link ComputeService#createNodesInGroup(String, int, Template)}.
+     * The group is chosen using the first of the flags, but each VM is named using its own flags (and so its caller).
+     * <p>
+     * Each machine is then set up (e.g. waiting for it to be ssh'able, creating the user and applying customizers)
+     * in its own task, using its own flags. If creating or setting up a machine fails, it is obtained individually
+     * with any remaining {@link #MACHINE_CREATE_ATTEMPTS}.
+     */
+    @Override
+    public List<ListenableFuture<SshMachineLocation>> obtain(List<? extends Map<?,?>> flagsForEachMachine) {
+        Map<Object, List<Integer>> indexesByKey = Maps.newLinkedHashMap();
+        for (int i = 0; i < flagsForEachMachine.size(); i++) {
+            // only the flags are keyed, as this location's own config is the same for all
+            Object key = getObtainTogetherKey(ConfigBag.newInstance(flagsForEachMachine.get(i)));
+            List<Integer> indexes = indexesByKey.get(key);
+            if (indexes == null) {
+                indexes = Lists.newArrayList();
+                indexesByKey.put(key, indexes);
+            }
+            indexes.add(i);
+        }
+
+        List<ListenableFuture<SshMachineLocation>> result = Lists.newArrayList(Collections.<ListenableFuture<SshMachineLocation>>nCopies(flagsForEachMachine.size(), null));
+        for (List<Integer> indexes : indexesByKey.values()) {
+            List<ConfigBag> setups = Lists.newArrayList();
+            for (int i : indexes) {
+                setups.add(ConfigBag.newInstanceExtending(config().getBag(), flagsForEachMachine.get(i)));
+            }
+            List<ListenableFuture<SshMachineLocation>> machines = obtainTogether(setups);
+            for (int j = 0; j < indexes.size(); j++) {
+                result.set(indexes.get(j), machines.get(j));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the key identifying the config which determines how a machine is created, i.e. that used from the first
+     * of the machines being created together: the template (see {@link #getResolvedTemplateCacheKey(ConfigBag)}) and its
+     * options, the cloud account, the group, and the user to create. Other config, such as the caller, applies to each
+     * machine separately and so does not prevent obtaining machines together.
+     */
+    protected Object getObtainTogetherKey(ConfigBag config) {
+        Map<String, Object> result = MutableMap.of();
+        Object templateKey = getResolvedTemplateCacheKey(config);
+        result.put("template", (templateKey != null) ? templateKey : config.get(TEMPLATE_BUILDER));
+        for (ConfigKey<?> key : SUPPORTED_TEMPLATE_OPTIONS_PROPERTIES.keySet()) {
+            if (config.containsKey(key)) result.put(key.getName(), config.get(key));
+        }
+        for (ConfigKey<?> key : ImmutableList.<ConfigKey<?>>of(CLOUD_PROVIDER, CLOUD_ENDPOINT, ACCESS_IDENTITY, ACCESS_CREDENTIAL,
+                GROUP_ID, USER, LOGIN_USER, PASSWORD, PRIVATE_KEY_FILE, PRIVATE_KEY_DATA, PRIVATE_KEY_PASSPHRASE,
+                PUBLIC_KEY_FILE, PUBLIC_KEY_DATA, DONT_CREATE_USER, GRANT_USER_SUDO, WAIT_FOR_SSHABLE,
+                USE_PORT_FORWARDING, USE_JCLOUDS_SSH_INIT, DESTROY_ON_FAILURE)) {
+            if (config.containsKey(key)) result.put(key.getName(), config.get(key));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    protected List<ListenableFuture<SshMachineLocation>> obtainTogether(List<ConfigBag> setups) {
+        List<ListenableFuture<SshMachineLocation>> result = Lists.newArrayList();
+        if (setups.size() == 1) {
+            result.add(submitObtain(setups.get(0), null, null, null));
+            return result;
+        }
+
+        for (ConfigBag setup : setups) {
+            setCreationString(setup);
+        }
+        CreatedNodes created = null;
+        List<NodeMetadata> nodes = Collections.nCopies(setups.size(), null);
+        Exception creationError = null;
+        try {
+            List<ConfigBag> setupsCopy = Lists.newArrayList();
+            for (ConfigBag setup : setups) {
+                setupsCopy.add(ConfigBag.newInstanceCopying(setup));
+            }
+            created = createNodes(setupsCopy);
+            nodes = matchNodesToNames(created.nodes, created.nodeNames);
+            if (created.error != null) {
+                LOG.warn("Failed to create "+created.nodeErrors.size()+" of "+setups.size()+" VMs for "+setups.get(0).getDescription()+" in "+this+": "+created.error);
+                creationError = created.error;
+                if (Boolean.TRUE.equals(setups.get(0).get(DESTROY_ON_FAILURE))) {
+                    for (NodeMetadata failedNode : created.nodeErrors.keySet()) {
+                        releaseNodeSafely(failedNode);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to create "+setups.size()+" VMs for "+setups.get(0).getDescription()+" in "+this+": "+e);
+            creationError = e;
+        }
+
+        for (int i = 0; i < setups.size(); i++) {
+            ConfigBag setup = setups.get(i);
+            if (nodes.get(i) != null) {
+                result.add(submitObtain(setup, created, nodes.get(i), null));
+            } else {
+                result.add(submitObtain(setup, null, null, (creationError != null) ? creationError
+                        : new IllegalStateException("Too few nodes returned by jclouds create-nodes in "+setup.getDescription())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the nodes in the order of the names they were requested with (where jclouds used those names),
+     * followed by any other nodes in place of those not found; null where there are too few nodes.
+     */
+    private static List<NodeMetadata> matchNodesToNames(Collection<? extends NodeMetadata> nodes, List<String> names) {
+        List<NodeMetadata> result = Lists.newArrayList(Collections.<NodeMetadata>nCopies(names.size(), null));
+        List<NodeMetadata> unmatched = Lists.newArrayList();
+        for (NodeMetadata node : nodes) {
+            int i = names.indexOf(node.getName());
+            if (i >= 0 && result.get(i) == null) {
+                result.set(i, node);
+            } else {
+                unmatched.add(node);
+            }
+        }
+        Iterator<NodeMetadata> others = unmatched.iterator();
+        for (int i = 0; i < result.size() && others.hasNext(); i++) {
+            if (result.get(i) == null) result.set(i, others.next());
+        }
+        return result;
+    }
+
+    /**
+     * Submits a task which sets up the given node, or if that fails (or there is no node, because creating
+     * it failed with the given error) obtains a machine individually with the remaining attempts.
+     * The task is run in the context of the caller entity (if any), and recorded as submitted by the task
+     * which called obtain, so that it shows with the rest of that entity's activity.
+     */
+    private ListenableFuture<SshMachineLocation> submitObtain(final ConfigBag setup, @Nullable final CreatedNodes created,
+            @Nullable final NodeMetadata node, @Nullable final Exception creationError) {
+        Object caller = setup.get(CALLER_CONTEXT);
+        Task<?> callerTask = setup.get(OBTAIN_CALLER_TASK);
+        Task<SshMachineLocation> task = Tasks.<SshMachineLocation>builder()
+                .name("obtaining machine in "+this)
+                .body(new Callable<SshMachineLocation>() {
+                    @Override public SshMachineLocation call() throws Exception {
+                        if (created == null && creationError == null) {
+                            return obtainIndividually(setup);
+                        }
+                        Exception error = creationError;
+                        if (node != null) {
+                            try {
+                                return setUpNode(created, node, setup);
+                            } catch (Exception e) {
+                                error = e;
+                            }
+                        }
+                        Integer attempts = setup.get(MACHINE_CREATE_ATTEMPTS);
+                        if (attempts == null || attempts <= 1) throw error;
+                        LOG.warn("Attempt #1/{} to obtain machine threw error: {}", attempts, error);
+                        setup.put(MACHINE_CREATE_ATTEMPTS, attempts - 1);
+                        return obtainIndividually(setup);
+                    }})
+                .build();
+        if (callerTask != null) {
+            ((TaskInternal<?>) task).setSubmittedByTask(callerTask);
+        }
+        if (caller instanceof EntityInternal) {
+            return ((EntityInternal) caller).getExecutionContext().submit(task);
+        } else {
+            return getManagementContext().getExecutionManager().submit(task);
+        }
+    }
+
     protected JcloudsSshMachineLocation obtainOnce(ConfigBag setup) throws NoMachinesAvailableException {
+        CreatedNodes created;
+        NodeMetadata node = null;
+        try {
+            created = createNodes(ImmutableList.of(setup));
+            if (created.error != null) {
+                if (created.nodeErrors.size() > 0) {
+                    node = Iterables.get(created.nodeErrors.keySet(), 0);
+                }
+                throw created.error;
+            }
+            node = Iterables.getOnlyElement(created.nodes, null);
+            LOG.debug("jclouds created {} for {}", node, setup.getDescription());
+            if (node == null)
+                throw new IllegalStateException("No nodes returned by jclouds create-nodes in " + setup.getDescription());
+        } catch (Exception e) {
+            throw handleObtainFailure(setup, e, node, null);
+        }
+        return setUpNode(created, node, setup);
+    }
+
+    /** nodes created together by {@link JcloudsLocation#createNodes(List)}, not yet set up for use */
+    private static class CreatedNodes {
+        ComputeService computeService;
+        Template template;
+        /** credentials of the user created by jclouds on each node, if any */
+        LoginCredentials userCredentials;
+        Set<? extends NodeMetadata> nodes = ImmutableSet.of();
+        /** the name requested for each node, in the order of the setups they were created for */
+        List<String> nodeNames = ImmutableList.of();
+        /** set if jclouds failed to create some (or all) of the nodes */
+        RunNodesException error;
+        Map<? extends NodeMetadata, ? extends Throwable> nodeErrors = ImmutableMap.of();
+        Stopwatch provisioningStopwatch;
+        Duration templateTimestamp;
+        Duration provisionTimestamp;
+    }
+
+    /**
+     * Creates a node for each of the setups with one template (built from the first setup) and one call to
+     * {@link ComputeService#createNodesInGroup(String, int, Template)}, naming each node using its own setup;
+     * a {@link RunNodesException} is returned in the result (along with any nodes successfully created), rather than thrown.
+     */
+    private CreatedNodes createNodes(List<ConfigBag> setups) throws Exception {
+        ConfigBag setup = setups.get(0);
+        int count = setups.size();
         AccessController.Response access = getManagementContext().getAccessController().canProvisionLocation(this);
         if (!access.isAllowed()) {
             throw new IllegalStateException("Access controller forbids provisioning in "+this+": "+access.getMsg());
@@ -560,68 +805,92 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
         boolean waitForSshable = !"false".equalsIgnoreCase(setup.get(WAIT_FOR_SSHABLE));
         boolean usePortForwarding = setup.get(USE_PORT_FORWARDING);
         boolean skipJcloudsSshing = Boolean.FALSE.equals(setup.get(USE_JCLOUDS_SSH_INIT)) || usePortForwarding;
-        JcloudsPortForwarderExtension portForwarder = setup.get(PORT_FORWARDER);
-        if (usePortForwarding) checkNotNull(portForwarder, "portForwarder, when use-port-forwarding enabled");
+        if (usePortForwarding) checkNotNull(setup.get(PORT_FORWARDER), "portForwarder, when use-port-forwarding enabled");
 
-        final ComputeService computeService = getConfig(COMPUTE_SERVICE_REGISTRY).findComputeService(setup, true);
+        CreatedNodes result = new CreatedNodes();
+        result.computeService = getConfig(COMPUTE_SERVICE_REGISTRY).findComputeService(setup, true);
         CloudMachineNamer cloudMachineNamer = getCloudMachineNamer(setup);
         String groupId = elvis(setup.get(GROUP_ID), cloudMachineNamer.generateNewGroupId());
-        NodeMetadata node = null;
-        JcloudsSshMachineLocation sshMachineLocation = null;
 
+        LOG.info("Creating "+(count == 1 ? "VM" : count+" VMs")+" "+setup.getDescription()+" in "+this);
+
+        Semaphore machineCreationSemaphore = getMachineCreationSemaphore();
+        boolean acquired = machineCreationSemaphore.tryAcquire(0, TimeUnit.SECONDS);
+        if (!acquired) {
+            LOG.info("Waiting in {} for machine-creation permit ({} other queuing requests already)", new Object[] {this, machineCreationSemaphore.getQueueLength()});
+            Stopwatch blockStopwatch = Stopwatch.createStarted();
+            machineCreationSemaphore.acquire();
+            LOG.info("Acquired in {} machine-creation permit, after waiting {}", this, Time.makeTimeStringRounded(blockStopwatch));
+        } else {
+            LOG.debug("Acquired in {} machine-creation permit immediately", this);
+        }
+
+        result.provisioningStopwatch = Stopwatch.createStarted();
         try {
-            LOG.info("Creating VM "+setup.getDescription()+" in "+this);
-
-            Semaphore machineCreationSemaphore = getMachineCreationSemaphore();
-            boolean acquired = machineCreationSemaphore.tryAcquire(0, TimeUnit.SECONDS);
-            if (!acquired) {
-                LOG.info("Waiting in {} for machine-creation permit ({} other queuing requests already)", new Object[] {this, machineCreationSemaphore.getQueueLength()});
-                Stopwatch blockStopwatch = Stopwatch.createStarted();
-                machineCreationSemaphore.acquire();
-                LOG.info("Acquired in {} machine-creation permit, after waiting {}", this, Time.makeTimeStringRounded(blockStopwatch));
-            } else {
-                LOG.debug("Acquired in {} machine-creation permit immediately", this);
+            // Setup the template
+            result.template = buildTemplate(result.computeService, setup);
+            if (waitForSshable && !skipJcloudsSshing) {
+                result.userCredentials = initTemplateForCreateUser(result.template, setup);
             }
 
-            Stopwatch provisioningStopwatch = Stopwatch.createStarted();
-            Duration templateTimestamp, provisionTimestamp, usableTimestamp, customizedTimestamp;
+            //FIXME initialCredentials = initUserTemplateOptions(template, setup);
+            for (JcloudsLocationCustomizer customizer : getCustomizers(setup)) {
+                customizer.customize(this, result.computeService, result.template);
+                customizer.customize(this, result.computeService, result.template.getOptions());
+            }
+            LOG.debug("jclouds using template {} / options {} to provision machine in {}",
+                    new Object[] {result.template, result.template.getOptions(), setup.getDescription()});
 
-            LoginCredentials userCredentials = null;
-            Set<? extends NodeMetadata> nodes;
-            Template template;
-            try {
-                // Setup the template
-                template = buildTemplate(computeService, setup);
-                if (waitForSshable && !skipJcloudsSshing) {
-                    userCredentials = initTemplateForCreateUser(template, setup);
-                }
+            if (!setup.getUnusedConfig().isEmpty())
+                LOG.debug("NOTE: unused flags passed to obtain VM in "+setup.getDescription()+": "+
+                        setup.getUnusedConfig());
 
-                //FIXME initialCredentials = initUserTemplateOptions(template, setup);
-                for (JcloudsLocationCustomizer customizer : getCustomizers(setup)) {
-                    customizer.customize(this, computeService, template);
-                    customizer.customize(this, computeService, template.getOptions());
+            result.templateTimestamp = Duration.of(result.provisioningStopwatch);
+            if (count == 1) {
+                result.nodeNames = ImmutableList.of(cloudMachineNamer.generateNewMachineUniqueNameFromGroupId(groupId));
+                result.template.getOptions().getUserMetadata().put("Name", result.nodeNames.get(0));
+            } else {
+                // name each node for its own caller, rather than all for the caller whose setup chose the group
+                List<String> nodeNames = Lists.newArrayList();
+                for (ConfigBag nodeSetup : setups) {
+                    CloudMachineNamer nodeNamer = getCloudMachineNamer(nodeSetup);
+                    nodeNames.add(nodeNamer.generateNewMachineUniqueNameFromGroupId(elvis(nodeSetup.get(GROUP_ID), nodeNamer.generateNewGroupId())));
                 }
-                LOG.debug("jclouds using template {} / options {} to provision machine in {}",
-                        new Object[] {template, template.getOptions(), setup.getDescription()});
-
-                if (!setup.getUnusedConfig().isEmpty())
-                    LOG.debug("NOTE: unused flags passed to obtain VM in "+setup.getDescription()+": "+
-                            setup.getUnusedConfig());
-
-                templateTimestamp = Duration.of(provisioningStopwatch);
-                template.getOptions().getUserMetadata().put("Name", cloudMachineNamer.generateNewMachineUniqueNameFromGroupId(groupId));
+                result.nodeNames = nodeNames;
+                result.template.getOptions().nodeNames(nodeNames);
+            }
 
-                nodes = computeService.createNodesInGroup(groupId, 1, template);
-                provisionTimestamp = Duration.of(provisioningStopwatch);
-            } finally {
-                machineCreationSemaphore.release();
+            try {
+                result.nodes = result.computeService.createNodesInGroup(groupId, count, result.template);
+            } catch (RunNodesException e) {
+                result.error = e;
+                result.nodes = e.getSuccessfulNodes();
+                result.nodeErrors = e.getNodeErrors();
             }
+            result.provisionTimestamp = Duration.of(result.provisioningStopwatch);
+        } finally {
+            machineCreationSemaphore.release();
+        }
+        return result;
+    }
 
-            node = Iterables.getOnlyElement(nodes, null);
-            LOG.debug("jclouds created {} for {}", node, setup.getDescription());
-            if (node == null)
-                throw new IllegalStateException("No nodes returned by jclouds create-nodes in " + setup.getDescription());
+    /** prepares a newly created node for use, destroying it if that fails (and {@link #DESTROY_ON_FAILURE} is set) */
+    private JcloudsSshMachineLocation setUpNode(CreatedNodes created, NodeMetadata node, ConfigBag setup) {
+        boolean waitForSshable = !"false".equalsIgnoreCase(setup.get(WAIT_FOR_SSHABLE));
+        boolean usePortForwarding = setup.get(USE_PORT_FORWARDING);
+        boolean skipJcloudsSshing = Boolean.FALSE.equals(setup.get(USE_JCLOUDS_SSH_INIT)) || usePortForwarding;
+        JcloudsPortForwarderExtension portForwarder = setup.get(PORT_FORWARDER);
 
+        ComputeService computeService = created.computeService;
+        Template template = created.template;
+        LoginCredentials userCredentials = created.userCredentials;
+        Stopwatch provisioningStopwatch = created.provisioningStopwatch;
+        Duration templateTimestamp = created.templateTimestamp;
+        Duration provisionTimestamp = created.provisionTimestamp;
+        Duration usableTimestamp, customizedTimestamp;
+        JcloudsSshMachineLocation sshMachineLocation = null;
+
+        try {
             // Setup port-forwarding, if required
             Optional<HostAndPort> sshHostAndPortOverride;
             if (usePortForwarding) {
@@ -810,26 +1079,27 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
 
             return sshMachineLocation;
         } catch (Exception e) {
-            if (e instanceof RunNodesException && ((RunNodesException)e).getNodeErrors().size() > 0) {
-                node = Iterables.get(((RunNodesException)e).getNodeErrors().keySet(), 0);
-            }
-            // sometimes AWS nodes come up busted (eg ssh not allowed); just throw it back (and maybe try for another one)
-            boolean destroyNode = (node != null) && Boolean.TRUE.equals(setup.get(DESTROY_ON_FAILURE));
+            throw handleObtainFailure(setup, e, node, sshMachineLocation);
+        }
+    }
 
-            LOG.error("Failed to start VM for {}{}: {}",
-                    new Object[] {setup.getDescription(), (destroyNode ? " (destroying "+node+")" : ""), e.getMessage()});
-            LOG.debug(Throwables.getStackTraceAsString(e));
+    private RuntimeException handleObtainFailure(ConfigBag setup, Exception e, @Nullable NodeMetadata node, @Nullable JcloudsSshMachineLocation sshMachineLocation) {
+        // sometimes AWS nodes come up busted (eg ssh not allowed); just throw it back (and maybe try for another one)
+        boolean destroyNode = (node != null) && Boolean.TRUE.equals(setup.get(DESTROY_ON_FAILURE));
 
-            if (destroyNode) {
-                if (sshMachineLocation != null) {
-                    releaseSafely(sshMachineLocation);
-                } else {
-                    releaseNodeSafely(node);
-                }
-            }
+        LOG.error("Failed to start VM for {}{}: {}",
+                new Object[] {setup.getDescription(), (destroyNode ? " (destroying "+node+")" : ""), e.getMessage()});
+        LOG.debug(Throwables.getStackTraceAsString(e));
 
-            throw Exceptions.propagate(e);
+        if (destroyNode) {
+            if (sshMachineLocation != null) {
+                releaseSafely(sshMachineLocation);
+            } else {
+                releaseNodeSafely(node);
+            }
         }
+
+        throw Exceptions.propagate(e);
     }
 
 
@@ -1093,6 +1363,75 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
 
     /** returns the jclouds Template which describes the image to be built, for the given config and compute service */
     public Template buildTemplate(ComputeService computeService, ConfigBag config) {
+        Duration templateCacheTtl = config.get(RESOLVED_TEMPLATE_CACHE_TTL);
+        ResolvedTemplateCache templateCache = getResolvedTemplateCache(computeService, config);
+        Object templateCacheKey = (templateCache != null && templateCacheTtl != null && templateCacheTtl.toMilliseconds() > 0)
+                ? getResolvedTemplateCacheKey(config) : null;
+
+        Template template = null;
+        if (templateCacheKey != null) {
+            ResolvedTemplate resolved = templateCache.get(templateCacheKey, templateCacheTtl);
+            if (resolved != null) {
+                try {
+                    template = resolved.applyTo(newTemplateBuilder(computeService, config)).build();
+                    LOG.debug("jclouds using previously resolved template "+template+" ("+resolved+") for provisioning in "+this+" for "+config.getDescription());
+                } catch (Exception e) {
+                    Exceptions.propagateIfFatal(e);
+                    LOG.debug("jclouds previously resolved template "+resolved+" no longer valid in "+this+" (resolving again): "+e);
+                    templateCache.invalidate(templateCacheKey);
+                }
+            }
+        }
+        if (template == null) {
+            template = resolveTemplate(newTemplateBuilder(computeService, config), config);
+            if (templateCacheKey != null) templateCache.put(templateCacheKey, template);
+        }
+
+        TemplateOptions options = template.getOptions();
+
+        for (Map.Entry<ConfigKey<?>, CustomizeTemplateOptions> entry : SUPPORTED_TEMPLATE_OPTIONS_PROPERTIES.entrySet()) {
+            ConfigKey<?> key = entry.getKey();
+            CustomizeTemplateOptions code = entry.getValue();
+            if (config.containsKey(key))
+                code.apply(options, config, config.get(key));
+        }
+
+        return template;
+    }
+
+    /**
+     * Returns the templates already resolved with the given compute service, or null if they are not being kept;
+     * they are kept for compute services reused by the default {@link ComputeServiceRegistryImpl}.
+     */
+    protected ResolvedTemplateCache getResolvedTemplateCache(ComputeService computeService, ConfigBag config) {
+        ComputeServiceRegistry registry = config.get(COMPUTE_SERVICE_REGISTRY);
+        if (registry instanceof ComputeServiceRegistryImpl) {
+            return ((ComputeServiceRegistryImpl) registry).getResolvedTemplateCache(computeService);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key identifying the config which determines the image, hardware and location a template resolves to
+     * (the template builder properties, image chooser and customizers), or null if templates for this config should
+     * not be reused (because a template builder was supplied).
+     */
+    @SuppressWarnings("deprecation")
+    protected Object getResolvedTemplateCacheKey(ConfigBag config) {
+        if (config.get(TEMPLATE_BUILDER) != null) return null;
+        Map<String, Object> result = MutableMap.of();
+        for (ConfigKey<?> key : SUPPORTED_TEMPLATE_BUILDER_PROPERTIES.keySet()) {
+            if (config.containsKey(key)) result.put(key.getName(), config.get(key));
+        }
+        for (ConfigKey<?> key : ImmutableList.<ConfigKey<?>>of(CLOUD_REGION_ID, IMAGE_CHOOSER, JCLOUDS_LOCATION_CUSTOMIZER,
+                JCLOUDS_LOCATION_CUSTOMIZERS, JCLOUDS_LOCATION_CUSTOMIZER_TYPE, JCLOUDS_LOCATION_CUSTOMIZERS_SUPPLIER_TYPE)) {
+            result.put(key.getName(), config.get(key));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** returns a TemplateBuilder configured (but not yet built) for the given config and compute service */
+    protected TemplateBuilder newTemplateBuilder(ComputeService computeService, ConfigBag config) {
         TemplateBuilder templateBuilder = (TemplateBuilder) config.get(TEMPLATE_BUILDER);
         if (templateBuilder==null) {
             templateBuilder = new PortableTemplateBuilder<PortableTemplateBuilder<?>>();
@@ -1144,7 +1483,11 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
         LOG.debug("jclouds using templateBuilder {} for provisioning in {} for {}", new Object[] {
             templateBuilder, this, config.getDescription()});
 
-        // Finally try to build the template
+        return templateBuilder;
+    }
+
+    /** builds the template, matching the image and hardware against those available */
+    protected Template resolveTemplate(TemplateBuilder templateBuilder, ConfigBag config) {
         Template template;
         try {
             template = templateBuilder.build();
@@ -1171,15 +1514,6 @@ public class JcloudsLocation extends AbstractCloudMachineProvisioningLocation im
             throw new IllegalStateException("Unable to match required VM template constraints "+templateBuilder+" when trying to provision VM in "+this+"; "
                 + "see list of images in log. Root cause: "+e, e);
         }
-        TemplateOptions options = template.getOptions();
-
-        for (Map.Entry<ConfigKey<?>, CustomizeTemplateOptions> entry : SUPPORTED_TEMPLATE_OPTIONS_PROPERTIES.entrySet()) {
-            ConfigKey<?> key = entry.getKey();
-            CustomizeTemplateOptions code = entry.getValue();
-            if (config.containsKey(key))
-                code.apply(options, config, config.get(key));
-        }
-
         return template;
     }
 
@@ -38,6 +38,7 @@ import brooklyn.location.basic.LocationConfigKeys;
 import brooklyn.location.cloud.CloudLocationConfig;
 import brooklyn.location.jclouds.networking.JcloudsPortForwarderExtension;
 import brooklyn.util.internal.ssh.SshTool;
+import brooklyn.util.time.Duration;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
@@ -233,6 +234,14 @@ public interface JcloudsLocationConfig extends CloudLocationConfig {
     public static final ConfigKey<Semaphore> MACHINE_CREATION_SEMAPHORE = ConfigKeys.newConfigKey(
             Semaphore.class, "machineCreationSemaphore", "Semaphore for controlling concurrent machine creation", null);
 
+    public static final ConfigKey<Duration> MACHINE_BATCH_MAX_WAIT = ConfigKeys.newDurationConfigKey(
+            "machineBatchMaxWait", "Maximum time to hold an expected call to obtain a machine, after the first in its batch, "
+                    + "while waiting for the rest of the batch so that they can be created together", Duration.THIRTY_SECONDS);
+
+    public static final ConfigKey<Duration> RESOLVED_TEMPLATE_CACHE_TTL = ConfigKeys.newDurationConfigKey(
+            "resolvedTemplateCacheTtl", "How long the image and hardware chosen for a template configuration are reused, "
+                    + "rather than matched again against those available in the cloud (zero to always match them)", Duration.ONE_HOUR);
+
     @SuppressWarnings("serial")
     public static final ConfigKey<Function<Iterable<? extends Image>,Image>> IMAGE_CHOOSER = ConfigKeys.newConfigKey(
         new TypeToken<Function<Iterable<? extends Image>,Image>>() {},
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.location.jclouds;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.TemplateBuilder;
+
+import brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+
+/**
+ * Remembers the image, hardware and location which a {@link TemplateBuilder} resolved to, for a given
+ * template configuration, so that subsequent templates with the same configuration can be built from
+ * those ids rather than by matching against all the images and hardware profiles in the cloud again.
+ * <p>
+ * One is held by {@link ComputeServiceRegistryImpl} for each compute service it reuses.
+ */
+@Beta
+public class ResolvedTemplateCache {
+
+    public static class ResolvedTemplate {
+        private final String imageId;
+        private final String hardwareId;
+        private final String locationId;
+        private final long resolvedTime;
+
+        protected ResolvedTemplate(Template template) {
+            this.imageId = checkNotNull(template.getImage(), "image").getId();
+            this.hardwareId = (template.getHardware() != null) ? template.getHardware().getId() : null;
+            this.locationId = (template.getLocation() != null) ? template.getLocation().getId() : null;
+            this.resolvedTime = System.currentTimeMillis();
+        }
+
+        public String getImageId() {
+            return imageId;
+        }
+
+        public String getHardwareId() {
+            return hardwareId;
+        }
+
+        public String getLocationId() {
+            return locationId;
+        }
+
+        /** restricts the given builder to the image, hardware and location resolved previously */
+        public TemplateBuilder applyTo(TemplateBuilder templateBuilder) {
+            if (locationId != null) templateBuilder.locationId(locationId);
+            if (hardwareId != null) templateBuilder.hardwareId(hardwareId);
+            templateBuilder.imageId(imageId);
+            return templateBuilder;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).omitNullValues()
+                    .add("imageId", imageId).add("hardwareId", hardwareId).add("locationId", locationId)
+                    .toString();
+        }
+    }
+
+    private final Map<Object, ResolvedTemplate> resolved = new ConcurrentHashMap<Object, ResolvedTemplate>();
+
+    /**
+     * @return what the template configuration identified by the key resolved to, if that was less than
+     *         {@code ttl} ago; otherwise null (always null if the ttl is null or not positive)
+     */
+    public ResolvedTemplate get(Object key, Duration ttl) {
+        if (ttl == null || ttl.toMilliseconds() <= 0) return null;
+        ResolvedTemplate result = resolved.get(key);
+        if (result == null) return null;
+        if (System.currentTimeMillis() - result.resolvedTime > ttl.toMilliseconds()) {
+            resolved.remove(key);
+            return null;
+        }
+        return result;
+    }
+
+    public ResolvedTemplate put(Object key, Template template) {
+        ResolvedTemplate result = new ResolvedTemplate(template);
+        resolved.put(key, result);
+        return result;
+    }
+
+    /** forgets what the template configuration identified by the key resolved to, e.g. if its image is no longer available */
+    public void invalidate(Object key) {
+        resolved.remove(key);
+    }
+
+    public void invalidateAll() {
+        resolved.clear();
+    }
+
+    public int size() {
+        return resolved.size();
+    }
+}
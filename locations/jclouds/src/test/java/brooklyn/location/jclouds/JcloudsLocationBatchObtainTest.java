@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.location.jclouds;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.RunNodesException;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.basic.Entities;
+import brooklyn.location.MachineManagementMixins.ExpectedObtains;
+import brooklyn.location.basic.SshMachineLocation;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.test.entity.LocalManagementContextForTests;
+import brooklyn.util.collections.MutableSet;
+import brooklyn.util.config.ConfigBag;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Obtains machines from the jclouds "stub" compute service, recording the calls to create nodes.
+ */
+public class JcloudsLocationBatchObtainTest {
+
+    private LocalManagementContext managementContext;
+    private JcloudsLocation jcloudsLocation;
+    private List<Integer> createdCounts;
+    private ExecutorService executor;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        managementContext = LocalManagementContextForTests.newInstance();
+        createdCounts = Lists.newCopyOnWriteArrayList();
+        ComputeServiceRegistry computeServiceRegistry = new ComputeServiceRegistry() {
+            @Override
+            public ComputeService findComputeService(ConfigBag conf, boolean allowReuse) {
+                ComputeService delegate = ComputeServiceRegistryImpl.INSTANCE.findComputeService(conf, allowReuse);
+                return new DelegatingComputeService(delegate) {
+                    @Override
+                    public Set<? extends NodeMetadata> createNodesInGroup(String group, int count, Template template) throws RunNodesException {
+                        createdCounts.add(count);
+                        return super.createNodesInGroup(group, count, template);
+                    }
+                };
+            }
+        };
+        jcloudsLocation = (JcloudsLocation) managementContext.getLocationRegistry().resolve("jclouds:stub", ImmutableMap.of(
+                JcloudsLocationConfig.ACCESS_IDENTITY, "bogus",
+                JcloudsLocationConfig.ACCESS_CREDENTIAL, "bogus",
+                JcloudsLocationConfig.COMPUTE_SERVICE_REGISTRY, computeServiceRegistry,
+                JcloudsLocationConfig.WAIT_FOR_SSHABLE, "false"));
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (executor != null) executor.shutdownNow();
+        if (managementContext != null) Entities.destroyAll(managementContext);
+    }
+
+    @Test
+    public void testCreatesMachinesForDifferentCallersTogether() throws Exception {
+        List<ListenableFuture<SshMachineLocation>> machines = jcloudsLocation.obtain(ImmutableList.<Map<?,?>>of(
+                flagsForCaller("a"), flagsForCaller("b"), flagsForCaller("c")));
+
+        Set<SshMachineLocation> obtained = MutableSet.copyOf(Futures.allAsList(machines).get(30, TimeUnit.SECONDS));
+        assertEquals(obtained.size(), 3);
+        for (SshMachineLocation machine : obtained) {
+            assertEquals(machine.getParent(), jcloudsLocation);
+        }
+        assertEquals(createdCounts, ImmutableList.of(3));
+    }
+
+    @Test
+    public void testNamesMachinesCreatedTogetherForTheirOwnCallers() throws Exception {
+        List<String> callers = ImmutableList.of("callerone", "callertwo", "callerthree");
+        List<Map<?,?>> flags = Lists.newArrayList();
+        for (String caller : callers) {
+            flags.add(flagsForCaller(caller));
+        }
+        List<SshMachineLocation> machines = Futures.allAsList(jcloudsLocation.obtain(flags)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(createdCounts, ImmutableList.of(3));
+        for (int i = 0; i < callers.size(); i++) {
+            String name = ((JcloudsSshMachineLocation) machines.get(i)).getNode().getName();
+            assertTrue(name.contains(callers.get(i)), "name="+name+"; caller="+callers.get(i));
+        }
+    }
+
+    @Test
+    public void testCreatesMachinesWithDifferentFlagsSeparately() throws Exception {
+        List<ListenableFuture<SshMachineLocation>> machines = jcloudsLocation.obtain(ImmutableList.<Map<?,?>>of(
+                flagsForCaller("a"), ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024), flagsForCaller("b")));
+
+        assertEquals(MutableSet.copyOf(Futures.allAsList(machines).get(30, TimeUnit.SECONDS)).size(), 3);
+        List<Integer> counts = Lists.newArrayList(createdCounts);
+        Collections.sort(counts);
+        assertEquals(counts, ImmutableList.of(1, 2));
+    }
+
+    @Test
+    public void testCreatesMachinesWithFlagsNotAffectingCreationTogether() throws Exception {
+        // e.g. flags for setting up each machine, whose values need not implement equals
+        List<Map<?,?>> flags = Lists.newArrayList();
+        for (String caller : ImmutableList.of("a", "b", "c")) {
+            flags.add(ImmutableMap.of(JcloudsLocationConfig.CALLER_CONTEXT, caller, "perMachineFlag", new Object()));
+        }
+        List<SshMachineLocation> machines = Futures.allAsList(jcloudsLocation.obtain(flags)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(MutableSet.copyOf(machines).size(), 3);
+        assertEquals(createdCounts, ImmutableList.of(3));
+    }
+
+    @Test
+    public void testCreatesExpectedObtainsTogether() throws Exception {
+        ExpectedObtains expected = jcloudsLocation.expectObtains(ImmutableList.of("a", "b", "c"));
+        List<Future<JcloudsSshMachineLocation>> machines = Lists.newArrayList();
+        for (final String caller : ImmutableList.of("a", "b", "c")) {
+            machines.add(executor.submit(new Callable<JcloudsSshMachineLocation>() {
+                @Override public JcloudsSshMachineLocation call() throws Exception {
+                    return jcloudsLocation.obtain(flagsForCaller(caller));
+                }}));
+        }
+
+        Set<JcloudsSshMachineLocation> obtained = MutableSet.of();
+        for (Future<JcloudsSshMachineLocation> machine : machines) {
+            obtained.add(machine.get(30, TimeUnit.SECONDS));
+        }
+        assertEquals(obtained.size(), 3);
+        assertEquals(createdCounts, ImmutableList.of(3));
+        expected.close();
+    }
+
+    private static Map<?,?> flagsForCaller(String caller) {
+        return ImmutableMap.of(JcloudsLocationConfig.CALLER_CONTEXT, caller);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.location.jclouds;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.TemplateBuilder;
+import org.jclouds.compute.domain.internal.TemplateImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import brooklyn.entity.basic.Entities;
+import brooklyn.location.LocationSpec;
+import brooklyn.management.internal.LocalManagementContext;
+import brooklyn.test.entity.LocalManagementContextForTests;
+import brooklyn.util.config.ConfigBag;
+import brooklyn.util.time.Duration;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Builds templates with the jclouds "stub" compute service, checking which resolved templates are kept.
+ */
+public class ResolvedTemplateCacheTest {
+
+    public static class CountingJcloudsLocation extends JcloudsLocation {
+        final AtomicInteger resolveTemplateCount = new AtomicInteger();
+
+        @Override
+        protected Template resolveTemplate(TemplateBuilder templateBuilder, ConfigBag config) {
+            resolveTemplateCount.incrementAndGet();
+            return super.resolveTemplate(templateBuilder, config);
+        }
+    }
+
+    private LocalManagementContext managementContext;
+    private ComputeServiceRegistryImpl computeServiceRegistry;
+    private CountingJcloudsLocation jcloudsLocation;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        managementContext = LocalManagementContextForTests.newInstance();
+        computeServiceRegistry = new ComputeServiceRegistryImpl();
+        jcloudsLocation = managementContext.getLocationManager().createLocation(LocationSpec.create(CountingJcloudsLocation.class)
+                .configure(JcloudsLocationConfig.CLOUD_PROVIDER, "stub")
+                .configure(JcloudsLocationConfig.ACCESS_IDENTITY, "bogus")
+                .configure(JcloudsLocationConfig.ACCESS_CREDENTIAL, "bogus")
+                .configure(JcloudsLocationConfig.COMPUTE_SERVICE_REGISTRY, computeServiceRegistry));
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (managementContext != null) Entities.destroyAll(managementContext);
+    }
+
+    @Test
+    public void testReusesTemplateResolvedForSameConfig() throws Exception {
+        ComputeService computeService = computeServiceRegistry.findComputeService(setup(ImmutableMap.of()), true);
+        ResolvedTemplateCache cache = computeServiceRegistry.getResolvedTemplateCache(computeService);
+
+        Template first = jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024)));
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 1);
+        assertEquals(cache.size(), 1);
+
+        Template second = jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024)));
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 1);
+        assertEquals(cache.size(), 1);
+        assertEquals(second.getImage().getId(), first.getImage().getId());
+        assertEquals(second.getHardware().getId(), first.getHardware().getId());
+        assertEquals(second.getLocation().getId(), first.getLocation().getId());
+
+        jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 2048)));
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 2);
+        assertEquals(cache.size(), 2);
+
+        computeServiceRegistry.invalidateResolvedTemplates();
+        assertEquals(cache.size(), 0);
+
+        jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024)));
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 3);
+    }
+
+    @Test
+    public void testResolvesAgainWhenResolvedTemplateNoLongerBuilds() throws Exception {
+        ConfigBag setup = setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024));
+        ComputeService computeService = computeServiceRegistry.findComputeService(setup, true);
+        ResolvedTemplateCache cache = computeServiceRegistry.getResolvedTemplateCache(computeService);
+        Object key = jcloudsLocation.getResolvedTemplateCacheKey(setup);
+
+        Template resolved = jcloudsLocation.buildTemplate(computeService, setup);
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 1);
+
+        // as though the image had since been removed from the cloud
+        Image removedImage = ImageBuilder.fromImage(resolved.getImage()).id("removed-image").providerId("removed-image").build();
+        cache.put(key, new TemplateImpl(removedImage, resolved.getHardware(), resolved.getLocation(), resolved.getOptions()));
+        assertEquals(cache.get(key, Duration.ONE_HOUR).getImageId(), "removed-image");
+
+        Template rebuilt = jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of(JcloudsLocationConfig.MIN_RAM, 1024)));
+        assertEquals(jcloudsLocation.resolveTemplateCount.get(), 2);
+        assertEquals(rebuilt.getImage().getId(), resolved.getImage().getId());
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.get(key, Duration.ONE_HOUR).getImageId(), resolved.getImage().getId());
+    }
+
+    @Test
+    public void testDoesNotKeepTemplatesWhenTtlIsZero() throws Exception {
+        ConfigBag setup = setup(ImmutableMap.of(JcloudsLocationConfig.RESOLVED_TEMPLATE_CACHE_TTL, Duration.ZERO));
+        ComputeService computeService = computeServiceRegistry.findComputeService(setup, true);
+
+        jcloudsLocation.buildTemplate(computeService, setup);
+        assertEquals(computeServiceRegistry.getResolvedTemplateCache(computeService).size(), 0);
+    }
+
+    @Test
+    public void testDoesNotKeepTemplatesForComputeServicesNotReused() throws Exception {
+        ComputeService computeService = computeServiceRegistry.findComputeService(setup(ImmutableMap.of()), false);
+
+        try {
+            jcloudsLocation.buildTemplate(computeService, setup(ImmutableMap.of()));
+            assertEquals(computeServiceRegistry.getResolvedTemplateCache(computeService), null);
+        } finally {
+            computeService.getContext().close();
+        }
+    }
+
+    private ConfigBag setup(Map<?,?> flags) {
+        return ConfigBag.newInstanceExtending(jcloudsLocation.config().getBag(), flags);
+    }
+}
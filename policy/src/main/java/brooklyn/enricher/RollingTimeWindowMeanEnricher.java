@@ -18,9 +18,6 @@
  */
 package brooklyn.enricher;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-
 import brooklyn.config.ConfigKey;
 import brooklyn.enricher.basic.AbstractTypeTransformingEnricher;
 import brooklyn.entity.Entity;
@@ -28,6 +25,7 @@ import brooklyn.entity.basic.ConfigKeys;
 import brooklyn.event.AttributeSensor;
 import brooklyn.event.Sensor;
 import brooklyn.event.SensorEvent;
+import brooklyn.util.collections.TimestampedDoubleBuffer;
 import brooklyn.util.flags.SetFromFlag;
 import brooklyn.util.javalang.JavaClassNames;
 import brooklyn.util.time.Duration;
@@ -80,8 +78,8 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
         
     }
     
-    private final LinkedList<T> values = new LinkedList<T>();
-    private final LinkedList<Long> timestamps = new LinkedList<Long>();
+    /** the values (null recorded as NaN) and their timestamps, without allocating per value */
+    private final TimestampedDoubleBuffer values = new TimestampedDoubleBuffer();
     volatile ConfidenceQualifiedNumber lastAverage = new ConfidenceQualifiedNumber(0d,0d);
     
     @SetFromFlag
@@ -112,8 +110,7 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
     }
     
     public void onEvent(SensorEvent<T> event, long eventTime) {
-        values.addLast(event.getValue());
-        timestamps.addLast(eventTime);
+        values.add(eventTime, event.getValue());
         if (eventTime>0) {
             ConfidenceQualifiedNumber average = getAverage(eventTime, 0);
 
@@ -139,22 +136,21 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
     }
     
     public ConfidenceQualifiedNumber getAverage(long fromTime, long graceAllowed) {
-        if (timestamps.isEmpty()) {
+        if (values.isEmpty()) {
             return lastAverage = new ConfidenceQualifiedNumber(lastAverage.value, 0.0d);
         }
         
         long firstTimestamp = -1;
-        Iterator<Long> ti = timestamps.iterator();
-        while (ti.hasNext()) {
-            firstTimestamp = ti.next();
+        for (int i = 0; i < values.size(); i++) {
+            firstTimestamp = values.getTimestamp(i);
             if (firstTimestamp>0) break;
         }
         if (firstTimestamp<=0) {
             // no values with reasonable timestamps
-            return lastAverage = new ConfidenceQualifiedNumber(values.get(values.size()-1).doubleValue(), 0.0d);
+            return lastAverage = new ConfidenceQualifiedNumber(values.getValue(values.size()-1), 0.0d);
         }
 
-        long lastTimestamp = timestamps.get(timestamps.size()-1);
+        long lastTimestamp = values.getTimestamp(values.size()-1);
 
         long now = fromTime;
         if (lastTimestamp > fromTime - graceAllowed) {
@@ -169,7 +165,7 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
         Double confidence = ((double)(windowEnd - windowStart)) / timePeriod.toMilliseconds();
         if (confidence <= 0.0000001d) {
             // not enough timestamps in window 
-            double lastValue = values.get(values.size()-1).doubleValue();
+            double lastValue = values.getValue(values.size()-1);
             return lastAverage = new ConfidenceQualifiedNumber(lastValue, 0.0d);
         }
         
@@ -177,15 +173,13 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
         long end;
         double weightedAverage = 0.0d;
         
-        Iterator<T> valuesIter = values.iterator();
-        Iterator<Long> timestampsIter = timestamps.iterator();
-        while (valuesIter.hasNext()) {
+        for (int i = 0; i < values.size(); i++) {
             // Ignores null and out-of-date values (and also values that are received out-of-order, but that shouldn't happen!)
-            Number val = valuesIter.next();
-            Long timestamp = timestampsIter.next();
-            if (val!=null && timestamp >= start) {
+            double val = values.getValue(i);
+            long timestamp = values.getTimestamp(i);
+            if (!Double.isNaN(val) && timestamp >= start) {
                 end = timestamp;
-                weightedAverage += ((end - start) / (confidence * timePeriod.toMilliseconds())) * val.doubleValue();
+                weightedAverage += ((end - start) / (confidence * timePeriod.toMilliseconds())) * val;
                 start = timestamp;
             }
         }
@@ -198,9 +192,6 @@ public class RollingTimeWindowMeanEnricher<T extends Number> extends AbstractTyp
      */
     private void pruneValues(long now) {
         // keep one value from before the period, so that we can tell the window's start time 
-        while(timestamps.size() > 1 && timestamps.get(1) < (now - timePeriod.toMilliseconds())) {
-            timestamps.removeFirst();
-            values.removeFirst();
-        }
+        values.removeBefore(now - timePeriod.toMilliseconds());
     }
 }
@@ -18,17 +18,13 @@
  */
 package brooklyn.policy.autoscaling;
 
-import java.util.List;
-
-import brooklyn.util.collections.MutableMap;
-import brooklyn.util.collections.TimeWindowedList;
-import brooklyn.util.collections.TimestampedValue;
+import brooklyn.util.collections.TimestampedDoubleBuffer;
 import brooklyn.util.time.Duration;
 
 import com.google.common.base.Objects;
 
 /**
- * Using a {@link TimeWindowedList}, tracks the recent history of values to allow a summary of 
+ * Using a {@link TimestampedDoubleBuffer}, tracks the recent history of values to allow a summary of 
  * those values to be obtained. 
  *   
  * @author aled
@@ -66,18 +62,30 @@ public class SizeHistory {
         }
     }
     
-    private final TimeWindowedList<Number> recentDesiredResizes;
+    /** guarded by this */
+    private final TimestampedDoubleBuffer recentDesiredResizes = new TimestampedDoubleBuffer();
+    private volatile Duration windowSize;
     
     public SizeHistory(long windowSize) {
-        recentDesiredResizes = new TimeWindowedList<Number>(MutableMap.of("timePeriod", windowSize, "minExpiredVals", 1));
+        this.windowSize = Duration.millis(windowSize);
     }
 
     public void add(final int val) {
-        recentDesiredResizes.add(val);
+        add(val, System.currentTimeMillis());
+    }
+
+    synchronized void add(int val, long timestamp) {
+        recentDesiredResizes.add(timestamp, val);
+        // keeps the most recent value from before the window (whatever its age), as the value at the start of the window
+        if (windowSize.equals(Duration.ZERO)) {
+            while (recentDesiredResizes.size() > 1) recentDesiredResizes.removeFirst();
+        } else {
+            recentDesiredResizes.removeBefore(timestamp - windowSize.toMilliseconds());
+        }
     }
 
     public void setWindowSize(Duration newWindowSize) {
-        recentDesiredResizes.setTimePeriod(newWindowSize);
+        windowSize = newWindowSize;
     }
     
     /**
@@ -91,13 +99,37 @@ public class SizeHistory {
      * </ul>
      */
     public WindowSummary summarizeWindow(Duration windowSize) {
-        long now = System.currentTimeMillis();
-        List<TimestampedValue<Number>> windowVals = recentDesiredResizes.getValuesInWindow(now, windowSize);
+        return summarizeWindow(windowSize, System.currentTimeMillis());
+    }
+    
+    synchronized WindowSummary summarizeWindow(Duration windowSize, long now) {
+        int size = recentDesiredResizes.size();
+        long epoch = now - windowSize.toMilliseconds();
+        
+        // the values in the window, preceded by the most recent value from before it (if any)
+        int first = 0;
+        for (int i = 0; i < size && recentDesiredResizes.getTimestamp(i) < epoch; i++) {
+            first = i;
+        }
         
-        Number latestObj = latestInWindow(windowVals);
-        long latest = (latestObj == null) ? -1: latestObj.longValue();
-        long max = maxInWindow(windowVals, windowSize).longValue();
-        long min = minInWindow(windowVals, windowSize).longValue();
+        long latest = (size == 0) ? -1 : (long) recentDesiredResizes.getValue(size-1);
+        long max;
+        long min;
+        if (size == 0 || recentDesiredResizes.getTimestamp(first) > epoch) {
+            // entire time-window is not covered
+            max = Integer.MAX_VALUE;
+            min = Integer.MIN_VALUE;
+        } else {
+            double maxVal = recentDesiredResizes.getValue(first);
+            double minVal = maxVal;
+            for (int i = first+1; i < size; i++) {
+                double val = recentDesiredResizes.getValue(i);
+                if (val > maxVal) maxVal = val;
+                if (val < minVal) minVal = val;
+            }
+            max = (long) maxVal;
+            min = (long) minVal;
+        }
         
         // TODO Could do more sophisticated "stable" check; this is the easiest code - correct but not most efficient
         // in terms of the caller having to schedule additional stability checks.
@@ -105,58 +137,4 @@ public class SizeHistory {
         
         return new WindowSummary(latest, min, max, stable, stable);
     }
-    
-    /**
-     * If the entire time-window is not covered by the given values, then returns Integer.MAX_VALUE.
-     */
-    private <T extends Number> T maxInWindow(List<TimestampedValue<T>> vals, Duration timeWindow) {
-        // TODO bad casting from Integer default result to T
-        long now = System.currentTimeMillis();
-        long epoch = now - timeWindow.toMilliseconds();
-        T result = null;
-        double resultAsDouble = Integer.MAX_VALUE;
-        for (TimestampedValue<T> val : vals) {
-            T valAsNum = val.getValue();
-            double valAsDouble = (valAsNum != null) ? valAsNum.doubleValue() : 0;
-            if (result == null && val.getTimestamp() > epoch) {
-                result = (T) Integer.valueOf(Integer.MAX_VALUE);
-                resultAsDouble = result.doubleValue();
-            }
-            if (result == null || (valAsNum != null && valAsDouble > resultAsDouble)) {
-                result = valAsNum;
-                resultAsDouble = valAsDouble;
-            }
-        }
-        return (T) (result != null ? result : Integer.MAX_VALUE);
-    }
-    
-    /**
-     * If the entire time-window is not covered by the given values, then returns Integer.MIN_VALUE
-     */
-    private <T extends Number> T minInWindow(List<TimestampedValue<T>> vals, Duration timeWindow) {
-        long now = System.currentTimeMillis();
-        long epoch = now - timeWindow.toMilliseconds();
-        T result = null;
-        double resultAsDouble = Integer.MIN_VALUE;
-        for (TimestampedValue<T> val : vals) {
-            T valAsNum = val.getValue();
-            double valAsDouble = (valAsNum != null) ? valAsNum.doubleValue() : 0;
-            if (result == null && val.getTimestamp() > epoch) {
-                result = (T) Integer.valueOf(Integer.MIN_VALUE);
-                resultAsDouble = result.doubleValue();
-            }
-            if (result == null || (val.getValue() != null && valAsDouble < resultAsDouble)) {
-                result = valAsNum;
-                resultAsDouble = valAsDouble;
-            }
-        }
-        return (T) (result != null ? result : Integer.MIN_VALUE);
-    }
-
-    /**
-     * @return null if empty, or the most recent value
-     */
-    private <T extends Number> T latestInWindow(List<TimestampedValue<T>> vals) {
-        return vals.isEmpty() ? null : vals.get(vals.size()-1).getValue();
-    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.policy.autoscaling;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import brooklyn.policy.autoscaling.SizeHistory.WindowSummary;
+import brooklyn.util.time.Duration;
+
+public class SizeHistoryTest {
+
+    private static final Duration WINDOW = Duration.millis(1000);
+
+    @Test
+    public void testEmpty() {
+        WindowSummary summary = new SizeHistory(1000).summarizeWindow(WINDOW, 5000);
+        assertEquals(summary.latest, -1);
+        assertEquals(summary.min, Integer.MIN_VALUE);
+        assertEquals(summary.max, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testWindowNotCovered() {
+        SizeHistory history = new SizeHistory(1000);
+        history.add(3, 4500);
+        WindowSummary summary = history.summarizeWindow(WINDOW, 5000);
+        assertEquals(summary.latest, 3);
+        assertEquals(summary.min, Integer.MIN_VALUE);
+        assertEquals(summary.max, Integer.MAX_VALUE);
+        assertFalse(summary.stableForGrowth);
+    }
+
+    @Test
+    public void testIncludesValueFromBeforeWindow() {
+        SizeHistory history = new SizeHistory(1000);
+        history.add(1, 1000);
+        history.add(5, 3000);
+        history.add(2, 4500);
+        history.add(4, 4800);
+        WindowSummary summary = history.summarizeWindow(WINDOW, 5000);
+        assertEquals(summary.latest, 4);
+        assertEquals(summary.min, 2);
+        assertEquals(summary.max, 5);
+        assertFalse(summary.stableForShrinking);
+    }
+
+    @Test
+    public void testStableWhenOnlyOldValue() {
+        SizeHistory history = new SizeHistory(1000);
+        history.add(3, 1000);
+        WindowSummary summary = history.summarizeWindow(WINDOW, 5000);
+        assertEquals(summary.latest, 3);
+        assertEquals(summary.min, 3);
+        assertEquals(summary.max, 3);
+        assertTrue(summary.stableForGrowth);
+    }
+}
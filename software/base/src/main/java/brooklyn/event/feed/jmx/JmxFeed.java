@@ -20,6 +20,8 @@ package brooklyn.event.feed.jmx;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,8 +48,10 @@ import brooklyn.event.feed.Poller;
 import brooklyn.util.time.Duration;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
@@ -86,6 +90,9 @@ import com.google.common.reflect.TypeToken;
  * }
  * </pre>
  * 
+ * Attributes of the same MBean that are polled at the same period are read together, in a single 
+ * JMX request.
+ * 
  * @author aled
  */
 public class JmxFeed extends AbstractFeed {
@@ -297,9 +304,24 @@ public class JmxFeed extends AbstractFeed {
             });
         }
         
-        // Setup polling of sensors
-        for (final String jmxAttributeName : attributePolls.keys()) {
-            registerAttributePoller(attributePolls.get(jmxAttributeName));
+        // Setup polling of sensors, grouping the attributes of each MBean by period
+        Map<List<?>, List<Set<JmxAttributePollConfig<?>>>> attributePollGroups = Maps.newLinkedHashMap();
+        for (final String jmxAttributeName : attributePolls.keySet()) {
+            Set<JmxAttributePollConfig<?>> configs = attributePolls.get(jmxAttributeName);
+            List<?> groupKey = ImmutableList.of(Iterables.get(configs, 0).getObjectName(), getMinPeriod(configs));
+            List<Set<JmxAttributePollConfig<?>>> group = attributePollGroups.get(groupKey);
+            if (group == null) {
+                group = Lists.newArrayList();
+                attributePollGroups.put(groupKey, group);
+            }
+            group.add(configs);
+        }
+        for (List<Set<JmxAttributePollConfig<?>>> group : attributePollGroups.values()) {
+            if (group.size() == 1) {
+                registerAttributePoller(group.get(0));
+            } else {
+                registerAttributesPoller(group);
+            }
         }
         
         // Setup polling of operations
@@ -383,6 +405,116 @@ public class JmxFeed extends AbstractFeed {
                 new DelegatingPollHandler<Object>(handlers), minPeriod);
     }
 
+    /**
+     * Registers to poll several jmx-attributes of an ObjectName in one request, where each of the given sets of configs 
+     * is for the same ObjectName + attribute (as for {@link #registerAttributePoller(Set)}), and all are at the same period.
+     */
+    private void registerAttributesPoller(List<Set<JmxAttributePollConfig<?>>> configsByAttribute) {
+        final Map<String, PollHandler<Object>> handlers = new LinkedHashMap<String, PollHandler<Object>>();
+        long minPeriod = Integer.MAX_VALUE;
+        
+        final ObjectName objectName = Iterables.get(configsByAttribute.get(0), 0).getObjectName();
+        
+        for (Set<JmxAttributePollConfig<?>> configs : configsByAttribute) {
+            Set<AttributePollHandler<? super Object>> attributeHandlers = Sets.newLinkedHashSet();
+            for (JmxAttributePollConfig<?> config : configs) {
+                attributeHandlers.add(new AttributePollHandler<Object>(config, getEntity(), this));
+            }
+            handlers.put(Iterables.get(configs, 0).getAttributeName(), new DelegatingPollHandler<Object>(attributeHandlers));
+            minPeriod = Math.min(minPeriod, getMinPeriod(configs));
+        }
+        final String[] jmxAttributeNames = handlers.keySet().toArray(new String[handlers.size()]);
+        
+        getPoller().scheduleAtFixedRate(
+                new Callable<Object>() {
+                    public Object call() throws Exception {
+                        if (log.isTraceEnabled()) log.trace("jmx attributes polling for {} sensors at {} -> {}", new Object[] {getEntity(), getJmxUri(), Arrays.toString(jmxAttributeNames)});
+                        return getHelper().getAttributes(objectName, jmxAttributeNames);
+                    }
+                }, 
+                new AttributesPollHandler(objectName, handlers), minPeriod);
+    }
+
+    private long getMinPeriod(Set<JmxAttributePollConfig<?>> configs) {
+        long minPeriod = Integer.MAX_VALUE;
+        for (JmxAttributePollConfig<?> config : configs) {
+            if (config.getPeriod() > 0) minPeriod = Math.min(minPeriod, config.getPeriod());
+        }
+        return minPeriod;
+    }
+
+    /**
+     * Passes each value from {@link JmxHelper#getAttributes(ObjectName, String...)} to the handlers for that attribute.
+     * Attributes that could not be read in the combined request are read individually, so that their handlers
+     * see the same value or exception as if each attribute were polled separately.
+     */
+    private class AttributesPollHandler implements PollHandler<Object> {
+        private final ObjectName objectName;
+        private final Map<String, PollHandler<Object>> handlers;
+
+        AttributesPollHandler(ObjectName objectName, Map<String, PollHandler<Object>> handlers) {
+            this.objectName = objectName;
+            this.handlers = handlers;
+        }
+
+        @Override
+        public boolean checkSuccess(Object val) {
+            // each attribute's handlers check their own value
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSuccess(Object val) {
+            Map<String, Object> values = (Map<String, Object>) val;
+            for (Map.Entry<String, PollHandler<Object>> entry : handlers.entrySet()) {
+                String jmxAttributeName = entry.getKey();
+                PollHandler<Object> handler = entry.getValue();
+                try {
+                    Object value;
+                    if (values == null) {
+                        // mbean not found; as for getHelper().getAttribute
+                        value = null;
+                    } else if (values.containsKey(jmxAttributeName)) {
+                        value = values.get(jmxAttributeName);
+                    } else {
+                        value = getHelper().getAttribute(objectName, jmxAttributeName);
+                    }
+                    if (handler.checkSuccess(value)) {
+                        handler.onSuccess(value);
+                    } else {
+                        handler.onFailure(value);
+                    }
+                } catch (Exception e) {
+                    if (log.isTraceEnabled()) log.trace("jmx attribute polling for {} at {} -> {}.{} failed: {}", new Object[] {getEntity(), getJmxUri(), objectName, jmxAttributeName, e});
+                    handler.onException(e);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Object val) {
+            onSuccess(val);
+        }
+
+        @Override
+        public void onException(Exception exception) {
+            for (PollHandler<Object> handler : handlers.values()) {
+                handler.onException(exception);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return objectName.getCanonicalName()+handlers.keySet();
+        }
+
+        @Override
+        public String toString() {
+            return super.toString()+"["+getDescription()+"]";
+        }
+    }
+
     /**
      * Registers to subscribe to notifications for an ObjectName, where all the given configs are for that same ObjectName + filter.
      */
@@ -35,8 +35,11 @@ import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
@@ -66,6 +69,7 @@ import org.slf4j.LoggerFactory;
 import brooklyn.entity.basic.EntityLocal;
 import brooklyn.entity.java.JmxSupport;
 import brooklyn.entity.java.UsesJmx;
+import brooklyn.util.collections.MutableMap;
 import brooklyn.util.crypto.SecureKeys;
 import brooklyn.util.crypto.SslTrustUtils;
 import brooklyn.util.exceptions.Exceptions;
@@ -161,6 +165,11 @@ public class JmxHelper {
     private int minTimeBetweenReconnectAttempts = 1000;
     private final AtomicBoolean terminated = new AtomicBoolean();
     
+    private final AtomicLong roundTripCount = new AtomicLong();
+    private final AtomicLong roundTripFailureCount = new AtomicLong();
+    private final AtomicLong roundTripTotalNanos = new AtomicLong();
+    private volatile long lastRoundTripNanos = -1;
+    
     // Tracks the MBeans we have failed to find for this JmsHelper's connection URL (so can log just once for each)
     private final Set<ObjectName> notFoundMBeans;
 
@@ -470,12 +479,12 @@ public class JmxHelper {
 
     private <T> T invokeWithReconnect(Callable<T> task) {
         try {
-            return task.call();
+            return callTimed(task);
         } catch (Exception e) {
             if (shouldRetryOn(e)) {
                 try {
                     reconnectWithRetryDampened();
-                    return task.call();
+                    return callTimed(task);
                 } catch (Exception e2) {
                     throw Throwables.propagate(e2);
                 }
@@ -485,6 +494,36 @@ public class JmxHelper {
         }
     }
 
+    /** calls the task (normally a single request on the connection), recording it in the round-trip metrics */
+    private <T> T callTimed(Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = task.call();
+            success = true;
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            roundTripCount.incrementAndGet();
+            roundTripTotalNanos.addAndGet(duration);
+            lastRoundTripNanos = duration;
+            if (!success) roundTripFailureCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Metrics about the requests made on the JMX connection (including those which failed): 
+     * the number of round trips, failures, and the total and most recent round-trip time.
+     */
+    public Map<String,Object> getMetrics() {
+        long last = lastRoundTripNanos;
+        return MutableMap.<String,Object>of(
+                "roundTrips", roundTripCount.get(),
+                "roundTripFailures", roundTripFailureCount.get(),
+                "totalRoundTripTime", Duration.nanos(roundTripTotalNanos.get()),
+                "lastRoundTripTime", (last >= 0 ? Duration.nanos(last) : null));
+    }
+
     // ====================== query related calls =======================================
 
     /**
@@ -617,6 +656,33 @@ public class JmxHelper {
         }
     }
 
+    /**
+     * Returns the values of the given attributes of a JMX {@link ObjectName}, in a single request.
+     * <p>
+     * As for {@link MBeanServerConnection#getAttributes(ObjectName, String[])}, attributes which
+     * could not be retrieved are omitted from the result (use {@link #getAttribute(ObjectName, String)}
+     * to find out why). Returns null if the MBean could not be found.
+     */
+    public Map<String,Object> getAttributes(ObjectName objectName, final String... attributes) {
+        final ObjectName realObjectName = toLiteralObjectName(objectName);
+        
+        if (realObjectName != null) {
+            AttributeList list = invokeWithReconnect(new Callable<AttributeList>() {
+                    public AttributeList call() throws Exception {
+                        return getConnectionOrFail().getAttributes(realObjectName, attributes);
+                    }});
+            
+            Map<String,Object> result = new LinkedHashMap<String,Object>();
+            for (Attribute attribute : list.asList()) {
+                result.put(attribute.getName(), attribute.getValue());
+            }
+            if (LOG.isTraceEnabled()) LOG.trace("From {}, for jmx attributes {}.{}, got values {}", new Object[] {url, objectName.getCanonicalName(), Arrays.toString(attributes), result});
+            return result;
+        } else {
+            return null;
+        }
+    }
+
     public void setAttribute(String objectName, String attribute, Object val) {
         setAttribute(createObjectName(objectName), attribute, val);
     }
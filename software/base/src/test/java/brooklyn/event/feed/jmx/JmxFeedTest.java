@@ -77,6 +77,7 @@ import brooklyn.test.entity.TestEntity;
 import brooklyn.test.entity.TestEntityImpl;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -407,6 +408,41 @@ public class JmxFeedTest {
         return notif;
     }
     
+    @Test
+    public void testJmxAttributesOfSameMBeanPolledTogether() throws Exception {
+        AttributeSensor<String> missingAttribute = Sensors.newStringSensor("brooklyn.test.missingAttribute", "Brooklyn testing missing attribute");
+        GeneralisedDynamicMBean mbean = jmxService.registerMBean(ImmutableMap.of(attributeName, 42, "myattrib2", "abc"), objectName);
+
+        feed = JmxFeed.builder()
+                .entity(entity)
+                .helper(jmxHelper)
+                .period(50)
+                .pollAttribute(new JmxAttributePollConfig<Integer>(intAttribute)
+                        .objectName(objectName)
+                        .attributeName(attributeName))
+                .pollAttribute(new JmxAttributePollConfig<String>(stringAttribute)
+                        .objectName(objectName)
+                        .attributeName("myattrib2"))
+                .pollAttribute(new JmxAttributePollConfig<String>(missingAttribute)
+                        .objectName(objectName)
+                        .attributeName("doesNotExist")
+                        .checkSuccess(Predicates.notNull())
+                        .setOnFailureOrException("unavailable"))
+                .build();
+        
+        assertSensorEventually(intAttribute, 42, TIMEOUT_MS);
+        assertSensorEventually(stringAttribute, "abc", TIMEOUT_MS);
+        // a missing attribute is handled on its own, without affecting the others
+        assertSensorEventually(missingAttribute, "unavailable", TIMEOUT_MS);
+
+        mbean.updateAttributeValue(attributeName, 64);
+        mbean.updateAttributeValue("myattrib2", "def");
+        assertSensorEventually(intAttribute, 64, TIMEOUT_MS);
+        assertSensorEventually(stringAttribute, "def", TIMEOUT_MS);
+        
+        assertTrue((Long)jmxHelper.getMetrics().get("roundTrips") > 0, "metrics="+jmxHelper.getMetrics());
+    }
+
     private <T> void assertSensorEventually(final AttributeSensor<T> sensor, final T expectedVal, long timeout) {
         executeUntilSucceeds(ImmutableMap.of("timeout", timeout), new Callable<Void>() {
             public Void call() {
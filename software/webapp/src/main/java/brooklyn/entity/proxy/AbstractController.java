@@ -27,7 +27,9 @@ import brooklyn.entity.group.Cluster;
 import brooklyn.entity.proxying.ImplementedBy;
 import brooklyn.event.AttributeSensor;
 import brooklyn.event.basic.BasicAttributeSensorAndConfigKey;
+import brooklyn.event.basic.Sensors;
 import brooklyn.util.flags.SetFromFlag;
+import brooklyn.util.time.Duration;
 
 /**
  * Represents a controller mechanism for a {@link Cluster}.
@@ -48,6 +50,24 @@ public interface AbstractController extends SoftwareProcess, LoadBalancer {
     ConfigKey<String> SERVICE_UP_URL_PATH = ConfigKeys.newStringConfigKey(
             "controller.config.serviceUpUrlPath", "The path that will be appended to the root URL to determine SERVICE_UP", "");
 
+    @SetFromFlag("updateQuietPeriod")
+    ConfigKey<Duration> UPDATE_QUIET_PERIOD = ConfigKeys.newDurationConfigKey(
+            "controller.update.quietPeriod", "Time to wait after a change to the server pool, for further changes, before "
+                    + "reconfiguring; changes within this period are applied together. Zero (the default) reconfigures on each change", 
+            Duration.ZERO);
+
+    @SetFromFlag("updateMaxDelay")
+    ConfigKey<Duration> UPDATE_MAX_DELAY = ConfigKeys.newDurationConfigKey(
+            "controller.update.maxDelay", "Maximum time to delay reconfiguring after a change to the server pool, "
+                    + "when changes keep arriving within the quiet period", 
+            Duration.THIRTY_SECONDS);
+
+    AttributeSensor<Integer> RECONFIGURATION_COUNT = Sensors.newIntegerSensor(
+            "controller.reconfiguration.count", "Number of times the controller has been reconfigured and reloaded");
+
+    AttributeSensor<Duration> LAST_RECONFIGURATION_DURATION = Sensors.newSensor(Duration.class,
+            "controller.reconfiguration.lastDuration", "Time taken by the last reconfiguration and reload");
+
     boolean isActive();
 
     ProxySslConfig getSslConfig();
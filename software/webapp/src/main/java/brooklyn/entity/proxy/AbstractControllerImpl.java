@@ -50,8 +50,10 @@ import brooklyn.policy.PolicySpec;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.guava.Maybe;
+import brooklyn.util.task.ScheduledTask;
 import brooklyn.util.task.Tasks;
 import brooklyn.util.text.Strings;
+import brooklyn.util.time.Duration;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Predicates;
@@ -61,6 +63,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Represents a controller mechanism for a {@link Cluster}.
@@ -82,6 +85,16 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
     protected Set<String> serverPoolAddresses = Sets.newLinkedHashSet();
     protected Map<Entity,String> serverPoolTargets = Maps.newLinkedHashMap();
     
+    // for coalescing changes to the server pool within the UPDATE_QUIET_PERIOD; guarded by this
+    private boolean coalescedUpdateQueued;
+    private long firstPendingChangeTime;
+    private long lastPendingChangeTime;
+    
+    // the configuration last applied while running (see getConfigurationForComparison); guarded by lastAppliedMutex
+    private final Object lastAppliedMutex = new Object();
+    private Object lastAppliedConfiguration;
+    private long updateGeneration;
+    
     public AbstractControllerImpl() {
         this(MutableMap.of(), null, null);
     }
@@ -356,6 +369,17 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
      */
     protected abstract void reconfigureService();
     
+    /**
+     * Returns the configuration that {@link #reconfigureService()} would apply now (e.g. the contents of the config file), 
+     * if it can be generated cheaply; or null (the default) if not known.
+     * <p>
+     * When this equals the configuration last applied successfully while running, an update in response to changes 
+     * (but not an explicit {@link #update()}) does not reconfigure or reload.
+     */
+    protected Object getConfigurationForComparison() {
+        return null;
+    }
+    
     public synchronized void updateNeeded() {
         if (updateNeeded) return;
         updateNeeded = true;
@@ -364,15 +388,26 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
             @Override
             public void run() {
                 if (updateNeeded)
-                    AbstractControllerImpl.this.update();
+                    AbstractControllerImpl.this.update(false);
             } 
         }).build());
     }
     
+    /** Reconfigures and reloads, even if the configuration is unchanged. */
     @Override
     public void update() {
+        update(true);
+    }
+    
+    /**
+     * Reconfigures and reloads, waiting for the reload to complete.
+     * 
+     * @param force whether to reconfigure and reload even if the configuration is unchanged
+     *        (see {@link #getConfigurationForComparison()}); false when updating in response to changes
+     */
+    protected void update(boolean force) {
         try {
-            Task<?> task = updateAsync();
+            Task<?> task = updateAsync(force);
             if (task != null) task.getUnchecked();
             ServiceStateLogic.ServiceProblemsLogic.clearProblemsIndicator(this, "update");
         } catch (Exception e) {
@@ -381,20 +416,105 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
         }
     }
     
-    public synchronized Task<?> updateAsync() {
+    public Task<?> updateAsync() {
+        return updateAsync(true);
+    }
+    
+    /** @see #update(boolean) */
+    protected synchronized Task<?> updateAsync(boolean force) {
         Task<?> result = null;
         if (!isActive()) updateNeeded = true;
         else {
             updateNeeded = false;
+            final Object configuration = getConfigurationForComparison();
+            final boolean running = (getAttribute(SERVICE_STATE_ACTUAL) == Lifecycle.RUNNING);
+            final long generation;
+            synchronized (lastAppliedMutex) {
+                if (!force && configuration != null && running && configuration.equals(lastAppliedConfiguration)) {
+                    LOG.debug("Not updating {} in response to changes, because configuration is unchanged", this);
+                    return null;
+                }
+                lastAppliedConfiguration = null;
+                generation = ++updateGeneration;
+            }
+            
             LOG.debug("Updating {} in response to changes", this);
             LOG.info("Updating {}, server pool targets {}", new Object[] {this, getAttribute(SERVER_POOL_TARGETS)});
+            final long startTime = System.nanoTime();
             reconfigureService();
             LOG.debug("Reloading {} in response to changes", this);
             // reload should happen synchronously
-            result = invoke(RELOAD);
+            final Task<?> reload = invoke(RELOAD);
+            reload.addListener(new Runnable() {
+                @Override public void run() {
+                    onReconfigured(reload.isError() ? null : configuration, running, generation, Duration.nanos(System.nanoTime() - startTime));
+                }},
+                MoreExecutors.sameThreadExecutor());
+            result = reload;
         }
         return result;
     }
+    
+    private void onReconfigured(Object configuration, boolean running, long generation, Duration duration) {
+        synchronized (lastAppliedMutex) {
+            // only if no later update has started
+            if (configuration != null && running && generation == updateGeneration) {
+                lastAppliedConfiguration = configuration;
+            }
+            Integer count = getAttribute(RECONFIGURATION_COUNT);
+            setAttribute(RECONFIGURATION_COUNT, (count == null ? 0 : count) + 1);
+            setAttribute(LAST_RECONFIGURATION_DURATION, duration);
+        }
+    }
+    
+    /**
+     * Called when the server pool targets have changed: updates immediately or, if a {@link #UPDATE_QUIET_PERIOD}
+     * is configured, once there have been no further changes for that period (or at most {@link #UPDATE_MAX_DELAY}
+     * after the first change), so that several changes are applied in one update.
+     */
+    protected synchronized void onServerPoolTargetsChanged() {
+        Duration quietPeriod = getConfig(UPDATE_QUIET_PERIOD);
+        if (quietPeriod == null || quietPeriod.toMilliseconds() <= 0) {
+            updateAsync(false);
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        lastPendingChangeTime = now;
+        if (coalescedUpdateQueued) return;
+        coalescedUpdateQueued = true;
+        firstPendingChangeTime = now;
+        
+        LOG.debug("queueing a coalesced update task for "+this+"; update will occur after no changes for "+quietPeriod);
+        scheduleCoalescedUpdate(quietPeriod.toMilliseconds());
+    }
+    
+    private void scheduleCoalescedUpdate(long delay) {
+        Task<?> update = Tasks.builder().name("update-coalesced").body(new Runnable() {
+            @Override
+            public void run() {
+                long remaining = getCoalescedUpdateDelay();
+                if (remaining > 0) {
+                    // further changes since this was scheduled
+                    scheduleCoalescedUpdate(remaining);
+                } else {
+                    AbstractControllerImpl.this.update(false);
+                }
+            } 
+        }).build();
+        Entities.submit(this, new ScheduledTask(MutableMap.of("displayName", "scheduled:[update-coalesced]"), update).delay(delay));
+    }
+    
+    /** time until the pending changes are due to be applied; if they are due now, subsequent changes will queue a new update */
+    private synchronized long getCoalescedUpdateDelay() {
+        Duration quietPeriod = getConfig(UPDATE_QUIET_PERIOD);
+        Duration maxDelay = getConfig(UPDATE_MAX_DELAY);
+        long dueTime = lastPendingChangeTime + (quietPeriod == null ? 0 : quietPeriod.toMilliseconds());
+        if (maxDelay != null) dueTime = Math.min(dueTime, firstPendingChangeTime + maxDelay.toMilliseconds());
+        long delay = dueTime - System.currentTimeMillis();
+        if (delay <= 0) coalescedUpdateQueued = false;
+        return delay;
+    }
 
     protected synchronized void onServerPoolMemberChanged(Entity member) {
         if (LOG.isTraceEnabled()) LOG.trace("For {}, considering membership of {} which is in locations {}", 
@@ -442,10 +562,10 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
             return;
         }
         
-        // TODO this does it synchronously; an async method leaning on `updateNeeded` and `update` might
-        // be more appropriate, especially when this is used in a listener
+        // TODO this does it synchronously unless UPDATE_QUIET_PERIOD is set; an async method leaning on 
+        // `updateNeeded` and `update` might be more appropriate, especially when this is used in a listener
         MapAttribute.put(this, SERVER_POOL_TARGETS, member, newAddress);
-        updateAsync();
+        onServerPoolTargetsChanged();
     }
     
     protected synchronized void removeServerPoolMember(Entity member) {
@@ -458,7 +578,7 @@ public abstract class AbstractControllerImpl extends SoftwareProcessImpl impleme
         
         LOG.info("Removing from {}, member {} with address {}", new Object[] {this, member, address});
         
-        updateAsync();
+        onServerPoolTargetsChanged();
     }
     
     protected String getAddressOfEntity(Entity member) {
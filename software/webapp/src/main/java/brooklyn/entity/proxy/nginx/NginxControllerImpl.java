@@ -258,6 +258,12 @@ public class NginxControllerImpl extends AbstractControllerImpl implements Nginx
         }
     }
 
+    /** The config file, so that updates which would not change it (e.g. replacing one member by another at the same address) can be skipped. */
+    @Override
+    protected Object getConfigurationForComparison() {
+        return getConfigFile();
+    }
+
     /**
      * Installs SSL keys named as {@code id.crt} and {@code id.key} where nginx can find them.
      * <p>
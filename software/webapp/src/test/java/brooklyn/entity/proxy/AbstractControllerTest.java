@@ -19,6 +19,7 @@
 package brooklyn.entity.proxy;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.net.Inet4Address;
@@ -28,6 +29,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,7 @@ import brooklyn.entity.basic.Attributes;
 import brooklyn.entity.basic.Entities;
 import brooklyn.entity.basic.EntityFactory;
 import brooklyn.entity.basic.EntityLocal;
+import brooklyn.entity.basic.Lifecycle;
 import brooklyn.entity.group.Cluster;
 import brooklyn.entity.group.DynamicCluster;
 import brooklyn.entity.proxying.EntitySpec;
@@ -53,12 +56,14 @@ import brooklyn.location.NoMachinesAvailableException;
 import brooklyn.location.basic.FixedListMachineProvisioningLocation;
 import brooklyn.location.basic.SshMachineLocation;
 import brooklyn.test.Asserts;
+import brooklyn.test.EntityTestUtils;
 import brooklyn.test.entity.TestEntity;
 import brooklyn.test.entity.TestEntityImpl;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.collections.MutableSet;
 import brooklyn.util.exceptions.Exceptions;
 import brooklyn.util.flags.SetFromFlag;
+import brooklyn.util.time.Duration;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -286,6 +291,91 @@ public class AbstractControllerTest extends BrooklynAppUnitTestSupport {
         assertTrue(u.isEmpty(), "expected no updates, but got "+u);
     }
 
+    @Test
+    public void testChangesWithinQuietPeriodAppliedInOneUpdate() throws Exception {
+        // a quiet period far longer than the test, so the changes are only applied when the update is forced below
+        controller = app.createAndManageChild(EntitySpec.create(TrackingAbstractController.class)
+                .configure("serverPool", cluster) 
+                .configure("portNumberSensor", ClusteredEntity.HTTP_PORT)
+                .configure("domain", "mydomain")
+                .configure(AbstractController.UPDATE_QUIET_PERIOD, Duration.ONE_HOUR)
+                .configure(AbstractController.UPDATE_MAX_DELAY, Duration.ONE_HOUR));
+        controller.start(ImmutableList.of(loc));
+        
+        List<String> expectedAddresses = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            TestEntity child = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+            child.setAttribute(Attributes.SUBNET_HOSTNAME, "mymachine"+i);
+            child.setAttribute(ClusteredEntity.HTTP_PORT, 1234);
+            child.setAttribute(Startable.SERVICE_UP, true);
+            cluster.addMember(child);
+            expectedAddresses.add("mymachine"+i+":1234");
+        }
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertEquals(controller.getAttribute(AbstractController.SERVER_POOL_TARGETS).size(), 5);
+            }});
+        assertTrue(controller.getUpdates().isEmpty(), "updates="+controller.getUpdates());
+        
+        controller.update();
+        assertAddressesMatch(expectedAddresses);
+        assertEquals(controller.getUpdates().size(), 1, "updates="+controller.getUpdates());
+        EntityTestUtils.assertAttributeEventuallyNonNull(controller, AbstractController.LAST_RECONFIGURATION_DURATION);
+    }
+
+    @Test
+    public void testChangesAppliedByScheduledUpdateAfterMaxDelay() throws Exception {
+        controller = app.createAndManageChild(EntitySpec.create(TrackingAbstractController.class)
+                .configure("serverPool", cluster) 
+                .configure("portNumberSensor", ClusteredEntity.HTTP_PORT)
+                .configure("domain", "mydomain")
+                .configure(AbstractController.UPDATE_QUIET_PERIOD, Duration.ONE_HOUR)
+                .configure(AbstractController.UPDATE_MAX_DELAY, Duration.millis(100)));
+        controller.start(ImmutableList.of(loc));
+        
+        TestEntity child = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+        child.setAttribute(Attributes.SUBNET_HOSTNAME, "mymachine");
+        child.setAttribute(ClusteredEntity.HTTP_PORT, 1234);
+        child.setAttribute(Startable.SERVICE_UP, true);
+        cluster.addMember(child);
+        
+        assertEventuallyExplicitAddressesMatch(ImmutableList.of("mymachine:1234"));
+    }
+
+    @Test
+    public void testUnchangedConfigurationSkippedOnlyForChangeDrivenUpdates() throws Exception {
+        controller = app.createAndManageChild(EntitySpec.create(TrackingAbstractController.class)
+                .impl(ComparingTrackingAbstractControllerImpl.class)
+                .configure("serverPool", cluster) 
+                .configure("portNumberSensor", ClusteredEntity.HTTP_PORT)
+                .configure("domain", "mydomain"));
+        controller.start(ImmutableList.of(loc));
+        EntityTestUtils.assertAttributeEqualsEventually(controller, Attributes.SERVICE_STATE_ACTUAL, Lifecycle.RUNNING);
+        
+        // explicit updates always reconfigure and reload, recording the configuration applied while running
+        controller.update();
+        EntityTestUtils.assertAttributeEventuallyNonNull(controller, AbstractController.RECONFIGURATION_COUNT);
+        final int count = controller.getAttribute(AbstractController.RECONFIGURATION_COUNT);
+        controller.update();
+        EntityTestUtils.assertAttributeEqualsEventually(controller, AbstractController.RECONFIGURATION_COUNT, count+1);
+        
+        // an update in response to changes, with the configuration unchanged, is skipped
+        final ComparingTrackingAbstractControllerImpl impl = (ComparingTrackingAbstractControllerImpl) Entities.deproxy(controller);
+        impl.updateNeeded();
+        Asserts.succeedsEventually(new Runnable() {
+            @Override public void run() {
+                assertFalse(impl.updateNeeded);
+            }});
+        synchronized (impl) {
+            // updateAsync holds this lock, so has finished; it compared the configuration without reconfiguring
+            assertEquals(impl.comparisons.get(), impl.reconfigurations.get() + 1, "comparisons="+impl.comparisons+"; reconfigurations="+impl.reconfigurations);
+        }
+        assertEquals(controller.getAttribute(AbstractController.RECONFIGURATION_COUNT), (Integer)(count+1));
+        
+        controller.update();
+        EntityTestUtils.assertAttributeEqualsEventually(controller, AbstractController.RECONFIGURATION_COUNT, count+2);
+    }
+
     private void assertEventuallyAddressesMatchCluster() {
         assertEventuallyAddressesMatch(cluster.getMembers());
     }
@@ -321,6 +411,24 @@ public class AbstractControllerTest extends BrooklynAppUnitTestSupport {
         return result;
     }
 
+    /** Compares the server pool addresses, so updates which would not change them can be skipped. */
+    public static class ComparingTrackingAbstractControllerImpl extends TrackingAbstractControllerImpl {
+        final AtomicInteger comparisons = new AtomicInteger();
+        final AtomicInteger reconfigurations = new AtomicInteger();
+        
+        @Override
+        protected Object getConfigurationForComparison() {
+            comparisons.incrementAndGet();
+            return ImmutableSet.copyOf(getServerPoolAddresses());
+        }
+        
+        @Override
+        protected void reconfigureService() {
+            reconfigurations.incrementAndGet();
+            super.reconfigureService();
+        }
+    }
+
     public static class ClusteredEntity extends TestEntityImpl {
         public static class Factory implements EntityFactory<ClusteredEntity> {
             @Override
@@ -23,23 +23,29 @@ import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.io.File;
+import java.util.Arrays;
 
 import org.testng.annotations.Test;
 
 import brooklyn.config.BrooklynProperties;
 import brooklyn.config.BrooklynServerPaths;
 import brooklyn.entity.proxying.EntitySpec;
+import brooklyn.entity.rebind.persister.BinaryMementoSerializer;
 import brooklyn.entity.rebind.persister.BrooklynMementoPersisterToObjectStore;
 import brooklyn.entity.rebind.persister.FileBasedObjectStore;
 import brooklyn.entity.rebind.persister.PersistMode;
+import brooklyn.entity.rebind.transformer.CompoundTransformer;
 import brooklyn.management.ManagementContext;
 import brooklyn.management.ha.HighAvailabilityMode;
 import brooklyn.test.entity.TestApplication;
 import brooklyn.util.javalang.JavaClassNames;
 import brooklyn.util.os.Os;
 import brooklyn.util.text.Identifiers;
+import brooklyn.util.time.Duration;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
 import com.google.common.io.Files;
 
 public class BrooklynLauncherRebindTestToFiles extends BrooklynLauncherRebindTestFixture {
@@ -150,4 +156,44 @@ public class BrooklynLauncherRebindTestToFiles extends BrooklynLauncherRebindTes
             Os.deleteRecursively(destinationDir);
         }
     }
+
+    @Test(groups="Integration")
+    public void testCopyPersistedStateFromBinaryStoreWithTransformer() throws Exception {
+        BrooklynProperties props = BrooklynProperties.Factory.newEmpty();
+        props.put(BrooklynMementoPersisterToObjectStore.PERSISTER_SERIALIZATION_FORMAT, "binary");
+        newLauncherBase()
+                .managementContext(newManagementContextForTests(props))
+                .persistMode(PersistMode.CLEAN)
+                .persistenceDir(persistenceDir)
+                .persistPeriod(Duration.millis(10))
+                .highAvailabilityMode(HighAvailabilityMode.MASTER)
+                .application(EntitySpec.create(TestApplication.class).displayName("myorig"))
+                .start()
+                .terminate();
+        assertMementoContainerNonEmptyForTypeEventually("entities");
+        File origEntity = Iterables.getOnlyElement(Arrays.asList(new File(persistenceDir, "entities").listFiles()));
+        assertTrue(BinaryMementoSerializer.isBinary(Files.toString(origEntity, Charsets.UTF_8)), "entity should be persisted as binary");
+
+        File destinationDir = Files.createTempDir();
+        String destination = destinationDir.getAbsolutePath();
+        try {
+            BrooklynLauncher launcher = newLauncherDefault(PersistMode.AUTO)
+                    .highAvailabilityMode(HighAvailabilityMode.MASTER)
+                    .webconsole(false);
+            launcher.copyPersistedState(destination, null, CompoundTransformer.builder()
+                    .xmlReplaceItem("displayName/text()[.='myorig']", "myrenamed")
+                    .build());
+            launcher.terminate();
+
+            // the transformer is applied to the decoded xml, rather than to the stored binary form
+            newLauncherDefault(PersistMode.AUTO)
+                    .webconsole(false)
+                    .persistenceDir(destinationDir)
+                    .start();
+            assertOnlyApp(lastMgmt(), TestApplication.class);
+            assertEquals(Iterables.getOnlyElement(lastMgmt().getApplications()).getDisplayName(), "myrenamed");
+        } finally {
+            Os.deleteRecursively(destinationDir);
+        }
+    }
 }
@@ -70,6 +70,26 @@ public interface SensorApi {
             @ApiParam(value = "Return raw sensor data instead of display values", required = false)
             @QueryParam("raw") @DefaultValue("false") final Boolean raw);
 
+    @GET
+    @Path("/history")
+    @ApiOperation(value = "Fetch recorded sensor history",
+            notes="Returns a map of sensor name to a list of [timestamp, value] pairs, in time order, "
+                + "for sensors recorded by a SensorHistoryRecorder enricher on the entity; older values may be averages over an interval")
+    @ApiErrors(value = {
+            @ApiError(code = 404, reason = "Could not find application or entity, or no sensor history is being recorded for the entity")
+    })
+    public Map<String, List<List<Object>>> history(
+            @ApiParam(value = "Application ID or name", required = true)
+            @PathParam("application") final String application,
+            @ApiParam(value = "Entity ID or name", required = true)
+            @PathParam("entity") final String entityToken,
+            @ApiParam(value = "Comma-separated sensor names (defaults to all recorded sensors)", required = false)
+            @QueryParam("sensors") final String sensors,
+            @ApiParam(value = "Start of the time range, in milliseconds since the epoch (defaults to the earliest recorded)", required = false)
+            @QueryParam("from") final Long from,
+            @ApiParam(value = "End of the time range, in milliseconds since the epoch (defaults to now)", required = false)
+            @QueryParam("to") final Long to);
+
     @GET
     @Path("/{sensor}")
     @ApiOperation(value = "Fetch sensor value (json)", responseClass = "Object")
@@ -21,6 +21,7 @@ package brooklyn.rest.resources;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -28,20 +29,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import brooklyn.config.render.RendererHints;
+import brooklyn.enricher.basic.SensorHistoryRecorder;
 import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.basic.EntityLocal;
 import brooklyn.event.AttributeSensor;
 import brooklyn.event.Sensor;
 import brooklyn.event.basic.BasicAttributeSensor;
 import brooklyn.management.entitlement.Entitlements;
+import brooklyn.policy.Enricher;
 import brooklyn.rest.api.SensorApi;
 import brooklyn.rest.domain.SensorSummary;
 import brooklyn.rest.filter.HaHotStateRequired;
 import brooklyn.rest.transform.SensorTransformer;
 import brooklyn.rest.util.WebResourceUtils;
+import brooklyn.util.collections.MutableMap;
+import brooklyn.util.collections.TimestampedDoubleBuffer;
 import brooklyn.util.text.Strings;
 
 import com.google.common.base.Function;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -81,6 +87,41 @@ public class SensorResource extends AbstractBrooklynRestResource implements Sens
         return sensorMap;
     }
 
+    @Override
+    public Map<String, List<List<Object>>> history(String application, String entityToken, String sensors, Long from, Long to) {
+        final EntityLocal entity = brooklyn().getEntity(application, entityToken);
+        SensorHistoryRecorder recorder = null;
+        for (Enricher enricher : entity.getEnrichers()) {
+            if (enricher instanceof SensorHistoryRecorder) {
+                recorder = (SensorHistoryRecorder) enricher;
+                break;
+            }
+        }
+        if (recorder == null) {
+            throw WebResourceUtils.notFound("No sensor history is being recorded for entity '%s'", entityToken);
+        }
+
+        Iterable<String> sensorNames = Strings.isBlank(sensors) ? recorder.getRecordedSensors()
+                : Splitter.on(',').trimResults().omitEmptyStrings().split(sensors);
+        long start = (from == null) ? 0 : from;
+        long end = (to == null) ? System.currentTimeMillis() : to;
+        Map<String, List<List<Object>>> result = MutableMap.of();
+        for (String sensorName : sensorNames) {
+            TimestampedDoubleBuffer history = recorder.getHistory(sensorName, start, end);
+            if (history == null) {
+                throw WebResourceUtils.notFound("No history is being recorded for sensor '%s' on entity '%s'", sensorName, entityToken);
+            }
+            List<List<Object>> points = Lists.newArrayListWithCapacity(history.size());
+            for (int i = 0; i < history.size(); i++) {
+                double value = history.getValue(i);
+                // NaN (recorded for null) is not valid json
+                points.add(Arrays.<Object>asList(history.getTimestamp(i), Double.isNaN(value) ? null : value));
+            }
+            result.put(sensorName, points);
+        }
+        return result;
+    }
+
     protected Object get(boolean preferJson, String application, String entityToken, String sensorName, Boolean raw) {
         final EntityLocal entity = brooklyn().getEntity(application, entityToken);
         AttributeSensor<?> sensor = findSensor(entity, sensorName);
@@ -20,6 +20,7 @@ package brooklyn.rest.resources;
 
 import static org.testng.Assert.assertEquals;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.core.MediaType;
@@ -31,21 +32,25 @@ import org.testng.annotations.Test;
 
 import brooklyn.config.render.RendererHints;
 import brooklyn.config.render.TestRendererHints;
+import brooklyn.enricher.basic.SensorHistoryRecorder;
 import brooklyn.entity.basic.EntityInternal;
 import brooklyn.entity.basic.EntityPredicates;
 import brooklyn.event.AttributeSensor;
 import brooklyn.event.basic.Sensors;
+import brooklyn.policy.EnricherSpec;
 import brooklyn.rest.api.SensorApi;
 import brooklyn.rest.domain.ApplicationSpec;
 import brooklyn.rest.domain.EntitySpec;
 import brooklyn.rest.testing.BrooklynRestResourceTest;
 import brooklyn.rest.testing.mocks.RestMockSimpleEntity;
+import brooklyn.test.Asserts;
 import brooklyn.test.HttpTestUtils;
 import brooklyn.util.collections.MutableMap;
 import brooklyn.util.stream.Streams;
 import brooklyn.util.text.StringFunctions;
 
 import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.sun.jersey.api.client.ClientResponse;
@@ -269,4 +274,39 @@ public class SensorResourceTest extends BrooklynRestResourceTest {
         } finally { addAmphibianSensor(entity); }
     }
 
+    @Test
+    public void testHistory() throws Exception {
+        ClientResponse response = client().resource(SENSORS_ENDPOINT + "/history")
+                .accept(MediaType.APPLICATION_JSON)
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
+
+        AttributeSensor<Double> weight = Sensors.newDoubleSensor("amphibian.weight");
+        SensorHistoryRecorder recorder = entity.addEnricher(EnricherSpec.create(SensorHistoryRecorder.class)
+                .configure(SensorHistoryRecorder.SENSORS, ImmutableList.of(weight.getName())));
+        try {
+            entity.setAttribute(weight, 1.5);
+            entity.setAttribute(weight, 2.5);
+            Asserts.succeedsEventually(new Runnable() {
+                @Override public void run() {
+                    Map<String, List<List<Object>>> history = client().resource(SENSORS_ENDPOINT + "/history")
+                            .queryParam("sensors", "amphibian.weight")
+                            .accept(MediaType.APPLICATION_JSON)
+                            .get(new GenericType<Map<String, List<List<Object>>>>() {});
+                    List<List<Object>> points = history.get("amphibian.weight");
+                    assertEquals(points.size(), 2, "points="+points);
+                    assertEquals(((Number)points.get(0).get(1)).doubleValue(), 1.5);
+                    assertEquals(((Number)points.get(1).get(1)).doubleValue(), 2.5);
+                }});
+
+            response = client().resource(SENSORS_ENDPOINT + "/history")
+                    .queryParam("sensors", SENSOR_NAME)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .get(ClientResponse.class);
+            assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
+        } finally {
+            entity.removeEnricher(recorder);
+        }
+    }
+
 }
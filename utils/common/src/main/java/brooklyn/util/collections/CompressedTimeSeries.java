@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.collections;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A series of timestamped numeric values, compressed in blocks of a fixed number of points.
+ * Timestamps are stored as delta-of-deltas and values as the XOR with the previous value
+ * (as described for Facebook's Gorilla time series database), so regular samples of slowly
+ * changing values take a few bits per point.
+ * <p>
+ * Points must be added in time order. The oldest block can be removed (e.g. to bound memory,
+ * or to downsample it elsewhere); see {@link DownsamplingTimeSeries}.
+ * <p>
+ * Not thread-safe.
+ */
+@Beta
+public class CompressedTimeSeries {
+
+    private final int pointsPerBlock;
+    private final Deque<Block> closedBlocks = new ArrayDeque<Block>();
+    private Block openBlock;
+    private int size;
+
+    public CompressedTimeSeries(int pointsPerBlock) {
+        if (pointsPerBlock < 1) throw new IllegalArgumentException("Points per block must be positive, but was "+pointsPerBlock);
+        this.pointsPerBlock = pointsPerBlock;
+    }
+
+    /**
+     * Adds the point, unless it is earlier than the latest point (in which case it is ignored).
+     * @return whether the point was added
+     */
+    public boolean add(long timestamp, double value) {
+        if (openBlock != null) {
+            if (timestamp < openBlock.lastTimestamp) return false;
+            if (openBlock.count >= pointsPerBlock) {
+                openBlock.close();
+                closedBlocks.addLast(openBlock);
+                openBlock = null;
+            }
+        } else if (!closedBlocks.isEmpty() && timestamp < closedBlocks.getLast().lastTimestamp) {
+            return false;
+        }
+        if (openBlock == null) openBlock = new Block();
+        openBlock.append(timestamp, value);
+        size++;
+        return true;
+    }
+
+    /** the number of points */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** the number of blocks, including any block still being filled */
+    public int getNumBlocks() {
+        return closedBlocks.size() + (openBlock != null ? 1 : 0);
+    }
+
+    /** the timestamp of the oldest point */
+    public long getEarliestTimestamp() {
+        if (!closedBlocks.isEmpty()) return closedBlocks.getFirst().firstTimestamp;
+        if (openBlock != null) return openBlock.firstTimestamp;
+        throw new NoSuchElementException();
+    }
+
+    /** approximate number of bytes used for the encoded points */
+    public long getEncodedBytes() {
+        long result = 0;
+        for (Block block : closedBlocks) result += block.words.length * 8;
+        if (openBlock != null) result += openBlock.words.length * 8;
+        return result;
+    }
+
+    /** removes the oldest block, returning its points */
+    public TimestampedDoubleBuffer removeOldestBlock() {
+        Block block;
+        if (!closedBlocks.isEmpty()) {
+            block = closedBlocks.removeFirst();
+        } else if (openBlock != null) {
+            block = openBlock;
+            openBlock = null;
+        } else {
+            throw new NoSuchElementException();
+        }
+        size -= block.count;
+        TimestampedDoubleBuffer result = new TimestampedDoubleBuffer(block.count);
+        block.decode(Long.MIN_VALUE, Long.MAX_VALUE, result);
+        return result;
+    }
+
+    /** appends the points with timestamps from {@code from} to {@code to} (inclusive) to the result, in time order */
+    public void getPoints(long from, long to, TimestampedDoubleBuffer result) {
+        for (Block block : closedBlocks) {
+            if (block.lastTimestamp >= from && block.firstTimestamp <= to) block.decode(from, to, result);
+        }
+        if (openBlock != null && openBlock.lastTimestamp >= from && openBlock.firstTimestamp <= to) {
+            openBlock.decode(from, to, result);
+        }
+    }
+
+    private static class Block {
+        private long[] words = new long[4];
+        private int bits;
+        private int count;
+        private long firstTimestamp;
+        private long lastTimestamp;
+
+        // encoder state; not needed once closed
+        private long prevDelta;
+        private long prevValueBits;
+        private int prevLeading = -1;
+        private int prevTrailing;
+
+        void append(long timestamp, double value) {
+            long valueBits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                write(timestamp, 64);
+                write(valueBits, 64);
+            } else {
+                long delta = timestamp - lastTimestamp;
+                writeDeltaOfDelta(delta - prevDelta);
+                prevDelta = delta;
+                writeXor(valueBits ^ prevValueBits);
+            }
+            lastTimestamp = timestamp;
+            prevValueBits = valueBits;
+            count++;
+        }
+
+        void close() {
+            words = Arrays.copyOf(words, (bits + 63) >>> 6);
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                write(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                write(0x2, 2);
+                write(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                write(0x6, 3);
+                write(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                write(0xE, 4);
+                write(dod + 2047, 12);
+            } else {
+                write(0xF, 4);
+                write(dod, 64);
+            }
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                write(0, 1);
+                return;
+            }
+            write(1, 1);
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                // meaningful bits fit in the previous window
+                write(0, 1);
+                write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                write(1, 1);
+                write(leading, 5);
+                write(length - 1, 6);
+                write(xor >>> trailing, length);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+
+        /** writes the low n bits of the value, most significant first */
+        private void write(long value, int n) {
+            int needed = (bits + n + 63) >>> 6;
+            if (needed > words.length) words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+            long v = (n == 64) ? value : (value & ((1L << n) - 1));
+            int wordIndex = bits >>> 6;
+            int free = 64 - (bits & 63);
+            if (n <= free) {
+                words[wordIndex] |= v << (free - n);
+            } else {
+                int overflow = n - free;
+                words[wordIndex] |= v >>> overflow;
+                words[wordIndex + 1] |= v << (64 - overflow);
+            }
+            bits += n;
+        }
+
+        void decode(long from, long to, TimestampedDoubleBuffer result) {
+            Reader reader = new Reader(words);
+            long timestamp = reader.read(64);
+            long valueBits = reader.read(64);
+            long delta = 0;
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    delta += reader.readDeltaOfDelta();
+                    timestamp += delta;
+                    if (reader.read(1) != 0) {
+                        if (reader.read(1) != 0) {
+                            leading = (int) reader.read(5);
+                            int length = (int) reader.read(6) + 1;
+                            trailing = 64 - leading - length;
+                        }
+                        valueBits ^= reader.read(64 - leading - trailing) << trailing;
+                    }
+                }
+                if (timestamp > to) break;
+                if (timestamp >= from) result.add(timestamp, Double.longBitsToDouble(valueBits));
+            }
+        }
+    }
+
+    private static class Reader {
+        private final long[] words;
+        private int position;
+
+        Reader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int n) {
+            int wordIndex = position >>> 6;
+            int available = 64 - (position & 63);
+            long result;
+            if (n <= available) {
+                result = words[wordIndex] >>> (available - n);
+                if (n < 64) result &= (1L << n) - 1;
+            } else {
+                int overflow = n - available;
+                long high = words[wordIndex] & ((1L << available) - 1);
+                result = (high << overflow) | (words[wordIndex + 1] >>> (64 - overflow));
+            }
+            position += n;
+            return result;
+        }
+
+        long readDeltaOfDelta() {
+            if (read(1) == 0) return 0;
+            if (read(1) == 0) return read(7) - 63;
+            if (read(1) == 0) return read(9) - 255;
+            if (read(1) == 0) return read(12) - 2047;
+            return read(64);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.collections;
+
+import java.util.List;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A time series with bounded memory: recent points are kept at full resolution, and older points
+ * are replaced by the mean over successively coarser intervals.
+ * <p>
+ * Each tier is a {@link CompressedTimeSeries} holding at most {@code maxBlocksPerTier} blocks.
+ * Tier 0 holds the points as added; tier {@code n} holds one point per interval of {@code resolutions[n-1]}
+ * milliseconds (timestamped at the start of the interval), being the mean of the non-NaN values evicted
+ * from the tier before it in that interval. Points evicted from the last tier are discarded.
+ * <p>
+ * Not thread-safe.
+ */
+@Beta
+public class DownsamplingTimeSeries {
+
+    private final int maxBlocksPerTier;
+    private final List<Long> resolutions;
+    private final CompressedTimeSeries[] tiers;
+    // interval currently being averaged for each downsampled tier (index 0 unused)
+    private final long[] pendingBucket;
+    private final double[] pendingSum;
+    private final int[] pendingCount;
+
+    /**
+     * @param pointsPerBlock    number of points compressed together in each block
+     * @param maxBlocksPerTier  number of blocks kept in each tier before the oldest is downsampled
+     * @param resolutions       interval (in milliseconds) of each downsampled tier, in increasing order
+     */
+    public DownsamplingTimeSeries(int pointsPerBlock, int maxBlocksPerTier, List<Long> resolutions) {
+        if (maxBlocksPerTier < 1) throw new IllegalArgumentException("Max blocks per tier must be positive, but was "+maxBlocksPerTier);
+        long previous = 0;
+        for (Long resolution : resolutions) {
+            if (resolution <= previous) throw new IllegalArgumentException("Resolutions must be positive and increasing: "+resolutions);
+            previous = resolution;
+        }
+        this.maxBlocksPerTier = maxBlocksPerTier;
+        this.resolutions = ImmutableList.copyOf(resolutions);
+        int numTiers = resolutions.size() + 1;
+        tiers = new CompressedTimeSeries[numTiers];
+        for (int i = 0; i < numTiers; i++) {
+            tiers[i] = new CompressedTimeSeries(pointsPerBlock);
+        }
+        pendingBucket = new long[numTiers];
+        pendingSum = new double[numTiers];
+        pendingCount = new int[numTiers];
+    }
+
+    /**
+     * Adds the point, unless it is earlier than the latest point.
+     * @return whether the point was added
+     */
+    public boolean add(long timestamp, double value) {
+        if (!tiers[0].add(timestamp, value)) return false;
+        if (tiers[0].getNumBlocks() > maxBlocksPerTier) evictOldestBlock(0);
+        return true;
+    }
+
+    /** the number of points held, at all resolutions (excluding intervals still being averaged) */
+    public int size() {
+        int result = 0;
+        for (CompressedTimeSeries tier : tiers) result += tier.size();
+        return result;
+    }
+
+    /** approximate number of bytes used for the encoded points */
+    public long getEncodedBytes() {
+        long result = 0;
+        for (CompressedTimeSeries tier : tiers) result += tier.getEncodedBytes();
+        return result;
+    }
+
+    /**
+     * Returns the points with timestamps from {@code from} to {@code to} (inclusive), in time order,
+     * using the finest resolution held for each part of the range.
+     */
+    public TimestampedDoubleBuffer getPoints(long from, long to) {
+        TimestampedDoubleBuffer result = new TimestampedDoubleBuffer();
+        for (int i = tiers.length - 1; i >= 0; i--) {
+            // only up to where the next finer resolution (including any interval being averaged for it) starts
+            long cutoff = earliestTimestampFinerThan(i);
+            long tierTo = Math.min(to, cutoff - 1);
+            if (tierTo < from) continue;
+            tiers[i].getPoints(from, tierTo, result);
+            if (i > 0 && pendingCount[i] > 0 && pendingBucket[i] >= from && pendingBucket[i] <= tierTo) {
+                result.add(pendingBucket[i], pendingSum[i] / pendingCount[i]);
+            }
+        }
+        return result;
+    }
+
+    private long earliestTimestampFinerThan(int tier) {
+        // within a tier, the interval being averaged comes after the points already held
+        for (int i = tier - 1; i >= 0; i--) {
+            if (!tiers[i].isEmpty()) return tiers[i].getEarliestTimestamp();
+            if (i > 0 && pendingCount[i] > 0) return pendingBucket[i];
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void evictOldestBlock(int tier) {
+        TimestampedDoubleBuffer evicted = tiers[tier].removeOldestBlock();
+        int next = tier + 1;
+        if (next >= tiers.length) return;
+        long resolution = resolutions.get(tier);
+        for (int i = 0; i < evicted.size(); i++) {
+            double value = evicted.getValue(i);
+            if (Double.isNaN(value)) continue;
+            long bucket = evicted.getTimestamp(i) - (evicted.getTimestamp(i) % resolution);
+            if (pendingCount[next] > 0 && bucket != pendingBucket[next]) flushPending(next);
+            pendingBucket[next] = bucket;
+            pendingSum[next] += value;
+            pendingCount[next]++;
+        }
+    }
+
+    private void flushPending(int tier) {
+        tiers[tier].add(pendingBucket[tier], pendingSum[tier] / pendingCount[tier]);
+        pendingSum[tier] = 0;
+        pendingCount[tier] = 0;
+        if (tiers[tier].getNumBlocks() > maxBlocksPerTier) evictOldestBlock(tier);
+    }
+}
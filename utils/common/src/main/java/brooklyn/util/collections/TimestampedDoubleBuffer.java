@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.collections;
+
+import java.util.NoSuchElementException;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A series of timestamped numeric values, oldest first, held in primitive arrays used as a circular buffer.
+ * Appending and removing the oldest value are O(1), and do not allocate once the buffer has grown to the
+ * number of values it needs to hold (the capacity doubles when full). A running sum of the values is kept.
+ * <p>
+ * A missing (null) value can be recorded as {@link Double#NaN}; such values are excluded from the sum and count.
+ * <p>
+ * Not thread-safe; callers must synchronize if used from multiple threads.
+ *
+ * @see TimeWindowedList for a list of arbitrary values
+ */
+@Beta
+public class TimestampedDoubleBuffer {
+
+    private long[] timestamps;
+    private double[] values;
+    /** index of the oldest value */
+    private int head;
+    private int size;
+    private double sum;
+    private int count;
+
+    public TimestampedDoubleBuffer() {
+        this(16);
+    }
+
+    public TimestampedDoubleBuffer(int initialCapacity) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("Capacity must be positive, but was "+initialCapacity);
+        timestamps = new long[initialCapacity];
+        values = new double[initialCapacity];
+    }
+
+    public void add(long timestamp, double value) {
+        if (size == values.length) grow();
+        int i = (head + size) % values.length;
+        timestamps[i] = timestamp;
+        values[i] = value;
+        size++;
+        if (!Double.isNaN(value)) {
+            sum += value;
+            count++;
+        }
+    }
+
+    /** as {@link #add(long, double)}, recording null as {@link Double#NaN} */
+    public void add(long timestamp, Number value) {
+        add(timestamp, (value == null) ? Double.NaN : value.doubleValue());
+    }
+
+    public void removeFirst() {
+        if (size == 0) throw new NoSuchElementException();
+        double value = values[head];
+        if (!Double.isNaN(value)) {
+            sum -= value;
+            count--;
+        }
+        head = (head + 1) % values.length;
+        size--;
+        if (count == 0) {
+            // reset, so no error accumulates from repeated add and remove
+            sum = 0;
+        }
+    }
+
+    /**
+     * Removes the oldest values while the one after it is older than the given time,
+     * i.e. keeping at most one value from before that time (to mark the start of the window).
+     */
+    public void removeBefore(long startTime) {
+        while (size > 1 && getTimestamp(1) < startTime) {
+            removeFirst();
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        sum = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @param index 0 for the oldest value, up to {@link #size()}-1 for the most recent */
+    public long getTimestamp(int index) {
+        return timestamps[toArrayIndex(index)];
+    }
+
+    /** @param index 0 for the oldest value, up to {@link #size()}-1 for the most recent */
+    public double getValue(int index) {
+        return values[toArrayIndex(index)];
+    }
+
+    /** the sum of the values which are not {@link Double#NaN} */
+    public double getSum() {
+        return sum;
+    }
+
+    /** the number of values which are not {@link Double#NaN} */
+    public int getCount() {
+        return count;
+    }
+
+    /** the mean of the values which are not {@link Double#NaN}, or NaN if there are none */
+    public double getMean() {
+        return (count == 0) ? Double.NaN : sum / count;
+    }
+
+    private int toArrayIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index "+index+", size "+size);
+        return (head + index) % values.length;
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        long[] newTimestamps = new long[capacity];
+        double[] newValues = new double[capacity];
+        for (int i = 0; i < size; i++) {
+            int j = (head + i) % values.length;
+            newTimestamps[i] = timestamps[j];
+            newValues[i] = values[j];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) result.append(", ");
+            result.append(getValue(i)).append("@").append(getTimestamp(i));
+        }
+        return result.append("]").toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class CompressedTimeSeriesTest {
+
+    @Test
+    public void testRoundTripsIrregularValues() {
+        Random random = new Random(1234);
+        CompressedTimeSeries series = new CompressedTimeSeries(50);
+        long[] timestamps = new long[1000];
+        double[] values = new double[1000];
+        long time = 1400000000000L;
+        for (int i = 0; i < timestamps.length; i++) {
+            // mostly regular, with occasional jitter and large gaps
+            time += 1000 + (i % 7 == 0 ? random.nextInt(300) - 150 : 0) + (i % 101 == 0 ? 1000000000L : 0);
+            timestamps[i] = time;
+            values[i] = (i % 13 == 0) ? Double.NaN : (i % 3 == 0) ? values[Math.max(0, i-1)] : random.nextGaussian() * Math.pow(10, i % 9);
+            assertTrue(series.add(timestamps[i], values[i]));
+        }
+        assertEquals(series.size(), 1000);
+        assertEquals(series.getNumBlocks(), 20);
+
+        TimestampedDoubleBuffer points = new TimestampedDoubleBuffer();
+        series.getPoints(Long.MIN_VALUE, Long.MAX_VALUE, points);
+        assertEquals(points.size(), 1000);
+        for (int i = 0; i < timestamps.length; i++) {
+            assertEquals(points.getTimestamp(i), timestamps[i]);
+            assertEquals(Double.doubleToLongBits(points.getValue(i)), Double.doubleToLongBits(values[i]), "index "+i);
+        }
+    }
+
+    @Test
+    public void testRegularSamplesCompressWell() {
+        CompressedTimeSeries series = new CompressedTimeSeries(120);
+        for (int i = 0; i < 1200; i++) {
+            series.add(i * 1000L, (i / 100) * 1.0);
+        }
+        // about 2 bits per point after the first of each block, versus 16 bytes uncompressed
+        assertTrue(series.getEncodedBytes() < 1200, "bytes="+series.getEncodedBytes());
+    }
+
+    @Test
+    public void testRangeQueryAndRemoveOldestBlock() {
+        CompressedTimeSeries series = new CompressedTimeSeries(10);
+        for (int i = 0; i < 25; i++) {
+            series.add(i * 10L, i);
+        }
+        assertFalse(series.add(5L, 0));
+
+        TimestampedDoubleBuffer points = new TimestampedDoubleBuffer();
+        series.getPoints(95L, 120L, points);
+        assertEquals(points.size(), 3);
+        assertEquals(points.getTimestamp(0), 100L);
+        assertEquals(points.getValue(2), 12d);
+
+        TimestampedDoubleBuffer removed = series.removeOldestBlock();
+        assertEquals(removed.size(), 10);
+        assertEquals(removed.getSum(), 45d);
+        assertEquals(series.size(), 15);
+        assertEquals(series.getEarliestTimestamp(), 100L);
+    }
+
+    @Test
+    public void testDownsamplesOldValues() {
+        // 10 raw points per block, 2 blocks per tier; then means per 100ms and per 1000ms
+        DownsamplingTimeSeries series = new DownsamplingTimeSeries(10, 2, ImmutableList.of(100L, 1000L));
+        for (int i = 0; i < 1000; i++) {
+            series.add(i * 10L, i % 10);
+        }
+        // bounded by tiers of 2 blocks, plus a block being filled in each
+        assertTrue(series.size() <= 3*3*10, "size="+series.size());
+
+        TimestampedDoubleBuffer points = series.getPoints(0, Long.MAX_VALUE);
+        for (int i = 1; i < points.size(); i++) {
+            assertTrue(points.getTimestamp(i) > points.getTimestamp(i-1), "points="+points);
+        }
+        // most recent values at full resolution
+        assertEquals(points.getTimestamp(points.size()-1), 9990L);
+        assertEquals(points.getValue(points.size()-1), 9d);
+        // older values are means over the intervals
+        assertEquals(points.getTimestamp(0) % 1000, 0);
+        assertEquals(points.getValue(0), 4.5d);
+    }
+}
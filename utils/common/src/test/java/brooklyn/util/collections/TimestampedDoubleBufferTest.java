@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package brooklyn.util.collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class TimestampedDoubleBufferTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimestampedDoubleBufferTest.class);
+
+    @Test
+    public void testAddAndRemoveAcrossWrapAndGrow() {
+        TimestampedDoubleBuffer buffer = new TimestampedDoubleBuffer(2);
+        buffer.add(1L, 10d);
+        buffer.add(2L, 20d);
+        buffer.removeFirst();
+        buffer.add(3L, 30d);
+        // wrapped around; now grows
+        buffer.add(4L, 40d);
+
+        assertEquals(buffer.size(), 3);
+        assertEquals(buffer.getTimestamp(0), 2L);
+        assertEquals(buffer.getValue(0), 20d);
+        assertEquals(buffer.getTimestamp(2), 4L);
+        assertEquals(buffer.getValue(2), 40d);
+        assertEquals(buffer.getSum(), 90d);
+        assertEquals(buffer.getMean(), 30d);
+    }
+
+    @Test
+    public void testNullsExcludedFromSum() {
+        TimestampedDoubleBuffer buffer = new TimestampedDoubleBuffer();
+        buffer.add(1L, 10);
+        buffer.add(2L, (Number)null);
+
+        assertEquals(buffer.size(), 2);
+        assertTrue(Double.isNaN(buffer.getValue(1)));
+        assertEquals(buffer.getCount(), 1);
+        assertEquals(buffer.getSum(), 10d);
+    }
+
+    @Test
+    public void testRemoveBeforeKeepsOneOlderValue() {
+        TimestampedDoubleBuffer buffer = new TimestampedDoubleBuffer();
+        buffer.add(0L, 1d);
+        buffer.add(100L, 2d);
+        buffer.add(200L, 3d);
+
+        buffer.removeBefore(150L);
+        assertEquals(buffer.size(), 2);
+        assertEquals(buffer.getTimestamp(0), 100L);
+
+        buffer.removeBefore(1000L);
+        assertEquals(buffer.size(), 1);
+        assertEquals(buffer.getValue(0), 3d);
+        assertEquals(buffer.getSum(), 3d);
+    }
+
+    @Test(groups="Integration")
+    public void testNoAllocationPerSample() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) throw new SkipException("Cannot measure allocation on this JVM");
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        int numSamples = 1000*1000;
+        int window = 100;
+
+        TimestampedDoubleBuffer buffer = new TimestampedDoubleBuffer(window);
+        LinkedList<Long> timestamps = new LinkedList<Long>();
+        LinkedList<Double> values = new LinkedList<Double>();
+
+        // warm up (and let the buffer reach its capacity)
+        for (int i = 0; i < numSamples; i++) {
+            addToBuffer(buffer, i, window);
+            addToLists(timestamps, values, i, window);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < numSamples; i++) {
+            addToBuffer(buffer, i, window);
+        }
+        long bufferBytes = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < numSamples; i++) {
+            addToLists(timestamps, values, i, window);
+        }
+        long listBytes = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        LOG.info("Allocation per sample in a window of "+window+": buffer="+((double)bufferBytes/numSamples)+" bytes; "
+                + "linked lists="+((double)listBytes/numSamples)+" bytes");
+        // allow for some allocation by the measurement itself
+        assertTrue(bufferBytes < numSamples/100, "buffer allocated "+bufferBytes+" bytes for "+numSamples+" samples");
+    }
+
+    private void addToBuffer(TimestampedDoubleBuffer buffer, long time, int window) {
+        buffer.add(time, (double)time);
+        buffer.removeBefore(time - window);
+    }
+
+    private void addToLists(LinkedList<Long> timestamps, LinkedList<Double> values, long time, int window) {
+        timestamps.addLast(time);
+        values.addLast((double)time);
+        while (timestamps.size() > 1 && timestamps.get(1) < time - window) {
+            timestamps.removeFirst();
+            values.removeFirst();
+        }
+    }
+}